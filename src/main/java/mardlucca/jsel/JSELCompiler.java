@@ -20,12 +20,14 @@ package mardlucca.jsel;
 import mardlucca.jsel.expr.AccessExpression;
 import mardlucca.jsel.expr.AndOperatorExpression;
 import mardlucca.jsel.expr.ArrayExpression;
+import mardlucca.jsel.expr.ArrayPipelineExpression;
 import mardlucca.jsel.expr.BitwiseAndOperatorExpression;
 import mardlucca.jsel.expr.BitwiseNotExpression;
 import mardlucca.jsel.expr.BitwiseOrOperatorExpression;
 import mardlucca.jsel.expr.ConditionalOperatorExpression;
 import mardlucca.jsel.expr.DivisionOperatorExpression;
 import mardlucca.jsel.expr.EqualsExpression;
+import mardlucca.jsel.expr.ExpressionInterner;
 import mardlucca.jsel.expr.FunctionCallExpression;
 import mardlucca.jsel.expr.GreaterThanExpreassion;
 import mardlucca.jsel.expr.GreaterThanOrEqualToExpreassion;
@@ -37,6 +39,7 @@ import mardlucca.jsel.expr.LessThanExpreassion;
 import mardlucca.jsel.expr.LessThanOrEqualToExpreassion;
 import mardlucca.jsel.expr.LiteralExpression;
 import mardlucca.jsel.expr.LiteralSupplierExpression;
+import mardlucca.jsel.expr.MembershipExpression;
 import mardlucca.jsel.expr.ModulusOperatorExpression;
 import mardlucca.jsel.expr.MultiplicationOperatorExpression;
 import mardlucca.jsel.expr.NegationExpression;
@@ -100,6 +103,35 @@ public class JSELCompiler {
         return (JSELExpression) lResult.getValue();
     }
 
+    /**
+     * Compiles an expression and interns it, so it shares all its
+     * structurally identical sub-trees with the other expressions interned
+     * with the same interner (see {@link ExpressionInterner}).
+     * @param aInString the source code
+     * @param aInInterner the interner
+     * @return the canonical expression
+     */
+    public JSELExpression compile(String aInString,
+            ExpressionInterner aInInterner)
+            throws IOException, UnrecognizedCharacterSequenceException,
+                   JSELCompilationException {
+        return compile(new StringReader(aInString), aInInterner);
+    }
+
+    /**
+     * Compiles an expression and interns it (see {@link
+     * #compile(String, ExpressionInterner)}).
+     * @param aInReader the source code
+     * @param aInInterner the interner
+     * @return the canonical expression
+     */
+    public JSELExpression compile(Reader aInReader,
+            ExpressionInterner aInInterner)
+            throws IOException, UnrecognizedCharacterSequenceException,
+                   JSELCompilationException {
+        return aInInterner.intern(compile(aInReader));
+    }
+
     private Parser getParser() {
         // Because all state on a JSEL parser is stored in the ParseInvocation
         // it means the parser is thread safe so it can be cached
@@ -164,9 +196,9 @@ public class JSELCompiler {
                         // E -> LO
 
                 .onReduce("LO -> LO || LA", (aInProduction, aInValues) ->
-                        new OrOperatorExpression(
+                        MembershipExpression.rewrite(new OrOperatorExpression(
                                 (JSELExpression) aInValues[0],
-                                (JSELExpression) aInValues[2]))
+                                (JSELExpression) aInValues[2])))
                         // LO -> LA
 
                 .onReduce("LA -> LA && BO", (aInProduction, aInValues) ->
@@ -291,13 +323,16 @@ public class JSELCompiler {
                         // UNR -> NEW
 
                 .onReduce("CALL -> AC ( ARGS )", (aInProduction, aInValues) ->
-                        new FunctionCallExpression(
-                                (JSELExpression) aInValues[0],
-                                (List<JSELExpression>) aInValues[2]))
+                        MembershipExpression.rewrite(
+                                ArrayPipelineExpression.fuse(
+                                        new FunctionCallExpression(
+                                                (JSELExpression) aInValues[0],
+                                                (List<JSELExpression>)
+                                                        aInValues[2]))))
                 .onReduce("CALL -> CALL ( ARGS )", (aInProduction, aInValues) ->
-                        new FunctionCallExpression(
+                        ArrayPipelineExpression.fuse(new FunctionCallExpression(
                                 (JSELExpression) aInValues[0],
-                                (List<JSELExpression>) aInValues[2]))
+                                (List<JSELExpression>) aInValues[2])))
                 .onReduce("CALL -> CALL [ E ]", (aInProduction, aInValues) ->
                         new AccessExpression(
                                 (JSELExpression) aInValues[2],
@@ -345,8 +380,10 @@ public class JSELCompiler {
                     String[] lValue = (String[])
                             ((Token<?,?>)aInValues[0]).getValue();
                     try {
-                        return new LiteralSupplierExpression(()->
-                                new JSELRegExp(lValue[0], lValue[1]));
+                        // compiled once, here, rather than at every evaluation
+                        return new LiteralSupplierExpression(
+                                JSELRegExp.literal(lValue[0], lValue[1]),
+                                "/" + lValue[0] + "/" + lValue[1]);
                     }
                     catch (JSELRuntimeException e) {
                         throw new ParsingException(e.getMessage());
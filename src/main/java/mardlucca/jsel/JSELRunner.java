@@ -19,15 +19,27 @@ package mardlucca.jsel;
 
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.expr.JSELExpression;
+import mardlucca.jsel.expr.PartialEvaluator;
+import mardlucca.jsel.expr.StackEvaluator;
+import mardlucca.jsel.rules.RuleSet;
 import mardlucca.jsel.type.JSELObject;
+import mardlucca.jsel.type.JSELRegExp;
 import mardlucca.jsel.type.JSELValue;
 import mardlucca.jsel.type.Type;
 import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static mardlucca.jsel.JSELRuntimeException.rangeError;
 
 public class JSELRunner {
     private ExecutionContext executionContext = new ExecutionContext();
+    private Set<String> bindings = new LinkedHashSet<>();
 
     public void bind(JSELExpression aInExpression) {
         JSELValue lValue = execute(aInExpression);
@@ -35,6 +47,7 @@ public class JSELRunner {
             JSELObject lObject = lValue.toObject();
             for (String lProperty : lObject.getOwnPropertyNames()) {
                 executionContext.bind(lProperty, lObject.getOwn(lProperty));
+                bindings.add(lProperty);
             }
         }
     }
@@ -48,12 +61,110 @@ public class JSELRunner {
     public void define(String aInProperty, JSELExpression aInExpression) {
         JSELValue lValue = execute(aInExpression);
         executionContext.bind(aInProperty, lValue);
+        bindings.add(aInProperty);
+    }
+
+    /**
+     * Freezes all bindings defined so far with {@link #bind(JSELExpression)}
+     * and {@link #define(String, JSELExpression)}. Frozen bindings cannot be
+     * redefined and the objects they refer to (as well as all objects
+     * reachable through their properties) are frozen as well, so they can be
+     * inlined by {@link #specialize(JSELExpression)}. Bindings defined after
+     * this call (e.g. per-request inputs) are not affected.
+     */
+    public void freeze() {
+        Set<JSELObject> lFrozen =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+        JSELObject lGlobalObject = executionContext.getGlobalObject();
+        for (String lBinding : bindings) {
+            lGlobalObject.defineOwnProperty(
+                    lBinding, null, null, false, false, true);
+            freeze(lGlobalObject.getOwn(lBinding), lFrozen);
+        }
+        bindings.clear();
+    }
+
+    private static void freeze(JSELValue aInValue, Set<JSELObject> aInFrozen) {
+        if (aInValue.getType() != Type.OBJECT
+                || !aInFrozen.add(aInValue.toObject())) {
+            return;
+        }
+
+        JSELObject lObject = aInValue.toObject();
+        for (String lName : lObject.getOwnPropertyNames()) {
+            lObject.defineOwnProperty(lName, null, null, false, false, true);
+            freeze(lObject.getOwn(lName), aInFrozen);
+        }
+        lObject.setExtensible(false);
+    }
+
+    /**
+     * Partially evaluates an expression against the frozen bindings of this
+     * runner (see {@link #freeze()}). The residual expression only depends
+     * on bindings that were not frozen and evaluates to the same values as the
+     * original one when executed by this runner.
+     * @param aInExpression the expression to specialize
+     * @return the residual expression
+     */
+    public JSELExpression specialize(JSELExpression aInExpression) {
+        executionContext.setAsThreadContext();
+        try {
+            return new PartialEvaluator(executionContext)
+                    .specialize(aInExpression);
+        }
+        finally {
+            ExecutionContext.clearThreadContext();
+        }
+    }
+
+    /**
+     * Selects the regular expression engine used by expressions executed by
+     * this runner. {@link JSELRegExp.Engine#LINEAR} should be used when
+     * running untrusted expressions, as it is not subject to catastrophic
+     * backtracking.
+     * @param aInEngine the engine
+     */
+    public void setRegExpEngine(JSELRegExp.Engine aInEngine) {
+        executionContext.setRegExpEngine(aInEngine);
+    }
+
+    /**
+     * Makes this runner evaluate expressions with a heap allocated stack
+     * rather than recursively on the calling thread's stack (see {@link
+     * StackEvaluator}). This bounds how much of the thread's stack deeply
+     * nested expressions and recursive functions use. Evaluation fails with a
+     * RangeError when it needs more than the given number of frames.
+     * @param aInMaxStackDepth the maximum number of frames or 0 to evaluate
+     *                         expressions recursively, which is the default.
+     */
+    public void setMaxStackDepth(int aInMaxStackDepth) {
+        executionContext.setMaxStackDepth(aInMaxStackDepth);
     }
 
     public JSELValue execute(JSELExpression aInExpression) {
         executionContext.setAsThreadContext();
         try {
-            return aInExpression.execute(executionContext);
+            return StackEvaluator.evaluate(aInExpression, executionContext);
+        }
+        catch (StackOverflowError e) {
+            // the thread's stack is not enough for the expression, which
+            // should not take down the thread
+            throw rangeError("Maximum call stack size exceeded");
+        }
+        finally {
+            ExecutionContext.clearThreadContext();
+        }
+    }
+
+    /**
+     * Evaluates all rules in a rule set against this runner's context.
+     * @param aInRuleSet the rule set
+     * @return the value of each rule
+     */
+    public List<JSELValue> execute(RuleSet aInRuleSet) {
+        executionContext.setAsThreadContext();
+        try {
+            return aInRuleSet.evaluate(executionContext);
         }
         finally {
             ExecutionContext.clearThreadContext();
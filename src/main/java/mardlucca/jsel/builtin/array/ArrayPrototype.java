@@ -85,7 +85,7 @@ public class ArrayPrototype extends JSELArray {
                 new SomeFunction(),
                 false, true, true);
         defineOwnProperty(ForEachFunction.NAME,
-                new EveryFunction(),
+                new ForEachFunction(),
                 false, true, true);
         defineOwnProperty(MapFunction.NAME,
                 new MapFunction(),
@@ -99,5 +99,14 @@ public class ArrayPrototype extends JSELArray {
         defineOwnProperty(ReduceRightFunction.NAME,
                 new ReduceRightFunction(),
                 false, true, true);
+        defineOwnProperty(ParallelMapFunction.NAME,
+                new ParallelMapFunction(),
+                false, true, true);
+        defineOwnProperty(ParallelFilterFunction.NAME,
+                new ParallelFilterFunction(),
+                false, true, true);
+        defineOwnProperty(ParallelReduceFunction.NAME,
+                new ParallelReduceFunction(),
+                false, true, true);
     }
 }
@@ -39,16 +39,18 @@ public class ConcatFunction extends JSELFunction {
     @Override
     public JSELArray call(JSELValue aInThis, List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
-        List<JSELValue> lItems = new ArrayList<>();
+        List<JSELValue> lElements = new ArrayList<>(aInArguments.size() + 1);
+        lElements.add(aInThis.toObject());
+        lElements.addAll(aInArguments);
 
-        for (JSELValue lElement : aInArguments) {
+        List<JSELValue> lItems = new ArrayList<>();
+        for (JSELValue lElement : lElements) {
             if (lElement.isObjectClass(JSELArray.CLASS)) {
                 JSELObject lArray = lElement.toObject();
                 int lLength = lArray.get(JSELArray.LENGTH).toInteger();
                 for (int i = 0; i < lLength; i++) {
-                    String lStringIndex = String.valueOf(i);
-                    if (lArray.hasProperty(lStringIndex)) {
-                        lItems.add(lArray.get(lStringIndex));
+                    if (lArray.hasProperty(i)) {
+                        lItems.add(lArray.get(i));
                     }
                 }
             } else {
@@ -24,38 +24,50 @@ import mardlucca.jsel.type.*;
 import java.util.Collections;
 import java.util.List;
 
-import static java.util.Arrays.asList;
 import static mardlucca.jsel.JSELRuntimeException.typeError;
 
 public class ForEachFunction extends JSELFunction {
-    public static final String NAME = "foreach";
+    public static final String NAME = "forEach";
 
     public ForEachFunction() {
         super(NAME, Collections.singletonList("callbackfn"));
     }
 
     @Override
-    public JSELValue call(JSELValue aInThis,
-                          List<JSELValue> aInArguments,
+    public JSELValue call(JSELValue aInThis, List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
-        JSELValue lCallbackFn = getArgument(aInArguments);
+        return call2(aInThis, getArgument(aInArguments),
+                getArgument(aInArguments, 1), aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call1(JSELValue aInThis, JSELValue aInArgument0,
+                           ExecutionContext aInExecutionContext) {
+        return call2(aInThis, aInArgument0, JSELUndefined.getInstance(),
+                aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call2(JSELValue aInThis, JSELValue aInArgument0,
+                           JSELValue aInArgument1,
+                           ExecutionContext aInExecutionContext) {
+        JSELValue lCallbackFn = aInArgument0;
         if (!lCallbackFn.isCallable()) {
             throw typeError("'" + lCallbackFn + "' is not a function");
         }
         JSELObject lObject = aInThis.toObject();
         long lLength = lObject.get(JSELArray.LENGTH).toUInt32();
-        JSELValue lThisArg = getArgument(aInArguments, 1);
+        JSELValue lThisArg = aInArgument1;
 
         for (int i = 0; i < lLength; i++) {
-            String lStringIndex = String.valueOf(i);
-            if (!lObject.hasProperty(lStringIndex)) { continue; }
+            if (!lObject.hasProperty(i)) { continue; }
 
-            lCallbackFn.call(
+            lCallbackFn.call3(
                     lThisArg,
-                    asList(lObject.get(lStringIndex),
-                            new JSELNumber(i),
-                            lObject),
-                    aInExecutionContext).toBoolean();
+                    lObject.get(i),
+                    new JSELNumber(i),
+                    lObject,
+                    aInExecutionContext);
         }
         return JSELUndefined.getInstance();
     }
@@ -22,6 +22,7 @@ import mardlucca.jsel.type.JSELArray;
 import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNumber;
 import mardlucca.jsel.type.JSELObject;
+import mardlucca.jsel.type.JSELUndefined;
 import mardlucca.jsel.type.JSELValue;
 
 import java.util.Collections;
@@ -39,26 +40,40 @@ public class IndexOfFunction extends JSELFunction {
     @Override
     public JSELNumber call(JSELValue aInThisValue, List<JSELValue> aInArguments,
                            ExecutionContext aInExecutionContext) {
+        return call2(aInThisValue, getArgument(aInArguments),
+                getArgument(aInArguments, 1), aInExecutionContext);
+    }
+
+    @Override
+    public JSELNumber call1(JSELValue aInThisValue, JSELValue aInArgument0,
+                            ExecutionContext aInExecutionContext) {
+        return call2(aInThisValue, aInArgument0, JSELUndefined.getInstance(),
+                aInExecutionContext);
+    }
+
+    @Override
+    public JSELNumber call2(JSELValue aInThisValue, JSELValue aInArgument0,
+                            JSELValue aInArgument1,
+                            ExecutionContext aInExecutionContext) {
         JSELObject lThis = aInThisValue.toObject();
         int lLength = lThis.get(JSELArray.LENGTH).toInteger();
         if (lLength == 0) {
             return new JSELNumber(-1);
         }
 
-        int lFromIndexArg = getArgument(aInArguments, 1).toInteger();
+        int lFromIndexArg = aInArgument1.toInteger();
         if (lFromIndexArg >= lLength) {
             return new JSELNumber(-1);
         }
 
-        JSELValue lSearchElement = getArgument(aInArguments, 0);
+        JSELValue lSearchElement = aInArgument0;
         int lFromIndex = lFromIndexArg < 0
                 ? max(lLength + lFromIndexArg, 0)
                 : lFromIndexArg;
 
         for (int i = lFromIndex; i < lLength; i++) {
-            String lIndex = String.valueOf(i);
-            if (lThis.hasProperty(lIndex)) {
-                if (lSearchElement.strictEquals(lThis.get(lIndex))) {
+            if (lThis.hasProperty(i)) {
+                if (lSearchElement.strictEquals(lThis.get(i))) {
                     return new JSELNumber(i);
                 }
             }
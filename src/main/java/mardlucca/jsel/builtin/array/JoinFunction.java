@@ -40,8 +40,15 @@ public class JoinFunction extends JSELFunction {
     @Override
     public JSELString call(JSELValue aInThisValue, List<JSELValue> aInArguments,
                            ExecutionContext aInExecutionContext) {
+        return call1(aInThisValue, getArgument(aInArguments),
+                aInExecutionContext);
+    }
+
+    @Override
+    public JSELString call1(JSELValue aInThisValue, JSELValue aInArgument0,
+                            ExecutionContext aInExecutionContext) {
         JSELObject lThis = aInThisValue.toObject();
-        JSELValue lSeparatorArg = getArgument(aInArguments);
+        JSELValue lSeparatorArg = aInArgument0;
         String lSeparator = (lSeparatorArg.getType() == Type.UNDEFINED)
                 ? ","
                 : lSeparatorArg.toString();
@@ -53,7 +60,7 @@ public class JoinFunction extends JSELFunction {
             if (i > 0) {
                 lStringBuilder.append(lSeparator);
             }
-            JSELValue lValue = lThis.get(String.valueOf(i));
+            JSELValue lValue = lThis.get(i);
             if (lValue.getType() == Type.NULL
                     || lValue.getType() == Type.UNDEFINED) {
                 lStringBuilder.append("");
@@ -22,6 +22,7 @@ import mardlucca.jsel.type.JSELArray;
 import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNumber;
 import mardlucca.jsel.type.JSELObject;
+import mardlucca.jsel.type.JSELUndefined;
 import mardlucca.jsel.type.JSELValue;
 
 import java.util.Collections;
@@ -39,6 +40,21 @@ public class LastIndexOfFunction extends JSELFunction {
     @Override
     public JSELNumber call(JSELValue aInThisValue, List<JSELValue> aInArguments,
                            ExecutionContext aInExecutionContext) {
+        return call2(aInThisValue, getArgument(aInArguments),
+                getArgument(aInArguments, 1), aInExecutionContext);
+    }
+
+    @Override
+    public JSELNumber call1(JSELValue aInThisValue, JSELValue aInArgument0,
+                            ExecutionContext aInExecutionContext) {
+        return call2(aInThisValue, aInArgument0, JSELUndefined.getInstance(),
+                aInExecutionContext);
+    }
+
+    @Override
+    public JSELNumber call2(JSELValue aInThisValue, JSELValue aInArgument0,
+                            JSELValue aInArgument1,
+                            ExecutionContext aInExecutionContext) {
         JSELObject lThis = aInThisValue.toObject();
         int lLength = lThis.get(JSELArray.LENGTH).toInteger();
         if (lLength == 0) {
@@ -46,16 +62,15 @@ public class LastIndexOfFunction extends JSELFunction {
         }
 
 
-        int lFromIndexArg = getArgument(aInArguments, 1).toInteger();
+        int lFromIndexArg = aInArgument1.toInteger();
         int lFromIndex = lFromIndexArg < 0
                 ? max(lLength + lFromIndexArg, 0)
                 : lFromIndexArg;
 
-        JSELValue lSearchElement = getArgument(aInArguments, 0);
+        JSELValue lSearchElement = aInArgument0;
         for (int i = lFromIndex - 1; i >= 0; i--) {
-            String lIndex = String.valueOf(i);
-            if (lThis.hasProperty(lIndex)) {
-                if (lSearchElement.strictEquals(lThis.get(lIndex))) {
+            if (lThis.hasProperty(i)) {
+                if (lSearchElement.strictEquals(lThis.get(i))) {
                     return new JSELNumber(i);
                 }
             }
@@ -24,7 +24,6 @@ import mardlucca.jsel.type.*;
 import java.util.Collections;
 import java.util.List;
 
-import static java.util.Arrays.asList;
 import static mardlucca.jsel.JSELRuntimeException.typeError;
 
 public class MapFunction extends JSELFunction {
@@ -35,31 +34,44 @@ public class MapFunction extends JSELFunction {
     }
 
     @Override
-    public JSELValue call(JSELValue aInThis,
-                          List<JSELValue> aInArguments,
+    public JSELValue call(JSELValue aInThis, List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
-        JSELValue lCallbackFn = getArgument(aInArguments);
+        return call2(aInThis, getArgument(aInArguments),
+                getArgument(aInArguments, 1), aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call1(JSELValue aInThis, JSELValue aInArgument0,
+                           ExecutionContext aInExecutionContext) {
+        return call2(aInThis, aInArgument0, JSELUndefined.getInstance(),
+                aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call2(JSELValue aInThis, JSELValue aInArgument0,
+                           JSELValue aInArgument1,
+                           ExecutionContext aInExecutionContext) {
+        JSELValue lCallbackFn = aInArgument0;
         if (!lCallbackFn.isCallable()) {
             throw typeError("'" + lCallbackFn + "' is not a function");
         }
         JSELObject lObject = aInThis.toObject();
         long lLength = lObject.get(JSELArray.LENGTH).toUInt32();
-        JSELValue lThisArg = getArgument(aInArguments, 1);
+        JSELValue lThisArg = aInArgument1;
 
         JSELArray lJSELArray = new JSELArray((int) lLength);
 
         for (int i = 0; i < lLength; i++) {
-            String lStringIndex = String.valueOf(i);
-            if (!lObject.hasProperty(lStringIndex)) { continue; }
+            if (!lObject.hasProperty(i)) { continue; }
 
-            JSELValue lMapped = lCallbackFn.call(
+            JSELValue lMapped = lCallbackFn.call3(
                     lThisArg,
-                    asList(lObject.get(lStringIndex),
-                            new JSELNumber(i),
-                            lObject),
+                    lObject.get(i),
+                    new JSELNumber(i),
+                    lObject,
                     aInExecutionContext);
 
-            lJSELArray.defineOwnProperty(lStringIndex, lMapped,
+            lJSELArray.defineOwnProperty(i, lMapped,
                     true, true, true, false);
         }
         return lJSELArray;
@@ -0,0 +1,185 @@
+/*
+ * File: ParallelLoop.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.builtin.array;
+
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.expr.PurityAnalysis;
+import mardlucca.jsel.type.JSELArray;
+import mardlucca.jsel.type.JSELUserFunction;
+import mardlucca.jsel.type.JSELValue;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the iterations of the parallel array built-ins (e.g.
+ * "parallelMap") over chunks of the array, on the common fork/join pool.
+ * <p>
+ * Work is only done in parallel when this is not observable: the array must
+ * be an actual array, the callback must be a function defined in JSEL whose
+ * body makes no function calls (see {@link PurityAnalysis}), so that it only
+ * reads existing objects (reads that create properties lazily are thread
+ * safe), and it must not declare more parameters than the
+ * built-in allows. Each chunk is evaluated with its own
+ * {@link ExecutionContext}, which shares the global object of the calling
+ * context. If callbacks throw, the error of the first chunk that failed is
+ * rethrown, which is the error sequential execution would have thrown.
+ */
+class ParallelLoop {
+    /**
+     * Arrays shorter than this are always processed sequentially.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private static final int MIN_CHUNK_SIZE = 1 << 10;
+
+    /**
+     * Chunks per worker thread, so that uneven chunks still balance out.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelLoop() {
+    }
+
+    /**
+     * Checks whether a parallel built-in can split its work.
+     * @param aInThis the array the built-in was called on
+     * @param aInCallbackFn the callback
+     * @param aInMaxParameters how many parameters the callback may declare
+     * @return true if the work can be done in parallel
+     */
+    static boolean canRunInParallel(JSELValue aInThis,
+            JSELValue aInCallbackFn, int aInMaxParameters) {
+        return aInThis instanceof JSELArray
+                && getLength((JSELArray) aInThis) >= PARALLEL_THRESHOLD
+                && PurityAnalysis.isPureFunction(aInCallbackFn)
+                && ((JSELUserFunction) aInCallbackFn).getParameters().size()
+                        <= aInMaxParameters;
+    }
+
+    static int getLength(JSELArray aInArray) {
+        return (int) aInArray.get(JSELArray.LENGTH).toUInt32();
+    }
+
+    /**
+     * Returns the number of chunks an array of a given length is split into.
+     * @param aInLength the length of the array
+     * @return the number of chunks
+     */
+    static int getChunkCount(int aInLength) {
+        return (aInLength + getChunkSize(aInLength) - 1)
+                / getChunkSize(aInLength);
+    }
+
+    private static int getChunkSize(int aInLength) {
+        int lChunks = ForkJoinPool.commonPool().getParallelism()
+                * CHUNKS_PER_THREAD;
+        return Math.max(MIN_CHUNK_SIZE, (aInLength + lChunks - 1) / lChunks);
+    }
+
+    /**
+     * Runs a loop body over all chunks of an array and waits for all of them
+     * to complete.
+     * @param aInLength the length of the array
+     * @param aInBody the loop body
+     * @param aInContext the calling context
+     */
+    static void run(int aInLength, Body aInBody, ExecutionContext aInContext) {
+        int lChunkSize = getChunkSize(aInLength);
+        RuntimeException[] lErrors =
+                new RuntimeException[getChunkCount(aInLength)];
+        ForkJoinPool.commonPool().invoke(new Chunks(aInBody, aInContext,
+                lErrors, lChunkSize, aInLength, 0, lErrors.length));
+        for (RuntimeException lError : lErrors) {
+            if (lError != null) {
+                throw lError;
+            }
+        }
+    }
+
+    /**
+     * The body of a parallel loop, which processes one chunk of the array.
+     */
+    @FunctionalInterface
+    interface Body {
+        /**
+         * Processes a chunk.
+         * @param aInChunk the index of the chunk
+         * @param aInFrom the first array index in the chunk
+         * @param aInTo the array index after the last one in the chunk
+         * @param aInContext the context to call callbacks with
+         */
+        void run(int aInChunk, int aInFrom, int aInTo,
+                ExecutionContext aInContext);
+    }
+
+    private static class Chunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private Body body;
+        private ExecutionContext context;
+        private RuntimeException[] errors;
+        private int chunkSize;
+        private int length;
+        private int from;
+        private int to;
+
+        private Chunks(Body aInBody, ExecutionContext aInContext,
+                RuntimeException[] aInErrors, int aInChunkSize, int aInLength,
+                int aInFrom, int aInTo) {
+            body = aInBody;
+            context = aInContext;
+            errors = aInErrors;
+            chunkSize = aInChunkSize;
+            length = aInLength;
+            from = aInFrom;
+            to = aInTo;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int lMiddle = (from + to) >>> 1;
+                invokeAll(
+                        new Chunks(body, context, errors, chunkSize, length,
+                                from, lMiddle),
+                        new Chunks(body, context, errors, chunkSize, length,
+                                lMiddle, to));
+                return;
+            }
+
+            // the calling thread may run chunks too, so its context must be
+            // restored afterwards
+            ExecutionContext lPrevious = ExecutionContext.getThreadContext();
+            ExecutionContext lContext = new ExecutionContext(context);
+            lContext.setAsThreadContext();
+            try {
+                body.run(from, from * chunkSize,
+                        Math.min(length, (from + 1) * chunkSize), lContext);
+            } catch (RuntimeException e) {
+                errors[from] = e;
+            } finally {
+                if (lPrevious == null) {
+                    ExecutionContext.clearThreadContext();
+                } else {
+                    lPrevious.setAsThreadContext();
+                }
+            }
+        }
+    }
+}
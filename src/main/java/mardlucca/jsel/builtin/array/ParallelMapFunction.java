@@ -0,0 +1,79 @@
+/*
+ * File: ParallelMapFunction.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.builtin.array;
+
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.type.JSELArray;
+import mardlucca.jsel.type.JSELFunction;
+import mardlucca.jsel.type.JSELNumber;
+import mardlucca.jsel.type.JSELValue;
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Same as {@link MapFunction}, but callbacks are called in parallel when
+ * possible (see {@link ParallelLoop}). The result is always the one
+ * "Array.prototype.map" would return.
+ */
+public class ParallelMapFunction extends JSELFunction {
+    public static final String NAME = "parallelMap";
+
+    private MapFunction mapFunction = new MapFunction();
+
+    public ParallelMapFunction() {
+        super(NAME, Collections.singletonList("callbackfn"));
+    }
+
+    @Override
+    public JSELValue call(JSELValue aInThis,
+                          List<JSELValue> aInArguments,
+                          ExecutionContext aInExecutionContext) {
+        JSELValue lCallbackFn = getArgument(aInArguments);
+        if (!ParallelLoop.canRunInParallel(aInThis, lCallbackFn, 3)) {
+            return mapFunction.call(aInThis, aInArguments,
+                    aInExecutionContext);
+        }
+
+        JSELArray lArray = (JSELArray) aInThis;
+        int lLength = ParallelLoop.getLength(lArray);
+        JSELValue lThisArg = getArgument(aInArguments, 1);
+        JSELValue[] lMapped = new JSELValue[lLength];
+
+        ParallelLoop.run(lLength, (aInChunk, aInFrom, aInTo, aInContext) -> {
+            for (int i = aInFrom; i < aInTo; i++) {
+                if (!lArray.hasProperty(i)) { continue; }
+
+                lMapped[i] = lCallbackFn.call3(
+                        lThisArg,
+                        lArray.get(i), new JSELNumber(i), lArray,
+                        aInContext);
+            }
+        }, aInExecutionContext);
+
+        JSELArray lJSELArray = new JSELArray(lLength);
+        for (int i = 0; i < lLength; i++) {
+            if (lMapped[i] != null) {
+                lJSELArray.defineOwnProperty(i, lMapped[i],
+                        true, true, true, false);
+            }
+        }
+        return lJSELArray;
+    }
+}
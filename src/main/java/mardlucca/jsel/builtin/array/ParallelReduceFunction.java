@@ -0,0 +1,124 @@
+/*
+ * File: ParallelReduceFunction.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.builtin.array;
+
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.type.JSELArray;
+import mardlucca.jsel.type.JSELFunction;
+import mardlucca.jsel.type.JSELUndefined;
+import mardlucca.jsel.type.JSELValue;
+
+import java.util.Collections;
+import java.util.List;
+
+import static mardlucca.jsel.JSELRuntimeException.typeError;
+
+/**
+ * Same as {@link ReduceFunction}, but for associative callbacks (e.g.
+ * "(a, b) =&gt; a + b"), which allows each chunk of the array to be reduced
+ * in parallel (see {@link ParallelLoop}) and the partial results to be
+ * combined afterwards. The callback must declare at most the accumulator and
+ * the value parameters, as it is also called on partial results. The initial
+ * value, if any, seeds the first chunk only, so arrays are reduced
+ * sequentially when its type differs from the one of the elements. Non
+ * associative callbacks and floating point rounding can make the result
+ * differ from the one of "Array.prototype.reduce".
+ */
+public class ParallelReduceFunction extends JSELFunction {
+    public static final String NAME = "parallelReduce";
+
+    private ReduceFunction reduceFunction = new ReduceFunction();
+
+    public ParallelReduceFunction() {
+        super(NAME, Collections.singletonList("callbackfn"));
+    }
+
+    @Override
+    public JSELValue call(JSELValue aInThis,
+                          List<JSELValue> aInArguments,
+                          ExecutionContext aInExecutionContext) {
+        JSELValue lCallbackFn = getArgument(aInArguments);
+        JSELValue lInitialValue = aInArguments.size() < 2
+                ? null
+                : getArgument(aInArguments, 1);
+        if (!ParallelLoop.canRunInParallel(aInThis, lCallbackFn, 2)
+                || !canSeed((JSELArray) aInThis, lInitialValue)) {
+            return reduceFunction.call(aInThis, aInArguments,
+                    aInExecutionContext);
+        }
+
+        JSELArray lArray = (JSELArray) aInThis;
+        int lLength = ParallelLoop.getLength(lArray);
+        JSELValue[] lPartials =
+                new JSELValue[ParallelLoop.getChunkCount(lLength)];
+
+        // the initial value seeds the first chunk, so it is used exactly once
+        // and in the same position as in a sequential reduction
+        ParallelLoop.run(lLength, (aInChunk, aInFrom, aInTo, aInContext) -> {
+            JSELValue lAccumulator = aInChunk == 0 ? lInitialValue : null;
+            for (int i = aInFrom; i < aInTo; i++) {
+                if (!lArray.hasProperty(i)) { continue; }
+
+                lAccumulator = lAccumulator == null
+                        ? lArray.get(i)
+                        : reduce(lCallbackFn, lAccumulator, lArray.get(i),
+                                aInContext);
+            }
+            lPartials[aInChunk] = lAccumulator;
+        }, aInExecutionContext);
+
+        JSELValue lAccumulator = null;
+        for (JSELValue lPartial : lPartials) {
+            if (lPartial == null) { continue; }
+
+            lAccumulator = lAccumulator == null
+                    ? lPartial
+                    : reduce(lCallbackFn, lAccumulator, lPartial,
+                            aInExecutionContext);
+        }
+        if (lAccumulator == null) {
+            throw typeError("Reduce of empty array with no initial value");
+        }
+        return lAccumulator;
+    }
+
+    /**
+     * Checks whether an initial value can seed the first chunk only. Other
+     * chunks start from their first element, so this requires the initial
+     * value to have the same type as the elements (e.g. an empty string seed
+     * turns "(a, b) =&gt; a + b" on numbers into a concatenation, which
+     * only happens in the first chunk).
+     * @param aInArray the array
+     * @param aInInitialValue the initial value or null if none was given
+     * @return true if the reduction can run in parallel
+     */
+    private static boolean canSeed(JSELArray aInArray,
+            JSELValue aInInitialValue) {
+        return aInInitialValue == null
+                || (aInArray.hasProperty(0)
+                        && aInArray.get(0).getType()
+                                == aInInitialValue.getType());
+    }
+
+    private static JSELValue reduce(JSELValue aInCallbackFn,
+            JSELValue aInAccumulator, JSELValue aInValue,
+            ExecutionContext aInContext) {
+        return aInCallbackFn.call2(JSELUndefined.getInstance(),
+                aInAccumulator, aInValue, aInContext);
+    }
+}
@@ -47,7 +47,7 @@ public class PopFunction extends JSELFunction {
         }
 
 
-        JSELValue lReturnValue = lThis.get(String.valueOf(lLength -1));
+        JSELValue lReturnValue = lThis.get(lLength -1);
         lThis.put(JSELArray.LENGTH, new JSELNumber(lLength - 1));
 
         return lReturnValue;
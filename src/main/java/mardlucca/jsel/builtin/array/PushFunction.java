@@ -41,7 +41,7 @@ public class PushFunction extends JSELFunction {
         int lLength = lThis.get(JSELArray.LENGTH).toInteger();
 
         for (int i = 0; i < aInArguments.size(); i++) {
-            lThis.put(String.valueOf(lLength + i), aInArguments.get(i));
+            lThis.put(lLength + i, aInArguments.get(i));
         }
 
         return new JSELNumber(aInArguments.size());
@@ -24,7 +24,6 @@ import mardlucca.jsel.type.*;
 import java.util.Collections;
 import java.util.List;
 
-import static java.util.Arrays.asList;
 import static mardlucca.jsel.JSELRuntimeException.typeError;
 
 public class ReduceRightFunction extends JSELFunction {
@@ -53,9 +52,8 @@ public class ReduceRightFunction extends JSELFunction {
         if (aInArguments.size() < 2) {
             // initial value not present. Let's look for one.
             while (lAccumulator == null && i < lLength) {
-                String lStringIndex = String.valueOf(i);
-                if (lObject.hasProperty(lStringIndex)) {
-                    lAccumulator = lObject.get(lStringIndex);
+                if (lObject.hasProperty(i)) {
+                    lAccumulator = lObject.get(i);
                 }
                 i--;
             }
@@ -67,15 +65,15 @@ public class ReduceRightFunction extends JSELFunction {
         }
 
         for (; i >= 0; i--) {
-            String lStringIndex = String.valueOf(i);
-            if (!lObject.hasProperty(lStringIndex)) { continue; }
+            if (!lObject.hasProperty(i)) { continue; }
 
-            lAccumulator = lCallbackFn.call(
+            lAccumulator = lCallbackFn.callN(
                     JSELUndefined.getInstance(),
-                    asList(lAccumulator,
-                            lObject.get(lStringIndex),
+                    new JSELValue[] {
+                            lAccumulator,
+                            lObject.get(i),
                             new JSELNumber(i),
-                            lObject),
+                            lObject },
                     aInExecutionContext);
         }
         return lAccumulator;
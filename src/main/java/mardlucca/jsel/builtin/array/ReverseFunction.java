@@ -38,11 +38,11 @@ public class ReverseFunction extends JSELFunction {
                           ExecutionContext aInExecutionContext) {
         JSELObject lThis = aInThisValue.toObject();
         int lLength = lThis.get(JSELArray.LENGTH).toInteger();
-        int lMiddle = lLength << 1;
+        int lMiddle = lLength >> 1;
 
         for (int i = 0; i < lMiddle; i++) {
-            String lLowerIndex = String.valueOf(i);
-            String lUpperIndex = String.valueOf(lLength - i - 1);
+            int lLowerIndex = i;
+            int lUpperIndex = lLength - i - 1;
 
             boolean lLowerExists = lThis.hasProperty(lLowerIndex);
             boolean lUpperExists = lThis.hasProperty(lUpperIndex);
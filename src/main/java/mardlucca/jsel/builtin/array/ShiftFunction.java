@@ -47,8 +47,8 @@ public class ShiftFunction extends JSELFunction {
         }
 
         for (int i = 1; i < lLength; i++) {
-            String lFrom = String.valueOf(i);
-            String lTo = String.valueOf(i - 1);
+            int lFrom = i;
+            int lTo = i - 1;
             boolean lFromPresent = lThis.hasProperty(lFrom);
             if (lFromPresent) {
                 lThis.put(lTo, lThis.get(lFrom));
@@ -57,7 +57,7 @@ public class ShiftFunction extends JSELFunction {
             }
         }
 
-        lThis.delete(String.valueOf(lLength - 1));
+        lThis.delete(lLength - 1);
         lThis.put(JSELArray.LENGTH, new JSELNumber(lLength - 1));
 
         return lThis;
@@ -21,6 +21,7 @@ import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELArray;
 import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELObject;
+import mardlucca.jsel.type.JSELUndefined;
 import mardlucca.jsel.type.JSELValue;
 import mardlucca.jsel.type.Type;
 
@@ -41,14 +42,29 @@ public class SliceFunction extends JSELFunction {
     @Override
     public JSELArray call(JSELValue aInThisValue, List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
+        return call2(aInThisValue, getArgument(aInArguments),
+                getArgument(aInArguments, 1), aInExecutionContext);
+    }
+
+    @Override
+    public JSELArray call1(JSELValue aInThisValue, JSELValue aInArgument0,
+                           ExecutionContext aInExecutionContext) {
+        return call2(aInThisValue, aInArgument0, JSELUndefined.getInstance(),
+                aInExecutionContext);
+    }
+
+    @Override
+    public JSELArray call2(JSELValue aInThisValue, JSELValue aInArgument0,
+                           JSELValue aInArgument1,
+                           ExecutionContext aInExecutionContext) {
         JSELObject lThis = aInThisValue.toObject();
         int lLength = lThis.get(JSELArray.LENGTH).toInteger();
-        int lStartArgument = getArgument(aInArguments, 0).toInteger();
+        int lStartArgument = aInArgument0.toInteger();
         int lFrom = lStartArgument < 0
                 ? max(lLength + lStartArgument, 0)
                 : min (lStartArgument, lLength);
 
-        JSELValue lEndArgument = getArgument(aInArguments, 1);
+        JSELValue lEndArgument = aInArgument1;
         int lEnd = lEndArgument.getType() == Type.UNDEFINED
                 ? lLength
                 : lEndArgument.toInteger();
@@ -58,7 +74,7 @@ public class SliceFunction extends JSELFunction {
 
         List<JSELValue> lValues = new ArrayList<>();
         for (int i = lFrom; i < lTo; i++) {
-            lValues.add(lThis.get(String.valueOf(i)));
+            lValues.add(lThis.get(i));
         }
 
         return new JSELArray(lValues);
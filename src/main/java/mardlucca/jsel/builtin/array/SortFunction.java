@@ -18,27 +18,69 @@
 package mardlucca.jsel.builtin.array;
 
 import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.expr.IdentifierExpression;
+import mardlucca.jsel.expr.JSELExpression;
+import mardlucca.jsel.expr.SubtractionOperatorExpression;
+import mardlucca.jsel.type.JSELArray;
 import mardlucca.jsel.type.JSELFunction;
-import mardlucca.jsel.type.JSELNumber;
 import mardlucca.jsel.type.JSELObject;
 import mardlucca.jsel.type.JSELUndefined;
+import mardlucca.jsel.type.JSELUserFunction;
 import mardlucca.jsel.type.JSELValue;
 import mardlucca.jsel.type.Type;
-import mardlucca.jsel.util.DecimalFormat;
 import mardlucca.jsel.JSELRuntimeException;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-import static java.util.Arrays.asList;
 
+/**
+ * Implementation of Array.prototype.sort. Elements are sorted with a stable
+ * merge sort and written back in place, with undefined values after all other
+ * values and missing elements at the end of the array.
+ * <p>
+ * Sort keys are computed only once per element for the default comparison
+ * (i.e. strings) and for comparison functions that simply subtract their
+ * arguments, like "(a, b) =&gt; a - b" (i.e. numbers). As these comparisons
+ * run no user code, large arrays are sorted in parallel.
+ * @see <a href="https://www.ecma-international.org/ecma-262/5.1/#sec-15.4.4.11">
+ * ECMA-262, 5.1, Section 15.4.4.11"</a>
+ */
 public class SortFunction extends JSELFunction {
     public static final String NAME = "sort";
 
+    /**
+     * Ranges up to this size are sorted with insertion sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * Arrays of at least this size are sorted in parallel when the comparison
+     * does not run user code.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * Ranges smaller than this are not split any further when sorting in
+     * parallel.
+     */
+    private static final int PARALLEL_GRANULARITY = 1 << 13;
+
+    private static final Comparator<Entry> STRING_ORDER =
+            (aInEntry1, aInEntry2) ->
+                    aInEntry1.stringKey.compareTo(aInEntry2.stringKey);
+
+    private static final Comparator<Entry> NUMBER_ORDER =
+            (aInEntry1, aInEntry2) ->
+                    compare(aInEntry1.numberKey, aInEntry2.numberKey);
+
+    private static final Comparator<Entry> REVERSE_NUMBER_ORDER =
+            (aInEntry1, aInEntry2) ->
+                    compare(aInEntry2.numberKey, aInEntry1.numberKey);
 
     public SortFunction() {
         super(NAME, Collections.singletonList("comparefn"));
@@ -47,45 +89,261 @@ public class SortFunction extends JSELFunction {
     @Override
     public JSELValue call(JSELValue aInThisValue, List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
+        return call1(aInThisValue, getArgument(aInArguments),
+                aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call1(JSELValue aInThisValue, JSELValue aInArgument0,
+                           ExecutionContext aInExecutionContext) {
         JSELObject lThis = aInThisValue.toObject();
-        JSELValue lCompareFn = getArgument(aInArguments);
+        JSELValue lCompareFn = aInArgument0;
+        if (!lCompareFn.isCallable()
+                && lCompareFn.getType() != Type.UNDEFINED) {
+            throw JSELRuntimeException.typeError("The comparison function "
+                    + "must be either a function or undefined");
+        }
 
-        Map<String, JSELValue> lValuesMap = collectNumberProperties(lThis);
-        List<JSELValue> lValues = new ArrayList<>(lValuesMap.values());
-        lValues.sort(new JSELValueComparator(lCompareFn, aInExecutionContext));
+        int lLength = lThis.get(JSELArray.LENGTH).toInteger();
 
-        // first we go ahead and delete the numeric properties
-        for (String lProperty : lValuesMap.keySet()) {
-            lThis.delete(lProperty);
+        // collects existing elements, leaving undefined ones out as these are
+        // always sorted last and need no comparison
+        Entry[] lEntries = new Entry[Math.min(lLength, 1024)];
+        int lCount = 0;
+        int lUndefinedCount = 0;
+        for (int i = 0; i < lLength; i++) {
+            if (lThis.hasProperty(i)) {
+                JSELValue lValue = lThis.get(i);
+                if (lValue.getType() == Type.UNDEFINED) {
+                    lUndefinedCount++;
+                } else {
+                    if (lCount == lEntries.length) {
+                        // arrays can be sparse, so this grows as needed
+                        lEntries = Arrays.copyOf(lEntries, lCount * 2);
+                    }
+                    lEntries[lCount++] = new Entry(lValue);
+                }
+            }
         }
 
-        // at this point array is pretty much empty. now we start adding
-        // elements again
-        for (int i = 0; i < lValues.size(); i++) {
-            lThis.put(String.valueOf(i), lValues.get(i));
+        sort(lEntries, lCount, lCompareFn, aInExecutionContext);
+
+        int i = 0;
+        for (; i < lCount; i++) {
+            lThis.put(i, lEntries[i].value);
+        }
+        for (int lEnd = lCount + lUndefinedCount; i < lEnd; i++) {
+            lThis.put(i, JSELUndefined.getInstance());
+        }
+        for (; i < lLength; i++) {
+            lThis.delete(i, true);
         }
 
-        // if the length of lValues is less than the size of lValuesMap, it
-        // means the array is sparse (i.e. has empty elements)
         return lThis;
     }
 
-    private static Map<String, JSELValue> collectNumberProperties(
-            JSELObject aInObject) {
-        Map<String, JSELValue> lNumberProperties = new HashMap<>();
-        for (String lPropertyName : aInObject.getOwnPropertyNames()) {
-            long lNumber = JSELNumber.toInteger(
-                    DecimalFormat.parse(lPropertyName));
-            if (lPropertyName.equals(DecimalFormat.format(lNumber))) {
-                //property is an index
-                lNumberProperties.put(
-                        lPropertyName, aInObject.get(lPropertyName));
+    /**
+     * Sorts the first entries of an array, computing their sort keys first if
+     * the comparison allows for it.
+     */
+    private static void sort(Entry[] aInEntries, int aInCount,
+            JSELValue aInCompareFn, ExecutionContext aInExecutionContext) {
+        Comparator<Entry> lComparator;
+        int lOrder = getNumericOrder(aInCompareFn);
+        if (aInCompareFn.getType() == Type.UNDEFINED) {
+            for (int i = 0; i < aInCount; i++) {
+                aInEntries[i].stringKey = aInEntries[i].value.toString();
             }
+            lComparator = STRING_ORDER;
+        } else if (lOrder != 0) {
+            for (int i = 0; i < aInCount; i++) {
+                aInEntries[i].numberKey = aInEntries[i].value.toNumber();
+            }
+            lComparator = lOrder > 0 ? NUMBER_ORDER : REVERSE_NUMBER_ORDER;
+        } else {
+            lComparator = new JSELValueComparator(
+                    aInCompareFn, aInExecutionContext);
+        }
+
+        Entry[] lBuffer = new Entry[aInCount];
+        if (aInCount >= PARALLEL_THRESHOLD
+                && !(lComparator instanceof JSELValueComparator)) {
+            ForkJoinPool.commonPool().invoke(new ParallelMergeSort(
+                    aInEntries, lBuffer, 0, aInCount, lComparator));
+        } else {
+            mergeSort(aInEntries, lBuffer, 0, aInCount, lComparator);
+        }
+    }
+
+    /**
+     * Checks whether a comparison function only subtracts its arguments, in
+     * which case elements can be compared as numbers.
+     * @param aInCompareFn the comparison function
+     * @return 1 for "(a, b) =&gt; a - b", -1 for "(a, b) =&gt; b - a" or 0
+     * if the function does something else.
+     */
+    static int getNumericOrder(JSELValue aInCompareFn) {
+        if (!(aInCompareFn instanceof JSELUserFunction)) {
+            return 0;
+        }
+
+        JSELUserFunction lFunction = (JSELUserFunction) aInCompareFn;
+        List<String> lParameters = lFunction.getParameters();
+        if (!(lFunction.getExpression()
+                instanceof SubtractionOperatorExpression)
+                || lParameters.size() != 2
+                || lParameters.get(0).equals(lParameters.get(1))) {
+            return 0;
+        }
+
+        SubtractionOperatorExpression lSubtraction =
+                (SubtractionOperatorExpression) lFunction.getExpression();
+        String lFirst = getIdentifier(
+                lSubtraction.getFirstOperandExpression());
+        String lSecond = getIdentifier(
+                lSubtraction.getSecondOperandExpression());
+        if (lParameters.get(0).equals(lFirst)
+                && lParameters.get(1).equals(lSecond)) {
+            return 1;
         }
-        return lNumberProperties;
+        if (lParameters.get(1).equals(lFirst)
+                && lParameters.get(0).equals(lSecond)) {
+            return -1;
+        }
+        return 0;
+    }
+
+    private static String getIdentifier(JSELExpression aInExpression) {
+        return aInExpression instanceof IdentifierExpression
+                ? ((IdentifierExpression) aInExpression).getIdentifier()
+                : null;
+    }
+
+    /**
+     * Compares two numbers the way the sign of their difference does, so NaN
+     * is equal to everything.
+     */
+    private static int compare(double aInNumber1, double aInNumber2) {
+        return aInNumber1 < aInNumber2 ? -1 : aInNumber1 > aInNumber2 ? 1 : 0;
     }
 
-    static class JSELValueComparator implements Comparator<JSELValue> {
+    /**
+     * Stable merge sort of a range. Unlike {@link Arrays#sort}, this
+     * never fails on inconsistent comparisons (e.g. ones involving NaN),
+     * which user supplied comparison functions are free to perform.
+     * @param aInEntries the entries to sort
+     * @param aInBuffer a buffer with at least the same size as the entries
+     * @param aInFrom the start of the range (inclusive)
+     * @param aInTo the end of the range (exclusive)
+     * @param aInComparator the comparator
+     */
+    private static void mergeSort(Entry[] aInEntries, Entry[] aInBuffer,
+            int aInFrom, int aInTo, Comparator<Entry> aInComparator) {
+        if (aInTo - aInFrom <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(aInEntries, aInFrom, aInTo, aInComparator);
+            return;
+        }
+
+        int lMiddle = (aInFrom + aInTo) >>> 1;
+        mergeSort(aInEntries, aInBuffer, aInFrom, lMiddle, aInComparator);
+        mergeSort(aInEntries, aInBuffer, lMiddle, aInTo, aInComparator);
+        merge(aInEntries, aInBuffer, aInFrom, lMiddle, aInTo, aInComparator);
+    }
+
+    private static void insertionSort(Entry[] aInEntries, int aInFrom,
+            int aInTo, Comparator<Entry> aInComparator) {
+        for (int i = aInFrom + 1; i < aInTo; i++) {
+            Entry lEntry = aInEntries[i];
+            int j = i - 1;
+            for (; j >= aInFrom
+                    && aInComparator.compare(aInEntries[j], lEntry) > 0; j--) {
+                aInEntries[j + 1] = aInEntries[j];
+            }
+            aInEntries[j + 1] = lEntry;
+        }
+    }
+
+    /**
+     * Merges two adjacent sorted ranges, favouring the first one on ties.
+     */
+    private static void merge(Entry[] aInEntries, Entry[] aInBuffer,
+            int aInFrom, int aInMiddle, int aInTo,
+            Comparator<Entry> aInComparator) {
+        if (aInComparator.compare(aInEntries[aInMiddle - 1],
+                aInEntries[aInMiddle]) <= 0) {
+            // already in order
+            return;
+        }
+
+        System.arraycopy(aInEntries, aInFrom, aInBuffer, aInFrom,
+                aInMiddle - aInFrom);
+        int lLeft = aInFrom;
+        int lRight = aInMiddle;
+        int lTo = aInFrom;
+        while (lLeft < aInMiddle && lRight < aInTo) {
+            aInEntries[lTo++] = aInComparator.compare(
+                    aInEntries[lRight], aInBuffer[lLeft]) < 0
+                    ? aInEntries[lRight++]
+                    : aInBuffer[lLeft++];
+        }
+        System.arraycopy(aInBuffer, lLeft, aInEntries, lTo, aInMiddle - lLeft);
+    }
+
+    /**
+     * An element being sorted, with its sort key.
+     */
+    private static class Entry {
+        private JSELValue value;
+        private String stringKey;
+        private double numberKey;
+
+        private Entry(JSELValue aInValue) {
+            value = aInValue;
+        }
+    }
+
+    /**
+     * Merge sort that sorts both halves of large ranges in parallel.
+     */
+    private static class ParallelMergeSort extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private Entry[] entries;
+        private Entry[] buffer;
+        private int from;
+        private int to;
+        private Comparator<Entry> comparator;
+
+        private ParallelMergeSort(Entry[] aInEntries, Entry[] aInBuffer,
+                int aInFrom, int aInTo, Comparator<Entry> aInComparator) {
+            entries = aInEntries;
+            buffer = aInBuffer;
+            from = aInFrom;
+            to = aInTo;
+            comparator = aInComparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_GRANULARITY) {
+                mergeSort(entries, buffer, from, to, comparator);
+                return;
+            }
+
+            int lMiddle = (from + to) >>> 1;
+            invokeAll(
+                    new ParallelMergeSort(
+                            entries, buffer, from, lMiddle, comparator),
+                    new ParallelMergeSort(
+                            entries, buffer, lMiddle, to, comparator));
+            merge(entries, buffer, from, lMiddle, to, comparator);
+        }
+    }
+
+    /**
+     * Compares elements by calling a user supplied comparison function.
+     */
+    static class JSELValueComparator implements Comparator<Entry> {
         private JSELValue compareFn;
 
         private ExecutionContext executionContext;
@@ -98,28 +356,13 @@ public class SortFunction extends JSELFunction {
         }
 
         @Override
-        public int compare(JSELValue aInValue1, JSELValue aInValue2) {
-            if (aInValue1.getType() == Type.UNDEFINED) {
-                return aInValue2.getType() == Type.UNDEFINED ? 0 : -1;
-            }
-            if (aInValue2.getType() == Type.UNDEFINED) {
-                return aInValue1.getType() == Type.UNDEFINED ? 0 : 1;
-            }
-
-            if (compareFn.isCallable()) {
-                return compareFn.call(
-                        JSELUndefined.getInstance(),
-                        asList(aInValue1, aInValue2),
-                        executionContext)
-                        .toInt32();
-            }
-
-            if (compareFn.getType() == Type.UNDEFINED) {
-                return aInValue1.toString().compareTo(aInValue2.toString());
-            }
-
-            throw JSELRuntimeException.typeError("The comparison function must be either a " +
-                    "function or undefined");
+        public int compare(Entry aInEntry1, Entry aInEntry2) {
+            double lResult = compareFn.call2(
+                    JSELUndefined.getInstance(),
+                    aInEntry1.value, aInEntry2.value,
+                    executionContext)
+                    .toNumber();
+            return SortFunction.compare(lResult, 0);
         }
     }
 }
@@ -56,7 +56,7 @@ public class SpliceFunction extends JSELFunction {
         // collect elements to return
         List<JSELValue> lArrayValues = new ArrayList<>();
         for (int i = 0; i < lDeleteCount; i++) {
-            String lFrom = String.valueOf(lStart + i);
+            int lFrom = lStart + i;
             if (lThis.hasProperty(lFrom)) {
                 lArrayValues.add(lThis.get(lFrom));
             }
@@ -69,8 +69,8 @@ public class SpliceFunction extends JSELFunction {
         if (lItemCount < lDeleteCount) {
             // we're deleting more than we are inserting
             for (int i = lStart; i < lLength - lDeleteCount; i++) {
-                String lFrom = String.valueOf(i + lDeleteCount);
-                String lTo = String.valueOf(i + lItemCount);
+                int lFrom = i + lDeleteCount;
+                int lTo = i + lItemCount;
                 if (lThis.hasProperty(lFrom)) {
                     lThis.put(lTo, lThis.get(lFrom));
                 } else {
@@ -81,15 +81,15 @@ public class SpliceFunction extends JSELFunction {
             // remove tail items, as array is now smaller than it was originally
             for (int i = lLength - 1;
                     i >= lLength - lDeleteCount + lItemCount;
-                    i++) {
-                lThis.delete(String.valueOf(i));
+                    i--) {
+                lThis.delete(i);
             }
         } else if (lItemCount > lDeleteCount) {
             // number of new items is larger than original. We move the tail
             // out a little to leave enough space for the new items.
             for (int i = lLength - lDeleteCount; i > lStart; i--) {
-                String lFrom = String.valueOf(i + lDeleteCount - 1);
-                String lTo = String.valueOf(i + lItemCount -1 );
+                int lFrom = i + lDeleteCount - 1;
+                int lTo = i + lItemCount - 1;
                 if (lThis.hasProperty(lFrom)) {
                     lThis.put(lTo, lThis.get(lFrom));
                 } else {
@@ -101,7 +101,7 @@ public class SpliceFunction extends JSELFunction {
 
         // finally, copy new items in
         for (int i = 0; i < lItemCount; i++) {
-            lThis.put(String.valueOf(lStart + i),
+            lThis.put(lStart + i,
                     getArgument(aInArguments, 2 + i));
         }
 
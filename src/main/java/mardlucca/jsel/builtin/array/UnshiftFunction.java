@@ -42,8 +42,8 @@ public class UnshiftFunction extends JSELFunction {
         int lArgCount = aInArguments.size();
 
         for (int i = lLength - 1; i >= 0; i--) {
-            String lFrom = String.valueOf(i);
-            String lTo = String.valueOf(i + lArgCount);
+            int lFrom = i;
+            int lTo = i + lArgCount;
             if (lThis.hasProperty(lFrom)) {
                 lThis.put(lTo, lThis.get(lFrom));
             } else {
@@ -53,7 +53,7 @@ public class UnshiftFunction extends JSELFunction {
         }
 
         for (int i = 0; i < lArgCount; i++) {
-            lThis.put(String.valueOf(i), getArgument(aInArguments, i));
+            lThis.put(i, getArgument(aInArguments, i));
         }
 
         return new JSELNumber(lLength + lArgCount);
@@ -22,7 +22,6 @@ import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.*;
 import mardlucca.jsel.util.DateFormat;
 
-import java.util.Date;
 import java.util.List;
 
 import static java.util.Arrays.asList;
@@ -38,13 +37,17 @@ public class DateConstructor extends JSELFunction {
         defineOwnProperty(
                 UTCFunction.NAME, new UTCFunction(),
                 false, true, true);
+        defineOwnProperty(
+                ParseFunction.NAME, new ParseFunction(),
+                false, true, true);
     }
 
     @Override
     public JSELValue call(JSELValue aInThis,
                           List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
-        return new JSELString(DateFormat.format(new Date()));
+        return new JSELString(
+                DateFormat.format(System.currentTimeMillis()));
     }
 
     @Override
@@ -58,7 +61,7 @@ public class DateConstructor extends JSELFunction {
             if (lValue.getType() == Type.STRING) {
                 return new JSELDate(DateFormat.parse(lValue.toString()));
             }
-            return new JSELDate(new Date((long) lValue.toNumber()));
+            return new JSELDate(lValue.toNumber());
         }
 
         double lYear = getArgument(aInArguments, 0).toNumber();
@@ -24,11 +24,24 @@ import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNumber;
 import mardlucca.jsel.type.JSELValue;
 
-import java.util.*;
+import java.util.Calendar;
+import java.util.List;
 
+import static java.lang.Double.isNaN;
 import static mardlucca.jsel.JSELRuntimeException.typeError;
-import static mardlucca.jsel.type.JSELDate.UTC_TIMEZONE;
+import static mardlucca.jsel.util.DateArithmetic.dateFromTime;
+import static mardlucca.jsel.util.DateArithmetic.hourFromTime;
+import static mardlucca.jsel.util.DateArithmetic.minFromTime;
+import static mardlucca.jsel.util.DateArithmetic.monthFromTime;
+import static mardlucca.jsel.util.DateArithmetic.msFromTime;
+import static mardlucca.jsel.util.DateArithmetic.secFromTime;
+import static mardlucca.jsel.util.DateArithmetic.weekDay;
+import static mardlucca.jsel.util.DateArithmetic.yearFromTime;
 
+/**
+ * Gets a field of a date. Fields are identified by their {@link Calendar}
+ * constants, but are computed from the date's time value directly.
+ */
 public class GetCalendarFieldFunction extends JSELFunction {
     public static final String PREFIX = "get";
 
@@ -50,14 +63,38 @@ public class GetCalendarFieldFunction extends JSELFunction {
                     "requires that this' be a " + JSELDate.CLASS);
         }
 
-        Date lDate = ((JSELDate) aInThis).getDate();
-        if (lDate == null) { return JSELNumber.NAN; }
+        JSELDate lDate = (JSELDate) aInThis;
+        double lTime = isUTC() ? lDate.getTime() : lDate.getLocalTime();
+        if (isNaN(lTime)) { return JSELNumber.NAN; }
+
+        return new JSELNumber(getField(lTime));
+    }
 
-        GregorianCalendar lCalendar = new GregorianCalendar(getTimeZone());
-        return new JSELNumber(lCalendar.get(field));
+    private double getField(double aInTime) {
+        switch (field) {
+            case Calendar.YEAR:
+                return yearFromTime(aInTime);
+            case Calendar.MONTH:
+                return monthFromTime(aInTime);
+            case Calendar.DATE:
+                return dateFromTime(aInTime);
+            case Calendar.DAY_OF_WEEK:
+                return weekDay(aInTime);
+            case Calendar.HOUR_OF_DAY:
+                return hourFromTime(aInTime);
+            case Calendar.MINUTE:
+                return minFromTime(aInTime);
+            case Calendar.SECOND:
+                return secFromTime(aInTime);
+            case Calendar.MILLISECOND:
+                return msFromTime(aInTime);
+            default:
+                throw new IllegalStateException(
+                        "Unsupported calendar field: " + field);
+        }
     }
 
-    protected TimeZone getTimeZone() {
-        return TimeZone.getDefault();
+    protected boolean isUTC() {
+        return false;
     }
 }
@@ -24,11 +24,12 @@ import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNumber;
 import mardlucca.jsel.type.JSELValue;
 
-import java.util.Date;
 import java.util.List;
-import java.util.TimeZone;
 
+import static java.lang.Double.isNaN;
 import static mardlucca.jsel.JSELRuntimeException.typeError;
+import static mardlucca.jsel.util.DateArithmetic.MS_PER_MINUTE;
+import static mardlucca.jsel.util.DateArithmetic.getOffset;
 
 public class GetTimezoneOffsetFunction extends JSELFunction {
     public static final String NAME = "getTimezoneOffset";
@@ -47,8 +48,9 @@ public class GetTimezoneOffsetFunction extends JSELFunction {
                     " requires that this' be a " + JSELDate.CLASS);
         }
 
-        return new JSELNumber(
-                -TimeZone.getDefault().getOffset(System.currentTimeMillis())
-                        / (60 * 1000));
+        double lTime = ((JSELDate) aInThis).getTime();
+        if (isNaN(lTime)) { return JSELNumber.NAN; }
+
+        return new JSELNumber(-getOffset(lTime) / MS_PER_MINUTE);
     }
 }
@@ -18,10 +18,6 @@
 
 package mardlucca.jsel.builtin.date;
 
-import mardlucca.jsel.type.JSELDate;
-
-import java.util.TimeZone;
-
 public class GetUTCCalendarFieldFunction extends GetCalendarFieldFunction {
     public static final String PREFIX = "getUTC";
 
@@ -31,7 +27,7 @@ public class GetUTCCalendarFieldFunction extends GetCalendarFieldFunction {
     }
 
     @Override
-    protected TimeZone getTimeZone() {
-        return JSELDate.UTC_TIMEZONE;
+    protected boolean isUTC() {
+        return true;
     }
 }
@@ -19,7 +19,6 @@
 package mardlucca.jsel.builtin.date;
 
 import mardlucca.jsel.env.ExecutionContext;
-import mardlucca.jsel.type.JSELDate;
 import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNumber;
 import mardlucca.jsel.type.JSELValue;
@@ -39,7 +38,7 @@ public class ParseFunction extends JSELFunction {
     public JSELValue call(JSELValue aInThis,
                           List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
-        return new JSELDate(DateFormat.parse(
+        return new JSELNumber(DateFormat.parse(
                 getArgument(aInArguments).toString()));
     }
 }
@@ -24,13 +24,15 @@ import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNumber;
 import mardlucca.jsel.type.JSELValue;
 
-import java.util.Calendar;
-import java.util.GregorianCalendar;
 import java.util.List;
-import java.util.TimeZone;
 
 import static java.util.Arrays.asList;
 import static mardlucca.jsel.JSELRuntimeException.typeError;
+import static mardlucca.jsel.util.DateArithmetic.makeDate;
+import static mardlucca.jsel.util.DateArithmetic.makeDay;
+import static mardlucca.jsel.util.DateArithmetic.monthFromTime;
+import static mardlucca.jsel.util.DateArithmetic.timeWithinDay;
+import static mardlucca.jsel.util.DateArithmetic.yearFromTime;
 
 public class SetDateFunction extends JSELFunction {
     public static final String NAME = "setDate";
@@ -54,22 +56,25 @@ public class SetDateFunction extends JSELFunction {
         }
 
         JSELDate lDate = (JSELDate) aInThis;
+        double lTime = isUTC() ? lDate.getTime() : lDate.getLocalTime();
 
-        GregorianCalendar lCalendar = new GregorianCalendar(getTimeZone());
+        double lDay = getArgument(aInArguments).toNumber();
 
-        lCalendar.setTime(lDate.getDate());
-        lCalendar.set(Calendar.DAY_OF_MONTH,
-                (int) getArgument(aInArguments).toNumber());
-
-        lDate.setTime(lCalendar.getTimeInMillis());
+        double lNewTime = makeDate(
+                makeDay(yearFromTime(lTime), monthFromTime(lTime), lDay),
+                timeWithinDay(lTime));
+        if (isUTC()) {
+            lDate.setTime(lNewTime);
+        }
+        else {
+            lDate.setLocalTime(lNewTime);
+        }
 
-        // date may have been clipped, so we check first
-        return lDate.getDate() == null
-                ? JSELNumber.NAN
-                : new JSELNumber(lDate.getDate().getTime());
+        // date may have been clipped, so it is read back
+        return new JSELNumber(lDate.getTime());
     }
 
-    protected TimeZone getTimeZone() {
-        return TimeZone.getDefault();
+    protected boolean isUTC() {
+        return false;
     }
 }
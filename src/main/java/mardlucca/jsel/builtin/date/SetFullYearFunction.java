@@ -24,13 +24,15 @@ import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNumber;
 import mardlucca.jsel.type.JSELValue;
 
-import java.util.Calendar;
-import java.util.GregorianCalendar;
 import java.util.List;
-import java.util.TimeZone;
 
 import static java.util.Arrays.asList;
 import static mardlucca.jsel.JSELRuntimeException.typeError;
+import static mardlucca.jsel.util.DateArithmetic.dateFromTime;
+import static mardlucca.jsel.util.DateArithmetic.makeDate;
+import static mardlucca.jsel.util.DateArithmetic.makeDay;
+import static mardlucca.jsel.util.DateArithmetic.monthFromTime;
+import static mardlucca.jsel.util.DateArithmetic.timeWithinDay;
 
 public class SetFullYearFunction extends JSELFunction {
     public static final String NAME = "setFullYear";
@@ -54,30 +56,33 @@ public class SetFullYearFunction extends JSELFunction {
         }
 
         JSELDate lDate = (JSELDate) aInThis;
+        // an invalid date is taken as +0, so its year can be set
+        double lTime = Double.isNaN(lDate.getTime())
+                ? 0
+                : isUTC() ? lDate.getTime() : lDate.getLocalTime();
 
-        GregorianCalendar lCalendar = new GregorianCalendar(getTimeZone());
+        double lYear = getArgument(aInArguments).toNumber();
+        double lMonth = aInArguments.size() > 1
+                ? getArgument(aInArguments, 1).toNumber()
+                : monthFromTime(lTime);
+        double lDay = aInArguments.size() > 2
+                ? getArgument(aInArguments, 2).toNumber()
+                : dateFromTime(lTime);
 
-        lCalendar.setTime(lDate.getDate());
-        lCalendar.set(Calendar.YEAR,
-                (int) getArgument(aInArguments).toNumber());
-        if (aInArguments.size() > 1) {
-            lCalendar.set(Calendar.MONTH,
-                    (int) getArgument(aInArguments, 1).toNumber());
+        double lNewTime = makeDate(
+                makeDay(lYear, lMonth, lDay), timeWithinDay(lTime));
+        if (isUTC()) {
+            lDate.setTime(lNewTime);
         }
-        if (aInArguments.size() > 2) {
-            lCalendar.set(Calendar.DAY_OF_MONTH,
-                    (int) getArgument(aInArguments, 2).toNumber());
+        else {
+            lDate.setLocalTime(lNewTime);
         }
 
-        lDate.setTime(lCalendar.getTimeInMillis());
-
-        // date may have been clipped, so we check first
-        return lDate.getDate() == null
-                ? JSELNumber.NAN
-                : new JSELNumber(lDate.getDate().getTime());
+        // date may have been clipped, so it is read back
+        return new JSELNumber(lDate.getTime());
     }
 
-    protected TimeZone getTimeZone() {
-        return TimeZone.getDefault();
+    protected boolean isUTC() {
+        return false;
     }
 }
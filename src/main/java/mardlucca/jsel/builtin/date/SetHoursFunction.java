@@ -24,13 +24,16 @@ import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNumber;
 import mardlucca.jsel.type.JSELValue;
 
-import java.util.Calendar;
-import java.util.GregorianCalendar;
 import java.util.List;
-import java.util.TimeZone;
 
 import static java.util.Arrays.asList;
 import static mardlucca.jsel.JSELRuntimeException.typeError;
+import static mardlucca.jsel.util.DateArithmetic.day;
+import static mardlucca.jsel.util.DateArithmetic.makeDate;
+import static mardlucca.jsel.util.DateArithmetic.makeTime;
+import static mardlucca.jsel.util.DateArithmetic.minFromTime;
+import static mardlucca.jsel.util.DateArithmetic.msFromTime;
+import static mardlucca.jsel.util.DateArithmetic.secFromTime;
 
 public class SetHoursFunction extends JSELFunction {
     public static final String NAME = "setHours";
@@ -54,34 +57,33 @@ public class SetHoursFunction extends JSELFunction {
         }
 
         JSELDate lDate = (JSELDate) aInThis;
+        double lTime = isUTC() ? lDate.getTime() : lDate.getLocalTime();
 
-        GregorianCalendar lCalendar = new GregorianCalendar(getTimeZone());
+        double lHour = getArgument(aInArguments).toNumber();
+        double lMinute = aInArguments.size() > 1
+                ? getArgument(aInArguments, 1).toNumber()
+                : minFromTime(lTime);
+        double lSecond = aInArguments.size() > 2
+                ? getArgument(aInArguments, 2).toNumber()
+                : secFromTime(lTime);
+        double lMillisecond = aInArguments.size() > 3
+                ? getArgument(aInArguments, 3).toNumber()
+                : msFromTime(lTime);
 
-        lCalendar.setTime(lDate.getDate());
-        lCalendar.set(Calendar.HOUR_OF_DAY,
-                (int) getArgument(aInArguments).toNumber());
-        if (aInArguments.size() > 1) {
-            lCalendar.set(Calendar.MINUTE,
-                    (int) getArgument(aInArguments, 1).toNumber());
+        double lNewTime = makeDate(day(lTime),
+                makeTime(lHour, lMinute, lSecond, lMillisecond));
+        if (isUTC()) {
+            lDate.setTime(lNewTime);
         }
-        if (aInArguments.size() > 2) {
-            lCalendar.set(Calendar.SECOND,
-                    (int) getArgument(aInArguments, 2).toNumber());
+        else {
+            lDate.setLocalTime(lNewTime);
         }
-        if (aInArguments.size() > 3) {
-            lCalendar.set(Calendar.MILLISECOND,
-                    (int) getArgument(aInArguments, 3).toNumber());
-        }
-
-        lDate.setTime(lCalendar.getTimeInMillis());
 
-        // date may have been clipped, so we check first
-        return lDate.getDate() == null
-                ? JSELNumber.NAN
-                : new JSELNumber(lDate.getDate().getTime());
+        // date may have been clipped, so it is read back
+        return new JSELNumber(lDate.getTime());
     }
 
-    protected TimeZone getTimeZone() {
-        return TimeZone.getDefault();
+    protected boolean isUTC() {
+        return false;
     }
 }
@@ -24,10 +24,16 @@ import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNumber;
 import mardlucca.jsel.type.JSELValue;
 
-import java.util.*;
+import java.util.Collections;
+import java.util.List;
 
-import static java.util.Arrays.asList;
 import static mardlucca.jsel.JSELRuntimeException.typeError;
+import static mardlucca.jsel.util.DateArithmetic.day;
+import static mardlucca.jsel.util.DateArithmetic.hourFromTime;
+import static mardlucca.jsel.util.DateArithmetic.makeDate;
+import static mardlucca.jsel.util.DateArithmetic.makeTime;
+import static mardlucca.jsel.util.DateArithmetic.minFromTime;
+import static mardlucca.jsel.util.DateArithmetic.secFromTime;
 
 public class SetMillisecondsFunction extends JSELFunction {
     public static final String NAME = "setMilliseconds";
@@ -51,22 +57,24 @@ public class SetMillisecondsFunction extends JSELFunction {
         }
 
         JSELDate lDate = (JSELDate) aInThis;
+        double lTime = isUTC() ? lDate.getTime() : lDate.getLocalTime();
 
-        GregorianCalendar lCalendar = new GregorianCalendar(getTimeZone());
+        double lMillisecond = getArgument(aInArguments).toNumber();
 
-        lCalendar.setTime(lDate.getDate());
-        lCalendar.set(Calendar.MILLISECOND,
-                (int) getArgument(aInArguments).toNumber());
-
-        lDate.setTime(lCalendar.getTimeInMillis());
+        double lNewTime = makeDate(day(lTime), makeTime(hourFromTime(lTime),
+                minFromTime(lTime), secFromTime(lTime), lMillisecond));
+        if (isUTC()) {
+            lDate.setTime(lNewTime);
+        }
+        else {
+            lDate.setLocalTime(lNewTime);
+        }
 
-        // date may have been clipped, so we check first
-        return lDate.getDate() == null
-                ? JSELNumber.NAN
-                : new JSELNumber(lDate.getDate().getTime());
+        // date may have been clipped, so it is read back
+        return new JSELNumber(lDate.getTime());
     }
 
-    protected TimeZone getTimeZone() {
-        return TimeZone.getDefault();
+    protected boolean isUTC() {
+        return false;
     }
 }
@@ -24,13 +24,16 @@ import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNumber;
 import mardlucca.jsel.type.JSELValue;
 
-import java.util.Calendar;
-import java.util.GregorianCalendar;
 import java.util.List;
-import java.util.TimeZone;
 
 import static java.util.Arrays.asList;
 import static mardlucca.jsel.JSELRuntimeException.typeError;
+import static mardlucca.jsel.util.DateArithmetic.day;
+import static mardlucca.jsel.util.DateArithmetic.hourFromTime;
+import static mardlucca.jsel.util.DateArithmetic.makeDate;
+import static mardlucca.jsel.util.DateArithmetic.makeTime;
+import static mardlucca.jsel.util.DateArithmetic.msFromTime;
+import static mardlucca.jsel.util.DateArithmetic.secFromTime;
 
 public class SetMinutesFunction extends JSELFunction {
     public static final String NAME = "setMinutes";
@@ -54,30 +57,30 @@ public class SetMinutesFunction extends JSELFunction {
         }
 
         JSELDate lDate = (JSELDate) aInThis;
+        double lTime = isUTC() ? lDate.getTime() : lDate.getLocalTime();
 
-        GregorianCalendar lCalendar = new GregorianCalendar(getTimeZone());
+        double lMinute = getArgument(aInArguments).toNumber();
+        double lSecond = aInArguments.size() > 1
+                ? getArgument(aInArguments, 1).toNumber()
+                : secFromTime(lTime);
+        double lMillisecond = aInArguments.size() > 2
+                ? getArgument(aInArguments, 2).toNumber()
+                : msFromTime(lTime);
 
-        lCalendar.setTime(lDate.getDate());
-        lCalendar.set(Calendar.MINUTE,
-                (int) getArgument(aInArguments).toNumber());
-        if (aInArguments.size() > 1) {
-            lCalendar.set(Calendar.SECOND,
-                    (int) getArgument(aInArguments, 1).toNumber());
+        double lNewTime = makeDate(day(lTime), makeTime(hourFromTime(lTime),
+                lMinute, lSecond, lMillisecond));
+        if (isUTC()) {
+            lDate.setTime(lNewTime);
         }
-        if (aInArguments.size() > 2) {
-            lCalendar.set(Calendar.MILLISECOND,
-                    (int) getArgument(aInArguments, 2).toNumber());
+        else {
+            lDate.setLocalTime(lNewTime);
         }
 
-        lDate.setTime(lCalendar.getTimeInMillis());
-
-        // date may have been clipped, so we check first
-        return lDate.getDate() == null
-                ? JSELNumber.NAN
-                : new JSELNumber(lDate.getDate().getTime());
+        // date may have been clipped, so it is read back
+        return new JSELNumber(lDate.getTime());
     }
 
-    protected TimeZone getTimeZone() {
-        return TimeZone.getDefault();
+    protected boolean isUTC() {
+        return false;
     }
 }
@@ -26,7 +26,6 @@ import mardlucca.jsel.type.JSELValue;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.TimeZone;
 
 import static mardlucca.jsel.JSELRuntimeException.typeError;
 
@@ -48,12 +47,9 @@ public class SetTimeFunction extends JSELFunction {
         }
 
         JSELDate lDate = (JSELDate) aInThis;
-        lDate.setTime((long) getArgument(aInArguments).toNumber());
-
-        // date may have been clipped, so we check first
-        return lDate.getDate() == null
-                ? JSELNumber.NAN
-                : new JSELNumber(lDate.getDate().getTime());
+        lDate.setTime(getArgument(aInArguments).toNumber());
 
+        // date may have been clipped, so it is read back
+        return new JSELNumber(lDate.getTime());
     }
 }
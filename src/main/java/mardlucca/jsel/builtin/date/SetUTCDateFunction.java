@@ -18,10 +18,6 @@
 
 package mardlucca.jsel.builtin.date;
 
-import mardlucca.jsel.type.JSELDate;
-
-import java.util.TimeZone;
-
 public class SetUTCDateFunction extends SetDateFunction {
     public static final String NAME = "setUTCDate";
 
@@ -30,7 +26,7 @@ public class SetUTCDateFunction extends SetDateFunction {
     }
 
     @Override
-    protected TimeZone getTimeZone() {
-        return JSELDate.UTC_TIMEZONE;
+    protected boolean isUTC() {
+        return true;
     }
 }
@@ -18,10 +18,6 @@
 
 package mardlucca.jsel.builtin.date;
 
-import mardlucca.jsel.type.JSELDate;
-
-import java.util.TimeZone;
-
 public class SetUTCHoursFunction extends SetHoursFunction {
     public static final String NAME = "setUTCHours";
 
@@ -30,7 +26,7 @@ public class SetUTCHoursFunction extends SetHoursFunction {
     }
 
     @Override
-    protected TimeZone getTimeZone() {
-        return JSELDate.UTC_TIMEZONE;
+    protected boolean isUTC() {
+        return true;
     }
 }
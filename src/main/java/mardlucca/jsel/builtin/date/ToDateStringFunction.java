@@ -49,6 +49,6 @@ public class ToDateStringFunction extends JSELFunction {
         }
 
         return new JSELString(DateFormat.toDateString(
-                ((JSELDate) aInThis).getDate()));
+                ((JSELDate) aInThis).getTime()));
     }
 }
@@ -25,13 +25,13 @@ import mardlucca.jsel.type.JSELString;
 import mardlucca.jsel.type.JSELValue;
 import mardlucca.jsel.util.DateFormat;
 
-import java.util.Date;
 import java.util.List;
 
+import static mardlucca.jsel.JSELRuntimeException.rangeError;
 import static mardlucca.jsel.JSELRuntimeException.typeError;
 
 public class ToISOStringFunction extends JSELFunction {
-    public static final String NAME = "toUTCString";
+    public static final String NAME = "toISOString";
 
     public ToISOStringFunction() {
         super(NAME);
@@ -47,9 +47,10 @@ public class ToISOStringFunction extends JSELFunction {
                     " requires that this' be a " + JSELDate.CLASS);
         }
 
-        Date lDate = ((JSELDate) aInThis).getDate();
-        return lDate == null
-                ? new JSELString(JSELDate.INVALID_DATE)
-                : new JSELString(DateFormat.formatUTC(lDate));
+        double lTime = ((JSELDate) aInThis).getTime();
+        if (Double.isNaN(lTime)) {
+            throw rangeError("Invalid time value");
+        }
+        return new JSELString(DateFormat.formatISO(lTime));
     }
 }
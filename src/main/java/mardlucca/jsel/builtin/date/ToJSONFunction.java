@@ -26,7 +26,6 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
-import static java.util.Collections.emptyList;
 import static mardlucca.jsel.JSELRuntimeException.typeError;
 
 public class ToJSONFunction extends JSELFunction {
@@ -44,11 +43,12 @@ public class ToJSONFunction extends JSELFunction {
         JSELValue lValue = lObject.toPrimitive(GetHint.NUMBER);
 
         if (lValue.getType() == Type.NUMBER
-                && Double.isInfinite(lValue.toNumber())) {
+                && (Double.isInfinite(lValue.toNumber())
+                    || Double.isNaN(lValue.toNumber()))) {
             return JSELNull.getInstance();
         }
 
         JSELValue lToISO = lObject.get(ToISOStringFunction.NAME);
-        return lToISO.call(lObject, emptyList(), aInExecutionContext);
+        return lToISO.call0(lObject, aInExecutionContext);
     }
 }
@@ -51,6 +51,6 @@ public class ToTimeStringFunction extends JSELFunction {
         }
 
         return new JSELString(DateFormat.toTimeString(
-                ((JSELDate) aInThis).getDate()));
+                ((JSELDate) aInThis).getTime()));
     }
 }
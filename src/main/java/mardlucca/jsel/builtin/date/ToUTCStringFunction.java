@@ -22,9 +22,7 @@ import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.*;
 import mardlucca.jsel.util.DateFormat;
 
-import java.util.Date;
 import java.util.List;
-import java.util.TimeZone;
 
 import static mardlucca.jsel.JSELRuntimeException.typeError;
 
@@ -45,9 +43,7 @@ public class ToUTCStringFunction extends JSELFunction {
                     " requires that this' be a " + JSELDate.CLASS);
         }
 
-        Date lDate = ((JSELDate) aInThis).getDate();
-        return lDate == null
-                ? new JSELString(JSELDate.INVALID_DATE)
-                : new JSELString(DateFormat.formatUTC(lDate));
+        return new JSELString(
+                DateFormat.formatUTC(((JSELDate) aInThis).getTime()));
     }
 }
@@ -61,8 +61,7 @@ public class UTCFunction extends JSELFunction {
                 ? getArgument(aInArguments, 6).toNumber()
                 : 0;
 
-        Long lTime = JSELDate.getTime(
-                lYear, lMonth, lDay, lHour, lMinute, lSeconds, lMillis, true);
-        return lTime == null ? JSELNumber.NAN : new JSELNumber(lTime);
+        return new JSELNumber(JSELDate.getTime(
+                lYear, lMonth, lDay, lHour, lMinute, lSeconds, lMillis, true));
     }
 }
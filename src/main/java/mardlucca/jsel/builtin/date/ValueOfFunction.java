@@ -22,7 +22,6 @@ import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.*;
 import mardlucca.jsel.util.DateFormat;
 
-import java.util.Date;
 import java.util.List;
 
 import static mardlucca.jsel.JSELRuntimeException.typeError;
@@ -48,7 +47,6 @@ public class ValueOfFunction extends JSELFunction {
                     " requires that this' be a " + JSELDate.CLASS);
         }
 
-        Date lDate = ((JSELDate) aInThis).getDate();
-        return lDate == null ? JSELNumber.NAN : new JSELNumber(lDate.getTime());
+        return new JSELNumber(((JSELDate) aInThis).getTime());
     }
 }
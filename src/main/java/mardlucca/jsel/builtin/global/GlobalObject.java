@@ -32,6 +32,9 @@ import mardlucca.jsel.type.wrapper.JSELBooleanObject;
 import mardlucca.jsel.type.wrapper.JSELNumberObject;
 import mardlucca.jsel.type.wrapper.JSELStringObject;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class GlobalObject extends JSELObject {
     public static final String CLASS = "Global";
 
@@ -50,6 +53,11 @@ public class GlobalObject extends JSELObject {
 
     private boolean initialized = false;
 
+    /**
+     * The cells handed out for own properties of this object, by name.
+     */
+    private Map<String, PropertyCell> cells = new ConcurrentHashMap<>();
+
     public GlobalObject() {
         super(new ObjectPrototype());
         objectPrototype = (ObjectPrototype) getPrototype();
@@ -143,6 +151,51 @@ public class GlobalObject extends JSELObject {
         return CLASS;
     }
 
+    /**
+     * Returns the cell for an own property of this object. Cells are stable:
+     * the same cell is returned for a property until it is deleted, which
+     * invalidates it, so callers (e.g. identifier expressions) may cache them
+     * to read global bindings without looking them up.
+     * @param aInProperty the name of the property
+     * @return the cell of the property or null, if this object does not own
+     * such a property.
+     */
+    public PropertyCell getPropertyCell(String aInProperty) {
+        PropertyCell lCell = cells.get(aInProperty);
+        if (lCell == null) {
+            PropertyDescriptor lDescriptor = getOwnProperty(aInProperty);
+            if (lDescriptor == null) {
+                return null;
+            }
+            lCell = new PropertyCell(this, lDescriptor);
+            PropertyCell lExisting = cells.putIfAbsent(aInProperty, lCell);
+            if (lExisting != null) {
+                lCell = lExisting;
+            }
+        }
+        return lCell;
+    }
+
+    @Override
+    protected void addOwnProperty(
+            String aInProperty, PropertyDescriptor aInDescriptor) {
+        invalidate(aInProperty);
+        super.addOwnProperty(aInProperty, aInDescriptor);
+    }
+
+    @Override
+    protected void removeOwnProperty(String aInProperty) {
+        invalidate(aInProperty);
+        super.removeOwnProperty(aInProperty);
+    }
+
+    private void invalidate(String aInProperty) {
+        PropertyCell lCell = cells.remove(aInProperty);
+        if (lCell != null) {
+            lCell.valid = false;
+        }
+    }
+
     public JSELObject getObjectPrototype() {
         return objectPrototype;
     }
@@ -174,4 +227,35 @@ public class GlobalObject extends JSELObject {
     public JSELObject getDatePrototype() {
         return datePrototype;
     }
+
+    /**
+     * A holder for an own property of a global object. A property that is
+     * redefined or written keeps its descriptor, so a valid cell always reads
+     * the current value.
+     */
+    public static final class PropertyCell {
+        private final GlobalObject owner;
+        private final PropertyDescriptor descriptor;
+        private volatile boolean valid = true;
+
+        private PropertyCell(GlobalObject aInOwner,
+                PropertyDescriptor aInDescriptor) {
+            owner = aInOwner;
+            descriptor = aInDescriptor;
+        }
+
+        /**
+         * Checks whether this cell still holds a property of a global object.
+         * @param aInGlobalObject the global object
+         * @return true if this is a cell of the given object and its property
+         * was not deleted.
+         */
+        public boolean isValidFor(GlobalObject aInGlobalObject) {
+            return valid && owner == aInGlobalObject;
+        }
+
+        public JSELValue getValue() {
+            return descriptor.getValue();
+        }
+    }
 }
@@ -23,6 +23,7 @@ import mardlucca.jsel.JSELRuntimeException;
 import mardlucca.jsel.JSONCompiler;
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.expr.JSELExpression;
+import mardlucca.jsel.expr.StackEvaluator;
 import mardlucca.jsel.type.*;
 import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
 
@@ -58,7 +59,8 @@ public class ParseFunction extends JSELFunction {
             throw syntaxError(e.getMessage());
         }
 
-        JSELValue lValue = lExpression.execute(aInExecutionContext);
+        JSELValue lValue =
+                StackEvaluator.evaluate(lExpression, aInExecutionContext);
         JSELValue lReviver = getArgument(aInArguments, 1);
         if (!lReviver.isCallable()) {
             return lValue;
@@ -112,7 +114,7 @@ public class ParseFunction extends JSELFunction {
             }
         }
 
-        return aInReviver.call(aInHolder, asList(aInName, lValue),
+        return aInReviver.call2(aInHolder, aInName, lValue,
                 aInExecutionContext);
     }
 }
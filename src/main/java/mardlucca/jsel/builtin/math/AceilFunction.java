@@ -37,6 +37,12 @@ public class AceilFunction extends JSELFunction {
     public JSELValue call(JSELValue aInThis,
                           List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
-        return new JSELNumber(Math.ceil(getArgument(aInArguments).toNumber()));
+        return call1(aInThis, getArgument(aInArguments), aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call1(JSELValue aInThis, JSELValue aInArgument0,
+                           ExecutionContext aInExecutionContext) {
+        return new JSELNumber(Math.ceil(aInArgument0.toNumber()));
     }
 }
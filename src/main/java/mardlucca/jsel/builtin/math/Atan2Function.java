@@ -39,8 +39,15 @@ public class Atan2Function extends JSELFunction {
     public JSELValue call(JSELValue aInThis,
                           List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
+        return call2(aInThis, getArgument(aInArguments),
+                getArgument(aInArguments, 1), aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call2(JSELValue aInThis, JSELValue aInArgument0,
+                           JSELValue aInArgument1,
+                           ExecutionContext aInExecutionContext) {
         return new JSELNumber(Math.atan2(
-                getArgument(aInArguments).toNumber(),
-                getArgument(aInArguments, 1).toNumber()));
+                aInArgument0.toNumber(), aInArgument1.toNumber()));
     }
 }
@@ -49,4 +49,16 @@ public class MaxFunction extends JSELFunction {
 
         return new JSELNumber(lMax);
     }
+
+    @Override
+    public JSELValue call2(JSELValue aInThis, JSELValue aInArgument0,
+                           JSELValue aInArgument1,
+                           ExecutionContext aInExecutionContext) {
+        double lDouble0 = aInArgument0.toNumber();
+        if (Double.isNaN(lDouble0)) { return JSELNumber.NAN; }
+        double lDouble1 = aInArgument1.toNumber();
+        if (Double.isNaN(lDouble1)) { return JSELNumber.NAN; }
+
+        return new JSELNumber(Math.max(lDouble0, lDouble1));
+    }
 }
@@ -48,4 +48,16 @@ public class MinFunction extends JSELFunction {
 
         return new JSELNumber(lMin);
     }
+
+    @Override
+    public JSELValue call2(JSELValue aInThis, JSELValue aInArgument0,
+                           JSELValue aInArgument1,
+                           ExecutionContext aInExecutionContext) {
+        double lDouble0 = aInArgument0.toNumber();
+        if (Double.isNaN(lDouble0)) { return JSELNumber.NAN; }
+        double lDouble1 = aInArgument1.toNumber();
+        if (Double.isNaN(lDouble1)) { return JSELNumber.NAN; }
+
+        return new JSELNumber(Math.min(lDouble0, lDouble1));
+    }
 }
@@ -38,8 +38,15 @@ public class PowFunction extends JSELFunction {
     public JSELValue call(JSELValue aInThis,
                           List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
+        return call2(aInThis, getArgument(aInArguments),
+                getArgument(aInArguments, 1), aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call2(JSELValue aInThis, JSELValue aInArgument0,
+                           JSELValue aInArgument1,
+                           ExecutionContext aInExecutionContext) {
         return new JSELNumber(Math.pow(
-                getArgument(aInArguments).toNumber(),
-                getArgument(aInArguments, 1).toNumber()));
+                aInArgument0.toNumber(), aInArgument1.toNumber()));
     }
 }
@@ -22,18 +22,15 @@ import mardlucca.jsel.type.JSELArray;
 import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNull;
 import mardlucca.jsel.type.JSELNumber;
-import mardlucca.jsel.type.JSELObject;
 import mardlucca.jsel.type.JSELRegExp;
 import mardlucca.jsel.type.JSELString;
 import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.RegExpMatcher;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static mardlucca.jsel.JSELRuntimeException.typeError;
 import static mardlucca.jsel.type.JSELRegExp.GLOBAL;
-import static mardlucca.jsel.type.JSELRegExp.LAST_INDEX;
-import static java.util.Arrays.stream;
 
 public class ExecFunction extends JSELFunction {
     public static final String NAME = "exec";
@@ -55,40 +52,48 @@ public class ExecFunction extends JSELFunction {
         }
 
         String lString = getArgument(aInArguments).toString();
-        MatchResult lMatchResult = exec(aInThisValue.toObject(), lString);
+        RegExpMatcher lMatcher = exec(
+                (JSELRegExp) aInThisValue.toObject(), lString);
 
-        if (lMatchResult == null) {
+        if (lMatcher == null) {
             return JSELNull.getInstance();
         }
 
-        JSELArray lReturn = new JSELArray(
-                stream(lMatchResult.getCaptures())
-                .map(JSELString::new)
-                .collect(Collectors.toList()));
+        JSELArray lReturn = lMatcher.toCapturesArray();
         lReturn.defineOwnProperty(INDEX,
-                new JSELNumber(lMatchResult.getStart()),
+                new JSELNumber(lMatcher.start()),
                 true, true, true);
         lReturn.defineOwnProperty(INPUT,
-                new JSELString(getArgument(aInArguments).toString()),
+                new JSELString(lString),
                 true, true, true);
 
         return lReturn;
     }
 
-    public static MatchResult exec(JSELObject aInThis, String aInString) {
-        int lLastIndex = aInThis.get(LAST_INDEX).toInteger();
+    /**
+     * Performs the matching steps of RegExp.prototype.exec, updating
+     * "lastIndex" as specified.
+     * @param aInThis the regular expression
+     * @param aInString the string to search
+     * @return a matcher positioned on the match found or null if there is no
+     * match
+     * @see <a href="https://www.ecma-international.org/ecma-262/5.1/#sec-15.10.6.2">
+     * ECMA-262, 5.1, Section 15.10.6.2"</a>
+     */
+    public static RegExpMatcher exec(JSELRegExp aInThis, String aInString) {
         boolean lGlobal = aInThis.get(GLOBAL).toBoolean();
-        if (!lGlobal) {
-            lLastIndex = 0;
-        }
+        int lLastIndex = lGlobal ? aInThis.getLastIndex() : 0;
 
-        MatchResult lMatchResult = aInThis.match(aInString, lLastIndex);
-        if (lMatchResult == null) {
-            aInThis.put(LAST_INDEX, new JSELNumber(0));
-        } else if (lGlobal) {
-            aInThis.put(LAST_INDEX, new JSELNumber(lMatchResult.getEnd()));
+        RegExpMatcher lMatcher = aInThis.matcher(aInString);
+        if (!lMatcher.find(lLastIndex)) {
+            // this includes a "lastIndex" out of the string's bounds
+            aInThis.setLastIndex(0);
+            return null;
         }
 
-        return lMatchResult;
+        if (lGlobal) {
+            aInThis.setLastIndex(lMatcher.end());
+        }
+        return lMatcher;
     }
 }
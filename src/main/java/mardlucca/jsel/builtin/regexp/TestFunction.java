@@ -47,7 +47,7 @@ public class TestFunction extends JSELFunction {
         }
 
         String lString = getArgument(aInArguments).toString();
-        return exec(aInThisValue.toObject(), lString) == null
+        return exec((JSELRegExp) aInThisValue.toObject(), lString) == null
                 ? JSELBoolean.FALSE
                 : JSELBoolean.TRUE;
     }
@@ -36,6 +36,12 @@ public class CharCodeAtFunction extends JSELFunction {
     @Override
     public JSELValue call(JSELValue aInThis, List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
+        return call1(aInThis, getArgument(aInArguments), aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call1(JSELValue aInThis, JSELValue aInArgument0,
+                           ExecutionContext aInExecutionContext) {
         if (aInThis.getType() == Type.NULL
                 || aInThis.getType() == Type.UNDEFINED) {
             throw JSELRuntimeException.typeError(
@@ -43,7 +49,7 @@ public class CharCodeAtFunction extends JSELFunction {
         }
         
         String lString = aInThis.toString();
-        int lPos = getArgument(aInArguments).toInteger();
+        int lPos = aInArgument0.toInteger();
         if (lPos >= lString.length()) {
             return JSELNumber.NAN;
         }
@@ -20,6 +20,7 @@ package mardlucca.jsel.builtin.string;
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNumber;
+import mardlucca.jsel.type.JSELUndefined;
 import mardlucca.jsel.type.JSELValue;
 import mardlucca.jsel.type.Type;
 import mardlucca.jsel.JSELRuntimeException;
@@ -36,6 +37,21 @@ public class IndexOfFunction extends JSELFunction {
     @Override
     public JSELValue call(JSELValue aInThis, List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
+        return call2(aInThis, getArgument(aInArguments),
+                getArgument(aInArguments, 1), aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call1(JSELValue aInThis, JSELValue aInArgument0,
+                           ExecutionContext aInExecutionContext) {
+        return call2(aInThis, aInArgument0, JSELUndefined.getInstance(),
+                aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call2(JSELValue aInThis, JSELValue aInArgument0,
+                           JSELValue aInArgument1,
+                           ExecutionContext aInExecutionContext) {
         if (aInThis.getType() == Type.NULL
                 || aInThis.getType() == Type.UNDEFINED) {
             throw JSELRuntimeException.typeError(
@@ -43,8 +59,8 @@ public class IndexOfFunction extends JSELFunction {
         }
 
         String lString = aInThis.toString();
-        String lSearchString = getArgument(aInArguments).toString();
-        int lPosition = getArgument(aInArguments, 1).toInteger();
+        String lSearchString = aInArgument0.toString();
+        int lPosition = aInArgument1.toInteger();
 
         return new JSELNumber(lString.indexOf(lSearchString, lPosition));
     }
@@ -22,21 +22,14 @@ import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELArray;
 import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNull;
-import mardlucca.jsel.type.JSELNumber;
-import mardlucca.jsel.type.JSELObject;
 import mardlucca.jsel.type.JSELRegExp;
-import mardlucca.jsel.type.JSELString;
 import mardlucca.jsel.type.JSELValue;
 import mardlucca.jsel.type.Type;
 import mardlucca.jsel.JSELRuntimeException;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
-import static mardlucca.jsel.builtin.regexp.ExecFunction.exec;
-import static java.util.Arrays.stream;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
 
@@ -56,6 +49,12 @@ public class MatchFunction extends JSELFunction {
     @Override
     public JSELValue call(JSELValue aInThis, List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
+        return call1(aInThis, getArgument(aInArguments), aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call1(JSELValue aInThis, JSELValue aInArgument0,
+                           ExecutionContext aInExecutionContext) {
         if (aInThis.getType() == Type.NULL
                 || aInThis.getType() == Type.UNDEFINED) {
             throw JSELRuntimeException.typeError(
@@ -63,7 +62,7 @@ public class MatchFunction extends JSELFunction {
         }
 
         String lString = aInThis.toString();
-        JSELValue lRegExpParameter = getArgument(aInArguments);
+        JSELValue lRegExpParameter = aInArgument0;
 
         if (lRegExpParameter.getType() != Type.OBJECT
                 || !lRegExpParameter.toObject().getObjectClass().equals(
@@ -72,7 +71,7 @@ public class MatchFunction extends JSELFunction {
                     lRegExpParameter.toString(), emptySet());
         }
 
-        JSELObject lRegExp = lRegExpParameter.toObject();
+        JSELRegExp lRegExp = (JSELRegExp) lRegExpParameter.toObject();
 
         boolean lGlobal = lRegExp.get(JSELRegExp.GLOBAL).toBoolean();
 
@@ -81,33 +80,12 @@ public class MatchFunction extends JSELFunction {
                     lRegExp, singletonList(aInThis), aInExecutionContext);
         }
 
-        // resets the reg exp
-        lRegExp.put(JSELRegExp.LAST_INDEX, new JSELNumber(0));
-
-        int lPreviousLastIndex = 0;
-        List<String> lValues = new ArrayList<>();
-
-        for (MatchResult lResult = exec(lRegExp, lString);
-                lResult != null;
-                lResult = exec(lRegExp, lString)) {
-            int lThisIndex = lResult.getEnd();
-            if (lThisIndex == lPreviousLastIndex) {
-                // this is required for empty regexps, as matching the empty
-                // string does not advance "lastIndex"
-                lPreviousLastIndex = lThisIndex + 1;
-                lRegExp.put(JSELRegExp.LAST_INDEX, new JSELNumber(lPreviousLastIndex));
-            } else {
-                lPreviousLastIndex = lThisIndex;
-            }
-
-            // only interested in the full match (index 0), not capturing groups
-            lValues.add(lResult.getCaptures()[0]);
-        }
+        // the spec repeatedly calls exec, which updates "lastIndex" after each
+        // match and leaves it at 0 when no more matches are found. All matches
+        // are collected by a single matcher instead, with the same result.
+        lRegExp.setLastIndex(0);
+        JSELArray lMatches = lRegExp.matcher(lString).findAll();
 
-        return lValues.isEmpty()
-                ? JSELNull.getInstance()
-                : new JSELArray(lValues.stream()
-                        .map(JSELString::new)
-                        .collect(Collectors.toList()));
+        return lMatches == null ? JSELNull.getInstance() : lMatches;
     }
 }
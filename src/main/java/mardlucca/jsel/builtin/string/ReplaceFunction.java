@@ -17,29 +17,25 @@
  */
 package mardlucca.jsel.builtin.string;
 
-import mardlucca.jsel.builtin.regexp.ExecFunction;
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELFunction;
+import mardlucca.jsel.type.JSELNumber;
 import mardlucca.jsel.type.JSELRegExp;
 import mardlucca.jsel.type.JSELString;
+import mardlucca.jsel.type.JSELUndefined;
 import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.RegExpMatcher;
 import mardlucca.jsel.type.Type;
 import mardlucca.jsel.JSELRuntimeException;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
 
 import static java.util.Arrays.asList;
 
 public class ReplaceFunction extends JSELFunction {
     public static final String NAME = "replace";
 
-    /**
-     * Being lazy but this is exactly how the spec describes the implementation
-     * of this function
-     */
-    private ExecFunction execFunction = new ExecFunction();
-
     public ReplaceFunction() {
         super(NAME, asList("searchValue", "replaceValue"));
     }
@@ -47,6 +43,21 @@ public class ReplaceFunction extends JSELFunction {
     @Override
     public JSELValue call(JSELValue aInThis, List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
+        return call2(aInThis, getArgument(aInArguments),
+                getArgument(aInArguments, 1), aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call1(JSELValue aInThis, JSELValue aInArgument0,
+                           ExecutionContext aInExecutionContext) {
+        return call2(aInThis, aInArgument0, JSELUndefined.getInstance(),
+                aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call2(JSELValue aInThis, JSELValue aInArgument0,
+                           JSELValue aInArgument1,
+                           ExecutionContext aInExecutionContext) {
         if (aInThis.getType() == Type.NULL
                 || aInThis.getType() == Type.UNDEFINED) {
             throw JSELRuntimeException.typeError(
@@ -54,22 +65,169 @@ public class ReplaceFunction extends JSELFunction {
         }
 
         String lString = aInThis.toString();
-        JSELValue lSearchValueParam = getArgument(aInArguments, 0);
-        String lReplaceValue = getArgument(aInArguments, 1).toString();
+        JSELValue lSearchValueParam = aInArgument0;
+        JSELValue lReplaceValueParam = aInArgument1;
+        String lReplaceValue = lReplaceValueParam.isCallable()
+                ? null
+                : lReplaceValueParam.toString();
+        StringBuilder lResult = new StringBuilder(lString.length());
 
         if (lSearchValueParam.getType() == Type.OBJECT
                 && lSearchValueParam.toObject().getObjectClass().equals(
                         JSELRegExp.CLASS)) {
             // search value is a regex
-            JSELRegExp lRegExp = (JSELRegExp) lSearchValueParam;
-            Matcher lMatcher = lRegExp.getPattern().matcher(lString);
-            return new JSELString(lRegExp.get(JSELRegExp.GLOBAL).toBoolean()
-                    ? lMatcher.replaceAll(lReplaceValue)
-                    : lMatcher.replaceFirst(lReplaceValue));
+            JSELRegExp lRegExp = (JSELRegExp) lSearchValueParam.toObject();
+            boolean lGlobal = lRegExp.get(JSELRegExp.GLOBAL).toBoolean();
+            if (lGlobal) {
+                lRegExp.setLastIndex(0);
+            }
+
+            RegExpMatcher lMatcher = lRegExp.matcher(lString);
+            int lCopied = 0;
+            int lIndex = 0;
+            while (lMatcher.find(lIndex)) {
+                lResult.append(lString, lCopied, lMatcher.start());
+                if (lReplaceValue == null) {
+                    lResult.append(callReplacer(lReplaceValueParam, lString,
+                            lMatcher, lMatcher.start(), lMatcher.end(),
+                            aInExecutionContext));
+                } else {
+                    appendReplacement(lResult, lReplaceValue, lString,
+                            lMatcher, lMatcher.start(), lMatcher.end());
+                }
+                lCopied = lMatcher.end();
+                if (!lGlobal) {
+                    break;
+                }
+
+                // matching the empty string must still advance
+                lIndex = lMatcher.end() == lMatcher.start()
+                        ? lMatcher.end() + 1
+                        : lMatcher.end();
+            }
+            lResult.append(lString, lCopied, lString.length());
+            return new JSELString(lResult.toString());
+        }
+
+        // search value is a string, only its first occurrence is replaced
+        String lSearchString = lSearchValueParam.toString();
+        int lStart = lString.indexOf(lSearchString);
+        if (lStart < 0) {
+            return new JSELString(lString);
         }
+        int lEnd = lStart + lSearchString.length();
 
-        // convert search value to string and replace
-        return new JSELString(
-                lString.replace(lSearchValueParam.toString(), lReplaceValue));
+        lResult.append(lString, 0, lStart);
+        if (lReplaceValue == null) {
+            lResult.append(callReplacer(lReplaceValueParam, lString, null,
+                    lStart, lEnd, aInExecutionContext));
+        } else {
+            appendReplacement(lResult, lReplaceValue, lString, null,
+                    lStart, lEnd);
+        }
+        lResult.append(lString, lEnd, lString.length());
+        return new JSELString(lResult.toString());
+    }
+
+    /**
+     * Calls a replacer function for a match, passing the matched substring,
+     * the captures, the position of the match and the string being searched.
+     * @param aInReplacer the replacer function
+     * @param aInString the string being searched
+     * @param aInMatcher the matcher positioned on the match or null if the
+     *                   search value is a string
+     * @param aInStart where the match starts
+     * @param aInEnd where the match ends
+     * @param aInExecutionContext the execution context
+     * @return the replacement text
+     */
+    private static String callReplacer(JSELValue aInReplacer,
+            String aInString, RegExpMatcher aInMatcher, int aInStart,
+            int aInEnd, ExecutionContext aInExecutionContext) {
+        int lGroupCount = aInMatcher == null ? 0 : aInMatcher.groupCount();
+        List<JSELValue> lArguments = new ArrayList<>(lGroupCount + 3);
+        lArguments.add(new JSELString(
+                aInString.substring(aInStart, aInEnd)));
+        for (int i = 1; i <= lGroupCount; i++) {
+            String lCapture = aInMatcher.group(i);
+            lArguments.add(lCapture == null
+                    ? JSELUndefined.getInstance()
+                    : new JSELString(lCapture));
+        }
+        lArguments.add(new JSELNumber(aInStart));
+        lArguments.add(new JSELString(aInString));
+
+        return aInReplacer.call(JSELUndefined.getInstance(), lArguments,
+                aInExecutionContext).toString();
+    }
+
+    /**
+     * Appends the replacement text for a match, expanding "$" patterns.
+     * @param aInBuilder where to append the replacement to
+     * @param aInReplaceValue the replacement value
+     * @param aInString the string being searched
+     * @param aInMatcher the matcher positioned on the match or null if the
+     *                   search value is a string, in which case there are no
+     *                   captures
+     * @param aInStart where the match starts
+     * @param aInEnd where the match ends
+     * @see <a href="https://www.ecma-international.org/ecma-262/5.1/#sec-15.5.4.11">
+     * ECMA-262, 5.1, Section 15.5.4.11"</a>
+     */
+    static void appendReplacement(StringBuilder aInBuilder,
+            String aInReplaceValue, String aInString, RegExpMatcher aInMatcher,
+            int aInStart, int aInEnd) {
+        int lCaptureCount = aInMatcher == null
+                ? 1
+                : aInMatcher.groupCount() + 1;
+        int lLength = aInReplaceValue.length();
+        for (int i = 0; i < lLength; i++) {
+            char c = aInReplaceValue.charAt(i);
+            if (c != '$' || i + 1 == lLength) {
+                aInBuilder.append(c);
+                continue;
+            }
+
+            char lNext = aInReplaceValue.charAt(i + 1);
+            if (lNext == '$') {
+                aInBuilder.append('$');
+                i++;
+            } else if (lNext == '&') {
+                aInBuilder.append(aInString, aInStart, aInEnd);
+                i++;
+            } else if (lNext == '`') {
+                aInBuilder.append(aInString, 0, aInStart);
+                i++;
+            } else if (lNext == '\'') {
+                aInBuilder.append(aInString, aInEnd, aInString.length());
+                i++;
+            } else if (lNext >= '0' && lNext <= '9') {
+                int lGroup = lNext - '0';
+                int lDigits = 1;
+                if (i + 2 < lLength) {
+                    char lSecond = aInReplaceValue.charAt(i + 2);
+                    int lTwoDigitGroup = lGroup * 10 + (lSecond - '0');
+                    if (lSecond >= '0' && lSecond <= '9'
+                            && lTwoDigitGroup > 0
+                            && lTwoDigitGroup < lCaptureCount) {
+                        lGroup = lTwoDigitGroup;
+                        lDigits = 2;
+                    }
+                }
+                if (lGroup == 0 || lGroup >= lCaptureCount) {
+                    // not a valid group, so this is just text
+                    aInBuilder.append(c);
+                    continue;
+                }
+                int lGroupStart = aInMatcher.start(lGroup);
+                if (lGroupStart >= 0) {
+                    aInBuilder.append(aInString, lGroupStart,
+                            aInMatcher.end(lGroup));
+                }
+                i += lDigits;
+            } else {
+                aInBuilder.append(c);
+            }
+        }
     }
 }
@@ -20,9 +20,9 @@ package mardlucca.jsel.builtin.string;
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELNumber;
-import mardlucca.jsel.type.JSELObject;
 import mardlucca.jsel.type.JSELRegExp;
 import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.RegExpMatcher;
 import mardlucca.jsel.type.Type;
 import mardlucca.jsel.JSELRuntimeException;
 
@@ -41,13 +41,19 @@ public class SearchFunction extends JSELFunction {
     @Override
     public JSELValue call(JSELValue aInThis, List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
+        return call1(aInThis, getArgument(aInArguments), aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call1(JSELValue aInThis, JSELValue aInArgument0,
+                           ExecutionContext aInExecutionContext) {
         if (aInThis.getType() == Type.NULL
                 || aInThis.getType() == Type.UNDEFINED) {
             throw JSELRuntimeException.typeError(
                     "String.prototype.match called on null or undefined");
         }
 
-        JSELValue lRegExpParameter = getArgument(aInArguments);
+        JSELValue lRegExpParameter = aInArgument0;
 
         if (lRegExpParameter.getType() != Type.OBJECT
                 || !lRegExpParameter.toObject().getObjectClass().equals(
@@ -56,10 +62,10 @@ public class SearchFunction extends JSELFunction {
                     lRegExpParameter.toString(), emptySet());
         }
 
-        JSELObject lRegExp = lRegExpParameter.toObject();
-        MatchResult lResult = lRegExp.match(aInThis.toString(), 0);
-        return lResult == null
-                ? new JSELNumber(-1)
-                : new JSELNumber(lResult.getStart());
+        RegExpMatcher lMatcher = ((JSELRegExp) lRegExpParameter.toObject())
+                .matcher(aInThis.toString());
+        return lMatcher.find(0)
+                ? new JSELNumber(lMatcher.start())
+                : new JSELNumber(-1);
     }
 }
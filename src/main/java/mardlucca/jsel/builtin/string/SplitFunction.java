@@ -20,22 +20,35 @@ package mardlucca.jsel.builtin.string;
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELArray;
 import mardlucca.jsel.type.JSELFunction;
+import mardlucca.jsel.type.JSELRegExp;
 import mardlucca.jsel.type.JSELString;
+import mardlucca.jsel.type.JSELUndefined;
 import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.RegExpMatcher;
 import mardlucca.jsel.type.Type;
 import mardlucca.jsel.JSELRuntimeException;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static java.util.Arrays.asList;
-import static java.util.Arrays.stream;
 import static java.util.Collections.singletonList;
 
+/**
+ * Implementation of String.prototype.split. Single character and string
+ * separators, by far the most common ones, are searched for directly in the
+ * string. Only regular expression separators go through a matcher.
+ * @see <a href="https://www.ecma-international.org/ecma-262/5.1/#sec-15.5.4.14">
+ * ECMA-262, 5.1, Section 15.5.4.14"</a>
+ */
 public class SplitFunction extends JSELFunction {
     public static final String NAME = "split";
 
+    /**
+     * Default limit, 2^32 - 1, used when no limit is supplied.
+     */
+    private static final long MAX_LIMIT = 0xFFFFFFFFL;
+
     public SplitFunction() {
         super(NAME, asList("separator", "limit"));
     }
@@ -43,6 +56,21 @@ public class SplitFunction extends JSELFunction {
     @Override
     public JSELValue call(JSELValue aInThis, List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
+        return call2(aInThis, getArgument(aInArguments),
+                getArgument(aInArguments, 1), aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call1(JSELValue aInThis, JSELValue aInArgument0,
+                           ExecutionContext aInExecutionContext) {
+        return call2(aInThis, aInArgument0, JSELUndefined.getInstance(),
+                aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call2(JSELValue aInThis, JSELValue aInArgument0,
+                           JSELValue aInArgument1,
+                           ExecutionContext aInExecutionContext) {
         if (aInThis.getType() == Type.NULL
                 || aInThis.getType() == Type.UNDEFINED) {
             throw JSELRuntimeException.typeError(
@@ -50,29 +78,137 @@ public class SplitFunction extends JSELFunction {
         }
 
         String lString = aInThis.toString();
-        JSELValue lSeparator = getArgument(aInArguments, 0);
+        JSELValue lSeparator = aInArgument0;
+        JSELValue lLimitValue = aInArgument1;
+        long lLimit = lLimitValue.getType() == Type.UNDEFINED
+                ? MAX_LIMIT
+                : lLimitValue.toUInt32();
 
-        if (lSeparator.getType() == Type.UNDEFINED || lString.isEmpty()) {
-            if (lSeparator.match(lString, 0) != null) {
-                return new JSELArray();
-            }
+        if (lLimit == 0) {
+            return new JSELArray();
+        }
+        if (lSeparator.getType() == Type.UNDEFINED) {
             return new JSELArray(singletonList(new JSELString(lString)));
         }
 
-        int lIndex = 0;
-        List<String> lStrings = new ArrayList<>();
-        while (lIndex < lString.length()) {
-            MatchResult lResult = lSeparator.match(lString, lIndex);
-            if (lResult == null) {
-                break;
+        List<JSELValue> lParts;
+        if (lSeparator.getType() == Type.OBJECT
+                && lSeparator.toObject().getObjectClass().equals(
+                        JSELRegExp.CLASS)) {
+            lParts = split(lString,
+                    ((JSELRegExp) lSeparator.toObject()).matcher(lString),
+                    lLimit);
+        } else {
+            String lSeparatorString = lSeparator.toString();
+            if (lSeparatorString.length() == 1) {
+                lParts = split(lString, lSeparatorString.charAt(0), lLimit);
+            } else if (lSeparatorString.isEmpty()) {
+                lParts = split(lString, lLimit);
+            } else {
+                lParts = split(lString, lSeparatorString, lLimit);
             }
+        }
+
+        return new JSELArray(lParts);
+    }
 
-            lStrings.addAll(asList(lResult.getCaptures()));
+    /**
+     * Splits a string by a single character.
+     */
+    private static List<JSELValue> split(
+            String aInString, char aInSeparator, long aInLimit) {
+        List<JSELValue> lParts = new ArrayList<>();
+        int lStart = 0;
+        for (int lEnd = aInString.indexOf(aInSeparator);
+                lEnd >= 0;
+                lEnd = aInString.indexOf(aInSeparator, lStart)) {
+            lParts.add(new JSELString(aInString.substring(lStart, lEnd)));
+            if (lParts.size() == aInLimit) {
+                return lParts;
+            }
+            lStart = lEnd + 1;
         }
+        lParts.add(new JSELString(aInString.substring(lStart)));
+        return lParts;
+    }
 
-        return new JSELArray(
-                lStrings.stream()
-                    .map(JSELString::new)
-                    .collect(Collectors.toList()));
+    /**
+     * Splits a string by a non empty string.
+     */
+    private static List<JSELValue> split(
+            String aInString, String aInSeparator, long aInLimit) {
+        List<JSELValue> lParts = new ArrayList<>();
+        int lStart = 0;
+        for (int lEnd = aInString.indexOf(aInSeparator);
+                lEnd >= 0;
+                lEnd = aInString.indexOf(aInSeparator, lStart)) {
+            lParts.add(new JSELString(aInString.substring(lStart, lEnd)));
+            if (lParts.size() == aInLimit) {
+                return lParts;
+            }
+            lStart = lEnd + aInSeparator.length();
+        }
+        lParts.add(new JSELString(aInString.substring(lStart)));
+        return lParts;
+    }
+
+    /**
+     * Splits a string by the empty string, i.e. into its characters.
+     */
+    private static List<JSELValue> split(String aInString, long aInLimit) {
+        int lLength = (int) Math.min(aInString.length(), aInLimit);
+        List<JSELValue> lParts = new ArrayList<>(lLength);
+        for (int i = 0; i < lLength; i++) {
+            lParts.add(new JSELString(String.valueOf(aInString.charAt(i))));
+        }
+        return lParts;
+    }
+
+    /**
+     * Splits a string by a regular expression, adding its captures to the
+     * result. An empty match at the start of a part does not split it, which
+     * also covers the empty regular expression.
+     */
+    private static List<JSELValue> split(
+            String aInString, RegExpMatcher aInMatcher, long aInLimit) {
+        List<JSELValue> lParts = new ArrayList<>();
+        int lLength = aInString.length();
+
+        if (lLength == 0) {
+            // the empty string is only split if the separator matches it
+            if (!aInMatcher.find(0)) {
+                lParts.add(new JSELString(aInString));
+            }
+            return lParts;
+        }
+
+        int lStart = 0;
+        int lIndex = 0;
+        while (lIndex < lLength && aInMatcher.find(lIndex)
+                && aInMatcher.start() < lLength) {
+            int lEnd = aInMatcher.end();
+            if (lEnd == lStart) {
+                lIndex = aInMatcher.start() + 1;
+                continue;
+            }
+
+            lParts.add(new JSELString(
+                    aInString.substring(lStart, aInMatcher.start())));
+            if (lParts.size() == aInLimit) {
+                return lParts;
+            }
+            for (int i = 1; i <= aInMatcher.groupCount(); i++) {
+                String lCapture = aInMatcher.group(i);
+                lParts.add(lCapture == null
+                        ? JSELUndefined.getInstance()
+                        : new JSELString(lCapture));
+                if (lParts.size() == aInLimit) {
+                    return lParts;
+                }
+            }
+            lStart = lIndex = lEnd;
+        }
+        lParts.add(new JSELString(aInString.substring(lStart)));
+        return lParts;
     }
 }
@@ -20,6 +20,7 @@ package mardlucca.jsel.builtin.string;
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELString;
+import mardlucca.jsel.type.JSELUndefined;
 import mardlucca.jsel.type.JSELValue;
 import mardlucca.jsel.type.Type;
 import mardlucca.jsel.JSELRuntimeException;
@@ -39,6 +40,21 @@ public class SubstringFunction extends JSELFunction {
     @Override
     public JSELValue call(JSELValue aInThis, List<JSELValue> aInArguments,
                           ExecutionContext aInExecutionContext) {
+        return call2(aInThis, getArgument(aInArguments),
+                getArgument(aInArguments, 1), aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call1(JSELValue aInThis, JSELValue aInArgument0,
+                           ExecutionContext aInExecutionContext) {
+        return call2(aInThis, aInArgument0, JSELUndefined.getInstance(),
+                aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call2(JSELValue aInThis, JSELValue aInArgument0,
+                           JSELValue aInArgument1,
+                           ExecutionContext aInExecutionContext) {
         if (aInThis.getType() == Type.NULL
                 || aInThis.getType() == Type.UNDEFINED) {
             throw JSELRuntimeException.typeError(
@@ -47,9 +63,9 @@ public class SubstringFunction extends JSELFunction {
 
         String lString = aInThis.toString();
         int lStart = min(
-                max(getArgument(aInArguments, 0).toInteger(), 0),
+                max(aInArgument0.toInteger(), 0),
                 lString.length());
-        JSELValue lEndArgument = getArgument(aInArguments, 1);
+        JSELValue lEndArgument = aInArgument1;
         int lEnd = lEndArgument.getType() == Type.UNDEFINED
                 ? lString.length()
                 : min(max(lEndArgument.toInteger(), 0), lString.length());
@@ -17,30 +17,145 @@
  */
 package mardlucca.jsel.env;
 
-import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.JSELArguments;
+import mardlucca.jsel.type.JSELFunction;
 import mardlucca.jsel.type.JSELValue;
 
 import java.util.HashMap;
 import java.util.Map;
 
 public class DeclarativeEnvironmentRecord extends EnvironmentRecord {
-    private Map<String, JSELValue> bindings = new HashMap<>();
+    /**
+     * Name of the binding holding the arguments object of a function call.
+     */
+    public static final String ARGUMENTS = "arguments";
+
+    private static final String[] NO_SLOTS = new String[0];
+
+    /**
+     * The names of the bindings kept in {@link #slots} (e.g. the parameters
+     * of a function). This is usually shared by many records, so it is never
+     * changed.
+     */
+    private String[] slotNames;
+
+    /**
+     * The values of the bindings named in {@link #slotNames}. Records for
+     * function calls also have a slot for each argument the function does not
+     * declare a parameter for.
+     */
+    private JSELValue[] slots;
+
+    /**
+     * Bindings that have no slot. This is only allocated when first needed.
+     */
+    private Map<String, JSELValue> bindings;
+
+    /**
+     * The function this is the record of a call to, or null.
+     */
+    private JSELFunction callee;
+
+    /**
+     * The number of arguments of the call to {@link #callee}.
+     */
+    private int argumentCount;
 
     public DeclarativeEnvironmentRecord() {
+        this(null);
     }
 
     public DeclarativeEnvironmentRecord(
             EnvironmentRecord aInOuter) {
+        this(aInOuter, NO_SLOTS);
+    }
+
+    /**
+     * Creates a record with a slot for each of the given names, which are
+     * bound with {@link #setSlot(int, JSELValue)}.
+     * @param aInOuter the outer record
+     * @param aInSlotNames the names of the slots, which must not be changed
+     *                     afterwards.
+     */
+    public DeclarativeEnvironmentRecord(
+            EnvironmentRecord aInOuter, String[] aInSlotNames) {
+        super(aInOuter);
+        slotNames = aInSlotNames;
+        slots = new JSELValue[aInSlotNames.length];
+    }
+
+    /**
+     * Creates the record of a function call, with a slot for each of the
+     * function's parameters and for each argument beyond those. The
+     * "arguments" object is only created if it is ever resolved.
+     * @param aInOuter the outer record (i.e. the function's scope)
+     * @param aInParameters the names of the function's parameters, which
+     *                      must not be changed afterwards.
+     * @param aInCallee the function called
+     * @param aInArgumentCount the number of arguments of the call, which are
+     *                         bound to the first slots.
+     */
+    public DeclarativeEnvironmentRecord(EnvironmentRecord aInOuter,
+            String[] aInParameters, JSELFunction aInCallee,
+            int aInArgumentCount) {
         super(aInOuter);
+        slotNames = aInParameters;
+        slots = new JSELValue[
+                Math.max(aInParameters.length, aInArgumentCount)];
+        callee = aInCallee;
+        argumentCount = aInArgumentCount;
+    }
+
+    /**
+     * Binds a value to a slot.
+     * @param aInIndex the index of the slot
+     * @param aInValue the value
+     */
+    public void setSlot(int aInIndex, JSELValue aInValue) {
+        slots[aInIndex] = aInValue.getValue();
     }
 
     @Override
     public void bind(String aInIdentifier, JSELValue aInValue) {
+        int lSlot = getSlot(aInIdentifier);
+        if (lSlot >= 0) {
+            slots[lSlot] = aInValue.getValue();
+            return;
+        }
+        if (bindings == null) {
+            bindings = new HashMap<>();
+        }
         bindings.put(aInIdentifier, aInValue.getValue());
     }
 
     @Override
-    protected JSELValue resolveOwn(String aInIdentifier) {
-        return bindings.get(aInIdentifier);
+    public JSELValue resolveOwn(String aInIdentifier) {
+        int lSlot = getSlot(aInIdentifier);
+        if (lSlot >= 0) {
+            return slots[lSlot];
+        }
+        if (bindings != null) {
+            JSELValue lValue = bindings.get(aInIdentifier);
+            if (lValue != null) {
+                return lValue;
+            }
+        }
+        if (callee != null && ARGUMENTS.equals(aInIdentifier)) {
+            JSELValue lArguments =
+                    new JSELArguments(callee, slots, argumentCount);
+            bind(ARGUMENTS, lArguments);
+            return lArguments;
+        }
+        return null;
+    }
+
+    private int getSlot(String aInIdentifier) {
+        // searching backwards makes the last of repeated parameters win
+        for (int i = slotNames.length - 1; i >= 0; i--) {
+            if (slotNames[i].equals(aInIdentifier)) {
+                return i;
+            }
+        }
+        return -1;
     }
 }
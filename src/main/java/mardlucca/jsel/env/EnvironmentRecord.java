@@ -36,7 +36,14 @@ public abstract class EnvironmentRecord {
 
     public abstract void bind(String aInIdentifier, JSELValue aInValue);
 
-    protected abstract JSELValue resolveOwn(String aInIdentifier);
+    /**
+     * Resolves an identifier in this record only, i.e. without looking into
+     * outer records.
+     * @param aInIdentifier the identifier
+     * @return the value bound to the identifier or null, if it is not bound in
+     * this record.
+     */
+    public abstract JSELValue resolveOwn(String aInIdentifier);
 
     public JSELValue resolve(String aInIdentifier) {
         EnvironmentRecord lContext = this;
@@ -53,6 +60,10 @@ public abstract class EnvironmentRecord {
         return JSELUndefined.getInstance();
     }
 
+    public EnvironmentRecord getOuter() {
+        return outer;
+    }
+
     public void setOuter(EnvironmentRecord aInOuter) {
         outer = aInOuter;
     }
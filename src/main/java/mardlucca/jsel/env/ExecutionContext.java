@@ -19,9 +19,10 @@ package mardlucca.jsel.env;
 
 import mardlucca.jsel.builtin.global.GlobalObject;
 import mardlucca.jsel.type.JSELObject;
+import mardlucca.jsel.type.JSELRegExp;
 import mardlucca.jsel.type.JSELValue;
 
-import java.util.Stack;
+import java.util.Arrays;
 
 public class ExecutionContext {
     private static final ThreadLocal<ExecutionContext> contextThreadLocal =
@@ -30,11 +31,23 @@ public class ExecutionContext {
     private static final ExecutionContext defaultContext =
             new ExecutionContext();
 
-    private Stack<EnvironmentRecord> environmentRecords = new Stack<>();
-    private Stack<JSELObject> thisBindings = new Stack<>();
-    private GlobalObject globalObject = new GlobalObject();
+    private static final int INITIAL_FRAMES = 16;
+
+    /**
+     * The frames pushed onto this context. Frames are reused once popped, so
+     * pushing only allocates when the stack grows beyond its largest size so
+     * far.
+     */
+    private Frame[] frames = new Frame[INITIAL_FRAMES];
+    private int frameCount;
+    private long pushCount;
+    private GlobalObject globalObject;
+    private JSELRegExp.Engine regExpEngine = JSELRegExp.Engine.BACKTRACKING;
+    private int maxStackDepth;
+    private int stackDepth;
 
     public ExecutionContext() {
+        globalObject = new GlobalObject();
         setAsThreadContext();
         try {
             globalObject.initialize();
@@ -45,16 +58,66 @@ public class ExecutionContext {
         push(new ObjectEnvironmentRecord(globalObject), globalObject);
     }
 
+    /**
+     * Creates a context that shares the global object and settings of another
+     * context, but has its own stacks. This is used to evaluate expressions on
+     * other threads (e.g. by parallel array built-ins), as a context must only
+     * be used by one thread at a time.
+     * @param aInContext the context to share the global object with
+     */
+    public ExecutionContext(ExecutionContext aInContext) {
+        globalObject = aInContext.globalObject;
+        regExpEngine = aInContext.regExpEngine;
+        maxStackDepth = aInContext.maxStackDepth;
+        push(new ObjectEnvironmentRecord(globalObject), globalObject);
+    }
+
     public GlobalObject getGlobalObject() {
         return globalObject;
     }
 
+    public JSELRegExp.Engine getRegExpEngine() {
+        return regExpEngine;
+    }
+
+    public void setRegExpEngine(JSELRegExp.Engine aInRegExpEngine) {
+        regExpEngine = aInRegExpEngine;
+    }
+
+    /**
+     * Returns the maximum number of frames expressions may use when evaluated
+     * with a heap allocated stack (see {@link
+     * mardlucca.jsel.expr.StackEvaluator}).
+     * @return the maximum depth or 0 if expressions are evaluated recursively
+     */
+    public int getMaxStackDepth() {
+        return maxStackDepth;
+    }
+
+    public void setMaxStackDepth(int aInMaxStackDepth) {
+        maxStackDepth = aInMaxStackDepth;
+    }
+
+    /**
+     * Returns the number of frames currently used by evaluations with a heap
+     * allocated stack on this context, which may be nested (e.g. when
+     * built-ins call functions).
+     * @return the stack depth
+     */
+    public int getStackDepth() {
+        return stackDepth;
+    }
+
+    public void setStackDepth(int aInStackDepth) {
+        stackDepth = aInStackDepth;
+    }
+
     public EnvironmentRecord getEnvironmentRecord() {
-        return environmentRecords.peek();
+        return frames[frameCount - 1].environmentRecord;
     }
 
     public JSELObject getThisBinding() {
-        return thisBindings.peek();
+        return frames[frameCount - 1].thisBinding;
     }
 
     public void push(EnvironmentRecord aInEnvironmentRecord) {
@@ -64,14 +127,37 @@ public class ExecutionContext {
     public void push(
             EnvironmentRecord aInEnvironmentRecord,
             JSELObject ainThisBinding) {
-        environmentRecords.push(aInEnvironmentRecord);
-        thisBindings.push(ainThisBinding);
+        if (frameCount == frames.length) {
+            frames = Arrays.copyOf(frames, frameCount * 2);
+        }
+        Frame lFrame = frames[frameCount];
+        if (lFrame == null) {
+            lFrame = frames[frameCount] = new Frame();
+        }
+        lFrame.environmentRecord = aInEnvironmentRecord;
+        lFrame.thisBinding = ainThisBinding;
+        frameCount++;
+        pushCount++;
+    }
+
+    /**
+     * Returns how many frames were ever pushed onto this context. As calling
+     * a function defined in JSEL pushes a frame, this tells whether any such
+     * function (which may have side effects) was called in between two
+     * points of an evaluation, including functions called implicitly (e.g.
+     * "valueOf" when converting objects to primitives).
+     * @return the number of frames pushed so far
+     */
+    public long getPushCount() {
+        return pushCount;
     }
 
     public void pop() {
-        if (environmentRecords.size() > 1) {
-            environmentRecords.pop();
-            thisBindings.pop();
+        if (frameCount > 1) {
+            // let go of what the frame refers to, as it stays in the array
+            Frame lFrame = frames[--frameCount];
+            lFrame.environmentRecord = null;
+            lFrame.thisBinding = null;
         }
         // else, we never pop the bottom (global object and initial this bind)
     }
@@ -140,4 +226,13 @@ public class ExecutionContext {
     private static GlobalObject getGlobalObjectFromThreadOrDefault() {
         return getContext().getGlobalObject();
     }
+
+    /**
+     * An entry in the stack of a context: the environment record identifiers
+     * are resolved against and the "this" binding.
+     */
+    private static class Frame {
+        private EnvironmentRecord environmentRecord;
+        private JSELObject thisBinding;
+    }
 }
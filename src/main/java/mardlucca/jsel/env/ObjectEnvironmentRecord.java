@@ -38,13 +38,17 @@ public class ObjectEnvironmentRecord extends EnvironmentRecord {
         bindingObject = aInBindingObject;
     }
 
+    public JSELObject getBindingObject() {
+        return bindingObject;
+    }
+
     @Override
     public void bind(String aInIdentifier, JSELValue aInValue) {
         bindingObject.put(aInIdentifier, aInValue.getValue());
     }
 
     @Override
-    protected JSELValue resolveOwn(String aInIdentifier) {
+    public JSELValue resolveOwn(String aInIdentifier) {
         PropertyDescriptor lDescriptor =
                 bindingObject.getProperty(aInIdentifier);
         return lDescriptor == null ? null : lDescriptor.getValue();
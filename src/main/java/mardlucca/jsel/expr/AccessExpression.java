@@ -18,14 +18,13 @@
 package mardlucca.jsel.expr;
 
 import mardlucca.jsel.env.ExecutionContext;
-import mardlucca.jsel.type.JSELNull;
-import mardlucca.jsel.type.JSELPropertyReference;
-import mardlucca.jsel.type.JSELUndefined;
+import mardlucca.jsel.type.JSELObject;
 import mardlucca.jsel.type.JSELValue;
-import mardlucca.jsel.type.Type;
-import mardlucca.jsel.type.JSELPropertyReference;
-import mardlucca.jsel.type.JSELValue;
-import mardlucca.jsel.type.Type;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 
 public class AccessExpression implements JSELExpression {
     private JSELExpression scopeExpression;
@@ -47,17 +46,76 @@ public class AccessExpression implements JSELExpression {
 
     @Override
     public JSELValue execute(ExecutionContext aInContext) {
-        JSELValue lScope = scopeExpression.execute(aInContext);
+        return getValue(scopeExpression.execute(aInContext), aInContext);
+    }
+
+    /**
+     * Reads the property from the value the scope expression evaluated to.
+     * Calls use this to evaluate the scope only once, as it is also the "this"
+     * value of the function called (see {@link FunctionCallExpression}).
+     * @param aInScope the value of the scope expression
+     * @param aInContext the execution context
+     * @return the value of the property
+     */
+    JSELValue getValue(JSELValue aInScope, ExecutionContext aInContext) {
+        return getValue(aInScope, key == null
+                ? keyExpression.execute(aInContext)
+                : null);
+    }
 
-        String lKey = key == null
-                ? keyExpression.execute(aInContext).toString()
-                : key;
+    /**
+     * Reads the property from the values the scope and key expressions
+     * evaluated to.
+     * @param aInScope the value of the scope expression
+     * @param aInKey the value of the key expression, which is ignored if the
+     *               key is an identifier (e.g. "a.b").
+     * @return the value of the property
+     */
+    JSELValue getValue(JSELValue aInScope, JSELValue aInKey) {
+        if (key != null) {
+            return aInScope.toObject().get(key);
+        }
 
-        JSELPropertyReference lReference =
-                new JSELPropertyReference(lScope, lKey);
+        JSELValue lKey = aInKey;
+        int lIndex = JSELObject.toArrayIndex(lKey);
+        if (lIndex >= 0) {
+            return aInScope.toObject().get(lIndex);
+        }
+        String lProperty = lKey.toString();
+        return aInScope.toObject().get(lProperty);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public JSELExpression getScopeExpression() {
+        return scopeExpression;
+    }
 
-        return lReference.getValue().isCallable()
-                ? lReference
-                : lReference.getValue();
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        return key == null
+                ? asList(scopeExpression, keyExpression)
+                : singletonList(scopeExpression);
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        return key == null
+                ? new AccessExpression(
+                        aInSubExpressions.get(1), aInSubExpressions.get(0))
+                : new AccessExpression(key, aInSubExpressions.get(0));
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
     }
 }
@@ -23,6 +23,10 @@ import mardlucca.jsel.type.JSELValue;
 import mardlucca.jsel.type.JSELBoolean;
 import mardlucca.jsel.type.JSELValue;
 
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
 public class AndOperatorExpression implements JSELExpression {
     protected JSELExpression firstOperandExpression;
     protected JSELExpression secondOperandExpression;
@@ -43,4 +47,26 @@ public class AndOperatorExpression implements JSELExpression {
         return new JSELBoolean(
                 secondOperandExpression.execute(aInContext).toBoolean());
     }
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        return asList(firstOperandExpression, secondOperandExpression);
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        return new AndOperatorExpression(
+                aInSubExpressions.get(0), aInSubExpressions.get(1));
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
+    }
 }
@@ -19,25 +19,92 @@ package mardlucca.jsel.expr;
 
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELArray;
+import mardlucca.jsel.type.JSELObject.PropertyDescriptor;
 import mardlucca.jsel.type.JSELValue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+/**
+ * An array literal. When all the elements are literals, the arrays created
+ * share their elements until they are changed (see {@link
+ * JSELArray#copyOnWrite(PropertyDescriptor[])}).
+ */
 public class ArrayExpression implements JSELExpression {
     private List<JSELExpression> expressions = new ArrayList<>();
 
+    /**
+     * The elements of the arrays created, if all the element expressions are
+     * literals, or null.
+     */
+    private PropertyDescriptor[] constantElements;
+
     public ArrayExpression(
             List<JSELExpression> aInExpressions) {
         expressions = aInExpressions;
+        constantElements = toConstantElements(aInExpressions);
+    }
+
+    private static PropertyDescriptor[] toConstantElements(
+            List<JSELExpression> aInExpressions) {
+        PropertyDescriptor[] lElements =
+                new PropertyDescriptor[aInExpressions.size()];
+        for (int i = 0; i < lElements.length; i++) {
+            if (!(aInExpressions.get(i) instanceof LiteralExpression)) {
+                return null;
+            }
+            lElements[i] = new PropertyDescriptor(
+                    ((LiteralExpression) aInExpressions.get(i)).getValue()
+                            .getValue(), true, true, true);
+        }
+        return lElements;
     }
 
     @Override
     public JSELValue execute(ExecutionContext aInContext) {
-        JSELArray lNewArray = new JSELArray();
+        if (constantElements != null) {
+            return JSELArray.copyOnWrite(constantElements);
+        }
+        JSELValue[] lValues = new JSELValue[expressions.size()];
         for (int i = 0; i< expressions.size(); i++) {
-            lNewArray.put(i, expressions.get(i).execute(aInContext));
+            lValues[i] = expressions.get(i).execute(aInContext);
         }
-        return lNewArray;
+        return create(lValues);
+    }
+
+    /**
+     * Creates the array from the values of the element expressions.
+     * @param aInValues the values, in the order of the sub-expressions
+     * @return the new array
+     */
+    JSELArray create(JSELValue[] aInValues) {
+        if (constantElements != null) {
+            return JSELArray.copyOnWrite(constantElements);
+        }
+        // the values are all defined, so the elements can be created
+        // directly, with the same attributes putting them would give them
+        return new JSELArray(Arrays.asList(aInValues));
+    }
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        return expressions;
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        return new ArrayExpression(new ArrayList<>(aInSubExpressions));
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
     }
 }
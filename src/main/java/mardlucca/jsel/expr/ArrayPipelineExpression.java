@@ -0,0 +1,617 @@
+/*
+ * File: ArrayPipelineExpression.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.JSELRuntimeException;
+import mardlucca.jsel.builtin.array.EveryFunction;
+import mardlucca.jsel.builtin.array.FilterFunction;
+import mardlucca.jsel.builtin.array.ForEachFunction;
+import mardlucca.jsel.builtin.array.IndexOfFunction;
+import mardlucca.jsel.builtin.array.MapFunction;
+import mardlucca.jsel.builtin.array.ReduceFunction;
+import mardlucca.jsel.builtin.array.SomeFunction;
+import mardlucca.jsel.env.DeclarativeEnvironmentRecord;
+import mardlucca.jsel.env.EnvironmentRecord;
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.type.JSELArray;
+import mardlucca.jsel.type.JSELBoolean;
+import mardlucca.jsel.type.JSELFunction;
+import mardlucca.jsel.type.JSELNumber;
+import mardlucca.jsel.type.JSELObject;
+import mardlucca.jsel.type.JSELUndefined;
+import mardlucca.jsel.type.JSELValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static mardlucca.jsel.JSELRuntimeException.typeError;
+
+/**
+ * A chain of calls to array built-ins, such as
+ * "items.filter(x =&gt; x.active).map(x =&gt; x.price).reduce((a, b) =&gt; a +
+ * b, 0)", which is executed in a single pass over the source array without
+ * creating the intermediate arrays.
+ * <p>
+ * Chains are only fused when this is not observable: callbacks must be lambda
+ * literals that make no function calls (so they have no side effects and can
+ * be interleaved), that only declare the parameters the fused loop can supply
+ * (i.e. the array being iterated only for the first call) and other arguments
+ * must be simple values. At run time, the chain falls back to calling the
+ * built-ins one after the other when the source is not an array, when any of
+ * the built-ins was replaced or when a callback throws (so that the error is
+ * the one sequential execution would throw).
+ * <p>
+ * A single call with a lambda literal callback, such as
+ * "items.map(x =&gt; x.price)", is also turned into a (one stage) pipeline,
+ * in which case the callback may make function calls, as nothing is
+ * interleaved with it. In all cases, lambda callbacks are inlined into the
+ * loop: their parameters are bound directly into a frame that is reused for
+ * all elements and arguments they do not declare are not created. Callbacks
+ * that refer to their arguments object are never inlined.
+ */
+public class ArrayPipelineExpression implements JSELExpression {
+    private JSELExpression sourceExpression;
+    private List<Stage> stages;
+    private boolean callFree;
+
+    private ArrayPipelineExpression(JSELExpression aInSourceExpression,
+            List<Stage> aInStages, boolean aInCallFree) {
+        sourceExpression = aInSourceExpression;
+        stages = aInStages;
+        callFree = aInCallFree;
+    }
+
+    /**
+     * Fuses a function call with the calls it is chained to, if these form a
+     * chain of array built-in calls that can be executed in a single pass.
+     * @param aInCall the function call
+     * @return the fused chain or the call itself, if it cannot be fused.
+     */
+    public static JSELExpression fuse(FunctionCallExpression aInCall) {
+        if (!(aInCall.getFunctionExpression() instanceof AccessExpression)) {
+            return aInCall;
+        }
+
+        JSELExpression lReceiver = ((AccessExpression)
+                aInCall.getFunctionExpression()).getScopeExpression();
+        if (lReceiver instanceof ArrayPipelineExpression) {
+            ArrayPipelineExpression lPipeline =
+                    (ArrayPipelineExpression) lReceiver;
+            Stage lStage = toStage(aInCall, false);
+            if (lStage != null && lStage.callFree && lPipeline.callFree
+                    && !lPipeline.getLastStage().operation.isTerminal()) {
+                List<Stage> lStages = new ArrayList<>(lPipeline.stages);
+                lStages.add(lStage);
+                return new ArrayPipelineExpression(
+                        lPipeline.sourceExpression, lStages, true);
+            }
+            return aInCall;
+        }
+
+        Stage lStage = toStage(aInCall, true);
+        if (lStage == null || lStage.operation == Operation.INDEX_OF) {
+            return aInCall;
+        }
+        return new ArrayPipelineExpression(
+                lReceiver, singletonList(lStage), lStage.callFree);
+    }
+
+    /**
+     * Creates the stage for a call, if it is a call to an array built-in the
+     * pipeline supports.
+     * @param aInCall the call
+     * @param aInFirst whether this is the first call in the chain, whose
+     *                 callback may also declare the array parameter and whose
+     *                 other arguments are not evaluated ahead of time.
+     * @return the stage or null, if the call cannot be part of a pipeline.
+     */
+    private static Stage toStage(
+            FunctionCallExpression aInCall, boolean aInFirst) {
+        Operation lOperation = Operation.fromName(
+                ((AccessExpression) aInCall.getFunctionExpression()).getKey());
+        List<JSELExpression> lArguments = aInCall.getArgumentExpressions();
+        if (lOperation == null
+                || lArguments.size() < 1
+                || lArguments.size() > lOperation.maxArguments) {
+            return null;
+        }
+
+        if (lOperation == Operation.INDEX_OF) {
+            return isSimpleValue(lArguments.get(0))
+                    ? new Stage(lOperation, lArguments, null, true)
+                    : null;
+        }
+
+        if (!(lArguments.get(0) instanceof LambdaExpression)) {
+            return null;
+        }
+        LambdaExpression lCallback = (LambdaExpression) lArguments.get(0);
+        if (usesArguments(lCallback.getBodyExpression())) {
+            // the inlined callback would have no arguments object
+            return null;
+        }
+        int lMaxParameters = aInFirst
+                ? lOperation.maxParameters + 1
+                : lOperation.maxParameters;
+        if (lCallback.getParameters().size() > lMaxParameters) {
+            return null;
+        }
+        if (!aInFirst && lArguments.size() > 1
+                && !isSimpleValue(lArguments.get(1))) {
+            return null;
+        }
+        return new Stage(lOperation, lArguments, lCallback,
+                PurityAnalysis.isPure(lCallback.getBodyExpression()));
+    }
+
+    /**
+     * Checks whether an expression creates functions, which could capture the
+     * frame it is evaluated in.
+     */
+    private static boolean hasLambda(JSELExpression aInExpression) {
+        if (aInExpression instanceof LambdaExpression) {
+            return true;
+        }
+        for (JSELExpression lSubExpression
+                : aInExpression.getSubExpressions()) {
+            if (hasLambda(lSubExpression)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether an expression refers to the arguments object.
+     */
+    private static boolean usesArguments(JSELExpression aInExpression) {
+        if (aInExpression instanceof IdentifierExpression
+                && DeclarativeEnvironmentRecord.ARGUMENTS.equals(
+                        ((IdentifierExpression) aInExpression)
+                                .getIdentifier())) {
+            return true;
+        }
+        for (JSELExpression lSubExpression
+                : aInExpression.getSubExpressions()) {
+            if (usesArguments(lSubExpression)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether an argument can be evaluated ahead of time, i.e. before
+     * the calls that precede it in the chain.
+     */
+    private static boolean isSimpleValue(JSELExpression aInExpression) {
+        return aInExpression instanceof LiteralExpression
+                || aInExpression instanceof IdentifierExpression
+                || (aInExpression instanceof UnaryOperatorExpression
+                        && isSimpleValue(
+                                aInExpression.getSubExpressions().get(0)));
+    }
+
+    @Override
+    public JSELValue execute(ExecutionContext aInContext) {
+        JSELValue lSource = sourceExpression.execute(aInContext).getValue();
+        if (canFuse(lSource)) {
+            if (stages.size() == 1) {
+                // nothing is interleaved, so errors are the same anyway
+                return executeFused((JSELArray) lSource, aInContext);
+            }
+            try {
+                return executeFused((JSELArray) lSource, aInContext);
+            } catch (JSELRuntimeException e) {
+                // callbacks are free of side effects, so the chain can simply
+                // be run again to throw the same error sequential execution
+                // would.
+            }
+        }
+        return executeSequentially(lSource, aInContext);
+    }
+
+    /**
+     * Checks that the source is an array and that the chained calls resolve
+     * to the original built-ins.
+     */
+    private boolean canFuse(JSELValue aInSource) {
+        if (!(aInSource instanceof JSELArray)) {
+            return false;
+        }
+
+        JSELObject lArrayPrototype = ExecutionContext.getArrayPrototype();
+        for (int i = 0; i < stages.size(); i++) {
+            Operation lOperation = stages.get(i).operation;
+            // the first call is on the source itself, the others are on
+            // arrays created by the built-ins
+            JSELValue lFunction = (i == 0
+                    ? (JSELArray) aInSource
+                    : lArrayPrototype).get(lOperation.name);
+            if (!lOperation.function.isInstance(lFunction)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private JSELValue executeFused(
+            JSELArray aInSource, ExecutionContext aInContext) {
+        int lStageCount = stages.size();
+        Callback[] lCallbacks = new Callback[lStageCount];
+        JSELValue lSearchElement = null;
+        for (int k = 0; k < lStageCount; k++) {
+            Stage lStage = stages.get(k);
+            if (lStage.operation == Operation.INDEX_OF) {
+                lSearchElement = lStage.arguments.get(0).execute(aInContext)
+                        .getValue();
+            } else {
+                lCallbacks[k] = new Callback(lStage, aInSource, aInContext);
+            }
+        }
+
+        Stage lLast = getLastStage();
+        Operation lTerminal = lLast.operation;
+        JSELValue lAccumulator = lTerminal == Operation.REDUCE
+                && lLast.arguments.size() > 1
+                ? lLast.arguments.get(1).execute(aInContext).getValue()
+                : null;
+
+        boolean lHasFilter = false;
+        for (Stage lStage : stages) {
+            lHasFilter |= lStage.operation == Operation.FILTER;
+        }
+
+        int lLength = (int) aInSource.get(JSELArray.LENGTH).toUInt32();
+        JSELArray lResult = null;
+        List<JSELValue> lResultValues = null;
+        if (!lTerminal.isTerminal()) {
+            if (lHasFilter) {
+                lResultValues = new ArrayList<>();
+            } else {
+                // maps only, so holes are kept and so is the length
+                lResult = new JSELArray(lLength);
+            }
+        }
+
+        // index of the next element each stage gets, once elements are no
+        // longer at their source index (i.e. after a filter)
+        int[] lCounters = new int[lStageCount];
+
+        elements:
+        for (int i = 0; i < lLength; i++) {
+            if (!aInSource.hasProperty(i)) {
+                continue;
+            }
+
+            JSELValue lValue = aInSource.get(i);
+            boolean lFiltered = false;
+            for (int k = 0; k < lStageCount; k++) {
+                int lIndex = lFiltered ? lCounters[k] : i;
+                lCounters[k]++;
+                Callback lCallback = lCallbacks[k];
+
+                switch (stages.get(k).operation) {
+                    case FILTER:
+                        if (!lCallback.call(aInContext, lValue, lIndex)
+                                .toBoolean()) {
+                            continue elements;
+                        }
+                        lFiltered = true;
+                        break;
+                    case MAP:
+                        lValue = lCallback.call(aInContext, lValue, lIndex);
+                        break;
+                    case FOR_EACH:
+                        lCallback.call(aInContext, lValue, lIndex);
+                        break;
+                    case SOME:
+                        if (lCallback.call(aInContext, lValue, lIndex)
+                                .toBoolean()) {
+                            return JSELBoolean.TRUE;
+                        }
+                        break;
+                    case EVERY:
+                        if (!lCallback.call(aInContext, lValue, lIndex)
+                                .toBoolean()) {
+                            return JSELBoolean.FALSE;
+                        }
+                        break;
+                    case REDUCE:
+                        lAccumulator = lAccumulator == null
+                                ? lValue
+                                : lCallback.call(aInContext,
+                                        lAccumulator, lValue, lIndex);
+                        break;
+                    case INDEX_OF:
+                        if (lSearchElement.strictEquals(lValue)) {
+                            return new JSELNumber(lIndex);
+                        }
+                        break;
+                }
+            }
+
+            if (lResultValues != null) {
+                lResultValues.add(lValue);
+            } else if (lResult != null) {
+                lResult.defineOwnProperty(i, lValue,
+                        true, true, true, false);
+            }
+        }
+
+        switch (lTerminal) {
+            case FOR_EACH:
+                return JSELUndefined.getInstance();
+            case SOME:
+                return JSELBoolean.FALSE;
+            case EVERY:
+                return JSELBoolean.TRUE;
+            case REDUCE:
+                if (lAccumulator == null) {
+                    throw typeError(
+                            "Reduce of empty array with no initial value");
+                }
+                return lAccumulator;
+            case INDEX_OF:
+                return new JSELNumber(-1);
+            default:
+                return lResultValues != null
+                        ? new JSELArray(lResultValues)
+                        : lResult;
+        }
+    }
+
+    /**
+     * Calls the built-ins one after the other, exactly as the unfused chain
+     * would.
+     */
+    private JSELValue executeSequentially(
+            JSELValue aInSource, ExecutionContext aInContext) {
+        JSELValue lReceiver = aInSource;
+        for (Stage lStage : stages) {
+            JSELValue lFunction =
+                    lReceiver.toObject().get(lStage.operation.name);
+            if (!lFunction.isCallable()) {
+                throw typeError(lFunction + " is not a function");
+            }
+
+            lReceiver = FunctionCallExpression.call(lFunction,
+                    lReceiver.toObject(), lStage.arguments, aInContext)
+                    .getValue();
+        }
+        return lReceiver;
+    }
+
+    private Stage getLastStage() {
+        return stages.get(stages.size() - 1);
+    }
+
+    /**
+     * Describes the chain of calls, i.e. the built-in each stage calls and how
+     * many arguments it passes, which along with the sub-expressions
+     * determines the whole pipeline.
+     * @return the operation and argument count of each stage
+     */
+    List<Object> getShape() {
+        List<Object> lShape = new ArrayList<>(stages.size() * 2);
+        for (Stage lStage : stages) {
+            lShape.add(lStage.operation);
+            lShape.add(lStage.arguments.size());
+        }
+        return lShape;
+    }
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        List<JSELExpression> lSubExpressions = new ArrayList<>();
+        lSubExpressions.add(sourceExpression);
+        for (Stage lStage : stages) {
+            lSubExpressions.addAll(lStage.arguments);
+        }
+        return lSubExpressions;
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        List<Stage> lStages = new ArrayList<>(stages.size());
+        boolean lCallFree = true;
+        int lNext = 1;
+        for (Stage lStage : stages) {
+            int lCount = lStage.arguments.size();
+            Stage lCopy = lStage.withArguments(new ArrayList<>(
+                    aInSubExpressions.subList(lNext, lNext + lCount)));
+            lStages.add(lCopy);
+            lCallFree &= lCopy.callFree;
+            lNext += lCount;
+        }
+        return new ArrayPipelineExpression(
+                aInSubExpressions.get(0), lStages, lCallFree);
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
+    }
+
+    /**
+     * Array built-ins that can be part of a chain.
+     */
+    private enum Operation {
+        FILTER(FilterFunction.NAME, FilterFunction.class, 1, 2),
+        MAP(MapFunction.NAME, MapFunction.class, 1, 2),
+        FOR_EACH(ForEachFunction.NAME, ForEachFunction.class, 1, 2),
+        SOME(SomeFunction.NAME, SomeFunction.class, 1, 2),
+        EVERY(EveryFunction.NAME, EveryFunction.class, 1, 2),
+        REDUCE(ReduceFunction.NAME, ReduceFunction.class, 2, 3),
+        INDEX_OF(IndexOfFunction.NAME, IndexOfFunction.class, 1, 0);
+
+        private String name;
+        private Class<? extends JSELFunction> function;
+        private int maxArguments;
+        private int maxParameters;
+
+        /**
+         * Constructor
+         * @param aInName the name of the built-in function
+         * @param aInFunction the class of the built-in function
+         * @param aInMaxArguments how many arguments the call can have
+         * @param aInMaxParameters how many parameters the callback can
+         *                         declare, which excludes the array itself.
+         */
+        Operation(String aInName, Class<? extends JSELFunction> aInFunction,
+                int aInMaxArguments, int aInMaxParameters) {
+            name = aInName;
+            function = aInFunction;
+            maxArguments = aInMaxArguments;
+            maxParameters = aInMaxParameters;
+        }
+
+        /**
+         * Whether the operation ends the chain, as it does not produce an
+         * array.
+         */
+        private boolean isTerminal() {
+            return this != FILTER && this != MAP;
+        }
+
+        private static Operation fromName(String aInName) {
+            for (Operation lOperation : values()) {
+                if (lOperation.name.equals(aInName)) {
+                    return lOperation;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One call in the chain.
+     */
+    private static class Stage {
+        private Operation operation;
+        private List<JSELExpression> arguments;
+        private String[] parameters;
+        private JSELExpression bodyExpression;
+        private boolean callFree;
+        private boolean reusableFrame;
+
+        /**
+         * Constructor
+         * @param aInOperation the built-in called
+         * @param aInArguments the argument expressions
+         * @param aInCallback the lambda callback or null, if the built-in does
+         *                    not take one.
+         * @param aInCallFree whether the callback makes no function calls
+         */
+        private Stage(Operation aInOperation,
+                List<JSELExpression> aInArguments,
+                LambdaExpression aInCallback, boolean aInCallFree) {
+            operation = aInOperation;
+            arguments = aInArguments;
+            callFree = aInCallFree;
+            if (aInCallback != null) {
+                parameters = aInCallback.getParameters().toArray(new String[0]);
+                bodyExpression = aInCallback.getBodyExpression();
+                // functions created by the callback could capture its frame
+                reusableFrame = !hasLambda(bodyExpression);
+            }
+        }
+
+        private Stage withArguments(List<JSELExpression> aInArguments) {
+            LambdaExpression lCallback =
+                    aInArguments.get(0) instanceof LambdaExpression
+                            ? (LambdaExpression) aInArguments.get(0)
+                            : null;
+            return new Stage(operation, aInArguments, lCallback,
+                    lCallback == null
+                            || PurityAnalysis.isPure(
+                                    lCallback.getBodyExpression()));
+        }
+    }
+
+    /**
+     * A lambda callback inlined into the loop. This does what calling the
+     * {@link mardlucca.jsel.type.JSELUserFunction} the lambda evaluates to
+     * would, without building an argument list or a new frame per element.
+     */
+    private static class Callback {
+        private Stage stage;
+        private JSELArray array;
+        private EnvironmentRecord scope;
+        private JSELObject thisBinding;
+        private DeclarativeEnvironmentRecord frame;
+
+        private Callback(Stage aInStage, JSELArray aInArray,
+                ExecutionContext aInContext) {
+            stage = aInStage;
+            array = aInArray;
+            // what the lambda would capture if it were evaluated
+            scope = aInContext.getEnvironmentRecord();
+            // the built-ins call back with an undefined "this"
+            thisBinding = aInContext.getGlobalObject();
+            if (stage.reusableFrame) {
+                frame = new DeclarativeEnvironmentRecord(
+                        scope, stage.parameters);
+            }
+        }
+
+        private JSELValue call(ExecutionContext aInContext,
+                JSELValue aInValue, int aInIndex) {
+            return call(aInContext, null, aInValue, aInIndex);
+        }
+
+        /**
+         * Calls the callback with (accumulator, value, index, array) or, if
+         * the accumulator is null, with (value, index, array).
+         */
+        private JSELValue call(ExecutionContext aInContext,
+                JSELValue aInAccumulator, JSELValue aInValue, int aInIndex) {
+            DeclarativeEnvironmentRecord lFrame = frame == null
+                    ? new DeclarativeEnvironmentRecord(scope, stage.parameters)
+                    : frame;
+            String[] lParameters = stage.parameters;
+            int lPosition = 0;
+            if (aInAccumulator != null && lPosition < lParameters.length) {
+                lFrame.setSlot(lPosition++, aInAccumulator);
+            }
+            if (lPosition < lParameters.length) {
+                lFrame.setSlot(lPosition++, aInValue);
+            }
+            if (lPosition < lParameters.length) {
+                lFrame.setSlot(lPosition++, new JSELNumber(aInIndex));
+            }
+            if (lPosition < lParameters.length) {
+                lFrame.setSlot(lPosition, array);
+            }
+
+            aInContext.push(lFrame, thisBinding);
+            try {
+                return stage.bodyExpression.execute(aInContext).getValue();
+            } finally {
+                aInContext.pop();
+            }
+        }
+    }
+}
@@ -21,7 +21,12 @@ import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELValue;
 import mardlucca.jsel.type.JSELValue;
 
-public abstract class BinaryOperatorExpression implements JSELExpression {
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+public abstract class BinaryOperatorExpression
+        implements JSELExpression, Cloneable {
     protected JSELExpression firstOperandExpression;
     protected JSELExpression secondOperandExpression;
 
@@ -42,6 +47,44 @@ public abstract class BinaryOperatorExpression implements JSELExpression {
         return operate(lFirstOperand, lSecondOperand);
     }
 
+    public JSELExpression getFirstOperandExpression() {
+        return firstOperandExpression;
+    }
+
+    public JSELExpression getSecondOperandExpression() {
+        return secondOperandExpression;
+    }
+
     protected abstract JSELValue operate(JSELValue aInFirstOperand,
             JSELValue aInSecondOperand);
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        return asList(firstOperandExpression, secondOperandExpression);
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        // copying keeps the actual operator, which is the concrete class
+        BinaryOperatorExpression lCopy;
+        try {
+            lCopy = (BinaryOperatorExpression) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        lCopy.firstOperandExpression = aInSubExpressions.get(0);
+        lCopy.secondOperandExpression = aInSubExpressions.get(1);
+        return lCopy;
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
+    }
 }
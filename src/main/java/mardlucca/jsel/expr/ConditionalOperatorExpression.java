@@ -20,6 +20,10 @@ package mardlucca.jsel.expr;
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELValue;
 
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
 public class ConditionalOperatorExpression implements JSELExpression {
     private JSELExpression booleanExpression;
     private JSELExpression trueExpression;
@@ -45,4 +49,26 @@ public class ConditionalOperatorExpression implements JSELExpression {
 
         return falseExpression.execute(aInContext);
     }
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        return asList(booleanExpression, trueExpression, falseExpression);
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        return new ConditionalOperatorExpression(aInSubExpressions.get(0),
+                aInSubExpressions.get(1), aInSubExpressions.get(2));
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
+    }
 }
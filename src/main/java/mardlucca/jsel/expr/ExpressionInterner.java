@@ -0,0 +1,148 @@
+/*
+ * File: ExpressionInterner.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hash-conses expression trees: structurally equal sub-trees (see {@link
+ * ExpressionStructure}) of all the expressions interned with the same
+ * interner are replaced by a single, canonical instance. This reduces the
+ * memory used by large sets of expressions, which often have many sub-trees
+ * in common, and makes comparing interned expressions a matter of comparing
+ * references.
+ * <p>
+ * Trees are also put in a canonical form, so property accesses with a
+ * constant string key (e.g. "a['b']") are the same as the ones with an
+ * identifier (e.g. "a.b"). Expressions that are only equal to themselves
+ * (e.g. literals of objects) are not shared, but their sub-expressions still
+ * are. Interned expressions are shared, so they must not be modified. This
+ * class is thread safe.
+ */
+public class ExpressionInterner {
+    private Map<Node, JSELExpression> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the canonical instance of an expression.
+     * @param aInExpression the expression, which is not modified.
+     * @return the canonical expression, which is structurally equal to the
+     * given one.
+     */
+    public JSELExpression intern(JSELExpression aInExpression) {
+        List<JSELExpression> lSubExpressions =
+                aInExpression.getSubExpressions();
+        List<JSELExpression> lInterned =
+                new ArrayList<>(lSubExpressions.size());
+        boolean lChanged = false;
+        for (JSELExpression lSubExpression : lSubExpressions) {
+            JSELExpression lNew = intern(lSubExpression);
+            lInterned.add(lNew);
+            lChanged |= lNew != lSubExpression;
+        }
+        JSELExpression lExpression = canonicalize(lChanged
+                ? aInExpression.withSubExpressions(lInterned)
+                : aInExpression);
+
+        Object lAttribute = ExpressionStructure.getAttribute(lExpression);
+        if (lAttribute == null) {
+            return lExpression;
+        }
+        JSELExpression lCanonical = nodes.putIfAbsent(
+                new Node(lExpression, lAttribute), lExpression);
+        return lCanonical == null ? lExpression : lCanonical;
+    }
+
+    /**
+     * Returns the number of distinct expressions interned so far.
+     * @return the number of canonical expressions
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    private static JSELExpression canonicalize(JSELExpression aInExpression) {
+        if (aInExpression instanceof AccessExpression
+                && ((AccessExpression) aInExpression).getKey() == null) {
+            List<JSELExpression> lSubExpressions =
+                    aInExpression.getSubExpressions();
+            JSELExpression lKey = lSubExpressions.get(1);
+            if (lKey instanceof LiteralExpression) {
+                // string keys are read the same way either way
+                JSELValue lValue = ((LiteralExpression) lKey).getValue();
+                if (lValue.getType() == Type.STRING) {
+                    return new AccessExpression(
+                            lValue.toString(), lSubExpressions.get(0));
+                }
+            }
+        }
+        return aInExpression;
+    }
+
+    /**
+     * Key of a canonical expression. Its sub-expressions are canonical too,
+     * so they are compared by reference, which keeps interning linear in the
+     * size of the tree.
+     */
+    private static class Node {
+        private Class<?> type;
+        private Object attribute;
+        private List<JSELExpression> subExpressions;
+        private int hashCode;
+
+        private Node(JSELExpression aInExpression, Object aInAttribute) {
+            type = aInExpression.getClass();
+            attribute = aInAttribute;
+            subExpressions = aInExpression.getSubExpressions();
+            hashCode = 31 * type.hashCode() + attribute.hashCode();
+            for (JSELExpression lSubExpression : subExpressions) {
+                hashCode = 31 * hashCode
+                        + System.identityHashCode(lSubExpression);
+            }
+        }
+
+        @Override
+        public boolean equals(Object aInObject) {
+            if (!(aInObject instanceof Node)) {
+                return false;
+            }
+            Node lNode = (Node) aInObject;
+            if (type != lNode.type || hashCode != lNode.hashCode
+                    || !attribute.equals(lNode.attribute)
+                    || subExpressions.size() != lNode.subExpressions.size()) {
+                return false;
+            }
+            for (int i = 0; i < subExpressions.size(); i++) {
+                if (subExpressions.get(i) != lNode.subExpressions.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
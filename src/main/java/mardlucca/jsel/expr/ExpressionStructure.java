@@ -0,0 +1,182 @@
+/*
+ * File: ExpressionStructure.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.type.JSELValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Structural identity of expression trees. Two expressions are structurally
+ * equal if they are of the same class, have the same attributes (e.g.
+ * identifiers, property keys, literal values and lambda parameters) and
+ * their sub-expressions are structurally equal, so expressions that only
+ * differ in how they were written (e.g. white space or parentheses) are
+ * equal. Expression classes implement {@link Object#equals(Object)} and
+ * {@link Object#hashCode()} with this class, which allows for keying maps on
+ * expressions.
+ * <p>
+ * Literal objects (e.g. the ones {@link PartialEvaluator} inlines) have an
+ * identity, so literals are only equal if they refer to the same object.
+ * Expression classes this class does not know of are only equal to
+ * themselves.
+ */
+public class ExpressionStructure {
+    private ExpressionStructure() {
+    }
+
+    /**
+     * Returns what, besides its class and sub-expressions, determines what an
+     * expression is.
+     * @param aInExpression the expression
+     * @return the attribute, which implements equals and hashCode, or null if
+     * the expression is only equal to itself.
+     */
+    public static Object getAttribute(JSELExpression aInExpression) {
+        if (aInExpression instanceof BinaryOperatorExpression
+                || aInExpression instanceof UnaryOperatorExpression
+                || aInExpression instanceof AndOperatorExpression
+                || aInExpression instanceof OrOperatorExpression
+                || aInExpression instanceof ConditionalOperatorExpression
+                || aInExpression instanceof ThisExpression
+                || aInExpression instanceof FunctionCallExpression
+                || aInExpression instanceof NewExpression
+                || aInExpression instanceof ArrayExpression) {
+            return "";
+        }
+        if (aInExpression instanceof IdentifierExpression) {
+            return ((IdentifierExpression) aInExpression).getIdentifier();
+        }
+        if (aInExpression instanceof AccessExpression) {
+            // computed keys are sub-expressions
+            return asList(((AccessExpression) aInExpression).getKey());
+        }
+        if (aInExpression instanceof LiteralExpression) {
+            return getValueKey(
+                    ((LiteralExpression) aInExpression).getValue());
+        }
+        if (aInExpression instanceof LiteralSupplierExpression) {
+            return ((LiteralSupplierExpression) aInExpression).getSource();
+        }
+        if (aInExpression instanceof LambdaExpression) {
+            return ((LambdaExpression) aInExpression).getParameters();
+        }
+        if (aInExpression instanceof ObjectExpression) {
+            return ((ObjectExpression) aInExpression).getKeys();
+        }
+        if (aInExpression instanceof ArrayPipelineExpression) {
+            return ((ArrayPipelineExpression) aInExpression).getShape();
+        }
+        if (aInExpression instanceof MembershipExpression) {
+            MembershipExpression lMembership =
+                    (MembershipExpression) aInExpression;
+            List<Object> lValues =
+                    new ArrayList<>(lMembership.getValues().size());
+            for (JSELValue lValue : lMembership.getValues()) {
+                lValues.add(getValueKey(lValue));
+            }
+            return asList(lValues, lMembership.getStrict(),
+                    lMembership.getArrayExpression());
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether an expression is structurally equal to an object.
+     * @param aInExpression the expression
+     * @param aInObject the object
+     * @return true if the object is an expression structurally equal to the
+     * given one.
+     */
+    public static boolean equals(
+            JSELExpression aInExpression, Object aInObject) {
+        if (aInExpression == aInObject) {
+            return true;
+        }
+        if (aInObject == null || aInExpression.getClass()
+                != aInObject.getClass()) {
+            return false;
+        }
+        JSELExpression lOther = (JSELExpression) aInObject;
+        Object lAttribute = getAttribute(aInExpression);
+        return lAttribute != null
+                && lAttribute.equals(getAttribute(lOther))
+                && aInExpression.getSubExpressions().equals(
+                        lOther.getSubExpressions());
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(JSELExpression,
+     * Object)}.
+     * @param aInExpression the expression
+     * @return the hash code
+     */
+    public static int hashCode(JSELExpression aInExpression) {
+        Object lAttribute = getAttribute(aInExpression);
+        if (lAttribute == null) {
+            return System.identityHashCode(aInExpression);
+        }
+        return 31 * (31 * aInExpression.getClass().hashCode()
+                + lAttribute.hashCode())
+                + aInExpression.getSubExpressions().hashCode();
+    }
+
+    /**
+     * Returns what a literal value is equal to. JSEL values implement equals
+     * as the "==" operator, which is not suitable for comparing literals.
+     * Objects are only equal to themselves.
+     */
+    static Object getValueKey(JSELValue aInValue) {
+        switch (aInValue.getType()) {
+            case NUMBER:
+                // tells 0 and -0 apart
+                return Double.doubleToLongBits(aInValue.toNumber());
+            case STRING:
+            case BOOLEAN:
+                return asList(aInValue.getType(), aInValue.toString());
+            case UNDEFINED:
+            case NULL:
+                return aInValue.getType();
+            default:
+                // objects have an identity
+                return new Identity(aInValue);
+        }
+    }
+
+    private static class Identity {
+        private Object object;
+
+        private Identity(Object aInObject) {
+            object = aInObject;
+        }
+
+        @Override
+        public boolean equals(Object aInObject) {
+            return aInObject instanceof Identity
+                    && ((Identity) aInObject).object == object;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(object);
+        }
+    }
+}
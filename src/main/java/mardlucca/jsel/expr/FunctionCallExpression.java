@@ -28,31 +28,124 @@ import java.util.List;
 public class FunctionCallExpression implements JSELExpression {
     private JSELExpression functionExpression;
     private List<JSELExpression> argumentExpressions;
+    private AccessExpression memberExpression;
 
     public FunctionCallExpression(
             JSELExpression aInFunctionExpression,
             List<JSELExpression> aInArgumentExpressions) {
         functionExpression = aInFunctionExpression;
         argumentExpressions = aInArgumentExpressions;
+        if (aInFunctionExpression instanceof AccessExpression) {
+            // a method call, e.g. "a.b()", where "a" is the receiver
+            memberExpression = (AccessExpression) aInFunctionExpression;
+        }
     }
 
     @Override
     public JSELValue execute(ExecutionContext aInContext) {
-        JSELValue lFunctionObject =
-                functionExpression.execute(aInContext);
+        JSELValue lThis;
+        JSELValue lFunctionObject;
+        if (memberExpression == null) {
+            lThis = JSELUndefined.getInstance();
+            lFunctionObject = functionExpression.execute(aInContext);
+        } else {
+            lThis = memberExpression.getScopeExpression().execute(aInContext);
+            lFunctionObject = memberExpression.getValue(lThis, aInContext);
+            lThis = lThis.toObject();
+        }
         if (!lFunctionObject.isCallable()) {
             throw JSELRuntimeException.typeError(lFunctionObject + " is not a function");
         }
 
-        List<JSELValue> lArguments =
-                new ArrayList<>(argumentExpressions.size());
-        for (JSELExpression lArgumentExpression : argumentExpressions) {
-            // function arguments are never property references
-            lArguments.add(lArgumentExpression.execute(aInContext));
+        // function calls never return property references in JS
+        return call(lFunctionObject, lThis, argumentExpressions, aInContext)
+                .getValue();
+    }
+
+    /**
+     * Evaluates the arguments and calls the function through the entry point
+     * for their number, so calls with up to three arguments need no argument
+     * list.
+     */
+    static JSELValue call(JSELValue aInFunction, JSELValue aInThis,
+            List<JSELExpression> aInArgumentExpressions,
+            ExecutionContext aInContext) {
+        switch (aInArgumentExpressions.size()) {
+            case 0:
+                return aInFunction.call0(aInThis, aInContext);
+            case 1:
+                return aInFunction.call1(aInThis,
+                        aInArgumentExpressions.get(0).execute(aInContext),
+                        aInContext);
+            case 2: {
+                JSELValue lArgument0 =
+                        aInArgumentExpressions.get(0).execute(aInContext);
+                return aInFunction.call2(aInThis, lArgument0,
+                        aInArgumentExpressions.get(1).execute(aInContext),
+                        aInContext);
+            }
+            case 3: {
+                JSELValue lArgument0 =
+                        aInArgumentExpressions.get(0).execute(aInContext);
+                JSELValue lArgument1 =
+                        aInArgumentExpressions.get(1).execute(aInContext);
+                return aInFunction.call3(aInThis, lArgument0, lArgument1,
+                        aInArgumentExpressions.get(2).execute(aInContext),
+                        aInContext);
+            }
+            default: {
+                JSELValue[] lArguments =
+                        new JSELValue[aInArgumentExpressions.size()];
+                for (int i = 0; i < lArguments.length; i++) {
+                    lArguments[i] =
+                            aInArgumentExpressions.get(i).execute(aInContext);
+                }
+                return aInFunction.callN(aInThis, lArguments, aInContext);
+            }
         }
+    }
 
-        // function calls never return property references in JS
-        return lFunctionObject.call(
-                JSELUndefined.getInstance(), lArguments, aInContext).getValue();
+    /**
+     * Returns the property access the function is read from, if this is a
+     * method call (e.g. "a.b()").
+     * @return the property access or null, if this is not a method call
+     */
+    AccessExpression getMemberExpression() {
+        return memberExpression;
+    }
+
+    public JSELExpression getFunctionExpression() {
+        return functionExpression;
+    }
+
+    public List<JSELExpression> getArgumentExpressions() {
+        return argumentExpressions;
+    }
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        List<JSELExpression> lSubExpressions =
+                new ArrayList<>(argumentExpressions.size() + 1);
+        lSubExpressions.add(functionExpression);
+        lSubExpressions.addAll(argumentExpressions);
+        return lSubExpressions;
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        return new FunctionCallExpression(aInSubExpressions.get(0),
+                new ArrayList<>(aInSubExpressions.subList(
+                        1, aInSubExpressions.size())));
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
     }
 }
@@ -17,19 +17,78 @@
  */
 package mardlucca.jsel.expr;
 
+import mardlucca.jsel.builtin.global.GlobalObject;
+import mardlucca.jsel.builtin.global.GlobalObject.PropertyCell;
+import mardlucca.jsel.env.EnvironmentRecord;
 import mardlucca.jsel.env.ExecutionContext;
-import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.env.ObjectEnvironmentRecord;
+import mardlucca.jsel.type.JSELUndefined;
 import mardlucca.jsel.type.JSELValue;
 
 public class IdentifierExpression implements JSELExpression {
     private String identifier;
 
+    /**
+     * The cell of the global object property this identifier last resolved
+     * to, if any.
+     */
+    private PropertyCell cell;
+
     public IdentifierExpression(String aInIdentifier) {
         identifier = aInIdentifier;
     }
 
+    public String getIdentifier() {
+        return identifier;
+    }
+
     @Override
     public JSELValue execute(ExecutionContext aInContext) {
-        return aInContext.resolve(identifier);
+        GlobalObject lGlobalObject = aInContext.getGlobalObject();
+        EnvironmentRecord lRecord = aInContext.getEnvironmentRecord();
+        do {
+            if (lRecord instanceof ObjectEnvironmentRecord
+                    && ((ObjectEnvironmentRecord) lRecord).getBindingObject()
+                            == lGlobalObject) {
+                return resolveGlobal(lGlobalObject, lRecord);
+            }
+
+            JSELValue lValue = lRecord.resolveOwn(identifier);
+            if (lValue != null) {
+                return lValue;
+            }
+            lRecord = lRecord.getOuter();
+        }
+        while (lRecord != null);
+
+        return JSELUndefined.getInstance();
+    }
+
+    /**
+     * Resolves this identifier against the global object, through the cell
+     * of the property it is bound to if there is one.
+     */
+    private JSELValue resolveGlobal(GlobalObject aInGlobalObject,
+            EnvironmentRecord aInRecord) {
+        PropertyCell lCell = cell;
+        if (lCell == null || !lCell.isValidFor(aInGlobalObject)) {
+            lCell = aInGlobalObject.getPropertyCell(identifier);
+            if (lCell == null) {
+                // inherited from Object.prototype or not bound at all
+                return aInRecord.resolve(identifier);
+            }
+            cell = lCell;
+        }
+        return lCell.getValue();
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
     }
 }
@@ -0,0 +1,507 @@
+/*
+ * File: IncrementalExpression.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.env.EnvironmentRecord;
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.env.ObjectEnvironmentRecord;
+import mardlucca.jsel.type.JSELObject;
+import mardlucca.jsel.type.JSELUndefined;
+import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.Type;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Evaluates an expression incrementally, i.e. only re-executes the
+ * sub-expressions that read properties that changed since the previous
+ * evaluation and reuses the results of the others.
+ * <p>
+ * Every evaluation records which own properties of which objects (including
+ * the global object, for identifiers) each sub-expression read. The objects
+ * read are observed (see {@link JSELObject#addChangeListener(
+ * JSELObject.ChangeListener)}), so any change made through {@link
+ * JSELObject#put(String, JSELValue)} or {@link
+ * JSELObject#defineOwnProperty(String, JSELValue, Boolean, Boolean, Boolean,
+ * boolean)} (e.g. rebinding an identifier) invalidates the results of the
+ * sub-expressions that read the property, as well as of their ancestors.
+ * Properties inherited from prototypes are assumed not to change.
+ * <p>
+ * Only the results of sub-trees made of operators, property accesses,
+ * identifiers and primitive literals are reused, as their evaluation only
+ * reads properties through those accesses and identifiers. Function calls
+ * (which may read anything), lambdas and object and array literals (which
+ * create a new object every time) are always executed, but their
+ * sub-expressions can still be reused. Operators that convert an object to a
+ * primitive may call its "valueOf" or "toString" methods, so results that
+ * depended on such a conversion are not reused either.
+ * <p>
+ * Evaluations are serialized, so instances can be shared between threads,
+ * but they should only be executed against the same context, as reused
+ * results are not keyed on it. {@link #close()} stops observing objects.
+ */
+public class IncrementalExpression implements JSELExpression {
+    private JSELExpression expression;
+    private JSELExpression incrementalExpression;
+
+    /**
+     * The reusable sub-expressions being evaluated, innermost last.
+     */
+    private List<CachedExpression> evaluating = new ArrayList<>();
+    private Map<Dependency, Set<CachedExpression>> dependents =
+            new HashMap<>();
+
+    /**
+     * The objects observed, with the number of their properties in {@link
+     * #dependents}. Objects are no longer observed once no expression depends
+     * on them, e.g. after they are replaced by others.
+     */
+    private Map<JSELObject, Integer> observedObjects = new IdentityHashMap<>();
+    private JSELObject.ChangeListener listener = this::invalidate;
+    private long executionCount;
+    private long reuseCount;
+
+    public IncrementalExpression(JSELExpression aInExpression) {
+        expression = aInExpression;
+        incrementalExpression = rewrite(aInExpression, false, new boolean[1]);
+    }
+
+    @Override
+    public synchronized JSELValue execute(ExecutionContext aInContext) {
+        return incrementalExpression.execute(aInContext);
+    }
+
+    public JSELExpression getExpression() {
+        return expression;
+    }
+
+    /**
+     * Returns how many times the results of sub-expressions were computed.
+     * @return the number of sub-expression executions
+     */
+    public synchronized long getExecutionCount() {
+        return executionCount;
+    }
+
+    /**
+     * Returns how many times the results of sub-expressions were reused.
+     * @return the number of sub-expression results reused
+     */
+    public synchronized long getReuseCount() {
+        return reuseCount;
+    }
+
+    /**
+     * Stops observing the objects read and discards all results, so the next
+     * evaluation executes the whole expression.
+     */
+    public synchronized void close() {
+        for (JSELObject lObject : observedObjects.keySet()) {
+            lObject.removeChangeListener(listener);
+        }
+        observedObjects.clear();
+        for (Set<CachedExpression> lExpressions : dependents.values()) {
+            for (CachedExpression lExpression : lExpressions) {
+                lExpression.valid = false;
+                lExpression.dependencies.clear();
+            }
+        }
+        dependents.clear();
+    }
+
+    /**
+     * Returns the number of objects observed, which are the ones read by the
+     * results that can currently be reused.
+     * @return the number of objects observed
+     */
+    public synchronized int getObservedObjectCount() {
+        return observedObjects.size();
+    }
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        return singletonList(expression);
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        return new IncrementalExpression(aInSubExpressions.get(0));
+    }
+
+    /**
+     * Replaces reusable sub-trees by {@link CachedExpression}s and identifiers
+     * and property accesses by the ones that record what they read.
+     * @param aInExpression the expression to rewrite
+     * @param aInConverted whether the parent may convert the expression's
+     *                     value to a primitive
+     * @param aOutReusable set to whether the whole sub-tree is reusable
+     * @return the rewritten expression
+     */
+    private JSELExpression rewrite(JSELExpression aInExpression,
+            boolean aInConverted, boolean[] aOutReusable) {
+        if (aInExpression instanceof LambdaExpression) {
+            // bodies are executed by calls, with different arguments
+            aOutReusable[0] = false;
+            return aInExpression;
+        }
+
+        List<JSELExpression> lSubExpressions =
+                aInExpression.getSubExpressions();
+        List<JSELExpression> lRewritten =
+                new ArrayList<>(lSubExpressions.size());
+        boolean lReusable = isReusable(aInExpression);
+        boolean lChanged = false;
+        for (int i = 0; i < lSubExpressions.size(); i++) {
+            JSELExpression lSubExpression = lSubExpressions.get(i);
+            JSELExpression lNew;
+            if (i == 0 && aInExpression instanceof FunctionCallExpression
+                    && lSubExpression instanceof AccessExpression) {
+                // calls need the access itself, for the "this" value
+                lNew = rewriteSubExpressions(lSubExpression);
+                lReusable = false;
+            }
+            else {
+                lNew = rewrite(lSubExpression,
+                        converts(aInExpression, i), aOutReusable);
+                lReusable &= aOutReusable[0];
+            }
+            lRewritten.add(lNew);
+            lChanged |= lNew != lSubExpression;
+        }
+        JSELExpression lExpression = lChanged
+                ? aInExpression.withSubExpressions(lRewritten)
+                : aInExpression;
+
+        aOutReusable[0] = lReusable;
+        if (!lReusable) {
+            return lExpression;
+        }
+        if (lExpression instanceof IdentifierExpression) {
+            return new TrackedIdentifierExpression(
+                    ((IdentifierExpression) lExpression).getIdentifier(),
+                    aInConverted);
+        }
+        if (lExpression instanceof AccessExpression) {
+            lExpression = new TrackedAccessExpression(
+                    (AccessExpression) lExpression);
+        }
+        return lSubExpressions.isEmpty()
+                ? lExpression
+                : new CachedExpression(lExpression, aInConverted);
+    }
+
+    private JSELExpression rewriteSubExpressions(
+            JSELExpression aInExpression) {
+        List<JSELExpression> lRewritten = new ArrayList<>();
+        List<JSELExpression> lSubExpressions =
+                aInExpression.getSubExpressions();
+        for (int i = 0; i < lSubExpressions.size(); i++) {
+            lRewritten.add(rewrite(lSubExpressions.get(i),
+                    converts(aInExpression, i), new boolean[1]));
+        }
+        return aInExpression.withSubExpressions(lRewritten);
+    }
+
+    /**
+     * Checks whether the result of an expression can be reused, given that
+     * the results of its sub-expressions can.
+     */
+    private static boolean isReusable(JSELExpression aInExpression) {
+        if (aInExpression instanceof LiteralExpression) {
+            return ((LiteralExpression) aInExpression).getValue()
+                    .isPrimitive();
+        }
+        if (aInExpression instanceof MembershipExpression) {
+            return !((MembershipExpression) aInExpression).isIndexOf();
+        }
+        return aInExpression instanceof IdentifierExpression
+                || aInExpression instanceof AccessExpression
+                || (aInExpression instanceof BinaryOperatorExpression
+                        && !(aInExpression instanceof InOperatorExpression))
+                || aInExpression instanceof UnaryOperatorExpression
+                || aInExpression instanceof AndOperatorExpression
+                || aInExpression instanceof OrOperatorExpression
+                || aInExpression instanceof ConditionalOperatorExpression;
+    }
+
+    /**
+     * Checks whether an expression may convert the value of one of its
+     * sub-expressions to a primitive.
+     */
+    private static boolean converts(JSELExpression aInExpression,
+            int aInIndex) {
+        return aInExpression instanceof BinaryOperatorExpression
+                || aInExpression instanceof UnaryOperatorExpression
+                || aInExpression instanceof MembershipExpression
+                || (aInExpression instanceof AccessExpression
+                        && aInIndex == 1);
+    }
+
+    /**
+     * Records that the expressions being evaluated read a property.
+     */
+    private void read(JSELObject aInObject, String aInProperty) {
+        if (evaluating.isEmpty()) {
+            return;
+        }
+        Dependency lDependency = new Dependency(aInObject, aInProperty);
+        Set<CachedExpression> lDependents = dependents.get(lDependency);
+        if (lDependents == null) {
+            lDependents = new HashSet<>();
+            dependents.put(lDependency, lDependents);
+            Integer lCount = observedObjects.get(aInObject);
+            if (lCount == null) {
+                aInObject.addChangeListener(listener);
+            }
+            observedObjects.put(aInObject, lCount == null ? 1 : lCount + 1);
+        }
+        for (CachedExpression lExpression : evaluating) {
+            if (lDependents.add(lExpression)) {
+                lExpression.dependencies.add(lDependency);
+            }
+        }
+    }
+
+    /**
+     * Removes a property from {@link #dependents}, which stops observing its
+     * object if no other property of it is there.
+     */
+    private Set<CachedExpression> removeDependents(Dependency aInDependency) {
+        Set<CachedExpression> lDependents = dependents.remove(aInDependency);
+        if (lDependents != null) {
+            JSELObject lObject = aInDependency.object;
+            int lCount = observedObjects.get(lObject);
+            if (lCount == 1) {
+                observedObjects.remove(lObject);
+                lObject.removeChangeListener(listener);
+            }
+            else {
+                observedObjects.put(lObject, lCount - 1);
+            }
+        }
+        return lDependents;
+    }
+
+    /**
+     * Checks whether a value is an object its parent may convert, which
+     * prevents the expressions being evaluated from being reused.
+     */
+    private JSELValue check(JSELValue aInValue, boolean aInConverted) {
+        if (aInConverted && aInValue.getType() == Type.OBJECT) {
+            markNotReusable();
+        }
+        return aInValue;
+    }
+
+    private void markNotReusable() {
+        for (CachedExpression lExpression : evaluating) {
+            lExpression.invalidated = true;
+        }
+    }
+
+    private synchronized void invalidate(
+            JSELObject aInObject, String aInProperty) {
+        Set<CachedExpression> lDependents =
+                removeDependents(new Dependency(aInObject, aInProperty));
+        if (lDependents == null) {
+            return;
+        }
+        for (CachedExpression lExpression : lDependents) {
+            lExpression.valid = false;
+            // it may be being evaluated, having read the property already
+            lExpression.invalidated = true;
+            // it may not be evaluated again (e.g. in a branch no longer
+            // taken), so it stops depending on the other properties now
+            lExpression.forget();
+        }
+    }
+
+    /**
+     * A sub-expression whose result can be reused until any of the
+     * properties it read changes.
+     */
+    private class CachedExpression implements JSELExpression {
+        private JSELExpression expression;
+        private boolean converted;
+        private JSELValue value;
+        private boolean valid;
+        private boolean invalidated;
+        private List<Dependency> dependencies = new ArrayList<>();
+
+        private CachedExpression(JSELExpression aInExpression,
+                boolean aInConverted) {
+            expression = aInExpression;
+            converted = aInConverted;
+        }
+
+        @Override
+        public JSELValue execute(ExecutionContext aInContext) {
+            if (valid) {
+                reuseCount++;
+                // the expressions being evaluated read the same properties
+                for (Dependency lDependency : dependencies) {
+                    read(lDependency.object, lDependency.property);
+                }
+                return check(value, converted);
+            }
+
+            forget();
+            invalidated = false;
+            evaluating.add(this);
+            JSELValue lValue;
+            try {
+                lValue = expression.execute(aInContext).getValue();
+            }
+            finally {
+                evaluating.remove(evaluating.size() - 1);
+            }
+            executionCount++;
+            value = lValue;
+            valid = !invalidated;
+            return check(lValue, converted);
+        }
+
+        /**
+         * Removes this expression from the dependents of the properties it
+         * read.
+         */
+        private void forget() {
+            for (Dependency lDependency : dependencies) {
+                Set<CachedExpression> lDependents =
+                        dependents.get(lDependency);
+                if (lDependents != null) {
+                    lDependents.remove(this);
+                    if (lDependents.isEmpty()) {
+                        removeDependents(lDependency);
+                    }
+                }
+            }
+            dependencies.clear();
+        }
+    }
+
+    private class TrackedIdentifierExpression implements JSELExpression {
+        private String identifier;
+        private boolean converted;
+
+        private TrackedIdentifierExpression(String aInIdentifier,
+                boolean aInConverted) {
+            identifier = aInIdentifier;
+            converted = aInConverted;
+        }
+
+        @Override
+        public JSELValue execute(ExecutionContext aInContext) {
+            EnvironmentRecord lRecord = aInContext.getEnvironmentRecord();
+            do {
+                boolean lObjectRecord =
+                        lRecord instanceof ObjectEnvironmentRecord;
+                if (lObjectRecord) {
+                    // a binding added later would also change the result
+                    read(((ObjectEnvironmentRecord) lRecord)
+                            .getBindingObject(), identifier);
+                }
+                JSELValue lValue = lRecord.resolveOwn(identifier);
+                if (lValue != null) {
+                    if (!lObjectRecord) {
+                        // changes to declarative records are not observed
+                        markNotReusable();
+                    }
+                    return check(lValue, converted);
+                }
+                lRecord = lRecord.getOuter();
+            }
+            while (lRecord != null);
+
+            return JSELUndefined.getInstance();
+        }
+    }
+
+    private class TrackedAccessExpression implements JSELExpression {
+        private AccessExpression accessExpression;
+        private JSELExpression scopeExpression;
+        private JSELExpression keyExpression;
+
+        private TrackedAccessExpression(AccessExpression aInAccessExpression) {
+            accessExpression = aInAccessExpression;
+            List<JSELExpression> lSubExpressions =
+                    aInAccessExpression.getSubExpressions();
+            scopeExpression = lSubExpressions.get(0);
+            keyExpression = lSubExpressions.size() > 1
+                    ? lSubExpressions.get(1)
+                    : null;
+        }
+
+        @Override
+        public JSELValue execute(ExecutionContext aInContext) {
+            JSELValue lScope = scopeExpression.execute(aInContext).getValue();
+            JSELValue lKey = keyExpression == null
+                    ? null
+                    : keyExpression.execute(aInContext).getValue();
+            JSELValue lValue = accessExpression.getValue(lScope, lKey);
+            if (lScope.getType() == Type.OBJECT) {
+                // primitives cannot change
+                read(lScope.toObject(), getProperty(lKey));
+            }
+            return lValue;
+        }
+
+        private String getProperty(JSELValue aInKey) {
+            if (aInKey == null) {
+                return accessExpression.getKey();
+            }
+            int lIndex = JSELObject.toArrayIndex(aInKey);
+            return lIndex < 0 ? aInKey.toString() : String.valueOf(lIndex);
+        }
+    }
+
+    private static class Dependency {
+        private JSELObject object;
+        private String property;
+
+        private Dependency(JSELObject aInObject, String aInProperty) {
+            object = aInObject;
+            property = aInProperty;
+        }
+
+        @Override
+        public boolean equals(Object aInObject) {
+            if (!(aInObject instanceof Dependency)) {
+                return false;
+            }
+            Dependency lDependency = (Dependency) aInObject;
+            return object == lDependency.object
+                    && property.equals(lDependency.property);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(object), property);
+        }
+    }
+}
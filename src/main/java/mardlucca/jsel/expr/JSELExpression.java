@@ -20,6 +20,35 @@ package mardlucca.jsel.expr;
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELValue;
 
+import java.util.Collections;
+import java.util.List;
+
 public interface JSELExpression {
     JSELValue execute(ExecutionContext aInContext);
+
+    /**
+     * Returns the expressions this expression is directly made of (e.g. the
+     * operands of an operator), which allows for analysing expression trees.
+     * Expressions that are composed of others must override this.
+     * @return the sub-expressions, which is empty for leaf expressions such
+     * as literals and identifiers.
+     */
+    default List<JSELExpression> getSubExpressions() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Creates an expression that is the same as this one, but made of other
+     * sub-expressions, which allows for rewriting expression trees. This
+     * expression is not modified. Expressions that are composed of others
+     * must override this.
+     * @param aInSubExpressions the new sub-expressions, in the same order
+     *                          {@link #getSubExpressions()} returns them.
+     * @return the new expression, which is this expression itself for leaf
+     * expressions.
+     */
+    default JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        return this;
+    }
 }
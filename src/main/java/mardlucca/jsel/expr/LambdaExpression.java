@@ -19,14 +19,16 @@ package mardlucca.jsel.expr;
 
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELUserFunction;
-import mardlucca.jsel.type.JSELUserFunction;
 
 import java.util.Collections;
 import java.util.List;
 
+import static java.util.Collections.singletonList;
+
 public class LambdaExpression implements JSELExpression {
     private List<String> parameters;
     private JSELExpression bodyExpression;
+    private JSELUserFunction.Template template;
 
     public LambdaExpression(String aInParameter,
             JSELExpression aInBodyExpression) {
@@ -37,13 +39,44 @@ public class LambdaExpression implements JSELExpression {
             JSELExpression aInBodyExpression) {
         parameters = aInParameters;
         bodyExpression = aInBodyExpression;
+        template = new JSELUserFunction.Template(
+                aInParameters, aInBodyExpression);
     }
 
     @Override
     public JSELUserFunction execute(ExecutionContext aInContext) {
         return new JSELUserFunction(
-                parameters,
-                bodyExpression,
+                aInContext.getGlobalObject().getFunctionPrototype(),
+                template,
                 aInContext.getEnvironmentRecord());
     }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    public JSELExpression getBodyExpression() {
+        return bodyExpression;
+    }
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        return singletonList(bodyExpression);
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        return new LambdaExpression(parameters, aInSubExpressions.get(0));
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
+    }
 }
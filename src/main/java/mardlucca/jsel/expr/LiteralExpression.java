@@ -33,4 +33,18 @@ public class LiteralExpression implements JSELExpression {
     public JSELValue execute(ExecutionContext aInContext) {
         return value;
     }
+
+    public JSELValue getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
+    }
 }
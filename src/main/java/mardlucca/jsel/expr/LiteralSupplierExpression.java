@@ -31,15 +31,46 @@ import java.util.function.Supplier;
  * prototype, plus, they are immutable.
  */
 public class LiteralSupplierExpression implements JSELExpression {
-    private Supplier<JSELValue> valueSupplier;
+    private Supplier<? extends JSELValue> valueSupplier;
+    private Object source;
 
     public LiteralSupplierExpression(
-            Supplier<JSELValue> aInValueSupplier) {
+            Supplier<? extends JSELValue> aInValueSupplier) {
+        this(aInValueSupplier, null);
+    }
+
+    /**
+     * Constructor
+     * @param aInValueSupplier supplies the value of each evaluation
+     * @param aInSource what the values are created from (e.g. the pattern
+     *                  and flags of a regular expression literal), which
+     *                  makes the literal structurally equal to others created
+     *                  from the same source. If null, the literal is only
+     *                  equal to itself.
+     */
+    public LiteralSupplierExpression(
+            Supplier<? extends JSELValue> aInValueSupplier,
+            Object aInSource) {
         valueSupplier = aInValueSupplier;
+        source = aInSource;
     }
 
     @Override
     public JSELValue execute(ExecutionContext aInContext) {
         return valueSupplier.get();
     }
+
+    public Object getSource() {
+        return source;
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
+    }
 }
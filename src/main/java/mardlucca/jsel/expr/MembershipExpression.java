@@ -0,0 +1,416 @@
+/*
+ * File: MembershipExpression.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.builtin.array.IndexOfFunction;
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.type.JSELBoolean;
+import mardlucca.jsel.type.JSELNumber;
+import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.Type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Compares a value against a list of constants with a hash lookup, instead of
+ * one comparison at a time. This replaces disjunctions of equalities against
+ * constants on the same property path, such as "x.code == 'A1' || x.code ===
+ * 'B7' || ...", and membership tests on array literals of constants, such as
+ * "['a', 'b', ...].indexOf(x)".
+ * <p>
+ * Each constant keeps the equality operator it was compared with, and lookups
+ * have the exact semantics of "==" and "===" (e.g. "1 == '1'", "null ==
+ * undefined" and "0 === -0" are true while "NaN == NaN" is false). The
+ * property path is only read once, which is not observable as reading
+ * properties has no side effects. "indexOf" is only looked up when executed
+ * and, if it is not the built-in, the call is executed as written.
+ */
+public class MembershipExpression implements JSELExpression {
+    private JSELExpression operandExpression;
+    private List<JSELValue> values;
+    private List<Boolean> strict;
+    private ArrayExpression arrayExpression;
+    private volatile Lookup lookup;
+
+    private MembershipExpression(JSELExpression aInOperandExpression,
+            List<JSELValue> aInValues, List<Boolean> aInStrict,
+            ArrayExpression aInArrayExpression) {
+        operandExpression = aInOperandExpression;
+        values = aInValues;
+        strict = aInStrict;
+        arrayExpression = aInArrayExpression;
+    }
+
+    /**
+     * Rewrites an expression into a membership test, if it is a disjunction
+     * of equalities on the same property path or a call to "indexOf" on an
+     * array literal of constants.
+     * @param aInExpression the expression
+     * @return the membership test or the expression itself, if it cannot be
+     * rewritten.
+     */
+    public static JSELExpression rewrite(JSELExpression aInExpression) {
+        if (aInExpression instanceof OrOperatorExpression) {
+            List<JSELExpression> lOperands =
+                    aInExpression.getSubExpressions();
+            MembershipExpression lFirst = toMembership(lOperands.get(0));
+            MembershipExpression lSecond = toMembership(lOperands.get(1));
+            if (lFirst == null || lSecond == null || !isSamePath(
+                    lFirst.operandExpression, lSecond.operandExpression)) {
+                return aInExpression;
+            }
+            List<JSELValue> lValues = new ArrayList<>(lFirst.values);
+            lValues.addAll(lSecond.values);
+            List<Boolean> lStrict = new ArrayList<>(lFirst.strict);
+            lStrict.addAll(lSecond.strict);
+            return new MembershipExpression(
+                    lFirst.operandExpression, lValues, lStrict, null);
+        }
+        if (aInExpression instanceof FunctionCallExpression) {
+            return rewriteIndexOf((FunctionCallExpression) aInExpression);
+        }
+        return aInExpression;
+    }
+
+    private static JSELExpression rewriteIndexOf(
+            FunctionCallExpression aInCall) {
+        if (!(aInCall.getFunctionExpression() instanceof AccessExpression)
+                || aInCall.getArgumentExpressions().size() != 1) {
+            return aInCall;
+        }
+        AccessExpression lAccess =
+                (AccessExpression) aInCall.getFunctionExpression();
+        if (!IndexOfFunction.NAME.equals(lAccess.getKey())
+                || !(lAccess.getScopeExpression() instanceof ArrayExpression)) {
+            return aInCall;
+        }
+
+        ArrayExpression lArray = (ArrayExpression) lAccess.getScopeExpression();
+        List<JSELValue> lValues = new ArrayList<>();
+        for (JSELExpression lElement : lArray.getSubExpressions()) {
+            JSELValue lConstant = getConstant(lElement);
+            if (lConstant == null) {
+                return aInCall;
+            }
+            lValues.add(lConstant);
+        }
+        return new MembershipExpression(
+                aInCall.getArgumentExpressions().get(0), lValues,
+                Collections.nCopies(lValues.size(), true), lArray);
+    }
+
+    /**
+     * Converts an equality between a property path and a constant (or a
+     * disjunction that was already rewritten) into a membership test.
+     */
+    private static MembershipExpression toMembership(
+            JSELExpression aInExpression) {
+        if (aInExpression instanceof MembershipExpression) {
+            MembershipExpression lMembership =
+                    (MembershipExpression) aInExpression;
+            return lMembership.isIndexOf() ? null : lMembership;
+        }
+        if (!(aInExpression instanceof EqualsExpression)
+                && !(aInExpression instanceof StrictEqualsExpression)) {
+            return null;
+        }
+
+        List<JSELExpression> lOperands = aInExpression.getSubExpressions();
+        boolean lSwapped = !isPath(lOperands.get(0));
+        JSELExpression lPath = lOperands.get(lSwapped ? 1 : 0);
+        JSELValue lConstant = getConstant(lOperands.get(lSwapped ? 0 : 1));
+        if (!isPath(lPath) || lConstant == null) {
+            return null;
+        }
+        return new MembershipExpression(lPath, singletonList(lConstant),
+                singletonList(
+                        aInExpression instanceof StrictEqualsExpression),
+                null);
+    }
+
+    @Override
+    public JSELValue execute(ExecutionContext aInContext) {
+        if (isIndexOf() && !(ExecutionContext.getArrayPrototype().get(
+                IndexOfFunction.NAME) instanceof IndexOfFunction)) {
+            return new FunctionCallExpression(
+                    new AccessExpression(IndexOfFunction.NAME, arrayExpression),
+                    singletonList(operandExpression)).execute(aInContext);
+        }
+
+        int lIndex = getLookup().indexOf(
+                operandExpression.execute(aInContext).getValue());
+        return isIndexOf()
+                ? new JSELNumber(lIndex)
+                : lIndex >= 0 ? JSELBoolean.TRUE : JSELBoolean.FALSE;
+    }
+
+    /**
+     * Whether this replaces a call to "indexOf", in which case it evaluates
+     * to the index of the operand, rather than to a boolean.
+     * @return true if this replaces a call to "indexOf"
+     */
+    public boolean isIndexOf() {
+        return arrayExpression != null;
+    }
+
+    public JSELExpression getOperandExpression() {
+        return operandExpression;
+    }
+
+    /**
+     * The constants the operand is compared with.
+     * @return the constants
+     */
+    public List<JSELValue> getValues() {
+        return values;
+    }
+
+    /**
+     * Whether each constant is compared with "===" rather than "==".
+     * @return the comparison of each constant
+     */
+    public List<Boolean> getStrict() {
+        return strict;
+    }
+
+    /**
+     * The array literal "indexOf" is called on, if this replaced a call.
+     * @return the array literal or null
+     */
+    ArrayExpression getArrayExpression() {
+        return arrayExpression;
+    }
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        return singletonList(operandExpression);
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        return new MembershipExpression(aInSubExpressions.get(0), values,
+                strict, arrayExpression);
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
+    }
+
+    private Lookup getLookup() {
+        Lookup lLookup = lookup;
+        if (lLookup == null) {
+            // building it twice on a race is harmless
+            lLookup = new Lookup(values, strict);
+            lookup = lLookup;
+        }
+        return lLookup;
+    }
+
+    /**
+     * Checks whether an expression only reads a property path (e.g.
+     * "a.b['c']"), so that it always evaluates to the same value.
+     */
+    private static boolean isPath(JSELExpression aInExpression) {
+        if (aInExpression instanceof IdentifierExpression) {
+            return true;
+        }
+        if (!(aInExpression instanceof AccessExpression)) {
+            return false;
+        }
+        AccessExpression lAccess = (AccessExpression) aInExpression;
+        return (lAccess.getKey() != null
+                || getConstant(lAccess.getSubExpressions().get(1)) != null)
+                && isPath(lAccess.getScopeExpression());
+    }
+
+    private static boolean isSamePath(
+            JSELExpression aInFirst, JSELExpression aInSecond) {
+        if (aInFirst instanceof IdentifierExpression
+                && aInSecond instanceof IdentifierExpression) {
+            return ((IdentifierExpression) aInFirst).getIdentifier().equals(
+                    ((IdentifierExpression) aInSecond).getIdentifier());
+        }
+        if (!(aInFirst instanceof AccessExpression)
+                || !(aInSecond instanceof AccessExpression)) {
+            return false;
+        }
+        return getKey((AccessExpression) aInFirst).equals(
+                        getKey((AccessExpression) aInSecond))
+                && isSamePath(
+                        ((AccessExpression) aInFirst).getScopeExpression(),
+                        ((AccessExpression) aInSecond).getScopeExpression());
+    }
+
+    private static String getKey(AccessExpression aInAccess) {
+        return aInAccess.getKey() != null
+                ? aInAccess.getKey()
+                : getConstant(aInAccess.getSubExpressions().get(1)).toString();
+    }
+
+    /**
+     * Returns the primitive value of a literal, which may be negated.
+     */
+    private static JSELValue getConstant(JSELExpression aInExpression) {
+        if (aInExpression instanceof NegationExpression) {
+            JSELValue lValue =
+                    getConstant(aInExpression.getSubExpressions().get(0));
+            return lValue != null && lValue.getType() == Type.NUMBER
+                    ? new JSELNumber(-lValue.toNumber())
+                    : null;
+        }
+        if (!(aInExpression instanceof LiteralExpression)) {
+            return null;
+        }
+        JSELValue lValue = ((LiteralExpression) aInExpression).getValue();
+        return lValue.isPrimitive() ? lValue : null;
+    }
+
+    /**
+     * Hash tables mapping values to the index of the first constant they are
+     * equal to.
+     */
+    private static class Lookup {
+        private List<JSELValue> values;
+        private List<Boolean> strict;
+        private Map<Object, Integer> strictValues = new HashMap<>();
+        private int looseNullish = -1;
+        private Map<String, Integer> looseStrings = new HashMap<>();
+        private Map<Double, Integer> looseNumbers = new HashMap<>();
+        private Map<Double, Integer> looseNonStringNumbers = new HashMap<>();
+        private boolean hasLoose;
+
+        Lookup(List<JSELValue> aInValues, List<Boolean> aInStrict) {
+            values = aInValues;
+            strict = aInStrict;
+            for (int i = 0; i < aInValues.size(); i++) {
+                JSELValue lValue = aInValues.get(i);
+                if (aInStrict.get(i)) {
+                    add(strictValues, toKey(lValue), i);
+                    continue;
+                }
+
+                hasLoose = true;
+                switch (lValue.getType()) {
+                    case NULL:
+                    case UNDEFINED:
+                        if (looseNullish < 0) {
+                            looseNullish = i;
+                        }
+                        break;
+                    case STRING:
+                        add(looseStrings, lValue.toString(), i);
+                        add(looseNumbers, toNumberKey(lValue), i);
+                        break;
+                    default:
+                        add(looseNumbers, toNumberKey(lValue), i);
+                        add(looseNonStringNumbers, toNumberKey(lValue), i);
+                }
+            }
+        }
+
+        int indexOf(JSELValue aInValue) {
+            int lIndex = get(strictValues, toKey(aInValue));
+            if (!hasLoose) {
+                return lIndex;
+            }
+
+            switch (aInValue.getType()) {
+                case NULL:
+                case UNDEFINED:
+                    return min(lIndex, looseNullish);
+                case STRING:
+                    lIndex = min(lIndex,
+                            get(looseStrings, aInValue.toString()));
+                    return min(lIndex,
+                            get(looseNonStringNumbers, toNumberKey(aInValue)));
+                case OBJECT:
+                    // converted to a primitive once per comparison, exactly
+                    // as a chain of "==" would
+                    for (int i = 0; i < values.size(); i++) {
+                        if (!strict.get(i) && aInValue.equals(values.get(i))) {
+                            return i;
+                        }
+                    }
+                    return -1;
+                default:
+                    return min(lIndex,
+                            get(looseNumbers, toNumberKey(aInValue)));
+            }
+        }
+
+        private static <K> void add(Map<K, Integer> aInOutMap, K aInKey,
+                int aInIndex) {
+            if (aInKey != null) {
+                aInOutMap.putIfAbsent(aInKey, aInIndex);
+            }
+        }
+
+        private static <K> int get(Map<K, Integer> aInMap, K aInKey) {
+            Integer lIndex = aInKey == null ? null : aInMap.get(aInKey);
+            return lIndex == null ? -1 : lIndex;
+        }
+
+        private static int min(int aInFirst, int aInSecond) {
+            return aInFirst < 0 || (aInSecond >= 0 && aInSecond < aInFirst)
+                    ? aInSecond
+                    : aInFirst;
+        }
+
+        /**
+         * Returns a key that is equal for values that are strictly equal, or
+         * null for values that are not strictly equal to any constant.
+         */
+        private static Object toKey(JSELValue aInValue) {
+            switch (aInValue.getType()) {
+                case NUMBER:
+                    return toNumberKey(aInValue);
+                case STRING:
+                    return aInValue.toString();
+                case BOOLEAN:
+                    return aInValue.toBoolean();
+                case NULL:
+                case UNDEFINED:
+                    return aInValue.getType();
+                default:
+                    return null;
+            }
+        }
+
+        private static Double toNumberKey(JSELValue aInValue) {
+            double lNumber = aInValue.toNumber();
+            if (Double.isNaN(lNumber)) {
+                return null;
+            }
+            // -0 and 0 are equal
+            return lNumber == 0 ? 0.0 : lNumber;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * File: MemoizationStats.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics on how effective the cache of a {@link MemoizedExpression} is.
+ */
+public class MemoizationStats {
+    private int maxSize;
+    private AtomicLong hitCount = new AtomicLong();
+    private AtomicLong missCount = new AtomicLong();
+    private AtomicLong bypassCount = new AtomicLong();
+
+    MemoizationStats(int aInMaxSize) {
+        maxSize = aInMaxSize;
+    }
+
+    void recordHit() {
+        hitCount.incrementAndGet();
+    }
+
+    void recordMiss() {
+        missCount.incrementAndGet();
+    }
+
+    void recordBypass() {
+        bypassCount.incrementAndGet();
+    }
+
+    /**
+     * Returns the maximum number of results the cache holds.
+     * @return the maximum size of the cache
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns how many evaluations returned a cached result.
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns how many evaluations executed the expression as their inputs
+     * were not in the cache.
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns how many evaluations executed the expression without looking
+     * the cache up, as some of their inputs could not be part of a key (e.g.
+     * objects that can still be modified).
+     * @return the number of evaluations that bypassed the cache
+     */
+    public long getBypassCount() {
+        return bypassCount.get();
+    }
+
+    /**
+     * Returns the fraction of the evaluations that returned a cached result.
+     * @return the hit rate, from 0 to 1, or 0 if the expression was never
+     * evaluated.
+     */
+    public double getHitRate() {
+        long lEvaluations = getHitCount() + getMissCount() + getBypassCount();
+        return lEvaluations == 0 ? 0 : (double) getHitCount() / lEvaluations;
+    }
+
+    @Override
+    public String toString() {
+        return "maxSize=" + maxSize
+                + ", hits=" + getHitCount()
+                + ", misses=" + getMissCount()
+                + ", bypasses=" + getBypassCount()
+                + ", hitRate=" + getHitRate();
+    }
+}
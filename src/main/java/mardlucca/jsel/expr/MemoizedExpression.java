@@ -0,0 +1,311 @@
+/*
+ * File: MemoizedExpression.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.JSELRuntimeException;
+import mardlucca.jsel.env.DeclarativeEnvironmentRecord;
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.type.JSELFunction;
+import mardlucca.jsel.type.JSELObject;
+import mardlucca.jsel.type.JSELObject.PropertyDescriptor;
+import mardlucca.jsel.type.JSELUserFunction;
+import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.Type;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Caches the results of a deterministic expression (see {@link
+ * PurityAnalysis#isDeterministic(JSELExpression)}), keyed on the values of the
+ * property paths it reads, e.g. "tiers", "customer.level" and "price" in
+ * "tiers[customer.level].discount * price". A path is an identifier followed
+ * by accesses to constant properties, of which only the longest ones are
+ * read. Identifiers bound by lambdas within the expression are not inputs.
+ * <p>
+ * Primitive values are keyed by value. Built-in functions and deeply frozen
+ * objects (e.g. the ones frozen by {@link mardlucca.jsel.JSELRunner#freeze()})
+ * are keyed by identity, as neither their properties nor the ones of the
+ * objects they refer to can change. Evaluations that read any other value
+ * (e.g. an object that can still be modified, even if it is not extensible,
+ * or a function defined in JSEL, which depends on the scope it was created
+ * in) bypass the cache. For the same reason, only primitive and deeply frozen
+ * results are cached. The cache holds a bounded number of results and evicts
+ * the least recently used ones. This class is thread safe.
+ */
+public class MemoizedExpression implements JSELExpression {
+    private static final String THIS = "this";
+
+    private JSELExpression expression;
+    private List<JSELExpression> pathExpressions;
+    private Map<List<Object>, JSELValue> cache;
+    private MemoizationStats stats;
+
+    private MemoizedExpression(JSELExpression aInExpression,
+            List<JSELExpression> aInPathExpressions, int aInMaxSize) {
+        expression = aInExpression;
+        pathExpressions = aInPathExpressions;
+        stats = new MemoizationStats(aInMaxSize);
+        cache = new LinkedHashMap<List<Object>, JSELValue>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<List<Object>, JSELValue> aInEldest) {
+                return size() > stats.getMaxSize();
+            }
+        };
+    }
+
+    /**
+     * Wraps an expression so its results are cached, if it is deterministic.
+     * @param aInExpression the expression
+     * @param aInMaxSize the maximum number of results cached
+     * @return the memoized expression or the expression itself, if it is not
+     * deterministic or the size is not positive.
+     */
+    public static JSELExpression memoize(JSELExpression aInExpression,
+            int aInMaxSize) {
+        if (aInMaxSize <= 0
+                || !PurityAnalysis.isDeterministic(aInExpression)) {
+            return aInExpression;
+        }
+        Set<JSELExpression> lPathExpressions = new LinkedHashSet<>();
+        collectPaths(aInExpression, Collections.emptySet(), lPathExpressions);
+        return new MemoizedExpression(aInExpression,
+                new ArrayList<>(lPathExpressions), aInMaxSize);
+    }
+
+    @Override
+    public JSELValue execute(ExecutionContext aInContext) {
+        List<JSELObject> lObjects = new ArrayList<>();
+        List<Object> lKey = getKey(aInContext, lObjects);
+        if (lKey == null) {
+            stats.recordBypass();
+            return expression.execute(aInContext);
+        }
+
+        JSELValue lValue;
+        synchronized (cache) {
+            lValue = cache.get(lKey);
+        }
+        if (lValue != null) {
+            stats.recordHit();
+            return lValue;
+        }
+
+        // objects in the keys of cached results were already verified
+        if (!isDeeplyFrozen(lObjects)) {
+            stats.recordBypass();
+            return expression.execute(aInContext);
+        }
+
+        stats.recordMiss();
+        lValue = expression.execute(aInContext).getValue();
+        if (isKeyable(lValue) && (lValue.getType() != Type.OBJECT
+                || lValue instanceof JSELFunction
+                || isDeeplyFrozen(singletonList(lValue.toObject())))) {
+            synchronized (cache) {
+                cache.put(lKey, lValue);
+            }
+        }
+        return lValue;
+    }
+
+    public JSELExpression getExpression() {
+        return expression;
+    }
+
+    /**
+     * Returns the property paths the results are keyed on.
+     * @return the path expressions
+     */
+    public List<JSELExpression> getPathExpressions() {
+        return pathExpressions;
+    }
+
+    public MemoizationStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the number of results currently cached.
+     * @return the size of the cache
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        return singletonList(expression);
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        return memoize(aInSubExpressions.get(0), stats.getMaxSize());
+    }
+
+    /**
+     * Reads the values of the paths.
+     * @param aInContext the context
+     * @param aOutObjects receives the objects keyed by identity, which must
+     *                    be deeply frozen (see {@link
+     *                    #isDeeplyFrozen(List)}) to be keys
+     * @return the key of the values or null if they cannot be keyed.
+     */
+    private List<Object> getKey(ExecutionContext aInContext,
+            List<JSELObject> aOutObjects) {
+        List<Object> lKey = new ArrayList<>(pathExpressions.size());
+        for (JSELExpression lPathExpression : pathExpressions) {
+            JSELValue lValue;
+            try {
+                lValue = lPathExpression.execute(aInContext).getValue();
+            }
+            catch (JSELRuntimeException e) {
+                // e.g. a property of undefined, which the expression itself
+                // may never read (as in "a && a.b")
+                return null;
+            }
+            if (!isKeyable(lValue)) {
+                return null;
+            }
+            if (lValue.getType() == Type.OBJECT
+                    && !(lValue instanceof JSELFunction)) {
+                aOutObjects.add(lValue.toObject());
+            }
+            lKey.add(ExpressionStructure.getValueKey(lValue));
+        }
+        return lKey;
+    }
+
+    private static boolean isKeyable(JSELValue aInValue) {
+        if (aInValue.getType() != Type.OBJECT) {
+            return true;
+        }
+        JSELObject lObject = aInValue.toObject();
+        if (lObject instanceof JSELFunction) {
+            return !(lObject instanceof JSELUserFunction)
+                    && !PurityAnalysis.isImpureFunction(
+                            ((JSELFunction) lObject).getName());
+        }
+        return !lObject.isExtensible();
+    }
+
+    /**
+     * Checks whether objects are deeply frozen, i.e. they are not extensible
+     * and all properties of all objects reachable from them are neither
+     * writable nor configurable. Only such objects are known not to change
+     * (Object.freeze, for instance, does not freeze nested objects). As that
+     * cannot be undone, objects found in the key of a cached result need not
+     * be checked again.
+     * @param aInObjects the objects
+     * @return true if all objects are deeply frozen
+     */
+    private static boolean isDeeplyFrozen(List<JSELObject> aInObjects) {
+        Set<JSELObject> lVisited =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<JSELObject> lPending = new ArrayDeque<>(aInObjects);
+        while (!lPending.isEmpty()) {
+            JSELObject lObject = lPending.pop();
+            if (!lVisited.add(lObject)) {
+                continue;
+            }
+            if (lObject.isExtensible()) {
+                return false;
+            }
+            for (String lName : lObject.getOwnPropertyNames()) {
+                PropertyDescriptor lDescriptor = lObject.getOwnProperty(lName);
+                if (lDescriptor.isWritable()
+                        || lDescriptor.isConfigurable()) {
+                    return false;
+                }
+                if (lDescriptor.getValue().getType() == Type.OBJECT) {
+                    lPending.push(lDescriptor.getValue().toObject());
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void collectPaths(JSELExpression aInExpression,
+            Set<String> aInBound, Set<JSELExpression> aOutPathExpressions) {
+        if (isPath(aInExpression, aInBound)) {
+            aOutPathExpressions.add(aInExpression);
+            return;
+        }
+        if (aInExpression instanceof LambdaExpression) {
+            LambdaExpression lLambda = (LambdaExpression) aInExpression;
+            Set<String> lBound = new HashSet<>(aInBound);
+            lBound.addAll(lLambda.getParameters());
+            lBound.add(DeclarativeEnvironmentRecord.ARGUMENTS);
+            lBound.add(THIS);
+            collectPaths(lLambda.getBodyExpression(), lBound,
+                    aOutPathExpressions);
+            return;
+        }
+
+        List<JSELExpression> lSubExpressions =
+                aInExpression.getSubExpressions();
+        if (aInExpression instanceof FunctionCallExpression) {
+            JSELExpression lFunctionExpression =
+                    ((FunctionCallExpression) aInExpression)
+                            .getFunctionExpression();
+            if (isPath(lFunctionExpression, aInBound)
+                    && lFunctionExpression instanceof AccessExpression) {
+                // the function is called on the object it is read from
+                aOutPathExpressions.add(lFunctionExpression);
+                collectPaths(((AccessExpression) lFunctionExpression)
+                        .getScopeExpression(), aInBound, aOutPathExpressions);
+                lSubExpressions =
+                        lSubExpressions.subList(1, lSubExpressions.size());
+            }
+        }
+        for (JSELExpression lSubExpression : lSubExpressions) {
+            collectPaths(lSubExpression, aInBound, aOutPathExpressions);
+        }
+    }
+
+    private static boolean isPath(JSELExpression aInExpression,
+            Set<String> aInBound) {
+        if (aInExpression instanceof IdentifierExpression) {
+            return !aInBound.contains(
+                    ((IdentifierExpression) aInExpression).getIdentifier());
+        }
+        if (aInExpression instanceof ThisExpression) {
+            return !aInBound.contains(THIS);
+        }
+        return aInExpression instanceof AccessExpression
+                && PurityAnalysis.getKey((AccessExpression) aInExpression)
+                        != null
+                && isPath(((AccessExpression) aInExpression)
+                        .getScopeExpression(), aInBound);
+    }
+}
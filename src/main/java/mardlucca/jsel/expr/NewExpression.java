@@ -55,4 +55,31 @@ public class NewExpression implements JSELExpression {
 
         return lConstructorObject.instantiate(lArguments, aInContext);
     }
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        List<JSELExpression> lSubExpressions =
+                new ArrayList<>(argumentExpressions.size() + 1);
+        lSubExpressions.add(constructorExpression);
+        lSubExpressions.addAll(argumentExpressions);
+        return lSubExpressions;
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        return new NewExpression(aInSubExpressions.get(0),
+                new ArrayList<>(aInSubExpressions.subList(
+                        1, aInSubExpressions.size())));
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
+    }
 }
@@ -20,30 +20,142 @@ package mardlucca.jsel.expr;
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELObject;
 import mardlucca.jsel.type.JSELValue;
-import mardlucca.jsel.type.JSELObject;
-import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.ObjectTemplate;
 import org.apache.commons.lang3.tuple.Pair;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * An object literal. Properties are kept in source order (a property that is
+ * repeated keeps the position of its first occurrence and the value of its
+ * last one). Objects are instantiated from an {@link ObjectTemplate} and, when
+ * all the property values are literals, share a single array of values.
+ */
 public class ObjectExpression implements JSELExpression {
-    private Map<String, JSELExpression> propertyExpressions = new HashMap<>();
+    private Map<String, JSELExpression> propertyExpressions =
+            new LinkedHashMap<>();
+
+    /**
+     * The compiled form of this literal, which is only created when first
+     * evaluated as properties are added while parsing. That may happen on
+     * several threads at once (e.g. in a callback of a parallel array
+     * built-in), so it is volatile.
+     */
+    private volatile Compiled compiled;
 
     @Override
     public JSELValue execute(ExecutionContext aInContext) {
-        JSELObject lNewObject = new JSELObject();
-        for (Map.Entry<String, JSELExpression> lEntry :
-                propertyExpressions.entrySet()) {
-            lNewObject.put(
-                    lEntry.getKey(),
-                    lEntry.getValue().execute(aInContext));
+        Compiled lCompiled = getCompiled();
+        JSELValue[] lValues = lCompiled.constantValues;
+        if (lValues == null) {
+            List<JSELExpression> lExpressions = lCompiled.expressions;
+            lValues = new JSELValue[lExpressions.size()];
+            for (int i = 0; i < lValues.length; i++) {
+                lValues[i] = lExpressions.get(i).execute(aInContext)
+                        .getValue();
+            }
         }
-        return lNewObject;
+        return lCompiled.template.instantiate(
+                aInContext.getGlobalObject().getObjectPrototype(), lValues);
+    }
+
+    /**
+     * Creates the object from the values of the property expressions.
+     * @param aInValues the values, in the order of the sub-expressions
+     * @param aInContext the execution context
+     * @return the new object
+     */
+    JSELObject create(JSELValue[] aInValues, ExecutionContext aInContext) {
+        Compiled lCompiled = getCompiled();
+        JSELValue[] lValues = lCompiled.constantValues;
+        if (lValues == null) {
+            lValues = aInValues;
+            for (int i = 0; i < lValues.length; i++) {
+                lValues[i] = lValues[i].getValue();
+            }
+        }
+        return lCompiled.template.instantiate(
+                aInContext.getGlobalObject().getObjectPrototype(), lValues);
     }
 
     public Object add(Pair<String, JSELExpression> aInValue) {
         propertyExpressions.put(aInValue.getKey(), aInValue.getValue());
+        compiled = null;
         return this;
     }
+
+    /**
+     * The property names, in the same order as the values returned by
+     * {@link #getSubExpressions()}.
+     * @return the property names
+     */
+    List<String> getKeys() {
+        return new ArrayList<>(propertyExpressions.keySet());
+    }
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        return getCompiled().expressions;
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        ObjectExpression lCopy = new ObjectExpression();
+        int i = 0;
+        // same order as the values, as returned by getSubExpressions
+        for (String lKey : propertyExpressions.keySet()) {
+            lCopy.propertyExpressions.put(lKey, aInSubExpressions.get(i++));
+        }
+        return lCopy;
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
+    }
+
+    private Compiled getCompiled() {
+        Compiled lCompiled = compiled;
+        if (lCompiled == null) {
+            compiled = lCompiled = new Compiled(propertyExpressions);
+        }
+        return lCompiled;
+    }
+
+    /**
+     * The template of the objects created by the literal and, if all the
+     * values are literals, their values.
+     */
+    private static class Compiled {
+        private ObjectTemplate template;
+        private List<JSELExpression> expressions;
+        private JSELValue[] constantValues;
+
+        private Compiled(Map<String, JSELExpression> aInPropertyExpressions) {
+            template = new ObjectTemplate(
+                    new ArrayList<>(aInPropertyExpressions.keySet()));
+            expressions = Collections.unmodifiableList(
+                    new ArrayList<>(aInPropertyExpressions.values()));
+
+            JSELValue[] lValues = new JSELValue[expressions.size()];
+            for (int i = 0; i < lValues.length; i++) {
+                if (!(expressions.get(i) instanceof LiteralExpression)) {
+                    return;
+                }
+                lValues[i] = ((LiteralExpression) expressions.get(i))
+                        .getValue().getValue();
+            }
+            constantValues = lValues;
+        }
+    }
 }
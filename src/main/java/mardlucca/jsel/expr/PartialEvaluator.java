@@ -0,0 +1,202 @@
+/*
+ * File: PartialEvaluator.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.JSELRuntimeException;
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.type.JSELBoolean;
+import mardlucca.jsel.type.JSELObject;
+import mardlucca.jsel.type.JSELObject.PropertyDescriptor;
+import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.Type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Partially evaluates expressions against the constant bindings of an
+ * execution context.
+ * <p>
+ * A global binding is considered constant if it is neither writable nor
+ * configurable (e.g. "NaN" or bindings frozen with
+ * {@link mardlucca.jsel.JSELRunner#freeze()}). References to constant
+ * bindings are replaced by their values, operators whose operands are all
+ * primitive literals are folded and properties read from frozen objects are
+ * inlined. Function calls are never evaluated, as they may have side effects.
+ * The resulting residual expression produces the same values as the original
+ * one as long as it is executed in the same context.
+ */
+public class PartialEvaluator {
+    private ExecutionContext context;
+
+    public PartialEvaluator(ExecutionContext aInContext) {
+        context = aInContext;
+    }
+
+    /**
+     * Partially evaluates an expression.
+     * @param aInExpression the expression
+     * @return the residual expression
+     */
+    public JSELExpression specialize(JSELExpression aInExpression) {
+        return specialize(aInExpression, Collections.emptySet());
+    }
+
+    private JSELExpression specialize(
+            JSELExpression aInExpression, Set<String> aInShadowed) {
+        if (aInExpression instanceof IdentifierExpression) {
+            return specializeIdentifier(
+                    (IdentifierExpression) aInExpression, aInShadowed);
+        }
+
+        Set<String> lShadowed = aInShadowed;
+        if (aInExpression instanceof LambdaExpression) {
+            lShadowed = new HashSet<>(aInShadowed);
+            lShadowed.addAll(
+                    ((LambdaExpression) aInExpression).getParameters());
+        }
+
+        List<JSELExpression> lSubExpressions =
+                aInExpression.getSubExpressions();
+        if (lSubExpressions.isEmpty()) {
+            return aInExpression;
+        }
+
+        List<JSELExpression> lSpecialized = new ArrayList<>();
+        boolean lChanged = false;
+        for (JSELExpression lSubExpression : lSubExpressions) {
+            JSELExpression lResult = specialize(lSubExpression, lShadowed);
+            lChanged |= lResult != lSubExpression;
+            lSpecialized.add(lResult);
+        }
+
+        JSELExpression lExpression = lChanged
+                ? aInExpression.withSubExpressions(lSpecialized)
+                : aInExpression;
+
+        if (lExpression instanceof AccessExpression) {
+            return foldAccess((AccessExpression) lExpression, lSpecialized);
+        }
+        if (lExpression instanceof ConditionalOperatorExpression
+                && isPrimitiveLiteral(lSpecialized.get(0))) {
+            JSELExpression lBranch = lSpecialized.get(
+                    getValue(lSpecialized.get(0)).toBoolean() ? 1 : 2);
+            // a property access would become a method call target, e.g. in
+            // "(true ? a.b : c)()", changing the "this" value of the call
+            return lBranch instanceof AccessExpression
+                    ? lExpression
+                    : lBranch;
+        }
+        if ((lExpression instanceof AndOperatorExpression
+                || lExpression instanceof OrOperatorExpression)
+                && isPrimitiveLiteral(lSpecialized.get(0))
+                && getValue(lSpecialized.get(0)).toBoolean()
+                        == lExpression instanceof OrOperatorExpression) {
+            // short-circuited, so the second operand is never evaluated
+            return new LiteralExpression(
+                    lExpression instanceof OrOperatorExpression
+                            ? JSELBoolean.TRUE
+                            : JSELBoolean.FALSE);
+        }
+        if (lExpression instanceof UnaryOperatorExpression
+                || lExpression instanceof BinaryOperatorExpression
+                || lExpression instanceof AndOperatorExpression
+                || lExpression instanceof OrOperatorExpression) {
+            for (JSELExpression lOperand : lSpecialized) {
+                if (!isPrimitiveLiteral(lOperand)) {
+                    return lExpression;
+                }
+            }
+            return fold(lExpression);
+        }
+        return lExpression;
+    }
+
+    private JSELExpression specializeIdentifier(
+            IdentifierExpression aInExpression, Set<String> aInShadowed) {
+        if (aInShadowed.contains(aInExpression.getIdentifier())) {
+            return aInExpression;
+        }
+        PropertyDescriptor lDescriptor = context.getGlobalObject()
+                .getOwnProperty(aInExpression.getIdentifier());
+        return isConstant(lDescriptor)
+                ? new LiteralExpression(lDescriptor.getValue())
+                : aInExpression;
+    }
+
+    private JSELExpression foldAccess(
+            AccessExpression aInExpression,
+            List<JSELExpression> aInSubExpressions) {
+        JSELExpression lScope = aInSubExpressions.get(0);
+        if (!(lScope instanceof LiteralExpression)
+                || getValue(lScope).getType() != Type.OBJECT) {
+            return aInExpression;
+        }
+
+        JSELObject lObject = getValue(lScope).toObject();
+        PropertyDescriptor lDescriptor;
+        if (aInExpression.getKey() != null) {
+            lDescriptor = lObject.getOwnProperty(aInExpression.getKey());
+        } else if (isPrimitiveLiteral(aInSubExpressions.get(1))) {
+            JSELValue lKey = getValue(aInSubExpressions.get(1));
+            int lIndex = JSELObject.toArrayIndex(lKey);
+            lDescriptor = lIndex < 0
+                    ? lObject.getOwnProperty(lKey.toString())
+                    : lObject.getOwnProperty(lIndex);
+        } else {
+            return aInExpression;
+        }
+
+        // callable values are kept as property reads, as method calls need
+        // the object they were read from as their "this" value
+        return isConstant(lDescriptor)
+                && !lDescriptor.getValue().isCallable()
+                ? new LiteralExpression(lDescriptor.getValue())
+                : aInExpression;
+    }
+
+    private JSELExpression fold(JSELExpression aInExpression) {
+        try {
+            JSELValue lValue = aInExpression.execute(context);
+            return lValue.isPrimitive()
+                    ? new LiteralExpression(lValue)
+                    : aInExpression;
+        } catch (JSELRuntimeException e) {
+            // errors are left to be raised when the expression is executed
+            return aInExpression;
+        }
+    }
+
+    private static boolean isConstant(PropertyDescriptor aInDescriptor) {
+        return aInDescriptor != null
+                && !aInDescriptor.isWritable()
+                && !aInDescriptor.isConfigurable();
+    }
+
+    private static boolean isPrimitiveLiteral(JSELExpression aInExpression) {
+        return aInExpression instanceof LiteralExpression
+                && getValue(aInExpression).isPrimitive();
+    }
+
+    private static JSELValue getValue(JSELExpression aInExpression) {
+        return ((LiteralExpression) aInExpression).getValue();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * File: PurityAnalysis.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.builtin.array.PopFunction;
+import mardlucca.jsel.builtin.array.PushFunction;
+import mardlucca.jsel.builtin.array.ReverseFunction;
+import mardlucca.jsel.builtin.array.ShiftFunction;
+import mardlucca.jsel.builtin.array.SortFunction;
+import mardlucca.jsel.builtin.array.SpliceFunction;
+import mardlucca.jsel.builtin.array.UnshiftFunction;
+import mardlucca.jsel.builtin.math.RandomFunction;
+import mardlucca.jsel.builtin.object.DefinePropertiesFunction;
+import mardlucca.jsel.builtin.object.DefinePropertyFunction;
+import mardlucca.jsel.builtin.object.FreezeFunction;
+import mardlucca.jsel.builtin.object.PreventExtensionFunction;
+import mardlucca.jsel.builtin.object.SealFunction;
+import mardlucca.jsel.builtin.regexp.ExecFunction;
+import mardlucca.jsel.builtin.regexp.TestFunction;
+import mardlucca.jsel.type.JSELDate;
+import mardlucca.jsel.type.JSELUserFunction;
+import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.Type;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Static checks on whether evaluating an expression can have side effects.
+ * <p>
+ * JSEL has no assignment operators, so the only way an expression can modify
+ * an object it did not create is by calling a function (e.g. a built-in such
+ * as "Object.defineProperty" or "Array.prototype.sort"). Functions are
+ * resolved at run time, so any call is assumed to have side effects.
+ * Expressions without calls only read existing objects, which also makes them
+ * safe to evaluate concurrently on different threads. Some reads do change
+ * internal state (e.g. the properties of functions and object literals, or
+ * the substrings of matches, are created when first read), but that state is
+ * created in a thread safe way and looks the same to all threads.
+ * <p>
+ * {@link #isDeterministic(JSELExpression)} is less strict: it assumes that
+ * functions are the built-ins they are named after, so calls are allowed
+ * unless they are to built-ins that have side effects or that do not only
+ * depend on their arguments (see {@link #isImpureFunction(String)}).
+ */
+public class PurityAnalysis {
+    /**
+     * Built-ins that modify their arguments or the object they are called on
+     * or that return different values for the same arguments. Regular
+     * expression matching is included as it updates "lastIndex".
+     */
+    private static final Set<String> IMPURE_FUNCTIONS =
+            new HashSet<>(Arrays.asList(
+                    RandomFunction.NAME,
+                    JSELDate.CLASS,
+                    PushFunction.NAME,
+                    PopFunction.NAME,
+                    ShiftFunction.NAME,
+                    UnshiftFunction.NAME,
+                    SpliceFunction.NAME,
+                    SortFunction.NAME,
+                    ReverseFunction.NAME,
+                    DefinePropertyFunction.NAME,
+                    DefinePropertiesFunction.NAME,
+                    FreezeFunction.NAME,
+                    SealFunction.NAME,
+                    PreventExtensionFunction.NAME,
+                    ExecFunction.NAME,
+                    TestFunction.NAME));
+
+    private PurityAnalysis() {
+    }
+
+    /**
+     * Checks whether an expression makes no function calls (including
+     * constructor calls).
+     * @param aInExpression the expression
+     * @return true if the expression cannot have side effects
+     */
+    public static boolean isPure(JSELExpression aInExpression) {
+        if (aInExpression instanceof FunctionCallExpression
+                || aInExpression instanceof NewExpression
+                || aInExpression instanceof ArrayPipelineExpression
+                || (aInExpression instanceof MembershipExpression
+                        && ((MembershipExpression) aInExpression)
+                                .isIndexOf())) {
+            // "indexOf" is a call if it was replaced
+            return false;
+        }
+        for (JSELExpression lSubExpression
+                : aInExpression.getSubExpressions()) {
+            if (!isPure(lSubExpression)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether an expression has no side effects and always evaluates
+     * to the same value given the same values of the identifiers it reads,
+     * assuming that the functions it calls are the built-ins they are named
+     * after. Functions are identified by the property they are read from
+     * (e.g. "sort" in "a.sort()") or the identifier they are bound to (e.g.
+     * "Date"), so an expression that only reads a property named after an
+     * impure built-in (e.g. "a.test") is considered impure too. Calls through
+     * computed properties (e.g. "a[b]()") can be to any function, so they are
+     * never deterministic.
+     * @param aInExpression the expression
+     * @return true if the expression is deterministic
+     */
+    public static boolean isDeterministic(JSELExpression aInExpression) {
+        if (aInExpression instanceof IdentifierExpression
+                && isImpureFunction(((IdentifierExpression) aInExpression)
+                        .getIdentifier())) {
+            return false;
+        }
+        if (aInExpression instanceof AccessExpression
+                && isImpureFunction(getKey((AccessExpression) aInExpression))) {
+            return false;
+        }
+        if (aInExpression instanceof FunctionCallExpression) {
+            JSELExpression lFunctionExpression =
+                    ((FunctionCallExpression) aInExpression)
+                            .getFunctionExpression();
+            if (lFunctionExpression instanceof AccessExpression
+                    && getKey((AccessExpression) lFunctionExpression)
+                            == null) {
+                return false;
+            }
+        }
+        for (JSELExpression lSubExpression
+                : aInExpression.getSubExpressions()) {
+            if (!isDeterministic(lSubExpression)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a built-in function has side effects or can return
+     * different values for the same arguments. Besides the ones named after
+     * known built-ins (e.g. "Math.random", "Date", "push", "sort" and
+     * "defineProperty"), all setters (e.g. "setTime") are impure.
+     * @param aInName the name of the function or of the property it is read
+     *                from
+     * @return true if the function is impure
+     */
+    public static boolean isImpureFunction(String aInName) {
+        return aInName != null && (IMPURE_FUNCTIONS.contains(aInName)
+                || (aInName.startsWith("set") && aInName.length() > 3
+                        && Character.isUpperCase(aInName.charAt(3))));
+    }
+
+    /**
+     * Returns the constant key of a property access.
+     * @return the key or null if the key is computed.
+     */
+    static String getKey(AccessExpression aInAccess) {
+        if (aInAccess.getKey() != null) {
+            return aInAccess.getKey();
+        }
+        JSELExpression lKeyExpression = aInAccess.getSubExpressions().get(1);
+        if (lKeyExpression instanceof LiteralExpression) {
+            JSELValue lKey = ((LiteralExpression) lKeyExpression).getValue();
+            if (lKey.getType() == Type.STRING) {
+                return lKey.toString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a value is a function defined in JSEL whose body cannot
+     * have side effects.
+     * @param aInValue the value
+     * @return true if the value is a pure user function
+     */
+    public static boolean isPureFunction(JSELValue aInValue) {
+        return aInValue instanceof JSELUserFunction
+                && isPure(((JSELUserFunction) aInValue).getExpression());
+    }
+}
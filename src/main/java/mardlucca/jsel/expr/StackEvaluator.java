@@ -0,0 +1,280 @@
+/*
+ * File: StackEvaluator.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.JSELRuntimeException;
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.type.JSELBoolean;
+import mardlucca.jsel.type.JSELUndefined;
+import mardlucca.jsel.type.JSELUserFunction;
+import mardlucca.jsel.type.JSELValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static mardlucca.jsel.JSELRuntimeException.rangeError;
+
+/**
+ * Evaluates expressions with a heap allocated stack of frames, rather than
+ * recursively on the thread's stack, so that deeply nested expressions (e.g.
+ * large JSON documents) and deep recursion between functions do not depend on
+ * the size of the thread's stack. Instead, evaluation fails with a RangeError
+ * when it needs more frames than the {@link
+ * ExecutionContext#getMaxStackDepth() maximum stack depth} of the context.
+ * <p>
+ * Operators, property accesses, array and object literals and function calls
+ * are evaluated by this class, including the expressions of functions
+ * defined in JSEL, which are evaluated in the same loop. Other expressions
+ * (e.g. "new" or fused array built-ins) are executed as usual and built-ins
+ * that call functions (e.g. "Array.prototype.map") start a nested evaluation
+ * that shares the maximum stack depth.
+ */
+public class StackEvaluator {
+    private ExecutionContext context;
+    private List<Frame> frames = new ArrayList<>();
+    private JSELValue result;
+
+    private StackEvaluator(ExecutionContext aInContext) {
+        context = aInContext;
+    }
+
+    /**
+     * Evaluates an expression, using a heap allocated stack if the context
+     * has a maximum stack depth and recursively otherwise.
+     * @param aInExpression the expression
+     * @param aInContext the execution context
+     * @return the value of the expression
+     */
+    public static JSELValue evaluate(JSELExpression aInExpression,
+            ExecutionContext aInContext) {
+        if (aInContext.getMaxStackDepth() <= 0) {
+            return aInExpression.execute(aInContext);
+        }
+        return new StackEvaluator(aInContext).run(aInExpression);
+    }
+
+    private JSELValue run(JSELExpression aInExpression) {
+        int lBaseDepth = context.getStackDepth();
+        try {
+            push(aInExpression);
+            while (!frames.isEmpty()) {
+                step(frames.get(frames.size() - 1));
+            }
+            return result;
+        } finally {
+            // leaves the environments of the calls that did not complete
+            for (Frame lFrame : frames) {
+                if (lFrame.entered) {
+                    context.pop();
+                }
+            }
+            context.setStackDepth(lBaseDepth);
+        }
+    }
+
+    /**
+     * Starts evaluating an expression. Expressions that are not evaluated by
+     * this class are executed right away.
+     */
+    private void push(JSELExpression aInExpression) {
+        if (!isEvaluated(aInExpression)) {
+            result = aInExpression.execute(context);
+            return;
+        }
+        if (context.getStackDepth() >= context.getMaxStackDepth()) {
+            throw rangeError("Maximum call stack size exceeded");
+        }
+        context.setStackDepth(context.getStackDepth() + 1);
+        frames.add(new Frame(aInExpression));
+    }
+
+    private void complete(JSELValue aInResult) {
+        frames.remove(frames.size() - 1);
+        context.setStackDepth(context.getStackDepth() - 1);
+        result = aInResult;
+    }
+
+    /**
+     * Advances the evaluation of the frame on top of the stack, which either
+     * pushes a sub-expression or completes the frame. When a sub-expression
+     * completes, its value is in {@link #result}.
+     */
+    private void step(Frame aInFrame) {
+        JSELExpression lExpression = aInFrame.expression;
+        if (aInFrame.entered) {
+            // the expression of the function called completed
+            aInFrame.entered = false;
+            context.pop();
+            complete(result.getValue());
+            return;
+        }
+        if (aInFrame.state > 0) {
+            aInFrame.values[aInFrame.state - 1] = result;
+        }
+
+        if (lExpression instanceof AndOperatorExpression
+                || lExpression instanceof OrOperatorExpression) {
+            boolean lOr = lExpression instanceof OrOperatorExpression;
+            if (aInFrame.state == 1 && result.toBoolean() == lOr) {
+                complete(lOr ? JSELBoolean.TRUE : JSELBoolean.FALSE);
+            } else if (aInFrame.state == 2) {
+                complete(new JSELBoolean(result.toBoolean()));
+            } else {
+                evaluateNext(aInFrame);
+            }
+        } else if (lExpression instanceof ConditionalOperatorExpression) {
+            if (aInFrame.state == 0) {
+                evaluateNext(aInFrame);
+            } else {
+                // the frame is replaced by the branch, whose value is the
+                // value of the conditional
+                JSELExpression lBranch = aInFrame.subExpressions
+                        .get(result.toBoolean() ? 1 : 2);
+                complete(null);
+                push(lBranch);
+            }
+        } else if (lExpression instanceof FunctionCallExpression) {
+            stepCall(aInFrame, (FunctionCallExpression) lExpression);
+        } else if (aInFrame.state < aInFrame.subExpressions.size()) {
+            evaluateNext(aInFrame);
+        } else if (lExpression instanceof BinaryOperatorExpression) {
+            complete(((BinaryOperatorExpression) lExpression).operate(
+                    aInFrame.values[0], aInFrame.values[1]));
+        } else if (lExpression instanceof UnaryOperatorExpression) {
+            complete(((UnaryOperatorExpression) lExpression).operate(
+                    aInFrame.values[0]));
+        } else if (lExpression instanceof AccessExpression) {
+            complete(((AccessExpression) lExpression).getValue(
+                    aInFrame.values[0],
+                    aInFrame.values.length > 1 ? aInFrame.values[1] : null));
+        } else if (lExpression instanceof ArrayExpression) {
+            complete(((ArrayExpression) lExpression).create(aInFrame.values));
+        } else {
+            complete(((ObjectExpression) lExpression).create(
+                    aInFrame.values, context));
+        }
+    }
+
+    /**
+     * Function calls evaluate the scope and key of the method's property
+     * access (if this is a method call) or the function expression, followed
+     * by the arguments.
+     */
+    private void stepCall(Frame aInFrame, FunctionCallExpression aInCall) {
+        if (aInFrame.state < aInFrame.subExpressions.size()) {
+            evaluateNext(aInFrame);
+            return;
+        }
+
+        AccessExpression lMember = aInCall.getMemberExpression();
+        int lArgumentIndex = lMember == null
+                ? 1
+                : lMember.getSubExpressions().size();
+        JSELValue lThis;
+        JSELValue lFunction;
+        if (lMember == null) {
+            lThis = JSELUndefined.getInstance();
+            lFunction = aInFrame.values[0];
+        } else {
+            lThis = aInFrame.values[0];
+            lFunction = lMember.getValue(lThis,
+                    lArgumentIndex > 1 ? aInFrame.values[1] : null);
+            lThis = lThis.toObject();
+        }
+        if (!lFunction.isCallable()) {
+            throw JSELRuntimeException.typeError(
+                    lFunction + " is not a function");
+        }
+
+        if (lFunction instanceof JSELUserFunction) {
+            JSELUserFunction lUserFunction = (JSELUserFunction) lFunction;
+            lUserFunction.enter(
+                    lThis, aInFrame.values, lArgumentIndex, context);
+            aInFrame.entered = true;
+            push(lUserFunction.getExpression());
+        } else {
+            complete(call(lFunction, lThis, aInFrame.values, lArgumentIndex)
+                    .getValue());
+        }
+    }
+
+    /**
+     * Calls a function with the arguments at the end of an array of values,
+     * through the entry point for their number.
+     */
+    private JSELValue call(JSELValue aInFunction, JSELValue aInThis,
+            JSELValue[] aInValues, int aInFrom) {
+        switch (aInValues.length - aInFrom) {
+            case 0:
+                return aInFunction.call0(aInThis, context);
+            case 1:
+                return aInFunction.call1(aInThis, aInValues[aInFrom], context);
+            case 2:
+                return aInFunction.call2(aInThis, aInValues[aInFrom],
+                        aInValues[aInFrom + 1], context);
+            case 3:
+                return aInFunction.call3(aInThis, aInValues[aInFrom],
+                        aInValues[aInFrom + 1], aInValues[aInFrom + 2],
+                        context);
+            default:
+                return aInFunction.callN(aInThis, Arrays.copyOfRange(
+                        aInValues, aInFrom, aInValues.length), context);
+        }
+    }
+
+    private void evaluateNext(Frame aInFrame) {
+        push(aInFrame.subExpressions.get(aInFrame.state++));
+    }
+
+    private static boolean isEvaluated(JSELExpression aInExpression) {
+        return aInExpression instanceof BinaryOperatorExpression
+                || aInExpression instanceof UnaryOperatorExpression
+                || aInExpression instanceof AndOperatorExpression
+                || aInExpression instanceof OrOperatorExpression
+                || aInExpression instanceof ConditionalOperatorExpression
+                || aInExpression instanceof AccessExpression
+                || aInExpression instanceof ArrayExpression
+                || aInExpression instanceof ObjectExpression
+                || aInExpression instanceof FunctionCallExpression;
+    }
+
+    private static class Frame {
+        private JSELExpression expression;
+        private List<JSELExpression> subExpressions;
+        private JSELValue[] values;
+        private int state;
+        private boolean entered;
+
+        Frame(JSELExpression aInExpression) {
+            expression = aInExpression;
+            subExpressions = aInExpression.getSubExpressions();
+            if (aInExpression instanceof FunctionCallExpression) {
+                FunctionCallExpression lCall =
+                        (FunctionCallExpression) aInExpression;
+                if (lCall.getMemberExpression() != null) {
+                    // the receiver and key, followed by the arguments
+                    subExpressions = new ArrayList<>(
+                            lCall.getMemberExpression().getSubExpressions());
+                    subExpressions.addAll(lCall.getArgumentExpressions());
+                }
+            }
+            values = new JSELValue[subExpressions.size()];
+        }
+    }
+}
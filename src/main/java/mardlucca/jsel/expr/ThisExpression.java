@@ -26,4 +26,14 @@ public class ThisExpression implements JSELExpression {
     public JSELValue execute(ExecutionContext aInContext) {
         return aInContext.getThisBinding();
     }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
+    }
 }
@@ -21,7 +21,12 @@ import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.type.JSELValue;
 import mardlucca.jsel.type.JSELValue;
 
-public abstract class UnaryOperatorExpression implements JSELExpression {
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+
+public abstract class UnaryOperatorExpression
+        implements JSELExpression, Cloneable {
     private JSELExpression operand;
 
     public UnaryOperatorExpression(
@@ -36,4 +41,33 @@ public abstract class UnaryOperatorExpression implements JSELExpression {
     }
 
     protected abstract JSELValue operate(JSELValue aInOperand);
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        return singletonList(operand);
+    }
+
+    @Override
+    public JSELExpression withSubExpressions(
+            List<JSELExpression> aInSubExpressions) {
+        // copying keeps the actual operator, which is the concrete class
+        UnaryOperatorExpression lCopy;
+        try {
+            lCopy = (UnaryOperatorExpression) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        lCopy.operand = aInSubExpressions.get(0);
+        return lCopy;
+    }
+
+    @Override
+    public boolean equals(Object aInObject) {
+        return ExpressionStructure.equals(this, aInObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return ExpressionStructure.hashCode(this);
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ * File: CallExpression.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.rules;
+
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.expr.JSELExpression;
+import mardlucca.jsel.type.JSELValue;
+
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * A function call or "new" expression in a {@link RuleSet}. Built-in
+ * functions may have side effects (e.g. "push") without calling any function
+ * defined in JSEL, so the values of the shared expressions are dropped after
+ * each call.
+ */
+class CallExpression implements JSELExpression {
+    private JSELExpression expression;
+    private ThreadLocal<SharedValues> values;
+
+    /**
+     * Constructor
+     * @param aInExpression the call
+     * @param aInValues the values of the current evaluation, if any, per
+     *                  thread
+     */
+    CallExpression(JSELExpression aInExpression,
+            ThreadLocal<SharedValues> aInValues) {
+        expression = aInExpression;
+        values = aInValues;
+    }
+
+    @Override
+    public JSELValue execute(ExecutionContext aInContext) {
+        JSELValue lValue = expression.execute(aInContext);
+        SharedValues lValues = values.get();
+        if (lValues != null) {
+            lValues.clear();
+        }
+        return lValue;
+    }
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        return singletonList(expression);
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * File: Constraint.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.rules;
+
+import mardlucca.jsel.expr.AccessExpression;
+import mardlucca.jsel.expr.AndOperatorExpression;
+import mardlucca.jsel.expr.EqualsExpression;
+import mardlucca.jsel.expr.GreaterThanExpreassion;
+import mardlucca.jsel.expr.GreaterThanOrEqualToExpreassion;
+import mardlucca.jsel.expr.IdentifierExpression;
+import mardlucca.jsel.expr.JSELExpression;
+import mardlucca.jsel.expr.LessThanExpreassion;
+import mardlucca.jsel.expr.LessThanOrEqualToExpreassion;
+import mardlucca.jsel.expr.LiteralExpression;
+import mardlucca.jsel.expr.MembershipExpression;
+import mardlucca.jsel.expr.NegationExpression;
+import mardlucca.jsel.expr.OrOperatorExpression;
+import mardlucca.jsel.expr.StrictEqualsExpression;
+import mardlucca.jsel.type.JSELNumber;
+import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.Type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A condition on the value of a property path (e.g. "event.type") that a rule
+ * requires in order to be true. Constraints are either a set of values (e.g.
+ * "event.type == 'order'" or "x.region === 'EU' || x.region === 'US'") or a
+ * numeric range (e.g. "event.amount &gt;= 10 &amp;&amp; event.amount &lt;
+ * 100").
+ */
+class Constraint {
+    private List<String> path;
+    private JSELExpression pathExpression;
+    private List<JSELValue> values;
+    private List<Boolean> strict;
+    private double lower = Double.NEGATIVE_INFINITY;
+    private boolean lowerInclusive = true;
+    private double upper = Double.POSITIVE_INFINITY;
+    private boolean upperInclusive = true;
+
+    private Constraint(List<String> aInPath,
+            JSELExpression aInPathExpression) {
+        path = aInPath;
+        pathExpression = aInPathExpression;
+    }
+
+    /**
+     * Finds the constraint that best discriminates when a rule can be true,
+     * among the operands of its top-level "&amp;&amp;" operators. Value
+     * constraints are preferred to range constraints.
+     * @param aInRule the rule
+     * @return the constraint or null, if the rule has none.
+     */
+    static Constraint extract(JSELExpression aInRule) {
+        List<JSELExpression> lConjuncts = new ArrayList<>();
+        addConjuncts(aInRule, lConjuncts);
+
+        List<Constraint> lRanges = new ArrayList<>();
+        for (JSELExpression lConjunct : lConjuncts) {
+            Constraint lConstraint = toConstraint(lConjunct);
+            if (lConstraint == null) {
+                continue;
+            }
+            if (lConstraint.isRange()) {
+                addRange(lRanges, lConstraint);
+            } else {
+                return lConstraint;
+            }
+        }
+        return lRanges.isEmpty() ? null : lRanges.get(0);
+    }
+
+    List<String> getPath() {
+        return path;
+    }
+
+    JSELExpression getPathExpression() {
+        return pathExpression;
+    }
+
+    boolean isRange() {
+        return values == null;
+    }
+
+    /**
+     * The values the path may be equal to, for value constraints.
+     */
+    List<JSELValue> getValues() {
+        return values;
+    }
+
+    /**
+     * Whether each value is compared with "===" rather than "==".
+     */
+    List<Boolean> getStrict() {
+        return strict;
+    }
+
+    double getLower() {
+        return lower;
+    }
+
+    boolean isLowerInclusive() {
+        return lowerInclusive;
+    }
+
+    double getUpper() {
+        return upper;
+    }
+
+    boolean isUpperInclusive() {
+        return upperInclusive;
+    }
+
+    private static void addConjuncts(JSELExpression aInExpression,
+            List<JSELExpression> aOutConjuncts) {
+        aInExpression = unwrap(aInExpression);
+        if (aInExpression instanceof AndOperatorExpression) {
+            for (JSELExpression lOperand : aInExpression.getSubExpressions()) {
+                addConjuncts(lOperand, aOutConjuncts);
+            }
+        } else {
+            aOutConjuncts.add(aInExpression);
+        }
+    }
+
+    /**
+     * Intersects a range constraint with the one on the same path, if any.
+     */
+    private static void addRange(List<Constraint> aInOutRanges,
+            Constraint aInRange) {
+        for (Constraint lRange : aInOutRanges) {
+            if (lRange.path.equals(aInRange.path)) {
+                lRange.restrictLower(
+                        aInRange.lower, aInRange.lowerInclusive);
+                lRange.restrictUpper(
+                        aInRange.upper, aInRange.upperInclusive);
+                return;
+            }
+        }
+        aInOutRanges.add(aInRange);
+    }
+
+    private static Constraint toConstraint(JSELExpression aInExpression) {
+        aInExpression = unwrap(aInExpression);
+        if (aInExpression instanceof OrOperatorExpression) {
+            return toValuesConstraint(aInExpression);
+        }
+        if (aInExpression instanceof MembershipExpression
+                && !((MembershipExpression) aInExpression).isIndexOf()) {
+            MembershipExpression lMembership =
+                    (MembershipExpression) aInExpression;
+            JSELExpression lPathExpression =
+                    lMembership.getOperandExpression();
+            List<String> lPath = getPath(lPathExpression);
+            if (lPath == null) {
+                return null;
+            }
+            Constraint lConstraint = new Constraint(lPath, lPathExpression);
+            lConstraint.values = lMembership.getValues();
+            lConstraint.strict = lMembership.getStrict();
+            return lConstraint;
+        }
+
+        List<JSELExpression> lOperands = aInExpression.getSubExpressions();
+        if (lOperands.size() != 2) {
+            return null;
+        }
+        // normalized as "path <operator> constant"
+        boolean lSwapped = getPath(lOperands.get(0)) == null;
+        JSELExpression lPathExpression = lOperands.get(lSwapped ? 1 : 0);
+        List<String> lPath = getPath(lPathExpression);
+        JSELValue lConstant = getConstant(lOperands.get(lSwapped ? 0 : 1));
+        if (lPath == null || lConstant == null) {
+            return null;
+        }
+
+        Constraint lConstraint = new Constraint(lPath, lPathExpression);
+        if (aInExpression instanceof EqualsExpression
+                || aInExpression instanceof StrictEqualsExpression) {
+            lConstraint.values = Collections.singletonList(lConstant);
+            lConstraint.strict = Collections.singletonList(
+                    aInExpression instanceof StrictEqualsExpression);
+            return lConstraint;
+        }
+
+        if (lConstant.getType() != Type.NUMBER
+                || Double.isNaN(lConstant.toNumber())) {
+            // strings are compared as strings, which is not indexed
+            return null;
+        }
+        double lBound = lConstant.toNumber();
+        boolean lLessThan = aInExpression instanceof LessThanExpreassion
+                || aInExpression instanceof LessThanOrEqualToExpreassion;
+        boolean lInclusive =
+                aInExpression instanceof LessThanOrEqualToExpreassion
+                || aInExpression instanceof GreaterThanOrEqualToExpreassion;
+        if (!lLessThan
+                && !(aInExpression instanceof GreaterThanExpreassion)
+                && !(aInExpression instanceof GreaterThanOrEqualToExpreassion)) {
+            return null;
+        }
+        if (lLessThan != lSwapped) {
+            // path < constant, or constant > path
+            lConstraint.restrictUpper(lBound, lInclusive);
+        } else {
+            lConstraint.restrictLower(lBound, lInclusive);
+        }
+        return lConstraint;
+    }
+
+    /**
+     * Converts a disjunction of equalities on the same path into a single
+     * constraint.
+     */
+    private static Constraint toValuesConstraint(
+            JSELExpression aInExpression) {
+        Constraint lResult = null;
+        for (JSELExpression lOperand : aInExpression.getSubExpressions()) {
+            Constraint lConstraint = toConstraint(lOperand);
+            if (lConstraint == null || lConstraint.isRange()
+                    || (lResult != null
+                            && !lResult.path.equals(lConstraint.path))) {
+                return null;
+            }
+            if (lResult == null) {
+                lResult = new Constraint(
+                        lConstraint.path, lConstraint.pathExpression);
+                lResult.values = new ArrayList<>();
+                lResult.strict = new ArrayList<>();
+            }
+            lResult.values.addAll(lConstraint.values);
+            lResult.strict.addAll(lConstraint.strict);
+        }
+        return lResult;
+    }
+
+    private void restrictLower(double aInBound, boolean aInInclusive) {
+        if (aInBound > lower || (aInBound == lower && !aInInclusive)) {
+            lower = aInBound;
+            lowerInclusive = aInInclusive;
+        }
+    }
+
+    private void restrictUpper(double aInBound, boolean aInInclusive) {
+        if (aInBound < upper || (aInBound == upper && !aInInclusive)) {
+            upper = aInBound;
+            upperInclusive = aInInclusive;
+        }
+    }
+
+    /**
+     * Returns the property path an expression reads (e.g. "a.b['c']"), if it
+     * only consists of an identifier followed by property accesses with
+     * constant keys.
+     */
+    private static List<String> getPath(JSELExpression aInExpression) {
+        aInExpression = unwrap(aInExpression);
+        if (aInExpression instanceof IdentifierExpression) {
+            List<String> lPath = new ArrayList<>();
+            lPath.add(((IdentifierExpression) aInExpression).getIdentifier());
+            return lPath;
+        }
+        if (!(aInExpression instanceof AccessExpression)) {
+            return null;
+        }
+
+        AccessExpression lAccess = (AccessExpression) aInExpression;
+        String lKey = lAccess.getKey();
+        if (lKey == null) {
+            JSELValue lConstant =
+                    getConstant(lAccess.getSubExpressions().get(1));
+            if (lConstant == null) {
+                return null;
+            }
+            lKey = lConstant.toString();
+        }
+        List<String> lPath = getPath(lAccess.getScopeExpression());
+        if (lPath != null) {
+            lPath.add(lKey);
+        }
+        return lPath;
+    }
+
+    /**
+     * Returns the primitive value of a literal, which may be negated.
+     */
+    private static JSELValue getConstant(JSELExpression aInExpression) {
+        aInExpression = unwrap(aInExpression);
+        if (aInExpression instanceof NegationExpression) {
+            JSELValue lValue =
+                    getConstant(aInExpression.getSubExpressions().get(0));
+            return lValue != null && lValue.getType() == Type.NUMBER
+                    ? new JSELNumber(-lValue.toNumber())
+                    : null;
+        }
+        if (!(aInExpression instanceof LiteralExpression)) {
+            return null;
+        }
+        JSELValue lValue = ((LiteralExpression) aInExpression).getValue();
+        return lValue.getType() == Type.OBJECT ? null : lValue;
+    }
+
+    private static JSELExpression unwrap(JSELExpression aInExpression) {
+        return aInExpression instanceof SharedExpression
+                ? ((SharedExpression) aInExpression).getExpression()
+                : aInExpression;
+    }
+}
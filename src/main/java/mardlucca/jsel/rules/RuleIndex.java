@@ -0,0 +1,343 @@
+/*
+ * File: RuleIndex.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.rules;
+
+import mardlucca.jsel.JSELRuntimeException;
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.expr.JSELExpression;
+import mardlucca.jsel.type.JSELValue;
+import mardlucca.jsel.type.Type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects the rules of a {@link RuleSet} that can possibly be true for the
+ * current evaluation, so that the others need not be evaluated. Each rule is
+ * indexed by one {@link Constraint} found among the operands of its top-level
+ * "&amp;&amp;" operators: value constraints go into hash indexes and range
+ * constraints into interval indexes, per property path. Each path is then
+ * evaluated once per evaluation and looked up in its indexes. Rules without
+ * constraints are always candidates.
+ * <p>
+ * Lookups never miss a rule that can be true, but may return rules that turn
+ * out to be false (e.g. "x == 1" is a candidate when "x" is an object, as
+ * converting it could run user code).
+ */
+class RuleIndex {
+    private int ruleCount;
+    private BitSet unindexed = new BitSet();
+    private Map<List<String>, PathIndex> pathIndexes = new LinkedHashMap<>();
+    private RuleIndexStats stats;
+
+    /**
+     * Constructor
+     * @param aInRules the rules to index
+     */
+    RuleIndex(List<JSELExpression> aInRules) {
+        ruleCount = aInRules.size();
+        int lHashIndexed = 0;
+        int lRangeIndexed = 0;
+        for (int i = 0; i < aInRules.size(); i++) {
+            Constraint lConstraint = Constraint.extract(aInRules.get(i));
+            if (lConstraint == null) {
+                unindexed.set(i);
+                continue;
+            }
+
+            PathIndex lPathIndex = pathIndexes.computeIfAbsent(
+                    lConstraint.getPath(),
+                    aInPath -> new PathIndex(
+                            lConstraint.getPathExpression()));
+            lPathIndex.add(i, lConstraint);
+            if (lConstraint.isRange()) {
+                lRangeIndexed++;
+            } else {
+                lHashIndexed++;
+            }
+        }
+        for (PathIndex lPathIndex : pathIndexes.values()) {
+            lPathIndex.intervals.build();
+        }
+        stats = new RuleIndexStats(ruleCount, lHashIndexed, lRangeIndexed,
+                pathIndexes.size());
+    }
+
+    /**
+     * Finds the rules that may be true in a given context.
+     * @param aInContext the context
+     * @return the indexes of the candidate rules
+     */
+    BitSet getCandidates(ExecutionContext aInContext) {
+        BitSet lCandidates = (BitSet) unindexed.clone();
+        for (PathIndex lPathIndex : pathIndexes.values()) {
+            lPathIndex.addCandidates(aInContext, lCandidates);
+        }
+        stats.record(lCandidates.cardinality());
+        return lCandidates;
+    }
+
+    RuleIndexStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the key under which a primitive value is indexed. Equal values
+     * (as in "===") have equal keys, except for NaN, which is equal to no
+     * value but has a key.
+     */
+    private static Object getKey(JSELValue aInValue) {
+        switch (aInValue.getType()) {
+            case NUMBER:
+                return getKey(aInValue.toNumber());
+            case STRING:
+                return aInValue.toString();
+            case BOOLEAN:
+                return aInValue.toBoolean();
+            default:
+                return aInValue.getType();
+        }
+    }
+
+    private static Double getKey(double aInNumber) {
+        // 0 and -0 are equal
+        return aInNumber == 0 ? 0.0 : aInNumber;
+    }
+
+    private static void add(Map<Object, BitSet> aInOutIndex, Object aInKey,
+            int aInRule) {
+        aInOutIndex.computeIfAbsent(aInKey, aInIgnored -> new BitSet())
+                .set(aInRule);
+    }
+
+    private static void addCandidates(Map<Object, BitSet> aInIndex,
+            Object aInKey, BitSet aOutCandidates) {
+        BitSet lRules = aInIndex.get(aInKey);
+        if (lRules != null) {
+            aOutCandidates.or(lRules);
+        }
+    }
+
+    /**
+     * The indexes of all rules constrained on the same property path.
+     */
+    private static class PathIndex {
+        private JSELExpression pathExpression;
+        private BitSet rules = new BitSet();
+        // values compared with "==="
+        private Map<Object, BitSet> strictValues = new HashMap<>();
+        // values compared with "==", both as they are and converted to
+        // numbers, as that is how values of different types are compared
+        private Map<Object, BitSet> looseValues = new HashMap<>();
+        private Map<Object, BitSet> looseNumbers = new HashMap<>();
+        private BitSet looseRules = new BitSet();
+        private Intervals intervals = new Intervals();
+
+        private PathIndex(JSELExpression aInPathExpression) {
+            pathExpression = aInPathExpression;
+        }
+
+        private void add(int aInRule, Constraint aInConstraint) {
+            rules.set(aInRule);
+            if (aInConstraint.isRange()) {
+                intervals.add(aInRule, aInConstraint);
+                return;
+            }
+
+            for (int i = 0; i < aInConstraint.getValues().size(); i++) {
+                JSELValue lValue = aInConstraint.getValues().get(i);
+                if (aInConstraint.getStrict().get(i)) {
+                    RuleIndex.add(strictValues, getKey(lValue), aInRule);
+                    continue;
+                }
+
+                looseRules.set(aInRule);
+                RuleIndex.add(looseValues, getKey(lValue), aInRule);
+                if (lValue.getType() == Type.NUMBER
+                        || lValue.getType() == Type.STRING
+                        || lValue.getType() == Type.BOOLEAN) {
+                    double lNumber = lValue.toNumber();
+                    if (!Double.isNaN(lNumber)) {
+                        RuleIndex.add(looseNumbers, getKey(lNumber), aInRule);
+                    }
+                }
+            }
+        }
+
+        private void addCandidates(ExecutionContext aInContext,
+                BitSet aOutCandidates) {
+            JSELValue lValue;
+            try {
+                lValue = pathExpression.execute(aInContext).getValue();
+            } catch (JSELRuntimeException e) {
+                // the rule decides whether this is an error
+                aOutCandidates.or(rules);
+                return;
+            }
+
+            Type lType = lValue.getType();
+            if (lType == Type.OBJECT) {
+                // objects are never "===" to primitives. Other comparisons
+                // convert them to primitives, which may call user functions
+                aOutCandidates.or(looseRules);
+                aOutCandidates.or(intervals.rules);
+                return;
+            }
+
+            Object lKey = getKey(lValue);
+            RuleIndex.addCandidates(strictValues, lKey, aOutCandidates);
+            if (lType == Type.NULL || lType == Type.UNDEFINED) {
+                // null and undefined are only "==" to each other
+                RuleIndex.addCandidates(
+                        looseValues, Type.NULL, aOutCandidates);
+                RuleIndex.addCandidates(
+                        looseValues, Type.UNDEFINED, aOutCandidates);
+            } else {
+                RuleIndex.addCandidates(looseValues, lKey, aOutCandidates);
+            }
+
+            double lNumber = lValue.toNumber();
+            if (!Double.isNaN(lNumber)) {
+                if (lType != Type.NULL && lType != Type.UNDEFINED) {
+                    RuleIndex.addCandidates(looseNumbers, getKey(lNumber),
+                            aOutCandidates);
+                }
+                intervals.addCandidates(lNumber, aOutCandidates);
+            }
+        }
+    }
+
+    /**
+     * Index of numeric intervals, which finds the ones containing a number.
+     * Intervals are sorted both by their lower and by their upper bounds, so
+     * that only the intervals on the smaller side of the number need to be
+     * checked.
+     */
+    private static class Intervals {
+        private List<Interval> intervals = new ArrayList<>();
+        private BitSet rules = new BitSet();
+        private Interval[] byLower;
+        private double[] lowers;
+        private Interval[] byUpper;
+        private double[] uppers;
+
+        private void add(int aInRule, Constraint aInConstraint) {
+            rules.set(aInRule);
+            intervals.add(new Interval(aInRule, aInConstraint));
+        }
+
+        private void build() {
+            byLower = intervals.toArray(new Interval[0]);
+            Arrays.sort(byLower, Comparator.comparingDouble(
+                    aInInterval -> aInInterval.lower));
+            lowers = new double[byLower.length];
+            for (int i = 0; i < byLower.length; i++) {
+                lowers[i] = byLower[i].lower;
+            }
+
+            byUpper = intervals.toArray(new Interval[0]);
+            Arrays.sort(byUpper, Comparator.comparingDouble(
+                    aInInterval -> aInInterval.upper));
+            uppers = new double[byUpper.length];
+            for (int i = 0; i < byUpper.length; i++) {
+                uppers[i] = byUpper[i].upper;
+            }
+            intervals = null;
+        }
+
+        private void addCandidates(double aInNumber, BitSet aOutCandidates) {
+            if (byLower.length == 0) {
+                return;
+            }
+
+            // intervals starting at or before the number
+            int lStarted = countAtMost(lowers, aInNumber);
+            // intervals ending at or after the number
+            int lNotEnded = uppers.length - countLessThan(uppers, aInNumber);
+            if (lStarted <= lNotEnded) {
+                for (int i = 0; i < lStarted; i++) {
+                    byLower[i].addIfContains(aInNumber, aOutCandidates);
+                }
+            } else {
+                for (int i = uppers.length - lNotEnded; i < uppers.length;
+                        i++) {
+                    byUpper[i].addIfContains(aInNumber, aOutCandidates);
+                }
+            }
+        }
+
+        private static int countAtMost(double[] aInSorted, double aInNumber) {
+            int lLow = 0;
+            int lHigh = aInSorted.length;
+            while (lLow < lHigh) {
+                int lMiddle = (lLow + lHigh) >>> 1;
+                if (aInSorted[lMiddle] <= aInNumber) {
+                    lLow = lMiddle + 1;
+                } else {
+                    lHigh = lMiddle;
+                }
+            }
+            return lLow;
+        }
+
+        private static int countLessThan(double[] aInSorted,
+                double aInNumber) {
+            int lLow = 0;
+            int lHigh = aInSorted.length;
+            while (lLow < lHigh) {
+                int lMiddle = (lLow + lHigh) >>> 1;
+                if (aInSorted[lMiddle] < aInNumber) {
+                    lLow = lMiddle + 1;
+                } else {
+                    lHigh = lMiddle;
+                }
+            }
+            return lLow;
+        }
+    }
+
+    private static class Interval {
+        private int rule;
+        private double lower;
+        private boolean lowerInclusive;
+        private double upper;
+        private boolean upperInclusive;
+
+        private Interval(int aInRule, Constraint aInConstraint) {
+            rule = aInRule;
+            lower = aInConstraint.getLower();
+            lowerInclusive = aInConstraint.isLowerInclusive();
+            upper = aInConstraint.getUpper();
+            upperInclusive = aInConstraint.isUpperInclusive();
+        }
+
+        private void addIfContains(double aInNumber, BitSet aOutCandidates) {
+            if ((aInNumber > lower || (lowerInclusive && aInNumber == lower))
+                    && (aInNumber < upper
+                            || (upperInclusive && aInNumber == upper))) {
+                aOutCandidates.set(rule);
+            }
+        }
+    }
+}
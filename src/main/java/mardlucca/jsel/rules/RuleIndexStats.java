@@ -0,0 +1,130 @@
+/*
+ * File: RuleIndexStats.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.rules;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics on how a {@link RuleSet}'s index is built and how selective it
+ * is, i.e. which fraction of the rules it selects for evaluation.
+ */
+public class RuleIndexStats {
+    private int ruleCount;
+    private int hashIndexedRuleCount;
+    private int rangeIndexedRuleCount;
+    private int pathCount;
+    private AtomicLong evaluationCount = new AtomicLong();
+    private AtomicLong candidateCount = new AtomicLong();
+
+    RuleIndexStats(int aInRuleCount, int aInHashIndexedRuleCount,
+            int aInRangeIndexedRuleCount, int aInPathCount) {
+        ruleCount = aInRuleCount;
+        hashIndexedRuleCount = aInHashIndexedRuleCount;
+        rangeIndexedRuleCount = aInRangeIndexedRuleCount;
+        pathCount = aInPathCount;
+    }
+
+    void record(int aInCandidateCount) {
+        evaluationCount.incrementAndGet();
+        candidateCount.addAndGet(aInCandidateCount);
+    }
+
+    /**
+     * Returns the number of rules in the rule set.
+     * @return the number of rules
+     */
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Returns the number of rules indexed by the values of a property (e.g.
+     * "x.type == 'order'").
+     * @return the number of rules in hash indexes
+     */
+    public int getHashIndexedRuleCount() {
+        return hashIndexedRuleCount;
+    }
+
+    /**
+     * Returns the number of rules indexed by a numeric range of a property
+     * (e.g. "x.amount &gt; 100").
+     * @return the number of rules in interval indexes
+     */
+    public int getRangeIndexedRuleCount() {
+        return rangeIndexedRuleCount;
+    }
+
+    /**
+     * Returns the number of rules that have no constraint the index can use,
+     * which are evaluated every time.
+     * @return the number of rules not indexed
+     */
+    public int getUnindexedRuleCount() {
+        return ruleCount - hashIndexedRuleCount - rangeIndexedRuleCount;
+    }
+
+    /**
+     * Returns the number of distinct property paths that are indexed, which
+     * are evaluated every time.
+     * @return the number of indexed paths
+     */
+    public int getPathCount() {
+        return pathCount;
+    }
+
+    /**
+     * Returns how many times the rule set was evaluated.
+     * @return the number of evaluations
+     */
+    public long getEvaluationCount() {
+        return evaluationCount.get();
+    }
+
+    /**
+     * Returns how many rules were evaluated, across all evaluations.
+     * @return the total number of candidate rules
+     */
+    public long getCandidateCount() {
+        return candidateCount.get();
+    }
+
+    /**
+     * Returns the average fraction of the rules that were evaluated, from 0
+     * (the index ruled out all rules) to 1 (all rules were evaluated).
+     * @return the selectivity of the index or 1 if the rule set was never
+     * evaluated.
+     */
+    public double getSelectivity() {
+        long lEvaluations = getEvaluationCount();
+        return lEvaluations == 0 || ruleCount == 0
+                ? 1
+                : (double) getCandidateCount() / lEvaluations / ruleCount;
+    }
+
+    @Override
+    public String toString() {
+        return "rules=" + ruleCount
+                + ", hashIndexed=" + hashIndexedRuleCount
+                + ", rangeIndexed=" + rangeIndexedRuleCount
+                + ", unindexed=" + getUnindexedRuleCount()
+                + ", paths=" + pathCount
+                + ", evaluations=" + getEvaluationCount()
+                + ", selectivity=" + getSelectivity();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * File: RuleSet.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.rules;
+
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.expr.JSELExpression;
+import mardlucca.jsel.type.JSELBoolean;
+import mardlucca.jsel.type.JSELValue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A set of expressions (e.g. predicates) that are all evaluated against the
+ * same context, such as a set of rules evaluated against each incoming event.
+ * Rules often repeat the same sub-expressions (e.g. "event.user.country" or
+ * "event.amount * rate"), so these are shared across (and within) the rules
+ * and each is evaluated at most once per evaluation of the set.
+ * <p>
+ * Rule sets can also be indexed, in which case only the rules whose
+ * constraints (e.g. "event.type == 'order' &amp;&amp; event.amount &gt; 100")
+ * can be met are evaluated; the others evaluate to false. Note that other
+ * operands of these rules are then not evaluated either, so errors they would
+ * throw are not thrown.
+ * <p>
+ * Rule sets can be evaluated by multiple threads at the same time, as long as
+ * each uses its own {@link ExecutionContext}.
+ */
+public class RuleSet {
+    private List<JSELExpression> rules;
+    private ThreadLocal<SharedValues> values = new ThreadLocal<>();
+    private int sharedExpressionCount;
+    private RuleIndex index;
+
+    /**
+     * Creates a rule set, which finds the sub-expressions the rules have in
+     * common.
+     * @param aInRules the compiled rules. These are not modified.
+     */
+    public RuleSet(Collection<? extends JSELExpression> aInRules) {
+        this(aInRules, false);
+    }
+
+    /**
+     * Creates a rule set, which finds the sub-expressions the rules have in
+     * common and, optionally, indexes the rules.
+     * @param aInRules the compiled rules. These are not modified.
+     * @param aInIndexed whether to index the rules
+     */
+    public RuleSet(Collection<? extends JSELExpression> aInRules,
+            boolean aInIndexed) {
+        SubExpressionSharing lSharing = new SubExpressionSharing(values);
+        rules = lSharing.share(aInRules);
+        sharedExpressionCount = lSharing.getSharedExpressionCount();
+        if (aInIndexed) {
+            index = new RuleIndex(rules);
+        }
+    }
+
+    /**
+     * Evaluates all rules.
+     * @param aInContext the context to evaluate the rules in
+     * @return the value of each rule, in the order the rules were given.
+     * @throws mardlucca.jsel.JSELRuntimeException if any rule throws
+     */
+    public List<JSELValue> evaluate(ExecutionContext aInContext) {
+        SharedValues lPreviousValues = values.get();
+        values.set(new SharedValues(sharedExpressionCount, aInContext));
+        try {
+            BitSet lCandidates = index == null
+                    ? null
+                    : index.getCandidates(aInContext);
+            List<JSELValue> lResults = new ArrayList<>(rules.size());
+            for (int i = 0; i < rules.size(); i++) {
+                lResults.add(lCandidates == null || lCandidates.get(i)
+                        ? rules.get(i).execute(aInContext).getValue()
+                        : JSELBoolean.FALSE);
+            }
+            return lResults;
+        } finally {
+            if (lPreviousValues == null) {
+                values.remove();
+            } else {
+                values.set(lPreviousValues);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of rules in this set.
+     * @return the number of rules
+     */
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * Returns the number of distinct sub-expressions that occur more than
+     * once in the rules, which are only evaluated once per evaluation.
+     * @return the number of shared sub-expressions
+     */
+    public int getSharedExpressionCount() {
+        return sharedExpressionCount;
+    }
+
+    /**
+     * Returns statistics on this rule set's index.
+     * @return the statistics or null, if the rule set is not indexed.
+     */
+    public RuleIndexStats getIndexStats() {
+        return index == null ? null : index.getStats();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * File: SharedExpression.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.rules;
+
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.expr.JSELExpression;
+import mardlucca.jsel.type.JSELValue;
+
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * A sub-expression that occurs more than once in a {@link RuleSet}. It is
+ * evaluated the first time a rule needs it and its value is reused by all
+ * other rules until a call is made (see {@link SharedValues}) or the rule
+ * set's evaluation ends. It is evaluated on demand, rather than up front, so
+ * that operators such as "&amp;&amp;" still only evaluate it when needed.
+ */
+class SharedExpression implements JSELExpression {
+    private JSELExpression expression;
+    private int slot;
+    private ThreadLocal<SharedValues> values;
+
+    /**
+     * Constructor
+     * @param aInExpression the shared expression
+     * @param aInSlot where the value is kept during an evaluation
+     * @param aInValues the values of the current evaluation, if any, per
+     *                  thread
+     */
+    SharedExpression(JSELExpression aInExpression, int aInSlot,
+            ThreadLocal<SharedValues> aInValues) {
+        expression = aInExpression;
+        slot = aInSlot;
+        values = aInValues;
+    }
+
+    @Override
+    public JSELValue execute(ExecutionContext aInContext) {
+        SharedValues lValues = values.get();
+        if (lValues == null) {
+            // not evaluating the rule set, so there is nothing to share
+            return expression.execute(aInContext);
+        }
+
+        JSELValue lValue = lValues.get(slot, aInContext);
+        if (lValue == null) {
+            // shared expressions are free of side effects, so errors are not
+            // kept: evaluating again throws again
+            lValue = expression.execute(aInContext);
+            lValues.set(slot, lValue, aInContext);
+        }
+        return lValue;
+    }
+
+    /**
+     * Returns the expression that is shared.
+     * @return the shared expression
+     */
+    JSELExpression getExpression() {
+        return expression;
+    }
+
+    @Override
+    public List<JSELExpression> getSubExpressions() {
+        return singletonList(expression);
+    }
+}
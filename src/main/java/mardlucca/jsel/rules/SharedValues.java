@@ -0,0 +1,84 @@
+/*
+ * File: SharedValues.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.rules;
+
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.type.JSELValue;
+
+import java.util.Arrays;
+
+/**
+ * The values of the {@link SharedExpression}s of a {@link RuleSet} during one
+ * of its evaluations. Calls may have side effects that change what shared
+ * expressions read, so all values are dropped after explicit calls (see
+ * {@link CallExpression}) and whenever functions defined in JSEL were called
+ * since they were kept (see {@link ExecutionContext#getPushCount()}), which
+ * covers the functions called implicitly, e.g. "valueOf".
+ */
+class SharedValues {
+    private JSELValue[] values;
+    private long pushCount;
+
+    /**
+     * Constructor
+     * @param aInSize the number of shared expressions
+     * @param aInContext the context the rule set is evaluated in
+     */
+    SharedValues(int aInSize, ExecutionContext aInContext) {
+        values = new JSELValue[aInSize];
+        pushCount = aInContext.getPushCount();
+    }
+
+    /**
+     * Returns the value of a shared expression.
+     * @param aInSlot the slot of the shared expression
+     * @param aInContext the context the rule set is evaluated in
+     * @return the value or null if it must be evaluated (again)
+     */
+    JSELValue get(int aInSlot, ExecutionContext aInContext) {
+        clearIfCalled(aInContext);
+        return values[aInSlot];
+    }
+
+    /**
+     * Keeps the value of a shared expression.
+     * @param aInSlot the slot of the shared expression
+     * @param aInValue the value
+     * @param aInContext the context the rule set is evaluated in
+     */
+    void set(int aInSlot, JSELValue aInValue, ExecutionContext aInContext) {
+        // functions called while evaluating the expression invalidate the
+        // other values, but not this one
+        clearIfCalled(aInContext);
+        values[aInSlot] = aInValue;
+    }
+
+    /**
+     * Drops all values.
+     */
+    void clear() {
+        Arrays.fill(values, null);
+    }
+
+    private void clearIfCalled(ExecutionContext aInContext) {
+        if (aInContext.getPushCount() != pushCount) {
+            clear();
+            pushCount = aInContext.getPushCount();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * File: SubExpressionSharing.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.rules;
+
+import mardlucca.jsel.expr.AccessExpression;
+import mardlucca.jsel.expr.AndOperatorExpression;
+import mardlucca.jsel.expr.BinaryOperatorExpression;
+import mardlucca.jsel.expr.ConditionalOperatorExpression;
+import mardlucca.jsel.expr.FunctionCallExpression;
+import mardlucca.jsel.expr.IdentifierExpression;
+import mardlucca.jsel.expr.JSELExpression;
+import mardlucca.jsel.expr.LambdaExpression;
+import mardlucca.jsel.expr.LiteralExpression;
+import mardlucca.jsel.expr.NewExpression;
+import mardlucca.jsel.expr.OrOperatorExpression;
+import mardlucca.jsel.expr.ThisExpression;
+import mardlucca.jsel.expr.UnaryOperatorExpression;
+import mardlucca.jsel.type.JSELValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Finds the sub-expressions that occur more than once in a set of expression
+ * trees and rewrites the trees so that these are replaced by
+ * {@link SharedExpression}s. Structurally identical sub-trees are hash-consed:
+ * each distinct structure gets an id, which identifies it within its parent's
+ * structure. A sub-tree is only shared if it is still used more than once
+ * after its ancestors are shared, e.g. "a.b" is not shared on its own if it
+ * only occurs within "a.b.c", which is.
+ * <p>
+ * Only sub-trees made of operators, property accesses, identifiers and
+ * primitive literals can be shared. These have no side effects of their own
+ * and evaluate to the same value in the same context as long as no function
+ * is called in between, which could modify what they read. Calls are
+ * therefore wrapped in {@link CallExpression}s, which drop the shared values
+ * after each call, and functions called implicitly (e.g. "valueOf") drop them
+ * as well (see {@link SharedValues}). Function calls themselves could have
+ * side effects and object, array and function literals create a new object
+ * every time, so expressions containing them are never shared (their
+ * sub-expressions still can be). Lambda bodies are evaluated with different
+ * parameters every time, so they are left as they are.
+ */
+class SubExpressionSharing {
+    /**
+     * Id of expressions that are never considered equal to any other.
+     */
+    private static final int UNIQUE = -1;
+
+    private Map<Key, Integer> ids = new HashMap<>();
+    private List<Integer> counts = new ArrayList<>();
+    private List<Integer> uses = new ArrayList<>();
+    private Map<JSELExpression, Integer> expressionIds =
+            new IdentityHashMap<>();
+    private Map<Integer, SharedExpression> sharedExpressions = new HashMap<>();
+    private ThreadLocal<SharedValues> values;
+
+    /**
+     * Constructor
+     * @param aInValues where shared expressions find the values of the
+     *                  current evaluation
+     */
+    SubExpressionSharing(ThreadLocal<SharedValues> aInValues) {
+        values = aInValues;
+    }
+
+    /**
+     * Rewrites expression trees, replacing the sub-trees they share by
+     * {@link SharedExpression}s.
+     * @param aInExpressions the expressions, which are not modified.
+     * @return the rewritten expressions, in the same order.
+     */
+    List<JSELExpression> share(
+            Collection<? extends JSELExpression> aInExpressions) {
+        for (JSELExpression lExpression : aInExpressions) {
+            identify(lExpression);
+        }
+        for (JSELExpression lExpression : aInExpressions) {
+            use(null, lExpression);
+        }
+
+        List<JSELExpression> lRewritten =
+                new ArrayList<>(aInExpressions.size());
+        for (JSELExpression lExpression : aInExpressions) {
+            lRewritten.add(rewrite(null, lExpression));
+        }
+        return lRewritten;
+    }
+
+    /**
+     * Returns the number of shared expressions created by rewriting.
+     * @return the number of shared expressions
+     */
+    int getSharedExpressionCount() {
+        return sharedExpressions.size();
+    }
+
+    /**
+     * Assigns ids to an expression tree and counts how often each id occurs.
+     */
+    private int identify(JSELExpression aInExpression) {
+        Integer lKnownId = expressionIds.get(aInExpression);
+        if (lKnownId != null) {
+            // the same object, given twice or used in two places
+            count(lKnownId);
+            return lKnownId;
+        }
+
+        int lId = UNIQUE;
+        if (!(aInExpression instanceof LambdaExpression)) {
+            List<JSELExpression> lSubExpressions =
+                    aInExpression.getSubExpressions();
+            int[] lSubExpressionIds = new int[lSubExpressions.size()];
+            boolean lUnique = false;
+            for (int i = 0; i < lSubExpressionIds.length; i++) {
+                lSubExpressionIds[i] = identify(lSubExpressions.get(i));
+                lUnique |= lSubExpressionIds[i] == UNIQUE;
+            }
+
+            Object lAttribute = getAttribute(aInExpression);
+            if (!lUnique && lAttribute != null) {
+                lId = ids.computeIfAbsent(new Key(aInExpression.getClass(),
+                        lAttribute, lSubExpressionIds), aInKey -> {
+                    counts.add(0);
+                    uses.add(0);
+                    return counts.size() - 1;
+                });
+                count(lId);
+            }
+        }
+        expressionIds.put(aInExpression, lId);
+        return lId;
+    }
+
+    private void count(int aInId) {
+        if (aInId != UNIQUE) {
+            counts.set(aInId, counts.get(aInId) + 1);
+        }
+    }
+
+    /**
+     * Counts how often each id is used when sub-trees that occur more than
+     * once are only visited once.
+     */
+    private void use(JSELExpression aInParent, JSELExpression aInExpression) {
+        if (aInExpression instanceof LambdaExpression) {
+            return;
+        }
+
+        int lId = expressionIds.get(aInExpression);
+        if (isShareable(lId, aInExpression)
+                && !isCallTarget(aInParent, aInExpression)) {
+            uses.set(lId, uses.get(lId) + 1);
+            if (uses.get(lId) > 1) {
+                return;
+            }
+        }
+        for (JSELExpression lSubExpression
+                : aInExpression.getSubExpressions()) {
+            use(aInExpression, lSubExpression);
+        }
+    }
+
+    /**
+     * Checks whether an expression is the property access a method is called
+     * through (e.g. "a.b" in "a.b()"), which must not be shared as the call
+     * also needs the object the property is read from. Its sub-expressions
+     * can still be shared.
+     */
+    private static boolean isCallTarget(
+            JSELExpression aInParent, JSELExpression aInExpression) {
+        return aInParent instanceof FunctionCallExpression
+                && aInExpression instanceof AccessExpression
+                && ((FunctionCallExpression) aInParent).getFunctionExpression()
+                        == aInExpression;
+    }
+
+    private boolean isShareable(int aInId, JSELExpression aInExpression) {
+        return aInId != UNIQUE && counts.get(aInId) > 1
+                && !aInExpression.getSubExpressions().isEmpty();
+    }
+
+    private JSELExpression rewrite(
+            JSELExpression aInParent, JSELExpression aInExpression) {
+        if (aInExpression instanceof LambdaExpression) {
+            return aInExpression;
+        }
+
+        int lId = expressionIds.get(aInExpression);
+        boolean lShared = isShareable(lId, aInExpression)
+                && !isCallTarget(aInParent, aInExpression)
+                && uses.get(lId) > 1;
+        if (lShared && sharedExpressions.containsKey(lId)) {
+            return sharedExpressions.get(lId);
+        }
+
+        List<JSELExpression> lSubExpressions =
+                aInExpression.getSubExpressions();
+        List<JSELExpression> lRewritten =
+                new ArrayList<>(lSubExpressions.size());
+        boolean lChanged = false;
+        for (JSELExpression lSubExpression : lSubExpressions) {
+            JSELExpression lNew = rewrite(aInExpression, lSubExpression);
+            lRewritten.add(lNew);
+            lChanged |= lNew != lSubExpression;
+        }
+        JSELExpression lExpression = lChanged
+                ? aInExpression.withSubExpressions(lRewritten)
+                : aInExpression;
+
+        if (aInExpression instanceof FunctionCallExpression
+                || aInExpression instanceof NewExpression) {
+            return new CallExpression(lExpression, values);
+        }
+        if (!lShared) {
+            return lExpression;
+        }
+        SharedExpression lSharedExpression = new SharedExpression(
+                lExpression, sharedExpressions.size(), values);
+        sharedExpressions.put(lId, lSharedExpression);
+        return lSharedExpression;
+    }
+
+    /**
+     * Returns what, besides its class and sub-expressions, determines what an
+     * expression evaluates to.
+     * @return the attribute or null if the expression can never be shared.
+     */
+    private static Object getAttribute(JSELExpression aInExpression) {
+        if (aInExpression instanceof BinaryOperatorExpression
+                || aInExpression instanceof UnaryOperatorExpression
+                || aInExpression instanceof AndOperatorExpression
+                || aInExpression instanceof OrOperatorExpression
+                || aInExpression instanceof ConditionalOperatorExpression
+                || aInExpression instanceof ThisExpression) {
+            return "";
+        }
+        if (aInExpression instanceof IdentifierExpression) {
+            return ((IdentifierExpression) aInExpression).getIdentifier();
+        }
+        if (aInExpression instanceof AccessExpression) {
+            // computed keys are sub-expressions
+            return String.valueOf(((AccessExpression) aInExpression).getKey());
+        }
+        if (aInExpression instanceof LiteralExpression) {
+            JSELValue lValue = ((LiteralExpression) aInExpression).getValue();
+            switch (lValue.getType()) {
+                case NUMBER:
+                    // tells 0 and -0 apart
+                    return Double.doubleToLongBits(lValue.toNumber());
+                case STRING:
+                case BOOLEAN:
+                    return asList(lValue.getType(), lValue.toString());
+                case UNDEFINED:
+                case NULL:
+                    return lValue.getType();
+                default:
+                    // objects have an identity
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    private static class Key {
+        private Class<?> type;
+        private Object attribute;
+        private int[] subExpressionIds;
+
+        private Key(Class<?> aInType, Object aInAttribute,
+                int[] aInSubExpressionIds) {
+            type = aInType;
+            attribute = aInAttribute;
+            subExpressionIds = aInSubExpressionIds;
+        }
+
+        @Override
+        public boolean equals(Object aInObject) {
+            if (!(aInObject instanceof Key)) {
+                return false;
+            }
+            Key lKey = (Key) aInObject;
+            return type == lKey.type && attribute.equals(lKey.attribute)
+                    && Arrays.equals(subExpressionIds, lKey.subExpressionIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, attribute,
+                    Arrays.hashCode(subExpressionIds));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * File: JSELArguments.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.type;
+
+/**
+ * The "arguments" object of a user defined function call. This holds the
+ * values the function was called with, regardless of how many parameters it
+ * declares. As JSEL has no assignments, it is not mapped to the parameters:
+ * it holds the argument values as of the call.
+ * @see <a href="https://www.ecma-international.org/ecma-262/5.1/#sec-10.6">
+ * ECMA-262, 5.1, Section 10.6"</a>
+ */
+public class JSELArguments extends JSELObject {
+    /**
+     * Constant used for the internal [[Class]] property for objects of this
+     * type.
+     */
+    public static final String CLASS = "Arguments";
+
+    /**
+     * Constant for the name of property "callee"
+     */
+    public static final String CALLEE = "callee";
+
+    /**
+     * Creates an arguments object.
+     * @param aInCallee the function called
+     * @param aInArguments the array with the arguments of the call
+     * @param aInCount the number of arguments in the array
+     */
+    public JSELArguments(JSELFunction aInCallee, JSELValue[] aInArguments,
+            int aInCount) {
+        for (int i = 0; i < aInCount; i++) {
+            defineOwnProperty(i, aInArguments[i], true, true, true);
+        }
+        defineOwnProperty(JSELFunction.LENGTH, new JSELNumber(aInCount),
+                false, true, true);
+        defineOwnProperty(CALLEE, aInCallee, false, true, true);
+    }
+
+    @Override
+    public String getObjectClass() {
+        return CLASS;
+    }
+}
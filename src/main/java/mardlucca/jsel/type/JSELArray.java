@@ -18,14 +18,20 @@
 package mardlucca.jsel.type;
 
 import mardlucca.jsel.env.ExecutionContext;
-import mardlucca.jsel.util.DecimalFormat;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import static mardlucca.jsel.JSELRuntimeException.rangeError;
 
 /**
- * This represents an array object type in JSEL.
+ * This represents an array object type in JSEL. Array index properties are
+ * kept in a dense descriptor array, indexed directly by the element index,
+ * rather than in the property map inherited from {@link JSELObject}. Indexes
+ * that are far beyond the current capacity (i.e. very sparse arrays) are still
+ * kept in the property map.
  */
 public class JSELArray extends JSELObject {
     /**
@@ -39,6 +45,32 @@ public class JSELArray extends JSELObject {
      */
     public static final String LENGTH = "length";
 
+    /**
+     * How far beyond (twice) the current capacity an index can be and still
+     * cause the dense element storage to grow.
+     */
+    private static final int DENSE_SLACK = 1024;
+
+    private static final PropertyDescriptor[] NO_ELEMENTS =
+            new PropertyDescriptor[0];
+
+    /**
+     * Dense storage for array index properties. Null entries are holes.
+     */
+    private PropertyDescriptor[] elements = NO_ELEMENTS;
+
+    /**
+     * The descriptor for property "length", which is never removed.
+     */
+    private PropertyDescriptor lengthDescriptor;
+
+    /**
+     * Whether {@link #elements} (the array and the descriptors in it) is
+     * shared with other arrays, in which case it is copied before the first
+     * change.
+     */
+    private boolean sharedElements;
+
     /**
      * Creates a new JSELArray with length 0.
      */
@@ -61,11 +93,38 @@ public class JSELArray extends JSELObject {
     public JSELArray(List<JSELValue> aInValues) {
         this(aInValues.size());
 
-        for (int i = 0; i < aInValues.size(); i++) {
-            put(i, aInValues.get(i));
+        elements = new PropertyDescriptor[aInValues.size()];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = new PropertyDescriptor(
+                    aInValues.get(i).getValue(), true, true, true);
         }
     }
 
+    /**
+     * Creates a new JSELArray that takes ownership of the given property
+     * descriptors as its elements. This allows for specialized descriptors,
+     * e.g. ones that only compute their values when first read.
+     * @param aInElements the elements of the array, none of which can be null.
+     */
+    JSELArray(PropertyDescriptor[] aInElements) {
+        this(aInElements.length);
+        elements = aInElements;
+    }
+
+    /**
+     * Creates a new JSELArray that shares the given property descriptors as
+     * its elements with other arrays (e.g. all arrays created by the same
+     * constant literal). The descriptors are copied before the array is
+     * changed in any way, so the given ones are never changed.
+     * @param aInElements the elements of the array, none of which can be null.
+     * @return the new array
+     */
+    public static JSELArray copyOnWrite(PropertyDescriptor[] aInElements) {
+        JSELArray lArray = new JSELArray(aInElements);
+        lArray.sharedElements = aInElements.length > 0;
+        return lArray;
+    }
+
     /**
      * Creates a new JSELArray with a given length, using a given prototype
      * Object.
@@ -76,6 +135,7 @@ public class JSELArray extends JSELObject {
         super(aInPrototype);
         super.defineOwnProperty(
                 LENGTH, new JSELNumber(aInLength), false, true, false, false);
+        lengthDescriptor = super.getOwnProperty(LENGTH);
     }
 
     @Override
@@ -89,7 +149,9 @@ public class JSELArray extends JSELObject {
      * @return the value read or JSELUndefined.getInstance() if undefined.
      */
     public JSELValue get(long aInIndex) {
-        return get(String.valueOf(aInIndex));
+        return aInIndex <= Integer.MAX_VALUE
+                ? get((int) aInIndex)
+                : get(String.valueOf(aInIndex));
     }
 
     /**
@@ -98,7 +160,97 @@ public class JSELArray extends JSELObject {
      * @param aInJSELValue the value to add.
      */
     public void put(long aInIndex, JSELValue aInJSELValue) {
-        put(String.valueOf(aInIndex), aInJSELValue);
+        if (aInIndex <= Integer.MAX_VALUE) {
+            put((int) aInIndex, aInJSELValue);
+        } else {
+            put(String.valueOf(aInIndex), aInJSELValue);
+        }
+    }
+
+    @Override
+    public PropertyDescriptor getOwnProperty(String aInProperty) {
+        int lIndex = toArrayIndex(aInProperty);
+        return lIndex < 0
+                ? super.getOwnProperty(aInProperty)
+                : getOwnProperty(lIndex);
+    }
+
+    @Override
+    public PropertyDescriptor getOwnProperty(int aInIndex) {
+        if (aInIndex < elements.length) {
+            PropertyDescriptor lDescriptor = elements[aInIndex];
+            if (lDescriptor != null) {
+                return lDescriptor;
+            }
+        }
+        return super.getOwnProperty(aInIndex);
+    }
+
+    @Override
+    public Set<String> getOwnPropertyNames() {
+        if (elements.length == 0) {
+            return super.getOwnPropertyNames();
+        }
+
+        Set<String> lNames = new LinkedHashSet<>();
+        for (int i = 0; i < elements.length; i++) {
+            if (elements[i] != null) {
+                lNames.add(String.valueOf(i));
+            }
+        }
+        lNames.addAll(super.getOwnPropertyNames());
+        return lNames;
+    }
+
+    @Override
+    protected void addOwnProperty(
+            String aInProperty, PropertyDescriptor aInDescriptor) {
+        int lIndex = toArrayIndex(aInProperty);
+        if (lIndex < 0) {
+            super.addOwnProperty(aInProperty, aInDescriptor);
+        } else {
+            addOwnProperty(lIndex, aInDescriptor);
+        }
+    }
+
+    @Override
+    protected void addOwnProperty(
+            int aInIndex, PropertyDescriptor aInDescriptor) {
+        if (sharedElements) {
+            unshareElements();
+        }
+        if (aInIndex >= elements.length) {
+            if (aInIndex - DENSE_SLACK >= elements.length * 2) {
+                // too sparse, let's not waste memory on holes
+                super.addOwnProperty(aInIndex, aInDescriptor);
+                return;
+            }
+            elements = Arrays.copyOf(elements,
+                    Math.max(aInIndex + 1, Math.max(elements.length * 2, 8)));
+        }
+        elements[aInIndex] = aInDescriptor;
+    }
+
+    @Override
+    protected void removeOwnProperty(String aInProperty) {
+        int lIndex = toArrayIndex(aInProperty);
+        if (lIndex < 0) {
+            super.removeOwnProperty(aInProperty);
+        } else {
+            removeOwnProperty(lIndex);
+        }
+    }
+
+    @Override
+    protected void removeOwnProperty(int aInIndex) {
+        if (sharedElements) {
+            unshareElements();
+        }
+        if (aInIndex < elements.length && elements[aInIndex] != null) {
+            elements[aInIndex] = null;
+        } else {
+            super.removeOwnProperty(aInIndex);
+        }
     }
 
     /**
@@ -134,7 +286,7 @@ public class JSELArray extends JSELObject {
                         aInEnumerable, aInWritable, aInConfigurable, aInThrow);
             }
 
-            PropertyDescriptor lLengthDescriptor = getOwnProperty(LENGTH);
+            PropertyDescriptor lLengthDescriptor = lengthDescriptor;
             int lLength = lLengthDescriptor.getValue().toInteger();
 
             // they're trying to change "length" manually, which is ok
@@ -167,7 +319,7 @@ public class JSELArray extends JSELObject {
             }
 
             for (int i = lLength - 1; i >= lNewLen; i--) {
-                lSucceeded = delete(String.valueOf(i), false);
+                lSucceeded = delete(i, false);
                 if (!lSucceeded) {
                     // failed to delete element. will have to stop, set the
                     // length where we stopped and reject
@@ -191,39 +343,114 @@ public class JSELArray extends JSELObject {
         }
 
         // else, are we setting an array index?
-        int lIndex = (int) JSELNumber.toUInt32(
-                DecimalFormat.parse(aInProperty));
-        if (aInProperty.equals(String.valueOf(lIndex))) {
-            PropertyDescriptor lLengthDescriptor = getOwnProperty(LENGTH);
-            int lLength = lLengthDescriptor.getValue().toInteger();
+        int lIndex = toArrayIndex(aInProperty);
+        if (lIndex >= 0) {
+            return defineOwnProperty(lIndex, aInValue, aInEnumerable,
+                    aInWritable, aInConfigurable, aInThrow);
+        }
 
-            // property is an array index.
-            if (lIndex >= lLength && !lLengthDescriptor.isWritable()) {
-                // length has been marked as not writable.
-                return reject(aInThrow, "Cannot redefine property length");
-            }
+        // else we're setting a regular property
+        return super.defineOwnProperty(aInProperty, aInValue, aInEnumerable,
+                aInWritable, aInConfigurable, aInThrow);
+    }
 
-            // let's write the property first
-            boolean lSucceeded = super.defineOwnProperty(
-                    aInProperty, aInValue, aInEnumerable, aInWritable,
-                    aInConfigurable, false);
-            if (!lSucceeded) {
-                return reject(aInThrow, "Cannot redefine property "
-                        + aInProperty);
-            }
+    /**
+     * Defines a new array index property in the array, as specified in the
+     * spec, adjusting "length" if required.
+     * @param aInIndex the index of the property to add
+     * @param aInValue the value
+     * @param aInEnumerable whether or not the property is enumerable. If null
+     *                      then the property is not updated or will default to
+     *                      false on creation.
+     * @param aInWritable whether or not the property is writable. If null then
+     *                    the property is not updated or will default to
+     *                    false on creation.
+     * @param aInConfigurable whether or not the property is configurable. If
+     *                        null then the property is not updated or will
+     *                        default to false on creation.
+     * @param aInThrow if true this will cause a TypeError to be raised when the
+     *                 property cannot be added. If this is false, this method
+     *                 will return false in this case.
+     * @return true if the property can be defined and false if it cannot be
+     * defined and aInThrow is false
+     * @throws mardlucca.jsel.JSELRuntimeException a TypeError if the property
+     * cannot be defined and aInThrow is true.
+     * @see <a href="https://www.ecma-international.org/ecma-262/5.1/#sec-15.4.5.1">
+     * ECMA-262, 5.1, Section 15.4.5.1"</a>
+     */
+    @Override
+    public boolean defineOwnProperty(int aInIndex, JSELValue aInValue,
+            Boolean aInEnumerable, Boolean aInWritable, Boolean aInConfigurable,
+            boolean aInThrow) {
+        if (sharedElements) {
+            // the element's descriptor may be redefined
+            unshareElements();
+        }
+        PropertyDescriptor lLengthDescriptor = lengthDescriptor;
+        int lLength = lLengthDescriptor.getValue().toInteger();
 
-            // and then adjust length, if required
-            if (lIndex >= lLength) {
-                // this should never fail as we're only changing the value and
-                // we know length is writable (as we tested this above)
-                lLengthDescriptor.setValue(new JSELNumber(lIndex + 1));
-            }
+        if (aInIndex >= lLength && !lLengthDescriptor.isWritable()) {
+            // length has been marked as not writable.
+            return reject(aInThrow, "Cannot redefine property length");
+        }
 
-            return true;
+        // let's write the property first
+        boolean lSucceeded = super.defineOwnProperty(
+                aInIndex, aInValue, aInEnumerable, aInWritable,
+                aInConfigurable, false);
+        if (!lSucceeded) {
+            return reject(aInThrow, "Cannot redefine property " + aInIndex);
         }
 
-        // else we're setting a regular property
-        return super.defineOwnProperty(aInProperty, aInValue, aInEnumerable,
-                aInWritable, aInConfigurable, aInThrow);
+        // and then adjust length, if required
+        if (aInIndex >= lLength) {
+            // this should never fail as we're only changing the value and
+            // we know length is writable (as we tested this above)
+            lLengthDescriptor.setValue(new JSELNumber(aInIndex + 1));
+            fireChange(LENGTH);
+        }
+
+        return true;
+    }
+
+    /**
+     * Copies the elements shared with other arrays, so they can be changed.
+     */
+    private void unshareElements() {
+        PropertyDescriptor[] lElements =
+                new PropertyDescriptor[elements.length];
+        for (int i = 0; i < lElements.length; i++) {
+            PropertyDescriptor lElement = elements[i];
+            lElements[i] = new PropertyDescriptor(lElement.getValue(),
+                    lElement.isEnumerable(), lElement.isWritable(),
+                    lElement.isConfigurable());
+        }
+        elements = lElements;
+        sharedElements = false;
+    }
+
+    /**
+     * Returns the array index represented by a property name, if the name is
+     * the canonical string form of an integer between 0 and
+     * {@link Integer#MAX_VALUE}. This does not allocate.
+     * @param aInProperty the property name
+     * @return the index or -1 if the property name is not an array index.
+     */
+    public static int toArrayIndex(String aInProperty) {
+        int lLength = aInProperty.length();
+        if (lLength == 0 || lLength > 10
+                || (lLength > 1 && aInProperty.charAt(0) == '0')) {
+            return -1;
+        }
+
+        long lIndex = 0;
+        for (int i = 0; i < lLength; i++) {
+            char c = aInProperty.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            lIndex = lIndex * 10 + (c - '0');
+        }
+        return lIndex <= Integer.MAX_VALUE ? (int) lIndex : -1;
     }
 }
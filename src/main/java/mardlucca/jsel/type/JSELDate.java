@@ -20,41 +20,47 @@ package mardlucca.jsel.type;
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.util.DateFormat;
 
-import java.util.Calendar;
 import java.util.Date;
-import java.util.GregorianCalendar;
 import java.util.TimeZone;
 
 import static java.lang.Double.isNaN;
+import static mardlucca.jsel.util.DateArithmetic.localTime;
+import static mardlucca.jsel.util.DateArithmetic.makeDate;
+import static mardlucca.jsel.util.DateArithmetic.makeDay;
+import static mardlucca.jsel.util.DateArithmetic.makeTime;
+import static mardlucca.jsel.util.DateArithmetic.timeClip;
+import static mardlucca.jsel.util.DateArithmetic.utc;
 
 /**
- * This represents the Date object type in JSEL.
+ * This represents the Date object type in JSEL. Dates hold their time value
+ * (i.e. milliseconds since the epoch, in UTC) as a number, which is NaN for
+ * invalid dates.
  */
 public class JSELDate extends JSELObject {
     public static final TimeZone UTC_TIMEZONE = TimeZone.getTimeZone("UTC");
-    public static final String INVALID_DATE = "Invalid Date";
-    private static final long MAX_TIME = 8640000000000000L;
+    public static final String INVALID_DATE = DateFormat.INVALID_DATE;
 
-    private Date date;
+    private double time = Double.NaN;
 
     public JSELDate() {
-        this(new Date());
+        this(System.currentTimeMillis());
     }
 
-    public JSELDate(Date aInDate) {
+    public JSELDate(double aInTime) {
         super(ExecutionContext.getDatePrototype());
-        date = aInDate;
+        time = timeClip(aInTime);
+    }
+
+    public JSELDate(Date aInDate) {
+        this(aInDate == null ? Double.NaN : aInDate.getTime());
     }
 
     public JSELDate(
             double aInYear, double aInMonth, double aInDay,
             double aInHour, double aInMinute, double aInSecond,
             double aInMillisecond) {
-        Long lTime = getTime(aInYear, aInMonth, aInDay, aInHour, aInMinute,
-                aInSecond, aInMillisecond, false);
-        if (lTime != null) {
-            date = new Date(lTime);
-        }
+        this(getTime(aInYear, aInMonth, aInDay, aInHour, aInMinute,
+                aInSecond, aInMillisecond, false));
     }
 
     protected JSELDate(JSELObject aInPrototype) {
@@ -89,46 +95,72 @@ public class JSELDate extends JSELObject {
 
     @Override
     public String toString() {
-        return date == null ? INVALID_DATE : DateFormat.format(date);
+        return DateFormat.format(time);
     }
 
-    public static Long getTime(
+    /**
+     * Computes the time value of a date given by its components, as in the
+     * Date constructor and Date.UTC. Years from 0 to 99 are taken as years
+     * in the 1900s.
+     * @return the time value or NaN if the date is invalid.
+     * @see <a href="https://www.ecma-international.org/ecma-262/5.1/#sec-15.9.3.1">
+     * ECMA-262, 5.1, Section 15.9.3.1</a>
+     */
+    public static double getTime(
             double aInYear, double aInMonth, double aInDay,
             double aInHour, double aInMinute, double aInSecond,
             double aInMillisecond, boolean aInUTC) {
-        if (isNaN(aInYear) || isNaN(aInMonth) || isNaN(aInDay)
-                || isNaN(aInHour) || isNaN(aInMinute) || isNaN(aInSecond)
-                || isNaN(aInMillisecond)) {
-            return null;
+        if (!isNaN(aInYear)) {
+            double lYear = aInYear < 0
+                    ? Math.ceil(aInYear)
+                    : Math.floor(aInYear);
+            if (lYear >= 0 && lYear <= 99) { aInYear = 1900 + lYear; }
         }
 
-        if (aInYear >= 0 && aInYear <= 99) { aInYear += 1900; }
-
-        GregorianCalendar lCalendar = new GregorianCalendar(
-                (int) aInYear, (int) aInMonth, (int) aInDay,
-                (int) aInHour, (int) aInMinute, (int) aInSecond);
-        lCalendar.set(Calendar.MILLISECOND, (int) aInMillisecond);
-        if (aInUTC) {
-            lCalendar.setTimeZone(UTC_TIMEZONE);
-        }
+        double lTime = makeDate(
+                makeDay(aInYear, aInMonth, aInDay),
+                makeTime(aInHour, aInMinute, aInSecond, aInMillisecond));
+        return timeClip(aInUTC ? lTime : utc(lTime));
+    }
 
-        // perform type clipping, as specified in
-        // http://www.ecma-international.org/ecma-262/5.1/#sec-15.9.1.14
+    /**
+     * Returns this date's time value.
+     * @return the time value or NaN if this date is invalid.
+     */
+    public double getTime() {
+        return time;
+    }
 
-        long lTimeMillis = lCalendar.getTimeInMillis();
-        if (Math.abs(lTimeMillis) <= MAX_TIME) {
-            return lTimeMillis;
-        }
+    /**
+     * Sets this date's time value. Values outside of the range of valid
+     * dates make this date invalid.
+     * @param aInTime the time value.
+     */
+    public void setTime(double aInTime) {
+        time = timeClip(aInTime);
+    }
 
-        // else we leave date as null (i.e. we "clip" the time)
-        return null;
+    /**
+     * Returns this date's time value converted to local time.
+     * @return the local time or NaN if this date is invalid.
+     */
+    public double getLocalTime() {
+        return isNaN(time) ? time : localTime(time);
     }
 
-    public Date getDate() {
-        return date;
+    /**
+     * Sets this date's time value from local time.
+     * @param aInLocalTime the local time.
+     */
+    public void setLocalTime(double aInLocalTime) {
+        setTime(utc(aInLocalTime));
     }
 
-    public void setTime(long aInTime) {
-        date = Math.abs(aInTime) <= MAX_TIME ? new Date(aInTime) : null;
+    /**
+     * Returns a new Java date with this date's time value.
+     * @return the Java date or null if this date is invalid.
+     */
+    public Date getDate() {
+        return isNaN(time) ? null : new Date((long) time);
     }
 }
@@ -114,14 +114,32 @@ public class JSELFunction extends JSELObject {
      */
     public JSELFunction(JSELObject aInPrototype,
             String aInName, List<String> aInParameters) {
+        this(aInPrototype, aInName, aInParameters, true);
+    }
+
+    /**
+     * Creates a new JSELFunction with the given name and with the given
+     * parameters, using the given prototype object.
+     * @param aInPrototype the Function prototype for this function
+     * @param aInName the function name.
+     * @param aInParameters the function parameters.
+     * @param aInDefineLength whether or not to define the "length" property.
+     *                        Subclasses that create their own properties
+     *                        lazily pass false and define it themselves.
+     */
+    protected JSELFunction(JSELObject aInPrototype,
+            String aInName, List<String> aInParameters,
+            boolean aInDefineLength) {
         super(aInPrototype);
         name = aInName == null ? "f" : aInName;
         parameters = aInParameters == null
                 ? Collections.emptyList()
                 : aInParameters;
 
-        defineOwnProperty(LENGTH, new JSELNumber(parameters.size()),
-                false, false, false);
+        if (aInDefineLength) {
+            defineOwnProperty(LENGTH, new JSELNumber(parameters.size()),
+                    false, false, false);
+        }
     }
 
     @Override
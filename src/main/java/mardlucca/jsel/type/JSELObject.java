@@ -22,6 +22,7 @@ import mardlucca.jsel.builtin.object.ValueOfFunction;
 import mardlucca.jsel.env.ExecutionContext;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static mardlucca.jsel.JSELRuntimeException.typeError;
 import static java.lang.Double.isNaN;
@@ -40,9 +41,12 @@ public class JSELObject extends JSELValue {
     public static final String CLASS = "Object";
 
     /**
-     * The list of "own" properties contained in this object.
+     * The list of "own" properties contained in this object, in the order
+     * they were added. This is only allocated once the first property is
+     * added, as many objects (e.g. closures that are only ever called) never
+     * get any.
      */
-    private Map<String, PropertyDescriptor> properties = new HashMap<>();
+    private Map<String, PropertyDescriptor> properties;
 
     /**
      * This object's [[Prototype]] internal
@@ -54,6 +58,20 @@ public class JSELObject extends JSELValue {
      */
     private boolean extensible = true;
 
+    /**
+     * Whether or not any of the keys in {@link #properties} may be an array
+     * index. This allows integer keyed lookups to skip converting the index to
+     * a String when the object has no such properties (which is the case for
+     * most objects in the prototype chain of arrays).
+     */
+    private boolean indexedProperties;
+
+    /**
+     * Notified whenever an own property is defined, changed or deleted. This
+     * is only allocated once the first listener is added.
+     */
+    private List<ChangeListener> changeListeners;
+
     /**
      * Constructor.
      * Creates a new JSELObject using the {@link
@@ -124,6 +142,54 @@ public class JSELObject extends JSELValue {
         extensible = aInExtensible;
     }
 
+    /**
+     * Adds a listener that is notified after an own property of this object
+     * is defined, changed (through {@link #put(String, JSELValue)} or {@link
+     * #defineOwnProperty(String, JSELValue, Boolean, Boolean, Boolean,
+     * boolean)}) or deleted.
+     * @param aInListener the listener
+     */
+    public void addChangeListener(ChangeListener aInListener) {
+        if (changeListeners == null) {
+            // listeners may remove themselves while notified
+            changeListeners = new CopyOnWriteArrayList<>();
+        }
+        changeListeners.add(aInListener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addChangeListener(ChangeListener)}.
+     * @param aInListener the listener
+     */
+    public void removeChangeListener(ChangeListener aInListener) {
+        if (changeListeners != null) {
+            changeListeners.remove(aInListener);
+        }
+    }
+
+    /**
+     * Notifies the listeners of this object that an own property changed.
+     * @param aInProperty the property
+     */
+    protected void fireChange(String aInProperty) {
+        if (changeListeners != null) {
+            for (ChangeListener lListener : changeListeners) {
+                lListener.propertyChanged(this, aInProperty);
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners of this object that an own array index property
+     * changed.
+     * @param aInIndex the index of the property
+     */
+    protected void fireChange(int aInIndex) {
+        if (changeListeners != null) {
+            fireChange(String.valueOf(aInIndex));
+        }
+    }
+
     @Override
     public boolean toBoolean() {
         return true;
@@ -197,8 +263,7 @@ public class JSELObject extends JSELValue {
             return null;
         }
         JSELFunction lToStringFn = (JSELFunction) lToStringFnObject;
-        return lToStringFn.call(this, Collections.emptyList(),
-                ExecutionContext.getContext());
+        return lToStringFn.call0(this, ExecutionContext.getContext());
     }
 
     /**
@@ -213,8 +278,7 @@ public class JSELObject extends JSELValue {
             return null;
         }
         JSELFunction lValueOfFn = (JSELFunction) lValueOfFnObject;
-        return lValueOfFn.call(this, Collections.emptyList(),
-                ExecutionContext.getContext());
+        return lValueOfFn.call0(this, ExecutionContext.getContext());
     }
 
     @Override
@@ -227,7 +291,7 @@ public class JSELObject extends JSELValue {
         int lLength = (int) get(JSELArray.LENGTH).toUInt32();
         List<JSELValue> lResult = new ArrayList<>(lLength);
         for (int i = 0; i < lLength; i++) {
-            lResult.add(get(String.valueOf(i)));
+            lResult.add(get(i));
         }
         return lResult;
     }
@@ -268,7 +332,22 @@ public class JSELObject extends JSELValue {
      * not exist.
      */
     public PropertyDescriptor getOwnProperty(String aInProperty) {
-        return properties.get(aInProperty);
+        return properties == null ? null : properties.get(aInProperty);
+    }
+
+    /**
+     * Returns an array index property owned by this object (i.e. this does not
+     * go down the prototype chain). Subclasses that store indexed properties
+     * natively (e.g. {@link JSELArray}) override this so that no String key is
+     * ever created.
+     * @param aInIndex the index of the property to look for
+     * @return the {@link PropertyDescriptor} of the property or null if does
+     * not exist.
+     */
+    public PropertyDescriptor getOwnProperty(int aInIndex) {
+        return indexedProperties
+                ? properties.get(String.valueOf(aInIndex))
+                : null;
     }
 
     /**
@@ -294,6 +373,30 @@ public class JSELObject extends JSELValue {
         return null;
     }
 
+    /**
+     * Returns an array index property from this object. If the property does
+     * not exist locally, this will go down the prototype chain to search for
+     * it.
+     *
+     * @param aInIndex the index of the property to look for
+     * @return the {@link PropertyDescriptor} of the property or null if does
+     * not exist.
+     */
+    public PropertyDescriptor getProperty(int aInIndex) {
+        JSELObject lObject = this;
+        do {
+            PropertyDescriptor lProperty = lObject.getOwnProperty(aInIndex);
+            if (lProperty != null) {
+                return lProperty;
+            }
+
+            lObject = lObject.prototype;
+        }
+        while (lObject != null);
+
+        return null;
+    }
+
     /**
      * This is the same as {@link #getOwnProperty(String)}, but it will return
      * the value rather than the descriptor.
@@ -314,7 +417,9 @@ public class JSELObject extends JSELValue {
      * @return the property names.
      */
     public Set<String> getOwnPropertyNames() {
-        return properties.keySet();
+        return properties == null
+                ? Collections.emptySet()
+                : properties.keySet();
     }
 
     /**
@@ -339,7 +444,22 @@ public class JSELObject extends JSELValue {
      * if the property does not exist.
      */
     public JSELValue get(JSELValue aInProperty) {
-        return get(aInProperty.toString());
+        int lIndex = toArrayIndex(aInProperty);
+        return lIndex < 0 ? get(aInProperty.toString()) : get(lIndex);
+    }
+
+    /**
+     * This is the same as {@link #getProperty(int)}, but it will return the
+     * value rather than the descriptor.
+     * @param aInIndex the index of the property to look for
+     * @return the value for the property or {@link JSELUndefined#getInstance()}
+     * if the property does not exist.
+     */
+    public JSELValue get(int aInIndex) {
+        PropertyDescriptor lPropertyDescriptor = getProperty(aInIndex);
+        return lPropertyDescriptor == null
+                ? JSELUndefined.getInstance()
+                : lPropertyDescriptor.getValue();
     }
 
     /**
@@ -376,13 +496,106 @@ public class JSELObject extends JSELValue {
         }
 
         if (lDescriptor.isConfigurable()) {
-            properties.remove(aInProperty);
+            removeOwnProperty(aInProperty);
+            fireChange(aInProperty);
             return true;
         }
 
         return reject(aInThrow, "Cannot remove property " + aInProperty);
     }
 
+    /**
+     * Deletes an array index property like {@link #delete(int, boolean)},
+     * using "throws" behavior.
+     * @param aInIndex the index of the property to delete.
+     * @return true if the property was deleted or did not exist.
+     * @throws mardlucca.jsel.JSELRuntimeException if the property exists but
+     * cannot be deleted.
+     */
+    public boolean delete(int aInIndex) {
+        return delete(aInIndex, true);
+    }
+
+    /**
+     * Deletes an array index property from the object, if possible. This
+     * behaves exactly like {@link #delete(String, boolean)}.
+     * @param aInIndex the index of the property to delete.
+     * @param aInThrow if true, this will raise a "TypeError" if the property
+     *                 cannot be deleted. If false, this method will return
+     *                 "false" rather than throw.
+     * @return true if the property can be deleted or if it does not exist.
+     * @throws mardlucca.jsel.JSELRuntimeException a "TypeError" if the property
+     * exists but cannot be removed and "aInThrow" is true.
+     */
+    public boolean delete(int aInIndex, boolean aInThrow) {
+        PropertyDescriptor lDescriptor = getOwnProperty(aInIndex);
+        if (lDescriptor == null) {
+            return true;
+        }
+
+        if (lDescriptor.isConfigurable()) {
+            removeOwnProperty(aInIndex);
+            fireChange(aInIndex);
+            return true;
+        }
+
+        return reject(aInThrow, "Cannot remove property " + aInIndex);
+    }
+
+    /**
+     * Adds a new own property to this object's property storage. This is the
+     * last step of {@link #defineOwnProperty(String, JSELValue, Boolean,
+     * Boolean, Boolean, boolean)}, invoked once all validations are done.
+     * @param aInProperty the property to add
+     * @param aInDescriptor the property descriptor
+     */
+    protected void addOwnProperty(
+            String aInProperty, PropertyDescriptor aInDescriptor) {
+        if (!indexedProperties && !aInProperty.isEmpty()
+                && Character.isDigit(aInProperty.charAt(0))) {
+            indexedProperties = true;
+        }
+        if (properties == null) {
+            properties = new LinkedHashMap<>();
+        }
+        properties.put(aInProperty, aInDescriptor);
+    }
+
+    /**
+     * Adds a new own array index property to this object's property storage.
+     * @param aInIndex the index of the property to add
+     * @param aInDescriptor the property descriptor
+     */
+    protected void addOwnProperty(
+            int aInIndex, PropertyDescriptor aInDescriptor) {
+        indexedProperties = true;
+        if (properties == null) {
+            properties = new LinkedHashMap<>();
+        }
+        properties.put(String.valueOf(aInIndex), aInDescriptor);
+    }
+
+    /**
+     * Removes an own property from this object's property storage.
+     * @param aInProperty the property to remove
+     */
+    protected void removeOwnProperty(String aInProperty) {
+        if (properties != null) {
+            properties.remove(aInProperty);
+        }
+    }
+
+    /**
+     * Removes an own array index property from this object's property
+     * storage.
+     * @param aInIndex the index of the property to remove
+     */
+    protected void removeOwnProperty(int aInIndex) {
+        if (indexedProperties) {
+            properties.remove(String.valueOf(aInIndex));
+        }
+    }
+
     /**
      * Puts a property in this object.
      * @param aInProperty the property to put.
@@ -391,7 +604,7 @@ public class JSELObject extends JSELValue {
      * cannot be added to this object.
      */
     public void put(JSELValue aInProperty, JSELValue aInValue) {
-        put(aInProperty.toString(), aInValue, true);
+        put(aInProperty, aInValue, true);
     }
 
     /**
@@ -417,7 +630,58 @@ public class JSELObject extends JSELValue {
      * ECMA-262, 5.1, Section 8.12.5"</a>
      */
     public void put(JSELValue aInProperty, JSELValue aInValue, boolean aInThrow) {
-        put(aInProperty.toString(), aInValue, aInThrow);
+        int lIndex = toArrayIndex(aInProperty);
+        if (lIndex < 0) {
+            put(aInProperty.toString(), aInValue, aInThrow);
+        } else {
+            put(lIndex, aInValue, aInThrow);
+        }
+    }
+
+    /**
+     * Puts an array index property in this object.
+     * @param aInIndex the index of the property to put.
+     * @param aInValue the value.
+     * @throws mardlucca.jsel.JSELRuntimeException a TypeError if the property
+     * cannot be added to this object.
+     */
+    public void put(int aInIndex, JSELValue aInValue) {
+        put(aInIndex, aInValue, true);
+    }
+
+    /**
+     * Puts an array index property in this object. This behaves exactly like
+     * {@link #put(String, JSELValue, boolean)}.
+     * @param aInIndex the index of the property to put.
+     * @param aInValue the value.
+     * @param aInThrow whether to throw an exception or return false in case a
+     *                 property cannot be put into this object.
+     * @throws mardlucca.jsel.JSELRuntimeException a TypeError if the property
+     * cannot be added to this object and aInThrow is true
+     */
+    public void put(int aInIndex, JSELValue aInValue, boolean aInThrow) {
+        PropertyDescriptor lOwnProperty = getOwnProperty(aInIndex);
+        if (lOwnProperty != null) {
+            if (!lOwnProperty.isWritable()) {
+                reject(aInThrow, "Cannot add or change property " + aInIndex);
+                return;
+            }
+            // property already there and we can put, so we just replace value
+            defineOwnProperty(aInIndex, aInValue,
+                    null, null, null, aInThrow);
+            return;
+        }
+
+        PropertyDescriptor lInherited = prototype == null
+                ? null
+                : prototype.getProperty(aInIndex);
+        if (!extensible || (lInherited != null && !lInherited.writable)) {
+            reject(aInThrow, "Cannot add or change property " + aInIndex);
+            return;
+        }
+
+        // no own property yet so we create a new one here.
+        defineOwnProperty(aInIndex, aInValue, true, true, true, aInThrow);
     }
 
     /**
@@ -483,7 +747,17 @@ public class JSELObject extends JSELValue {
      * @return true if the object contains the property
      */
     public boolean hasOwnProperty(String aInProperty) {
-        return properties.containsKey(aInProperty);
+        return getOwnProperty(aInProperty) != null;
+    }
+
+    /**
+     * Checks to see if this object contains a given array index property,
+     * without going down the prototype chain.
+     * @param aInIndex the index of the property to check.
+     * @return true if the object contains the property
+     */
+    public boolean hasOwnProperty(int aInIndex) {
+        return getOwnProperty(aInIndex) != null;
     }
 
     /**
@@ -513,7 +787,21 @@ public class JSELObject extends JSELValue {
      * @return true if the object contains the property
      */
     public boolean hasProperty(JSELValue aInProperty) {
-        return hasProperty(aInProperty.toString());
+        int lIndex = toArrayIndex(aInProperty);
+        return lIndex < 0
+                ? hasProperty(aInProperty.toString())
+                : hasProperty(lIndex);
+    }
+
+    /**
+     * Checks to see if this object contains a given array index property. This
+     * will go down the prototype chain if the local object does not contain
+     * the property.
+     * @param aInIndex the index of the property to check.
+     * @return true if the object contains the property
+     */
+    public boolean hasProperty(int aInIndex) {
+        return getProperty(aInIndex) != null;
     }
 
     /**
@@ -600,57 +888,209 @@ public class JSELObject extends JSELValue {
         } else if (lCurrent == null) {
             // object is extensible, so we're good. Javascript does not compare
             // against property definitions at the prototype level here.
-            properties.put(aInProperty, new PropertyDescriptor(
-                    aInValue == null ?
-                            JSELUndefined.getInstance() :
-                            aInValue.getValue(),        // possibly de-reference
-                    aInEnumerable == null ? false : aInEnumerable,
-                    aInWritable == null ? false : aInWritable,
-                    aInConfigurable == null ? false : aInConfigurable));
+            addOwnProperty(aInProperty, newPropertyDescriptor(aInValue,
+                    aInEnumerable, aInWritable, aInConfigurable));
+            fireChange(aInProperty);
             return true;
         }
 
-        if (!lCurrent.isConfigurable()) {
-            if ((aInConfigurable != null && aInConfigurable)
-                    || aInEnumerable != null
-                            && (aInEnumerable != lCurrent.isEnumerable())
-                    || (aInWritable != null && aInWritable
-                            && !lCurrent.isWritable())) {
-                // trying to change a configuration value (i.e. configurable,
-                // enumerable and/or writable) in an object that is not
-                // configurable. Note that while it is possible to make a
-                // writable property not writable, the opposite is not valid.
-                return reject(aInThrow, "Cannot redefine property "
-                        + aInProperty);
-            }
+        if (!canRedefine(lCurrent, aInValue, aInEnumerable, aInWritable,
+                aInConfigurable)) {
+            return reject(aInThrow, "Cannot redefine property "
+                    + aInProperty);
+        }
 
-            if (aInValue != null && !lCurrent.isWritable() && !sameValue(
-                    lCurrent.getValue(), aInValue)) {
-                // trying to write a different value on an object that is not
-                //   configurable and not writable.
-                return reject(aInThrow, "Cannot redefine property "
-                        + aInProperty);
-            }
+        redefine(lCurrent, aInValue, aInEnumerable, aInWritable,
+                aInConfigurable);
+        fireChange(aInProperty);
+        return true;
+    }
+
+    /**
+     * Defines or updates an array index property value in an object.
+     * @param aInIndex the index of the property to add
+     * @param aInValue the value
+     * @param aInEnumerable whether or not the property is enumerable. If null
+     *                      then the property is not updated.
+     * @param aInWritable whether or not the property is writable. If null then
+     *                    the property is not updated.
+     * @param aInConfigurable whether or not the property is configurable. If
+     *                        null then the property is not updated.
+     * @throws mardlucca.jsel.JSELRuntimeException a TypeError if the property
+     * cannot be defined.
+     */
+    public void defineOwnProperty(
+            int aInIndex,
+            JSELValue aInValue,
+            Boolean aInEnumerable,
+            Boolean aInWritable,
+            Boolean aInConfigurable) {
+        defineOwnProperty(aInIndex, aInValue, aInEnumerable,
+                aInWritable, aInConfigurable, true);
+    }
+
+    /**
+     * Defines or updates an array index property value in an object. This
+     * behaves exactly like {@link #defineOwnProperty(String, JSELValue,
+     * Boolean, Boolean, Boolean, boolean)}, without ever converting the index
+     * to a String when the object stores indexed properties natively.
+     * @param aInIndex the index of the property to add
+     * @param aInValue the value
+     * @param aInEnumerable whether or not the property is enumerable. If null
+     *                      then the property is not updated or will default to
+     *                      false on creation.
+     * @param aInWritable whether or not the property is writable. If null then
+     *                    the property is not updated or will default to
+     *                    false on creation.
+     * @param aInConfigurable whether or not the property is configurable. If
+     *                        null then the property is not updated or will
+     *                        default to false on creation.
+     * @param aInThrow if true this will cause a TypeError to be raised when the
+     *                 property cannot be added. If this is false, this method
+     *                 will return false in this case.
+     * @return true if the property can be defined and false if it cannot be
+     * defined and aInThrow is false
+     * @throws mardlucca.jsel.JSELRuntimeException a TypeError if the property
+     * cannot be defined and aInThrow is true.
+     */
+    public boolean defineOwnProperty(
+            int aInIndex,
+            JSELValue aInValue,
+            Boolean aInEnumerable,
+            Boolean aInWritable,
+            Boolean aInConfigurable,
+            boolean aInThrow) {
+        PropertyDescriptor lCurrent = getOwnProperty(aInIndex);
+        if (lCurrent == null && !extensible) {
+            return reject(aInThrow, "Cannot define property " + aInIndex
+                    +", object is not extensible");
+        } else if (lCurrent == null) {
+            addOwnProperty(aInIndex, newPropertyDescriptor(aInValue,
+                    aInEnumerable, aInWritable, aInConfigurable));
+            fireChange(aInIndex);
+            return true;
+        }
+
+        if (!canRedefine(lCurrent, aInValue, aInEnumerable, aInWritable,
+                aInConfigurable)) {
+            return reject(aInThrow, "Cannot redefine property " + aInIndex);
         }
-        // else configurable is true so defining own property is allowed even
-        //   if lCurrent.writable is false (because they can achieve the same
-        //   result by setting writable to true first, changing the value and
-        //   then setting writable back to false).
 
+        redefine(lCurrent, aInValue, aInEnumerable, aInWritable,
+                aInConfigurable);
+        fireChange(aInIndex);
+        return true;
+    }
+
+    /**
+     * Creates the descriptor of a property that is being added to an object.
+     * Attributes that are not specified (i.e. null) default to false.
+     * @param aInValue the value
+     * @param aInEnumerable whether or not the property is enumerable.
+     * @param aInWritable whether or not the property is writable.
+     * @param aInConfigurable whether or not the property is configurable.
+     * @return the new property descriptor.
+     */
+    private static PropertyDescriptor newPropertyDescriptor(
+            JSELValue aInValue,
+            Boolean aInEnumerable,
+            Boolean aInWritable,
+            Boolean aInConfigurable) {
+        return new PropertyDescriptor(
+                aInValue == null ?
+                        JSELUndefined.getInstance() :
+                        aInValue.getValue(),        // possibly de-reference
+                aInEnumerable == null ? false : aInEnumerable,
+                aInWritable == null ? false : aInWritable,
+                aInConfigurable == null ? false : aInConfigurable);
+    }
+
+    /**
+     * Checks whether an existing property can be redefined with the given
+     * attributes.
+     * @param aInCurrent the current descriptor of the property
+     * @param aInValue the new value or null if not updated
+     * @param aInEnumerable the new enumerable attribute or null
+     * @param aInWritable the new writable attribute or null
+     * @param aInConfigurable the new configurable attribute or null
+     * @return true if the property can be redefined.
+     */
+    private static boolean canRedefine(
+            PropertyDescriptor aInCurrent,
+            JSELValue aInValue,
+            Boolean aInEnumerable,
+            Boolean aInWritable,
+            Boolean aInConfigurable) {
+        if (aInCurrent.isConfigurable()) {
+            // configurable is true so defining own property is allowed even
+            //   if lCurrent.writable is false (because they can achieve the
+            //   same result by setting writable to true first, changing the
+            //   value and then setting writable back to false).
+            return true;
+        }
+
+        if ((aInConfigurable != null && aInConfigurable)
+                || aInEnumerable != null
+                        && (aInEnumerable != aInCurrent.isEnumerable())
+                || (aInWritable != null && aInWritable
+                        && !aInCurrent.isWritable())) {
+            // trying to change a configuration value (i.e. configurable,
+            // enumerable and/or writable) in an object that is not
+            // configurable. Note that while it is possible to make a
+            // writable property not writable, the opposite is not valid.
+            return false;
+        }
+
+        // trying to write a different value on an object that is not
+        //   configurable and not writable is not allowed.
+        return aInValue == null || aInCurrent.isWritable()
+                || sameValue(aInCurrent.getValue(), aInValue);
+    }
+
+    /**
+     * Updates the attributes of an existing property. Attributes that are not
+     * specified (i.e. null) are left unchanged.
+     * @param aInCurrent the current descriptor of the property
+     * @param aInValue the new value or null if not updated
+     * @param aInEnumerable the new enumerable attribute or null
+     * @param aInWritable the new writable attribute or null
+     * @param aInConfigurable the new configurable attribute or null
+     */
+    private static void redefine(
+            PropertyDescriptor aInCurrent,
+            JSELValue aInValue,
+            Boolean aInEnumerable,
+            Boolean aInWritable,
+            Boolean aInConfigurable) {
         if (aInValue != null) {
-            lCurrent.value = aInValue;
+            aInCurrent.setValue(aInValue);
         }
         if (aInEnumerable != null) {
-            lCurrent.enumerable = aInEnumerable;
+            aInCurrent.enumerable = aInEnumerable;
         }
         if (aInWritable != null) {
-            lCurrent.writable = aInWritable;
+            aInCurrent.writable = aInWritable;
         }
         if (aInConfigurable != null) {
-            lCurrent.configurable = aInConfigurable;
+            aInCurrent.configurable = aInConfigurable;
         }
+    }
 
-        return true;
+    /**
+     * Returns the array index that a property key value represents, if the
+     * value is a number that is a valid (int) array index. This is used by
+     * the {@link JSELValue} overloads so that computed numeric keys (e.g.
+     * "array[i]") take the integer keyed path.
+     * @param aInProperty the property key
+     * @return the index or -1 if the key is not a numeric array index.
+     */
+    public static int toArrayIndex(JSELValue aInProperty) {
+        if (aInProperty.getType() != Type.NUMBER) {
+            return -1;
+        }
+        double lNumber = aInProperty.toNumber();
+        int lIndex = (int) lNumber;
+        return lIndex >= 0 && lIndex == lNumber ? lIndex : -1;
     }
 
     /**
@@ -708,6 +1148,21 @@ public class JSELObject extends JSELValue {
         return false;
     }
 
+    /**
+     * Listener of changes to the own properties of objects (see {@link
+     * #addChangeListener(ChangeListener)}).
+     */
+    public interface ChangeListener {
+        /**
+         * Called after an own property of an object was defined, changed or
+         * deleted.
+         * @param aInObject the object
+         * @param aInProperty the property, which is the string form of the
+         *                    index for array index properties.
+         */
+        void propertyChanged(JSELObject aInObject, String aInProperty);
+    }
+
     /**
      * Property descriptor for properties owned by objects
      */
@@ -31,6 +31,7 @@ import java.util.List;
 public class JSELPropertyReference extends JSELValue {
     private JSELValue base;
     private String propertyName;
+    private int index;
     private JSELValue value;
 
     /**
@@ -44,6 +45,16 @@ public class JSELPropertyReference extends JSELValue {
         propertyName = aInPropertyName;
     }
 
+    /**
+     * Constructor for references to array index properties.
+     * @param aInBase the base object that contains the reference property
+     * @param aInIndex the referenced property index
+     */
+    public JSELPropertyReference(JSELValue aInBase, int aInIndex) {
+        base = aInBase.getValue();  // we don't want base to be a reference
+        index = aInIndex;
+    }
+
     @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
     @Override
     public boolean equals(Object aInValue) {
@@ -158,7 +169,9 @@ public class JSELPropertyReference extends JSELValue {
     @Override
     public JSELValue getValue() {
         if (value == null) {
-            value = base.toObject().get(propertyName);
+            value = propertyName == null
+                    ? base.toObject().get(index)
+                    : base.toObject().get(propertyName);
         }
         return value;
     }
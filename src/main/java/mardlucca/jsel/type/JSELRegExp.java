@@ -19,19 +19,25 @@ package mardlucca.jsel.type;
 
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.JSELRuntimeException;
+import mardlucca.jsel.util.LinearRegExp;
+import mardlucca.jsel.util.PatternCache;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.regex.Matcher;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import static mardlucca.jsel.JSELRuntimeException.syntaxError;
+import static mardlucca.jsel.JSELRuntimeException.typeError;
 
 /**
  * This represents a regexp object type in JSEL. This uses Java's
- * {@link Pattern} class to implement regular expression matching.
+ * {@link Pattern} class to implement regular expression matching, unless the
+ * executing context selects the {@link Engine#LINEAR} engine, in which case
+ * {@link LinearRegExp} is used for all expressions it supports.
  */
 public class JSELRegExp extends JSELObject {
     /**
@@ -71,6 +77,9 @@ public class JSELRegExp extends JSELObject {
     public static final String LAST_INDEX = "lastIndex";
 
     private Pattern pattern;
+    private LinearRegExp linearRegExp;
+    private boolean linearRegExpResolved;
+    private LastIndexDescriptor lastIndex;
     private Set<Flag> flags;
     private String body;
     private String flagsString;
@@ -110,15 +119,43 @@ public class JSELRegExp extends JSELObject {
      */
     protected JSELRegExp(
             JSELObject aInPrototype, String aInBody, String aInFlagString) {
+        this(aInPrototype, aInBody, aInFlagString,
+                aInFlagString == null
+                        ? Collections.emptySet()
+                        : Flag.getFlags(aInFlagString));
+    }
+
+    /**
+     * Creates a new reg exp object
+     * @param aInPrototype the RegExp prototype object
+     * @param aInBody the regular expression. If null, the empty regexp is used.
+     * @param aInFlagString the flags
+     * @param aInFlags the flags, as parsed from aInFlagString
+     */
+    private JSELRegExp(JSELObject aInPrototype, String aInBody,
+            String aInFlagString, Set<Flag> aInFlags) {
+        this(aInPrototype, aInBody, aInFlagString, aInFlags,
+                compile(aInBody == null ? EMPTY_REGEX_STRING : aInBody,
+                        aInFlags));
+    }
+
+    /**
+     * Creates a new reg exp object around an already compiled pattern.
+     * @param aInPrototype the RegExp prototype object
+     * @param aInBody the regular expression. If null, the empty regexp is used.
+     * @param aInFlagString the flags
+     * @param aInFlags the flags, as parsed from aInFlagString
+     * @param aInPattern the compiled pattern for the body and flags
+     */
+    private JSELRegExp(JSELObject aInPrototype, String aInBody,
+            String aInFlagString, Set<Flag> aInFlags, Pattern aInPattern) {
         super(aInPrototype);
         body = aInBody == null
                 ? EMPTY_REGEX_STRING
                 : aInBody;
         flagsString = aInFlagString == null ? "" : aInFlagString;
-        flags = aInFlagString == null
-                ? Collections.emptySet()
-                : Flag.getFlags(aInFlagString);
-        pattern = Pattern.compile(body, Flag.getFlagsAsInt(flags));
+        flags = aInFlags;
+        pattern = aInPattern;
 
         defineOwnProperty(SOURCE, new JSELString(aInBody),
                 false, true, false);
@@ -139,8 +176,48 @@ public class JSELRegExp extends JSELObject {
                         JSELBoolean.FALSE,
                 false, true, false);
         
-        defineOwnProperty(LAST_INDEX, new JSELNumber(0),
-                false, true, false);
+        lastIndex = new LastIndexDescriptor();
+        addOwnProperty(LAST_INDEX, lastIndex);
+    }
+
+    /**
+     * Compiles a regular expression literal. The body and flags are validated
+     * and compiled only once, here, and each call to the returned supplier
+     * creates a new reg exp object that shares the compiled pattern. A new
+     * object is still required per evaluation, as reg exp objects are mutable
+     * (e.g. "lastIndex") and they need the prototype of the execution context
+     * where they are evaluated.
+     * @param aInBody the regular expression.
+     * @param aInFlagString the flags
+     * @return a supplier of reg exp objects for the literal
+     * @throws JSELRuntimeException a "SyntaxError" if the flags or the regular
+     * expression are invalid.
+     */
+    public static Supplier<JSELRegExp> literal(
+            String aInBody, String aInFlagString) {
+        Set<Flag> lFlags = Flag.getFlags(aInFlagString);
+        Pattern lPattern = compile(aInBody, lFlags);
+        return () -> new JSELRegExp(ExecutionContext.getRegExpPrototype(),
+                aInBody, aInFlagString, lFlags, lPattern);
+    }
+
+    /**
+     * Returns the compiled pattern for a regular expression, reusing
+     * previously compiled patterns from {@link PatternCache}.
+     * @param aInBody the regular expression.
+     * @param aInFlags the flags
+     * @return the compiled pattern
+     * @throws JSELRuntimeException a "SyntaxError" if the regular expression
+     * is invalid.
+     */
+    private static Pattern compile(String aInBody, Set<Flag> aInFlags) {
+        try {
+            return PatternCache.compile(aInBody, Flag.getFlagsAsInt(aInFlags));
+        }
+        catch (PatternSyntaxException e) {
+            throw syntaxError("Invalid regular expression: /" + aInBody
+                    + "/: " + e.getDescription());
+        }
     }
 
     @Override
@@ -169,18 +246,137 @@ public class JSELRegExp extends JSELObject {
         return "/" + body + "/" + flagsString;
     }
 
+    /**
+     * Returns the value of property "lastIndex" converted to an integer, as
+     * done by RegExp.prototype.exec. This does not box the index for as long
+     * as it is only set through {@link #setLastIndex(int)}.
+     * @return the last index
+     */
+    public int getLastIndex() {
+        return lastIndex.getIndex();
+    }
+
+    /**
+     * Sets property "lastIndex" without boxing the index into a
+     * {@link JSELNumber}.
+     * @param aInLastIndex the new last index
+     * @throws JSELRuntimeException a "TypeError" if the property was made
+     * read-only.
+     */
+    public void setLastIndex(int aInLastIndex) {
+        if (!lastIndex.isWritable()) {
+            throw typeError("Cannot assign to read only property '"
+                    + LAST_INDEX + "' of " + this);
+        }
+        lastIndex.setIndex(aInLastIndex);
+    }
+
+    /**
+     * Creates a matcher for this regular expression over an input string. The
+     * engine is selected by the current execution context, as in
+     * {@link #match(String, int)}.
+     * @param aInString the input string
+     * @return the matcher
+     */
+    public RegExpMatcher matcher(String aInString) {
+        if (ExecutionContext.getContext().getRegExpEngine() == Engine.LINEAR) {
+            LinearRegExp lLinearRegExp = getLinearRegExp();
+            if (lLinearRegExp != null) {
+                return new RegExpMatcher(lLinearRegExp, aInString);
+            }
+            // else the expression needs backtracking
+        }
+        return new RegExpMatcher(pattern.matcher(aInString), aInString);
+    }
+
     @Override
     public MatchResult match(String aInString, int aInIndex) {
-        Matcher lMatcher = pattern.matcher(aInString);
-        if (!lMatcher.find(aInIndex)) {
-            return null;
+        RegExpMatcher lMatcher = matcher(aInString);
+        return lMatcher.find(aInIndex) ? lMatcher.toMatchResult() : null;
+    }
+
+    /**
+     * Returns the automaton based version of this expression.
+     * @return the expression or null if it is not supported by
+     * {@link LinearRegExp}
+     * @throws JSELRuntimeException a "SyntaxError" if the expression is too
+     * large for {@link LinearRegExp}. These are not left for {@link Pattern},
+     * which could take exponential time on them.
+     */
+    private LinearRegExp getLinearRegExp() {
+        if (!linearRegExpResolved) {
+            try {
+                linearRegExp = PatternCache.compileLinear(
+                        body, Flag.getFlagsAsInt(flags));
+            }
+            catch (IllegalArgumentException e) {
+                throw syntaxError("Invalid regular expression: /" + body
+                        + "/: " + e.getMessage());
+            }
+            linearRegExpResolved = true;
+        }
+        return linearRegExp;
+    }
+
+    /**
+     * Data property for "lastIndex", which keeps the index as an int and only
+     * boxes it when the property value is read as a {@link JSELValue}.
+     */
+    private static class LastIndexDescriptor extends PropertyDescriptor {
+        private int index;
+
+        /**
+         * The boxed index, which reads box on first use. It is volatile as
+         * reads may happen on several threads at once (e.g. in the callbacks
+         * of parallel array built-ins).
+         */
+        private volatile JSELValue value;
+
+        private LastIndexDescriptor() {
+            super(null, false, true, false);
         }
 
-        String[] lCaptures = new String[lMatcher.groupCount() + 1];
-        for (int i = 0; i < lCaptures.length; i++) {
-            lCaptures[i] = lMatcher.group(i);
+        private int getIndex() {
+            return value == null ? index : value.toInteger();
         }
-        return new MatchResult(lMatcher.start(), lMatcher.end(), lCaptures);
+
+        private void setIndex(int aInIndex) {
+            index = aInIndex;
+            value = null;
+        }
+
+        @Override
+        public JSELValue getValue() {
+            JSELValue lValue = value;
+            if (lValue == null) {
+                value = lValue = new JSELNumber(index);
+            }
+            return lValue;
+        }
+
+        @Override
+        public void setValue(JSELValue aInValue) {
+            value = aInValue;
+        }
+    }
+
+    /**
+     * Regular expression engines.
+     */
+    public enum Engine {
+        /**
+         * Java's {@link Pattern}, which backtracks and can take exponential
+         * time for some expressions (e.g. "(a+)+$").
+         */
+        BACKTRACKING,
+
+        /**
+         * {@link LinearRegExp}, which matches in linear time on the size of the
+         * input. Expressions that require backtracking (i.e. back references
+         * and look aheads) still fall back to {@link Pattern}, but expressions
+         * that are too large for it are rejected with a "SyntaxError".
+         */
+        LINEAR
     }
 
     /**
@@ -21,8 +21,10 @@ import mardlucca.jsel.env.DeclarativeEnvironmentRecord;
 import mardlucca.jsel.env.EnvironmentRecord;
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.expr.JSELExpression;
+import mardlucca.jsel.expr.StackEvaluator;
 
 import java.util.List;
+import java.util.Set;
 
 import static mardlucca.jsel.builtin.object.ObjectPrototype.CONSTRUCTOR_PROPERTY;
 
@@ -35,6 +37,21 @@ public class JSELUserFunction extends JSELFunction {
     private JSELExpression expression;
     private EnvironmentRecord scope;
 
+    /**
+     * The parameters, as the slot names of the records of calls to this
+     * function.
+     */
+    private String[] parameterNames;
+
+    /**
+     * The template this function was created from, while its own properties
+     * ("length" and "prototype") have not been created yet. This is null
+     * once they are. It is volatile as they are created by the first read,
+     * which may happen on several threads at once (e.g. in the callbacks of
+     * parallel array built-ins): clearing it publishes the properties.
+     */
+    private volatile Template template;
+
     /**
      * Creates a user defined function.
      * @param aInParameters the function parameters
@@ -64,6 +81,7 @@ public class JSELUserFunction extends JSELFunction {
         super(aInName, aInParameters);
         expression = aInExpression;
         scope = aInScope;
+        parameterNames = parameters.toArray(new String[0]);
 
         JSELObject lPrototype = new JSELObject();
         lPrototype.defineOwnProperty(CONSTRUCTOR_PROPERTY,
@@ -71,19 +89,135 @@ public class JSELUserFunction extends JSELFunction {
         defineOwnProperty(PROTOTYPE, lPrototype, false, true, false);
     }
 
+    /**
+     * Creates a user defined function from a template shared by all functions
+     * created at the same site (e.g. by the same lambda expression). The
+     * function's own properties are only created when first observed, so
+     * functions that are only ever called (e.g. callbacks) are cheap to
+     * create.
+     * @param aInFunctionPrototype the Function prototype for this function
+     * @param aInTemplate the template of the function
+     * @param aInScope the current environment record used for resolving
+     *                 identifiers external to the function.
+     */
+    public JSELUserFunction(JSELObject aInFunctionPrototype,
+            Template aInTemplate,
+            EnvironmentRecord aInScope) {
+        super(aInFunctionPrototype, null, aInTemplate.parameters, false);
+        expression = aInTemplate.expression;
+        scope = aInScope;
+        parameterNames = aInTemplate.parameterNames;
+        template = aInTemplate;
+    }
+
+    @Override
+    public PropertyDescriptor getOwnProperty(String aInProperty) {
+        if (template != null) {
+            materialize();
+        }
+        return super.getOwnProperty(aInProperty);
+    }
+
+    @Override
+    public PropertyDescriptor getOwnProperty(int aInIndex) {
+        if (template != null) {
+            materialize();
+        }
+        return super.getOwnProperty(aInIndex);
+    }
+
+    @Override
+    public Set<String> getOwnPropertyNames() {
+        if (template != null) {
+            materialize();
+        }
+        return super.getOwnPropertyNames();
+    }
+
+    /**
+     * Creates the own properties of a function created from a template, just
+     * like the other constructors do eagerly. They are added to the storage
+     * directly, as the function may no longer be extensible by now. The
+     * template is only cleared once they are all added, so that other threads
+     * either create them first or see all of them.
+     */
+    private synchronized void materialize() {
+        Template lTemplate = template;
+        if (lTemplate == null) {
+            // another thread got here first
+            return;
+        }
+
+        // Function.prototype's own prototype is always Object.prototype
+        JSELObject lPrototype = new JSELObject(getPrototype().getPrototype());
+        lPrototype.defineOwnProperty(CONSTRUCTOR_PROPERTY,
+                this, false, true, true);
+        addOwnProperty(LENGTH,
+                new PropertyDescriptor(lTemplate.length, false, false, false));
+        addOwnProperty(PROTOTYPE,
+                new PropertyDescriptor(lPrototype, false, true, false));
+        template = null;
+    }
+
     @Override
     public JSELValue call(JSELValue aInThis, List<JSELValue> aInArguments,
             ExecutionContext aInExecutionContext) {
-        if (aInThis.getType() == Type.UNDEFINED ||
-                aInThis.getType() == Type.NULL) {
-            aInThis = aInExecutionContext.getGlobalObject();
-        }
-        aInExecutionContext.push(
-                new DeclarativeEnvironmentRecord(scope), aInThis.toObject());
+        enter(aInThis, aInArguments, aInExecutionContext);
+        return evaluate(aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call0(JSELValue aInThis,
+            ExecutionContext aInExecutionContext) {
+        DeclarativeEnvironmentRecord lRecord =
+                enter(aInThis, 0, aInExecutionContext);
+        bindMissingArguments(lRecord, 0);
+        return evaluate(aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call1(JSELValue aInThis, JSELValue aInArgument0,
+            ExecutionContext aInExecutionContext) {
+        DeclarativeEnvironmentRecord lRecord =
+                enter(aInThis, 1, aInExecutionContext);
+        lRecord.setSlot(0, aInArgument0);
+        bindMissingArguments(lRecord, 1);
+        return evaluate(aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call2(JSELValue aInThis, JSELValue aInArgument0,
+            JSELValue aInArgument1, ExecutionContext aInExecutionContext) {
+        DeclarativeEnvironmentRecord lRecord =
+                enter(aInThis, 2, aInExecutionContext);
+        lRecord.setSlot(0, aInArgument0);
+        lRecord.setSlot(1, aInArgument1);
+        bindMissingArguments(lRecord, 2);
+        return evaluate(aInExecutionContext);
+    }
+
+    @Override
+    public JSELValue call3(JSELValue aInThis, JSELValue aInArgument0,
+            JSELValue aInArgument1, JSELValue aInArgument2,
+            ExecutionContext aInExecutionContext) {
+        DeclarativeEnvironmentRecord lRecord =
+                enter(aInThis, 3, aInExecutionContext);
+        lRecord.setSlot(0, aInArgument0);
+        lRecord.setSlot(1, aInArgument1);
+        lRecord.setSlot(2, aInArgument2);
+        bindMissingArguments(lRecord, 3);
+        return evaluate(aInExecutionContext);
+    }
+
+    /**
+     * Evaluates this function's expression in the environment pushed by one
+     * of the enter methods, popping it afterwards.
+     */
+    private JSELValue evaluate(ExecutionContext aInExecutionContext) {
         try {
-            bindArgumentsToParameters(aInArguments, aInExecutionContext);
             // function calls never return references
-            return expression.execute(aInExecutionContext).getValue();
+            return StackEvaluator.evaluate(expression, aInExecutionContext)
+                    .getValue();
         }
         finally {
             aInExecutionContext.pop();
@@ -91,23 +225,85 @@ public class JSELUserFunction extends JSELFunction {
     }
 
     /**
-     * Binds argument values to the function's parameters in the execution
-     * context.
-     * @param aInArguments the argument values to bind.
-     * @param aInOutContext the execution context.
+     * Pushes the environment a call to this function evaluates its
+     * expression in onto the execution context, binding its parameters. The
+     * caller must pop it once the expression is evaluated.
+     * @param aInThis the "this" value of the call
+     * @param aInArguments the arguments of the call
+     * @param aInExecutionContext the execution context
      */
-    private void bindArgumentsToParameters(List<JSELValue> aInArguments,
-                                           ExecutionContext aInOutContext) {
-        // bind arguments (arguments cannot be references, by the way, that's
-        // why we do getValue
-        for (int i = 0; i < parameters.size(); i++) {
-            JSELValue lArgument = i < aInArguments.size()
-                    ? aInArguments.get(i).getValue()
-                    : JSELUndefined.getInstance();
-            aInOutContext.bind(parameters.get(i), lArgument);
+    public void enter(JSELValue aInThis, List<JSELValue> aInArguments,
+            ExecutionContext aInExecutionContext) {
+        int lCount = aInArguments.size();
+        DeclarativeEnvironmentRecord lRecord =
+                enter(aInThis, lCount, aInExecutionContext);
+        for (int i = 0; i < lCount; i++) {
+            lRecord.setSlot(i, aInArguments.get(i));
         }
+        bindMissingArguments(lRecord, lCount);
+    }
 
-        // TODO: Create and bind "arguments" object
+    /**
+     * Same as {@link #enter(JSELValue, List, ExecutionContext)}, with the
+     * arguments taken from a range of an array.
+     * @param aInThis the "this" value of the call
+     * @param aInArguments the array with the arguments of the call
+     * @param aInFrom the index of the first argument in the array
+     * @param aInExecutionContext the execution context
+     */
+    public void enter(JSELValue aInThis, JSELValue[] aInArguments,
+            int aInFrom, ExecutionContext aInExecutionContext) {
+        int lCount = aInArguments.length - aInFrom;
+        DeclarativeEnvironmentRecord lRecord =
+                enter(aInThis, lCount, aInExecutionContext);
+        for (int i = 0; i < lCount; i++) {
+            lRecord.setSlot(i, aInArguments[aInFrom + i]);
+        }
+        bindMissingArguments(lRecord, lCount);
+    }
+
+    /**
+     * Pushes the record of a call with a given number of arguments, which
+     * the caller binds to its first slots.
+     */
+    private DeclarativeEnvironmentRecord enter(JSELValue aInThis,
+            int aInArgumentCount, ExecutionContext aInExecutionContext) {
+        if (aInThis.getType() == Type.UNDEFINED ||
+                aInThis.getType() == Type.NULL) {
+            aInThis = aInExecutionContext.getGlobalObject();
+        }
+        DeclarativeEnvironmentRecord lRecord =
+                new DeclarativeEnvironmentRecord(
+                        scope, parameterNames, this, aInArgumentCount);
+        aInExecutionContext.push(lRecord, aInThis.toObject());
+        return lRecord;
+    }
+
+    /**
+     * Binds undefined to the parameters from an index on, which got no
+     * arguments.
+     */
+    private void bindMissingArguments(
+            DeclarativeEnvironmentRecord aInOutRecord, int aInFrom) {
+        for (int i = aInFrom; i < parameterNames.length; i++) {
+            aInOutRecord.setSlot(i, JSELUndefined.getInstance());
+        }
+    }
+
+    /**
+     * Returns the names of this function's parameters.
+     * @return the parameter names
+     */
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns the expression evaluated by this function.
+     * @return the function's expression
+     */
+    public JSELExpression getExpression() {
+        return expression;
     }
 
     @Override
@@ -147,4 +343,28 @@ public class JSELUserFunction extends JSELFunction {
         }
         return ExecutionContext.getObjectPrototype();
     }
+
+    /**
+     * The immutable parts of a user defined function that are shared by all
+     * functions created at the same site.
+     */
+    public static final class Template {
+        private final List<String> parameters;
+        private final String[] parameterNames;
+        private final JSELExpression expression;
+        private final JSELNumber length;
+
+        /**
+         * Creates a function template.
+         * @param aInParameters the function parameters
+         * @param aInExpression the expression
+         */
+        public Template(List<String> aInParameters,
+                JSELExpression aInExpression) {
+            parameters = aInParameters;
+            parameterNames = aInParameters.toArray(new String[0]);
+            expression = aInExpression;
+            length = new JSELNumber(aInParameters.size());
+        }
+    }
 }
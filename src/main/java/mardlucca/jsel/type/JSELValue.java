@@ -20,6 +20,7 @@ package mardlucca.jsel.type;
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.JSELRuntimeException;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -131,6 +132,100 @@ public abstract class JSELValue {
                 + getType().name().toLowerCase());
     }
 
+    /**
+     * Invokes this function with no arguments. This and the other fixed arity
+     * entry points (see {@link #call1(JSELValue, JSELValue, ExecutionContext)
+     * call1}, {@link #call2(JSELValue, JSELValue, JSELValue, ExecutionContext)
+     * call2} and {@link #call3(JSELValue, JSELValue, JSELValue, JSELValue,
+     * ExecutionContext) call3}) spare callers from allocating an argument
+     * list. They default to {@link #call(JSELValue, List, ExecutionContext)}
+     * and functions may override them to avoid the list altogether, as long as
+     * they behave the same.
+     * @param aInThis the "this" value.
+     * @param aInExecutionContext the current execution context.
+     * @return the invocation's return value.
+     */
+    public JSELValue call0(JSELValue aInThis,
+            ExecutionContext aInExecutionContext) {
+        return call(aInThis, Collections.emptyList(), aInExecutionContext);
+    }
+
+    /**
+     * Invokes this function with one argument.
+     * @param aInThis the "this" value.
+     * @param aInArgument0 the argument.
+     * @param aInExecutionContext the current execution context.
+     * @return the invocation's return value.
+     * @see #call0(JSELValue, ExecutionContext)
+     */
+    public JSELValue call1(JSELValue aInThis, JSELValue aInArgument0,
+            ExecutionContext aInExecutionContext) {
+        return call(aInThis, Collections.singletonList(aInArgument0),
+                aInExecutionContext);
+    }
+
+    /**
+     * Invokes this function with two arguments.
+     * @param aInThis the "this" value.
+     * @param aInArgument0 the first argument.
+     * @param aInArgument1 the second argument.
+     * @param aInExecutionContext the current execution context.
+     * @return the invocation's return value.
+     * @see #call0(JSELValue, ExecutionContext)
+     */
+    public JSELValue call2(JSELValue aInThis, JSELValue aInArgument0,
+            JSELValue aInArgument1, ExecutionContext aInExecutionContext) {
+        return call(aInThis, Arrays.asList(aInArgument0, aInArgument1),
+                aInExecutionContext);
+    }
+
+    /**
+     * Invokes this function with three arguments.
+     * @param aInThis the "this" value.
+     * @param aInArgument0 the first argument.
+     * @param aInArgument1 the second argument.
+     * @param aInArgument2 the third argument.
+     * @param aInExecutionContext the current execution context.
+     * @return the invocation's return value.
+     * @see #call0(JSELValue, ExecutionContext)
+     */
+    public JSELValue call3(JSELValue aInThis, JSELValue aInArgument0,
+            JSELValue aInArgument1, JSELValue aInArgument2,
+            ExecutionContext aInExecutionContext) {
+        return call(aInThis,
+                Arrays.asList(aInArgument0, aInArgument1, aInArgument2),
+                aInExecutionContext);
+    }
+
+    /**
+     * Invokes this function with the arguments in an array, through the fixed
+     * arity entry point for their number, if there is one.
+     * @param aInThis the "this" value.
+     * @param aInArguments the arguments. This is not copied, so callers must
+     *                     not modify it afterwards.
+     * @param aInExecutionContext the current execution context.
+     * @return the invocation's return value.
+     * @see #call0(JSELValue, ExecutionContext)
+     */
+    public JSELValue callN(JSELValue aInThis, JSELValue[] aInArguments,
+            ExecutionContext aInExecutionContext) {
+        switch (aInArguments.length) {
+            case 0:
+                return call0(aInThis, aInExecutionContext);
+            case 1:
+                return call1(aInThis, aInArguments[0], aInExecutionContext);
+            case 2:
+                return call2(aInThis, aInArguments[0], aInArguments[1],
+                        aInExecutionContext);
+            case 3:
+                return call3(aInThis, aInArguments[0], aInArguments[1],
+                        aInArguments[2], aInExecutionContext);
+            default:
+                return call(aInThis, Arrays.asList(aInArguments),
+                        aInExecutionContext);
+        }
+    }
+
     /**
      * This can be called on values that are constructors to instantiate an
      * object. The default implemenation of this method always throws a
@@ -0,0 +1,189 @@
+/*
+ * File: ObjectTemplate.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.type;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The layout of the objects created by an object literal: the names of their
+ * properties, in source order. Objects are instantiated from an array of
+ * values, one per property, which they keep as their storage until anything
+ * other than reading a property by name (e.g. enumerating, redefining or
+ * adding properties) requires their properties to be created. Until then,
+ * instantiating an object is a single allocation and the value array may be
+ * shared by many objects, as it is never changed. Properties may be created
+ * by reads on several threads at once (e.g. "in" in the callbacks of parallel
+ * array built-ins), so their creation is synchronized and only published
+ * once complete.
+ */
+public class ObjectTemplate {
+    private String[] names;
+    private Map<String, Integer> indexes = new HashMap<>();
+
+    /**
+     * Whether any of the names is an array index, in which case objects are
+     * created with all their properties right away.
+     */
+    private boolean indexed;
+
+    /**
+     * Creates a template.
+     * @param aInNames the property names, which must be unique.
+     */
+    public ObjectTemplate(List<String> aInNames) {
+        names = aInNames.toArray(new String[0]);
+        for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+            indexed |= JSELArray.toArrayIndex(names[i]) >= 0;
+        }
+    }
+
+    /**
+     * Returns the number of properties of the objects of this template.
+     * @return the number of properties
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Instantiates an object.
+     * @param aInPrototype the prototype of the object
+     * @param aInValues the values of the properties, in the order of the
+     *                  names. The array is never changed, so it may be
+     *                  shared by objects, but it must not be changed
+     *                  afterwards either.
+     * @return the new object
+     */
+    public JSELObject instantiate(JSELObject aInPrototype,
+            JSELValue[] aInValues) {
+        TemplateObject lObject =
+                new TemplateObject(aInPrototype, this, aInValues);
+        if (indexed) {
+            lObject.materialize();
+        }
+        return lObject;
+    }
+
+    /**
+     * An object that reads its properties from the array of values it was
+     * instantiated with while they are not created.
+     */
+    private static class TemplateObject extends JSELObject {
+        private ObjectTemplate template;
+
+        /**
+         * The values of the properties while these are not created, or null
+         * once they are. Clearing it publishes the properties to other
+         * threads.
+         */
+        private volatile JSELValue[] values;
+
+        private TemplateObject(JSELObject aInPrototype,
+                ObjectTemplate aInTemplate, JSELValue[] aInValues) {
+            super(aInPrototype);
+            template = aInTemplate;
+            values = aInValues;
+        }
+
+        @Override
+        public JSELValue get(String aInProperty) {
+            JSELValue[] lValues = values;
+            if (lValues != null) {
+                Integer lIndex = template.indexes.get(aInProperty);
+                if (lIndex != null) {
+                    return lValues[lIndex];
+                }
+            }
+            return super.get(aInProperty);
+        }
+
+        @Override
+        public PropertyDescriptor getOwnProperty(String aInProperty) {
+            if (values != null) {
+                if (!template.indexes.containsKey(aInProperty)) {
+                    // no need to create the others just to find that out
+                    return null;
+                }
+                materialize();
+            }
+            return super.getOwnProperty(aInProperty);
+        }
+
+        @Override
+        public PropertyDescriptor getOwnProperty(int aInIndex) {
+            if (values != null) {
+                // templates with array index names are created materialized
+                return null;
+            }
+            return super.getOwnProperty(aInIndex);
+        }
+
+        @Override
+        public Set<String> getOwnPropertyNames() {
+            if (values != null) {
+                if (template.size() == 0) {
+                    return Collections.emptySet();
+                }
+                materialize();
+            }
+            return super.getOwnPropertyNames();
+        }
+
+        @Override
+        protected void addOwnProperty(
+                String aInProperty, PropertyDescriptor aInDescriptor) {
+            if (values != null) {
+                materialize();
+            }
+            super.addOwnProperty(aInProperty, aInDescriptor);
+        }
+
+        @Override
+        protected void addOwnProperty(
+                int aInIndex, PropertyDescriptor aInDescriptor) {
+            if (values != null) {
+                materialize();
+            }
+            super.addOwnProperty(aInIndex, aInDescriptor);
+        }
+
+        /**
+         * Creates the properties, as putting them one by one would. The
+         * values are only cleared once all properties are created, so that
+         * other threads either create them first or see all of them.
+         */
+        private synchronized void materialize() {
+            JSELValue[] lValues = values;
+            if (lValues == null) {
+                // another thread got here first
+                return;
+            }
+            String[] lNames = template.names;
+            for (int i = 0; i < lNames.length; i++) {
+                super.addOwnProperty(lNames[i],
+                        new PropertyDescriptor(lValues[i], true, true, true));
+            }
+            values = null;
+        }
+    }
+}
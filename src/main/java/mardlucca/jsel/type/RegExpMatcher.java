@@ -0,0 +1,247 @@
+/*
+ * File: RegExpMatcher.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.type;
+
+import mardlucca.jsel.type.JSELObject.PropertyDescriptor;
+import mardlucca.jsel.type.JSELValue.MatchResult;
+import mardlucca.jsel.util.LinearRegExp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+
+/**
+ * Matches a {@link JSELRegExp} against one input string. A single matcher is
+ * meant to be reused for all searches a built-in function performs on its
+ * input (e.g. a global "replace"), so that no matcher or engine state is
+ * allocated per match. Captured substrings are only created when requested.
+ * <p>
+ * Matchers are not thread safe.
+ */
+public class RegExpMatcher {
+    private String input;
+    private Matcher matcher;
+    private LinearRegExp linearRegExp;
+    private LinearRegExp.Memory memory;
+    private int[] groups;
+    private boolean matched;
+
+    /**
+     * Creates a matcher backed by Java's regular expressions.
+     * @param aInMatcher the Java matcher, already reset to the input
+     * @param aInInput the input string
+     */
+    RegExpMatcher(Matcher aInMatcher, String aInInput) {
+        matcher = aInMatcher;
+        input = aInInput;
+    }
+
+    /**
+     * Creates a matcher backed by a {@link LinearRegExp}.
+     * @param aInLinearRegExp the expression
+     * @param aInInput the input string
+     */
+    RegExpMatcher(LinearRegExp aInLinearRegExp, String aInInput) {
+        linearRegExp = aInLinearRegExp;
+        memory = aInLinearRegExp.newMemory();
+        input = aInInput;
+    }
+
+    /**
+     * Searches for the next match starting at a given index.
+     * @param aInIndex where to start searching
+     * @return true if a match was found, in which case the accessors in this
+     * class refer to it.
+     */
+    public boolean find(int aInIndex) {
+        if (aInIndex < 0 || aInIndex > input.length()) {
+            matched = false;
+        } else if (matcher != null) {
+            matched = matcher.find(aInIndex);
+        } else {
+            groups = linearRegExp.find(input, aInIndex, memory);
+            matched = groups != null;
+        }
+        return matched;
+    }
+
+    /**
+     * Returns the input string this matcher searches.
+     * @return the input string
+     */
+    public String getInput() {
+        return input;
+    }
+
+    /**
+     * Returns the number of capturing groups, not counting group 0 (i.e. the
+     * entire match).
+     * @return the number of capturing groups
+     */
+    public int groupCount() {
+        return matcher != null
+                ? matcher.groupCount()
+                : linearRegExp.getGroupCount();
+    }
+
+    /**
+     * Returns where the last match starts.
+     * @return the start index of the last match
+     */
+    public int start() {
+        return start(0);
+    }
+
+    /**
+     * Returns where the last match ends.
+     * @return the end index (exclusive) of the last match
+     */
+    public int end() {
+        return end(0);
+    }
+
+    /**
+     * Returns where a group of the last match starts.
+     * @param aInGroup the group
+     * @return the start index or -1 if the group did not participate in the
+     * match
+     */
+    public int start(int aInGroup) {
+        checkMatched();
+        return matcher != null
+                ? matcher.start(aInGroup)
+                : groups[aInGroup * 2];
+    }
+
+    /**
+     * Returns where a group of the last match ends.
+     * @param aInGroup the group
+     * @return the end index (exclusive) or -1 if the group did not
+     * participate in the match
+     */
+    public int end(int aInGroup) {
+        checkMatched();
+        return matcher != null
+                ? matcher.end(aInGroup)
+                : groups[aInGroup * 2 + 1];
+    }
+
+    /**
+     * Returns the substring captured by a group in the last match.
+     * @param aInGroup the group
+     * @return the captured substring or null if the group did not participate
+     * in the match
+     */
+    public String group(int aInGroup) {
+        int lStart = start(aInGroup);
+        return lStart < 0 ? null : input.substring(lStart, end(aInGroup));
+    }
+
+    /**
+     * Converts the last match into a {@link MatchResult}, which eagerly
+     * creates all captured substrings.
+     * @return the match result
+     */
+    public MatchResult toMatchResult() {
+        String[] lCaptures = new String[groupCount() + 1];
+        for (int i = 0; i < lCaptures.length; i++) {
+            lCaptures[i] = group(i);
+        }
+        return new MatchResult(start(), end(), lCaptures);
+    }
+
+    /**
+     * Creates an array with all captured substrings of the last match, as
+     * returned by RegExp.prototype.exec. Substrings are only created when
+     * read for the first time.
+     * @return the array of captures
+     */
+    public JSELArray toCapturesArray() {
+        PropertyDescriptor[] lElements =
+                new PropertyDescriptor[groupCount() + 1];
+        for (int i = 0; i < lElements.length; i++) {
+            lElements[i] = new SubstringDescriptor(input, start(i), end(i));
+        }
+        return new JSELArray(lElements);
+    }
+
+    /**
+     * Finds all matches from the start of the input, as String.prototype.match
+     * does for global regular expressions. Matching the empty string advances
+     * the search by one character.
+     * @return an array with the matched substrings, which are only created
+     * when read for the first time, or null if there is no match.
+     */
+    public JSELArray findAll() {
+        List<PropertyDescriptor> lMatches = new ArrayList<>();
+        int lIndex = 0;
+        while (find(lIndex)) {
+            int lStart = start();
+            int lEnd = end();
+            lMatches.add(new SubstringDescriptor(input, lStart, lEnd));
+            lIndex = lEnd == lStart ? lEnd + 1 : lEnd;
+        }
+
+        return lMatches.isEmpty()
+                ? null
+                : new JSELArray(lMatches.toArray(new PropertyDescriptor[0]));
+    }
+
+    private void checkMatched() {
+        if (!matched) {
+            throw new IllegalStateException("No match available");
+        }
+    }
+
+    /**
+     * Data property for a captured substring, which is only created when the
+     * value is first read. That may happen on several threads at once (e.g.
+     * in the callbacks of parallel array built-ins), which at worst create
+     * equal substrings, so the input is kept and the value is volatile.
+     */
+    private static class SubstringDescriptor extends PropertyDescriptor {
+        private final String input;
+        private final int start;
+        private final int end;
+        private volatile JSELValue value;
+
+        private SubstringDescriptor(String aInInput, int aInStart, int aInEnd) {
+            super(null, true, true, true);
+            input = aInInput;
+            start = aInStart;
+            end = aInEnd;
+        }
+
+        @Override
+        public JSELValue getValue() {
+            JSELValue lValue = value;
+            if (lValue == null) {
+                lValue = start < 0
+                        ? JSELUndefined.getInstance()
+                        : new JSELString(input.substring(start, end));
+                value = lValue;
+            }
+            return lValue;
+        }
+
+        @Override
+        public void setValue(JSELValue aInValue) {
+            value = aInValue;
+        }
+    }
+}
@@ -23,9 +23,7 @@ import mardlucca.jsel.type.JSELObject;
 import mardlucca.jsel.type.JSELString;
 import mardlucca.jsel.type.JSELValue;
 import mardlucca.jsel.type.Type;
-import mardlucca.jsel.util.DecimalFormat;
 import mardlucca.jsel.type.*;
-import mardlucca.jsel.util.DecimalFormat;
 
 public class JSELStringObject extends JSELPrimitiveWrapper {
     public static final String LENGTH = "length";
@@ -63,18 +61,29 @@ public class JSELStringObject extends JSELPrimitiveWrapper {
             return lDescriptor;
         }
 
-        long lNumber = JSELNumber.toInteger(DecimalFormat.parse(aInProperty));
-        if (aInProperty.equals(DecimalFormat.format(lNumber))) {
-            // property is an index
-            String lString = getPrimitiveValue().toString();
-            if (lNumber >= 0 && lNumber < lString.length()) {
-                return new PropertyDescriptor(
-                        new JSELString(String.valueOf(
-                                lString.charAt((int) lNumber))),
-                        true, false, false);
-            }
-        }
+        int lIndex = JSELArray.toArrayIndex(aInProperty);
+        return lIndex < 0 ? null : getCharacter(lIndex);
+    }
+
+    @Override
+    public PropertyDescriptor getOwnProperty(int aInIndex) {
+        PropertyDescriptor lDescriptor = super.getOwnProperty(aInIndex);
+        return lDescriptor != null ? lDescriptor : getCharacter(aInIndex);
+    }
 
+    /**
+     * Returns the descriptor for the character at a given index of the
+     * wrapped string.
+     * @param aInIndex the index of the character
+     * @return the property descriptor or null if the index is out of bounds.
+     */
+    private PropertyDescriptor getCharacter(int aInIndex) {
+        String lString = getPrimitiveValue().toString();
+        if (aInIndex < lString.length()) {
+            return new PropertyDescriptor(
+                    new JSELString(String.valueOf(lString.charAt(aInIndex))),
+                    true, false, false);
+        }
         return null;
     }
 }
@@ -0,0 +1,305 @@
+/*
+ * File: DateArithmetic.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.util;
+
+import java.time.Instant;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.TimeZone;
+
+/**
+ * The abstract operations on time values (i.e. milliseconds since the epoch,
+ * in UTC) defined by the ECMAScript specification for Date objects. These
+ * work directly on numbers, so no calendar objects are created. Local time
+ * uses the default time zone, whose offsets are cached.
+ * @see <a href="https://www.ecma-international.org/ecma-262/5.1/#sec-15.9.1">
+ * ECMA-262, 5.1, Section 15.9.1</a>
+ */
+public class DateArithmetic {
+    public static final double MS_PER_DAY = 86400000;
+    public static final double MS_PER_HOUR = 3600000;
+    public static final double MS_PER_MINUTE = 60000;
+    public static final double MS_PER_SECOND = 1000;
+
+    private static final double MAX_TIME = 8.64e15;
+
+    /**
+     * The day within the year each month starts at, in non leap years.
+     */
+    private static final int[] MONTH_START_DAYS =
+            { 0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334, 365 };
+
+    private static volatile OffsetTable offsetTable;
+
+    private DateArithmetic() {
+    }
+
+    public static double day(double aInTime) {
+        return Math.floor(aInTime / MS_PER_DAY);
+    }
+
+    public static double timeWithinDay(double aInTime) {
+        return modulo(aInTime, MS_PER_DAY);
+    }
+
+    public static double daysInYear(double aInYear) {
+        return isLeapYear(aInYear) ? 366 : 365;
+    }
+
+    public static double dayFromYear(double aInYear) {
+        return 365 * (aInYear - 1970) + Math.floor((aInYear - 1969) / 4)
+                - Math.floor((aInYear - 1901) / 100)
+                + Math.floor((aInYear - 1601) / 400);
+    }
+
+    public static double timeFromYear(double aInYear) {
+        return MS_PER_DAY * dayFromYear(aInYear);
+    }
+
+    public static double yearFromTime(double aInTime) {
+        // an estimate that is off by one at most
+        double lYear = Math.floor(aInTime / (MS_PER_DAY * 365.2425)) + 1970;
+        if (timeFromYear(lYear) > aInTime) {
+            return lYear - 1;
+        }
+        return timeFromYear(lYear + 1) <= aInTime ? lYear + 1 : lYear;
+    }
+
+    public static boolean inLeapYear(double aInTime) {
+        return isLeapYear(yearFromTime(aInTime));
+    }
+
+    public static double dayWithinYear(double aInTime) {
+        return day(aInTime) - dayFromYear(yearFromTime(aInTime));
+    }
+
+    public static double monthFromTime(double aInTime) {
+        int lDay = (int) dayWithinYear(aInTime);
+        int lLeap = inLeapYear(aInTime) ? 1 : 0;
+        int lMonth = Math.min(lDay / 31, 11);
+        while (lMonth < 11 && lDay >= monthStartDay(lMonth + 1, lLeap)) {
+            lMonth++;
+        }
+        return lMonth;
+    }
+
+    public static double dateFromTime(double aInTime) {
+        int lDay = (int) dayWithinYear(aInTime);
+        int lMonth = (int) monthFromTime(aInTime);
+        return lDay - monthStartDay(lMonth, inLeapYear(aInTime) ? 1 : 0) + 1;
+    }
+
+    public static double weekDay(double aInTime) {
+        return modulo(day(aInTime) + 4, 7);
+    }
+
+    public static double hourFromTime(double aInTime) {
+        return modulo(Math.floor(aInTime / MS_PER_HOUR), 24);
+    }
+
+    public static double minFromTime(double aInTime) {
+        return modulo(Math.floor(aInTime / MS_PER_MINUTE), 60);
+    }
+
+    public static double secFromTime(double aInTime) {
+        return modulo(Math.floor(aInTime / MS_PER_SECOND), 60);
+    }
+
+    public static double msFromTime(double aInTime) {
+        return modulo(aInTime, MS_PER_SECOND);
+    }
+
+    public static double makeTime(double aInHour, double aInMinute,
+            double aInSecond, double aInMillisecond) {
+        if (!isFinite(aInHour) || !isFinite(aInMinute)
+                || !isFinite(aInSecond) || !isFinite(aInMillisecond)) {
+            return Double.NaN;
+        }
+        return toInteger(aInHour) * MS_PER_HOUR
+                + toInteger(aInMinute) * MS_PER_MINUTE
+                + toInteger(aInSecond) * MS_PER_SECOND
+                + toInteger(aInMillisecond);
+    }
+
+    public static double makeDay(
+            double aInYear, double aInMonth, double aInDate) {
+        if (!isFinite(aInYear) || !isFinite(aInMonth)
+                || !isFinite(aInDate)) {
+            return Double.NaN;
+        }
+        double lMonth = toInteger(aInMonth);
+        double lYear = toInteger(aInYear) + Math.floor(lMonth / 12);
+        if (Math.abs(lYear) > 400000) {
+            // way out of the range of time values
+            return Double.NaN;
+        }
+        int lMonthWithinYear = (int) modulo(lMonth, 12);
+        return dayFromYear(lYear)
+                + monthStartDay(lMonthWithinYear, isLeapYear(lYear) ? 1 : 0)
+                + toInteger(aInDate) - 1;
+    }
+
+    public static double makeDate(double aInDay, double aInTime) {
+        if (!isFinite(aInDay) || !isFinite(aInTime)) {
+            return Double.NaN;
+        }
+        return aInDay * MS_PER_DAY + aInTime;
+    }
+
+    public static double timeClip(double aInTime) {
+        if (!isFinite(aInTime) || Math.abs(aInTime) > MAX_TIME) {
+            return Double.NaN;
+        }
+        // also turns -0 into +0
+        return toInteger(aInTime) + 0.0;
+    }
+
+    /**
+     * Converts a time value to local time.
+     * @param aInTime the time value
+     * @return the local time
+     */
+    public static double localTime(double aInTime) {
+        return aInTime + getOffset(aInTime);
+    }
+
+    /**
+     * Converts local time to a time value.
+     * @param aInLocalTime the local time
+     * @return the time value
+     */
+    public static double utc(double aInLocalTime) {
+        if (Double.isNaN(aInLocalTime)) {
+            return aInLocalTime;
+        }
+        // the offset at the local time taken as UTC is off by the offset
+        // itself, so it is looked up again one offset earlier
+        double lOffset = getOffset(aInLocalTime);
+        return aInLocalTime - getOffset(aInLocalTime - lOffset);
+    }
+
+    /**
+     * Returns the offset of the default time zone, including daylight saving
+     * time, at a time value.
+     * @param aInTime the time value
+     * @return the offset in milliseconds
+     */
+    public static double getOffset(double aInTime) {
+        return isFinite(aInTime)
+                ? getOffsetTable().getRange(aInTime).offset
+                : 0;
+    }
+
+    /**
+     * Tells whether daylight saving time is in effect in the default time
+     * zone at a time value.
+     * @param aInTime the time value
+     * @return true if so
+     */
+    public static boolean isDaylightSavingTime(double aInTime) {
+        return isFinite(aInTime)
+                && getOffsetTable().getRange(aInTime).daylightSavingTime;
+    }
+
+    private static OffsetTable getOffsetTable() {
+        String lZoneId = TimeZone.getDefault().getID();
+        OffsetTable lTable = offsetTable;
+        if (lTable == null || !lTable.zoneId.equals(lZoneId)) {
+            lTable = new OffsetTable(lZoneId);
+            offsetTable = lTable;
+        }
+        return lTable;
+    }
+
+    private static boolean isLeapYear(double aInYear) {
+        return modulo(aInYear, 4) == 0
+                && (modulo(aInYear, 100) != 0 || modulo(aInYear, 400) == 0);
+    }
+
+    private static int monthStartDay(int aInMonth, int aInLeap) {
+        return MONTH_START_DAYS[aInMonth] + (aInMonth >= 2 ? aInLeap : 0);
+    }
+
+    private static double modulo(double aInValue, double aInModulus) {
+        double lResult = aInValue % aInModulus;
+        return lResult < 0 ? lResult + aInModulus : lResult;
+    }
+
+    private static boolean isFinite(double aInValue) {
+        return !Double.isNaN(aInValue) && !Double.isInfinite(aInValue);
+    }
+
+    private static double toInteger(double aInValue) {
+        return aInValue < 0 ? Math.ceil(aInValue) : Math.floor(aInValue);
+    }
+
+    /**
+     * Offsets of a time zone, cached by the ranges of time between its
+     * transitions. Ranges are looked up in a direct mapped table, by the
+     * period of time they were first looked up for.
+     */
+    private static class OffsetTable {
+        private static final int SIZE = 256;
+        private static final double PERIOD = 32 * MS_PER_DAY;
+
+        private final String zoneId;
+        private final ZoneRules rules;
+        private final Range[] ranges = new Range[SIZE];
+
+        OffsetTable(String aInZoneId) {
+            zoneId = aInZoneId;
+            rules = TimeZone.getTimeZone(aInZoneId).toZoneId().getRules();
+        }
+
+        Range getRange(double aInTime) {
+            int lIndex = (int) modulo(Math.floor(aInTime / PERIOD), SIZE);
+            Range lRange = ranges[lIndex];
+            if (lRange == null || aInTime < lRange.start
+                    || aInTime >= lRange.end) {
+                lRange = new Range(rules, (long) Math.floor(aInTime));
+                // races just replace a range with another valid one
+                ranges[lIndex] = lRange;
+            }
+            return lRange;
+        }
+    }
+
+    private static class Range {
+        private final double start;
+        private final double end;
+        private final double offset;
+        private final boolean daylightSavingTime;
+
+        Range(ZoneRules aInRules, long aInTime) {
+            Instant lInstant = Instant.ofEpochMilli(aInTime);
+            offset = aInRules.getOffset(lInstant).getTotalSeconds()
+                    * MS_PER_SECOND;
+            daylightSavingTime = aInRules.isDaylightSavings(lInstant);
+            // a transition at the time itself is the start of its range
+            ZoneOffsetTransition lPrevious = aInRules.previousTransition(
+                    lInstant.plusMillis(1));
+            ZoneOffsetTransition lNext = aInRules.nextTransition(lInstant);
+            start = lPrevious == null
+                    ? Double.NEGATIVE_INFINITY
+                    : lPrevious.getInstant().toEpochMilli();
+            end = lNext == null
+                    ? Double.POSITIVE_INFINITY
+                    : lNext.getInstant().toEpochMilli();
+        }
+    }
+}
@@ -17,113 +17,497 @@
  */
 package mardlucca.jsel.util;
 
-import java.text.SimpleDateFormat;
-import java.time.ZoneOffset;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.GregorianCalendar;
+import java.util.Locale;
 import java.util.TimeZone;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+import static mardlucca.jsel.util.DateArithmetic.MS_PER_MINUTE;
+import static mardlucca.jsel.util.DateArithmetic.dateFromTime;
+import static mardlucca.jsel.util.DateArithmetic.daysInYear;
+import static mardlucca.jsel.util.DateArithmetic.getOffset;
+import static mardlucca.jsel.util.DateArithmetic.hourFromTime;
+import static mardlucca.jsel.util.DateArithmetic.isDaylightSavingTime;
+import static mardlucca.jsel.util.DateArithmetic.makeDate;
+import static mardlucca.jsel.util.DateArithmetic.makeDay;
+import static mardlucca.jsel.util.DateArithmetic.makeTime;
+import static mardlucca.jsel.util.DateArithmetic.minFromTime;
+import static mardlucca.jsel.util.DateArithmetic.monthFromTime;
+import static mardlucca.jsel.util.DateArithmetic.msFromTime;
+import static mardlucca.jsel.util.DateArithmetic.secFromTime;
+import static mardlucca.jsel.util.DateArithmetic.timeClip;
+import static mardlucca.jsel.util.DateArithmetic.utc;
+import static mardlucca.jsel.util.DateArithmetic.weekDay;
+import static mardlucca.jsel.util.DateArithmetic.yearFromTime;
+
+/**
+ * Formats and parses time values (see {@link DateArithmetic}) as strings in
+ * the ECMAScript date time string format and in the formats of Date's
+ * toString and toUTCString.
+ * @see <a href="https://www.ecma-international.org/ecma-262/5.1/#sec-15.9.1.15">
+ * ECMA-262, 5.1, Section 15.9.1.15</a>
+ */
 public class DateFormat {
-    private static ThreadLocal<java.text.DateFormat> dateStringFormat =
-            ThreadLocal.withInitial(() ->
-                    new SimpleDateFormat("EEE MMM dd yyyy"));
-    private static ThreadLocal<java.text.DateFormat> timeStringFormat =
-            ThreadLocal.withInitial(() ->
-                    new SimpleDateFormat("HH:mm:ss 'GMT'Z (zzzz)"));
-    private static ThreadLocal<java.text.DateFormat> dateFormat =
-            ThreadLocal.withInitial(() ->
-                    new SimpleDateFormat(
-                            "EEE MMM dd yyyy HH:mm:ss 'GMT'Z (zzzz)"));
-    private static ThreadLocal<java.text.DateFormat> utcDateFormat =
-            ThreadLocal.withInitial(() -> {
-                    SimpleDateFormat lFormat = new SimpleDateFormat(
-                            "EEE MMM dd yyyy HH:mm:ss 'GMT'");
-                    lFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
-                    return lFormat;
-            });
-    private static ThreadLocal<java.text.DateFormat> isoDateFormat =
-            ThreadLocal.withInitial(() -> {
-                SimpleDateFormat lFormat = new SimpleDateFormat(
-                        "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-                lFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
-                return lFormat;
-            });
-
-    private static final String DATE_PART =
-            "(\\d{4})(?:-(\\d\\d)(?:-(\\d\\d))?)?";
-    private static final String TIME_PART =
-            "T(\\d{2}):(\\d{2})(?::(\\d{2})(?:\\.(\\d{3}))?)?";
-    private static final String TIME_ZONE =
-            "(Z|[+\\-](?:\\d{4}|\\d{2}:\\d{2}))?";
-
-    private static Pattern datePattern =
-            Pattern.compile(DATE_PART +
-                    "(?:" + TIME_PART + TIME_ZONE + ")?");
+    public static final String INVALID_DATE = "Invalid Date";
+
+    private static final String[] DAY_NAMES =
+            { "Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat" };
+    private static final String[] MONTH_NAMES =
+            { "Jan", "Feb", "Mar", "Apr", "May", "Jun",
+              "Jul", "Aug", "Sep", "Oct", "Nov", "Dec" };
+
+    private static final int PARSE_CACHE_SIZE = 64;
+
+    /**
+     * Strings parsed recently by each thread, as logs and the like tend to
+     * repeat timestamps.
+     */
+    private static ThreadLocal<ParseResult[]> parseCache =
+            ThreadLocal.withInitial(() -> new ParseResult[PARSE_CACHE_SIZE]);
+
+    private static volatile ZoneNames zoneNames;
 
     private DateFormat() {
     }
 
-    public static String format(Date aInDate) {
-        return dateFormat.get().format(aInDate);
+    /**
+     * Formats a time value in local time, as in "Sat Feb 29 2020 08:14:15
+     * GMT-0500 (Eastern Standard Time)".
+     * @param aInTime the time value
+     * @return the formatted string
+     */
+    public static String format(double aInTime) {
+        if (Double.isNaN(aInTime)) {
+            return INVALID_DATE;
+        }
+        StringBuilder lBuilder = new StringBuilder(64);
+        appendDate(lBuilder, aInTime + getOffset(aInTime));
+        lBuilder.append(' ');
+        appendTime(lBuilder, aInTime);
+        return lBuilder.toString();
+    }
+
+    /**
+     * Formats a time value in UTC, as in "Sat, 29 Feb 2020 13:14:15 GMT".
+     * @param aInTime the time value
+     * @return the formatted string
+     */
+    public static String formatUTC(double aInTime) {
+        if (Double.isNaN(aInTime)) {
+            return INVALID_DATE;
+        }
+        StringBuilder lBuilder = new StringBuilder(29);
+        lBuilder.append(DAY_NAMES[(int) weekDay(aInTime)]).append(", ");
+        appendDigits(lBuilder, (int) dateFromTime(aInTime), 2);
+        lBuilder.append(' ')
+                .append(MONTH_NAMES[(int) monthFromTime(aInTime)])
+                .append(' ');
+        appendYear(lBuilder, yearFromTime(aInTime));
+        lBuilder.append(' ');
+        appendClock(lBuilder, aInTime);
+        return lBuilder.append(" GMT").toString();
+    }
+
+    /**
+     * Formats a time value in the date time string format, as in
+     * "2020-02-29T13:14:15.016Z".
+     * @param aInTime the time value
+     * @return the formatted string
+     */
+    public static String formatISO(double aInTime) {
+        if (Double.isNaN(aInTime)) {
+            return INVALID_DATE;
+        }
+        StringBuilder lBuilder = new StringBuilder(27);
+        double lYear = yearFromTime(aInTime);
+        if (lYear >= 0 && lYear <= 9999) {
+            appendDigits(lBuilder, (int) lYear, 4);
+        }
+        else {
+            // expanded years
+            lBuilder.append(lYear < 0 ? '-' : '+');
+            appendDigits(lBuilder, (int) Math.abs(lYear), 6);
+        }
+        lBuilder.append('-');
+        appendDigits(lBuilder, (int) monthFromTime(aInTime) + 1, 2);
+        lBuilder.append('-');
+        appendDigits(lBuilder, (int) dateFromTime(aInTime), 2);
+        lBuilder.append('T');
+        appendClock(lBuilder, aInTime);
+        lBuilder.append('.');
+        appendDigits(lBuilder, (int) msFromTime(aInTime), 3);
+        return lBuilder.append('Z').toString();
+    }
+
+    /**
+     * Formats the time of a time value in local time, as in "08:14:15
+     * GMT-0500 (Eastern Standard Time)".
+     * @param aInTime the time value
+     * @return the formatted string
+     */
+    public static String toTimeString(double aInTime) {
+        if (Double.isNaN(aInTime)) {
+            return INVALID_DATE;
+        }
+        StringBuilder lBuilder = new StringBuilder(48);
+        appendTime(lBuilder, aInTime);
+        return lBuilder.toString();
+    }
+
+    /**
+     * Formats the date of a time value in local time, as in "Sat Feb 29
+     * 2020".
+     * @param aInTime the time value
+     * @return the formatted string
+     */
+    public static String toDateString(double aInTime) {
+        if (Double.isNaN(aInTime)) {
+            return INVALID_DATE;
+        }
+        StringBuilder lBuilder = new StringBuilder(16);
+        appendDate(lBuilder, aInTime + getOffset(aInTime));
+        return lBuilder.toString();
+    }
+
+    /**
+     * Parses a string in the date time string format or in the formats
+     * produced by {@link #format(double)} and {@link #formatUTC(double)}.
+     * Date only forms of the date time string format are taken as UTC and
+     * all other strings without an offset as local time.
+     * @param aInString the string to parse
+     * @return the time value or NaN if the string cannot be parsed.
+     */
+    public static double parse(String aInString) {
+        ParseResult[] lCache = parseCache.get();
+        int lIndex = (aInString.hashCode() & 0x7fffffff) % PARSE_CACHE_SIZE;
+        ParseResult lResult = lCache[lIndex];
+        if (lResult == null || !lResult.string.equals(aInString)) {
+            lResult = new Parser(aInString).parse();
+            lCache[lIndex] = lResult;
+        }
+        // local times are converted on every call, as the default time zone
+        // may have changed
+        return lResult.local ? timeClip(utc(lResult.time)) : lResult.time;
+    }
+
+    private static void appendDate(StringBuilder aInBuilder,
+                                   double aInLocalTime) {
+        aInBuilder.append(DAY_NAMES[(int) weekDay(aInLocalTime)])
+                .append(' ')
+                .append(MONTH_NAMES[(int) monthFromTime(aInLocalTime)])
+                .append(' ');
+        appendDigits(aInBuilder, (int) dateFromTime(aInLocalTime), 2);
+        aInBuilder.append(' ');
+        appendYear(aInBuilder, yearFromTime(aInLocalTime));
+    }
+
+    private static void appendTime(StringBuilder aInBuilder, double aInTime) {
+        double lOffset = getOffset(aInTime);
+        appendClock(aInBuilder, aInTime + lOffset);
+
+        int lMinutes = (int) (Math.abs(lOffset) / MS_PER_MINUTE);
+        aInBuilder.append(" GMT").append(lOffset < 0 ? '-' : '+');
+        appendDigits(aInBuilder, lMinutes / 60, 2);
+        appendDigits(aInBuilder, lMinutes % 60, 2);
+        aInBuilder.append(" (")
+                .append(getZoneName(isDaylightSavingTime(aInTime)))
+                .append(')');
+    }
+
+    private static void appendClock(StringBuilder aInBuilder, double aInTime) {
+        appendDigits(aInBuilder, (int) hourFromTime(aInTime), 2);
+        aInBuilder.append(':');
+        appendDigits(aInBuilder, (int) minFromTime(aInTime), 2);
+        aInBuilder.append(':');
+        appendDigits(aInBuilder, (int) secFromTime(aInTime), 2);
+    }
+
+    private static void appendYear(StringBuilder aInBuilder, double aInYear) {
+        if (aInYear < 0) {
+            aInBuilder.append('-');
+        }
+        appendDigits(aInBuilder, (int) Math.abs(aInYear), 4);
+    }
+
+    private static void appendDigits(StringBuilder aInBuilder, int aInValue,
+                                     int aInWidth) {
+        for (int lLimit = 10, i = 1; i < aInWidth; lLimit *= 10, i++) {
+            if (aInValue < lLimit) {
+                aInBuilder.append('0');
+            }
+        }
+        aInBuilder.append(aInValue);
     }
 
-    public static String formatUTC(Date aInDate) {
-        return utcDateFormat.get().format(aInDate);
+    private static String getZoneName(boolean aInDaylightSavingTime) {
+        TimeZone lZone = TimeZone.getDefault();
+        ZoneNames lNames = zoneNames;
+        if (lNames == null || !lNames.zoneId.equals(lZone.getID())) {
+            lNames = new ZoneNames(lZone);
+            zoneNames = lNames;
+        }
+        return aInDaylightSavingTime ? lNames.daylight : lNames.standard;
     }
 
-    public static String formatISO(Date aInDate) {
-        return isoDateFormat.get().format(aInDate);
+    private static int indexOf(String[] aInNames, String aInString,
+                               int aInPosition) {
+        for (int i = 0; i < aInNames.length; i++) {
+            if (aInString.regionMatches(
+                    true, aInPosition, aInNames[i], 0, 3)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
-    public static String toTimeString(Date aInDate) {
-        return timeStringFormat.get().format(aInDate);
+    private static class ZoneNames {
+        private final String zoneId;
+        private final String standard;
+        private final String daylight;
+
+        ZoneNames(TimeZone aInZone) {
+            zoneId = aInZone.getID();
+            standard = aInZone.getDisplayName(false, TimeZone.LONG, Locale.US);
+            daylight = aInZone.getDisplayName(true, TimeZone.LONG, Locale.US);
+        }
     }
 
+    private static class ParseResult {
+        private final String string;
+        private final double time;
+        private final boolean local;
 
-    public static String toDateString(Date aInDate) {
-        return dateStringFormat.get().format(aInDate);
+        ParseResult(String aInString, double aInTime, boolean aInLocal) {
+            string = aInString;
+            time = aInTime;
+            local = aInLocal;
+        }
     }
 
-    public static Date parse(String aInDateString) {
-        Matcher lMatcher = datePattern.matcher(aInDateString);
+    /**
+     * A hand written parser for the supported formats. Each parse method
+     * returns the time value it parsed (in local time, if no offset was
+     * given) or NaN, leaving {@link #position} after the parsed text.
+     */
+    private static class Parser {
+        private final String string;
+        private int position;
+        private boolean local;
+
+        Parser(String aInString) {
+            string = aInString;
+        }
+
+        ParseResult parse() {
+            double lTime = parseISO();
+            if (Double.isNaN(lTime)) {
+                position = 0;
+                local = false;
+                lTime = parseText();
+            }
+            if (position < string.length()) {
+                lTime = Double.NaN;
+            }
+            return new ParseResult(string, lTime, local);
+        }
+
+        /**
+         * Parses YYYY[-MM[-DD]][THH:mm[:ss[.sss]]][Z|(+|-)HH[:]mm], where
+         * years may also be expanded to six digits and a sign.
+         */
+        private double parseISO() {
+            int lSign = accept('-') ? -1 : 1;
+            int lYear = lSign < 0 || accept('+')
+                    ? digits(6, 6)
+                    : digits(4, 4);
+            int lMonth = 1;
+            int lDay = 1;
+            if (lYear >= 0 && accept('-')) {
+                lMonth = digits(2, 2);
+                if (lMonth >= 0 && accept('-')) {
+                    lDay = digits(2, 2);
+                }
+            }
+            if (lYear < 0 || lMonth < 1 || lMonth > 12 || lDay < 1
+                    || lDay > daysInMonth(lSign * lYear, lMonth - 1)) {
+                return Double.NaN;
+            }
+
+            double lTime = 0;
+            if (accept('T')) {
+                lTime = parseClock(true);
+                local = true;
+            }
+            double lDate = makeDate(
+                    makeDay(lSign * lYear, lMonth - 1, lDay), lTime);
+            return isEnd() ? timeClip(lDate) : parseOffset(lDate, true);
+        }
+
+        /**
+         * Parses [Www[,] ](Mmm DD|DD Mmm) YYYY[ HH:mm[:ss]][ GMT[(+|-)HHmm]]
+         * [ (zone name)], which includes the output of toString and
+         * toUTCString.
+         */
+        private double parseText() {
+            if (indexOf(DAY_NAMES, string, position) >= 0
+                    && position + 3 < string.length()) {
+                position += 3;
+                accept(',');
+                if (!accept(' ')) { return Double.NaN; }
+            }
+
+            int lMonth = month();
+            int lDay;
+            if (lMonth >= 0) {
+                if (!accept(' ')) { return Double.NaN; }
+                lDay = digits(1, 2);
+            }
+            else {
+                lDay = digits(1, 2);
+                if (!accept(' ')) { return Double.NaN; }
+                lMonth = month();
+            }
+            if (lMonth < 0 || lDay < 1 || !accept(' ')) {
+                return Double.NaN;
+            }
+            int lSign = accept('-') ? -1 : 1;
+            int lYear = digits(1, 6);
+            if (lYear < 0 || lDay > daysInMonth(lSign * lYear, lMonth)) {
+                return Double.NaN;
+            }
 
-        if (!lMatcher.matches()) {
-            return null;
+            local = true;
+            double lTime = 0;
+            if (accept(' ') && isDigit(peek())) {
+                lTime = parseClock(false);
+                accept(' ');
+            }
+            double lDate = makeDate(makeDay(lSign * lYear, lMonth, lDay),
+                    lTime);
+            if (string.startsWith("GMT", position)
+                    || string.startsWith("UTC", position)) {
+                position += 3;
+                lDate = isEnd() || peek() == ' '
+                        ? lDate
+                        : parseOffset(lDate, false);
+                local = false;
+                accept(' ');
+            }
+            if (accept('(')) {
+                int lEnd = string.indexOf(')', position);
+                position = lEnd < 0 ? position : lEnd + 1;
+            }
+            return timeClip(lDate);
         }
 
-        TimeZone lTimeZone = lMatcher.group(8) == null
-                ? lMatcher.group(4) == null
-                        ? TimeZone.getTimeZone("GMT")
-                        : TimeZone.getDefault()
-                : "Z".equals(lMatcher.group(8))
-                        ? TimeZone.getTimeZone("GMT")
-                        : TimeZone.getTimeZone(
-                                ZoneOffset.of(lMatcher.group(8)));
+        private double parseClock(boolean aInFraction) {
+            int lHour = digits(2, 2);
+            int lMinute = accept(':') ? digits(2, 2) : -1;
+            int lSecond = 0;
+            int lMillisecond = 0;
+            if (accept(':')) {
+                lSecond = digits(2, 2);
+                if (aInFraction && lSecond >= 0 && accept('.')) {
+                    lMillisecond = fraction();
+                }
+            }
+            if (lHour < 0 || lHour > 24 || lMinute < 0 || lMinute > 59
+                    || lSecond < 0 || lSecond > 59 || lMillisecond < 0
+                    || (lHour == 24
+                        && (lMinute > 0 || lSecond > 0 || lMillisecond > 0))) {
+                return Double.NaN;
+            }
+            return makeTime(lHour, lMinute, lSecond, lMillisecond);
+        }
 
-        GregorianCalendar lCalendar = new GregorianCalendar(lTimeZone);
-        lCalendar.set(Calendar.YEAR, Integer.parseInt(lMatcher.group(1)));
-        lCalendar.set(Calendar.MONTH, lMatcher.group(2) == null
-                ? 0
-                : Integer.parseInt(lMatcher.group(2)) - 1);
-        lCalendar.set(Calendar.DATE, lMatcher.group(3) == null
-                ? 1
-                : Integer.parseInt(lMatcher.group(3)));
-        lCalendar.set(Calendar.HOUR_OF_DAY, lMatcher.group(4) == null
-                ? 0
-                : Integer.parseInt(lMatcher.group(4)));
-        lCalendar.set(Calendar.MINUTE, lMatcher.group(5) == null
-                ? 0
-                : Integer.parseInt(lMatcher.group(5)));
-        lCalendar.set(Calendar.SECOND, lMatcher.group(6) == null
-                ? 0
-                : Integer.parseInt(lMatcher.group(6)));
-        lCalendar.set(Calendar.MILLISECOND, lMatcher.group(7) == null
-                ? 0
-                : Integer.parseInt(lMatcher.group(7)));
+        private double parseOffset(double aInTime, boolean aInISO) {
+            if (aInISO && accept('Z')) {
+                local = false;
+                return timeClip(aInTime);
+            }
+            int lSign = accept('+') ? 1 : accept('-') ? -1 : 0;
+            if (lSign == 0) {
+                return Double.NaN;
+            }
+            int lHours = digits(2, 2);
+            accept(':');
+            int lMinutes = digits(2, 2);
+            if (lHours < 0 || lHours > 23 || lMinutes < 0 || lMinutes > 59) {
+                return Double.NaN;
+            }
+            local = false;
+            return timeClip(
+                    aInTime - lSign * (lHours * 60 + lMinutes) * MS_PER_MINUTE);
+        }
 
-        return lCalendar.getTime();
+        private int month() {
+            int lMonth = indexOf(MONTH_NAMES, string, position);
+            if (lMonth >= 0) {
+                position += 3;
+            }
+            return lMonth;
+        }
+
+        /**
+         * Reads the fraction of a second, truncated to milliseconds.
+         */
+        private int fraction() {
+            int lStart = position;
+            int lValue = 0;
+            while (isDigit(peek())) {
+                if (position - lStart < 3) {
+                    lValue = lValue * 10 + peek() - '0';
+                }
+                position++;
+            }
+            int lDigits = position - lStart;
+            if (lDigits == 0) {
+                return -1;
+            }
+            for (int i = lDigits; i < 3; i++) {
+                lValue *= 10;
+            }
+            return lValue;
+        }
+
+        /**
+         * Reads a number with a minimum and a maximum number of digits.
+         * @return the number or -1 if there are fewer digits than the minimum.
+         */
+        private int digits(int aInMin, int aInMax) {
+            int lStart = position;
+            int lValue = 0;
+            while (position - lStart < aInMax && isDigit(peek())) {
+                lValue = lValue * 10 + peek() - '0';
+                position++;
+            }
+            return position - lStart < aInMin ? -1 : lValue;
+        }
+
+        private boolean accept(char aInChar) {
+            if (peek() == aInChar) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private char peek() {
+            return position < string.length() ? string.charAt(position) : 0;
+        }
+
+        private static boolean isDigit(char aInChar) {
+            return aInChar >= '0' && aInChar <= '9';
+        }
+
+        private boolean isEnd() {
+            return position >= string.length();
+        }
+
+        private static int daysInMonth(int aInYear, int aInMonth) {
+            if (aInMonth == 1) {
+                return daysInYear(aInYear) == 366 ? 29 : 28;
+            }
+            return aInMonth == 3 || aInMonth == 5 || aInMonth == 8
+                    || aInMonth == 10 ? 30 : 31;
+        }
     }
 }
@@ -0,0 +1,1017 @@
+/*
+ * File: LinearRegExp.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Automaton based regular expression matcher. Expressions are compiled into a
+ * Thompson NFA which is then simulated in lock step over the input (i.e. a
+ * "Pike VM"), which guarantees matching in O(n * m) time, where n is the
+ * length of the input and m is the size of the expression. Threads are kept in
+ * priority order, so this yields the same (leftmost, first alternative)
+ * matches and captures as a backtracking engine would.
+ * <p>
+ * Only the ECMAScript regular expression subset that does not need
+ * backtracking is supported: back references and look ahead assertions are
+ * not. {@link #compile(String, int)} returns null for those expressions, in
+ * which case the caller is expected to use {@link Pattern} instead.
+ * Expressions that are too large (see {@link #MAX_PROGRAM_SIZE}) are rejected
+ * rather than left for {@link Pattern}, as they may well be too large on
+ * purpose, to make a backtracking engine take exponential time.
+ * <p>
+ * Instances are immutable and thread safe.
+ */
+public class LinearRegExp {
+    /**
+     * Maximum number of instructions in a compiled program. Counted
+     * repetitions (e.g. "a{1000}") are expanded, so this keeps the program size
+     * (and therefore matching time) bounded. Repetition counts above this are
+     * rejected right away.
+     */
+    public static final int MAX_PROGRAM_SIZE = 10000;
+
+    private static final int CHAR = 0;
+    private static final int ANY = 1;
+    private static final int CLASS = 2;
+    private static final int SPLIT = 3;
+    private static final int JUMP = 4;
+    private static final int SAVE = 5;
+    private static final int ASSERT = 6;
+    private static final int MATCH = 7;
+    private static final int RESET = 8;
+
+    private static final int BEGIN_LINE = 0;
+    private static final int END_LINE = 1;
+    private static final int WORD_BOUNDARY = 2;
+    private static final int NOT_WORD_BOUNDARY = 3;
+
+    private final int[] opCodes;
+    private final int[] arguments1;
+    private final int[] arguments2;
+    private final CharClass[] classes;
+    private final int captureCount;
+    private final boolean ignoreCase;
+    private final boolean multiline;
+
+    /**
+     * The first character all matches must start with or -1 if unknown. This
+     * is used to skip ahead in the input when there are no live threads.
+     */
+    private final int firstChar;
+
+    private LinearRegExp(Compiler aInCompiler) {
+        int lSize = aInCompiler.size;
+        opCodes = Arrays.copyOf(aInCompiler.opCodes, lSize);
+        arguments1 = Arrays.copyOf(aInCompiler.arguments1, lSize);
+        arguments2 = Arrays.copyOf(aInCompiler.arguments2, lSize);
+        classes = aInCompiler.classes.toArray(new CharClass[0]);
+        captureCount = aInCompiler.captureCount;
+        ignoreCase = aInCompiler.ignoreCase;
+        multiline = aInCompiler.multiline;
+        firstChar = findFirstChar();
+    }
+
+    /**
+     * Compiles a regular expression.
+     * @param aInRegex the regular expression source, in ECMAScript syntax
+     * @param aInFlags {@link Pattern} flags. Only
+     *                 {@link Pattern#CASE_INSENSITIVE} and
+     *                 {@link Pattern#MULTILINE} are taken into account.
+     * @return the compiled expression or null if the expression is not
+     * supported by this engine (either because it needs backtracking or
+     * because it's not a valid expression, which is left for {@link Pattern}
+     * to report).
+     * @throws IllegalArgumentException if the compiled program would be
+     * larger than {@link #MAX_PROGRAM_SIZE}
+     */
+    public static LinearRegExp compile(String aInRegex, int aInFlags) {
+        Compiler lCompiler = new Compiler(aInRegex,
+                (aInFlags & Pattern.CASE_INSENSITIVE) != 0,
+                (aInFlags & Pattern.MULTILINE) != 0);
+        return lCompiler.compile() ? new LinearRegExp(lCompiler) : null;
+    }
+
+    /**
+     * Returns the number of capturing groups in the expression, not counting
+     * the implicit group 0 (i.e. the entire match).
+     * @return the number of capturing groups
+     */
+    public int getGroupCount() {
+        return captureCount - 1;
+    }
+
+    /**
+     * Searches for the leftmost match in a string, starting at a given index.
+     * @param aInString the string to search
+     * @param aInIndex where to start searching
+     * @return an array with start and end offsets for each group (including
+     * the entire match as group 0), with -1 for groups that did not
+     * participate in the match, or null if no match is found.
+     */
+    public int[] find(String aInString, int aInIndex) {
+        return find(aInString, aInIndex, newMemory());
+    }
+
+    /**
+     * Creates the working memory used by
+     * {@link #find(String, int, Memory)}, which can be reused by successive
+     * searches with this expression (e.g. while iterating over all matches in
+     * a string) instead of being allocated again for each one of them.
+     * @return the working memory
+     */
+    public Memory newMemory() {
+        return new Memory(this);
+    }
+
+    /**
+     * Searches for the leftmost match in a string, starting at a given index.
+     * @param aInString the string to search
+     * @param aInIndex where to start searching
+     * @param aInMemory working memory created by {@link #newMemory()}. This is
+     *                  not thread safe, so it must not be shared by concurrent
+     *                  searches.
+     * @return an array with start and end offsets for each group (including
+     * the entire match as group 0), with -1 for groups that did not
+     * participate in the match, or null if no match is found.
+     */
+    public int[] find(String aInString, int aInIndex, Memory aInMemory) {
+        int lLength = aInString.length();
+        if (aInIndex < 0 || aInIndex > lLength) {
+            return null;
+        }
+        if (aInMemory.regExp != this) {
+            throw new IllegalArgumentException(
+                    "memory belongs to a different expression");
+        }
+
+        ThreadList lCurrent = aInMemory.current;
+        ThreadList lNext = aInMemory.next;
+        lCurrent.clear();
+        lNext.clear();
+        int[] lStack = aInMemory.stack;
+        int[][] lStackCaptures = aInMemory.stackCaptures;
+        int[] lMatch = null;
+
+        for (int lPosition = aInIndex; ; lPosition++) {
+            if (lMatch == null) {
+                if (lCurrent.size == 0) {
+                    lCurrent.clear();
+                    if (firstChar >= 0) {
+                        // nothing in flight, skip straight to a possible start
+                        lPosition = aInString.indexOf(firstChar, lPosition);
+                        if (lPosition < 0) {
+                            break;
+                        }
+                    }
+                }
+                int[] lCaptures = new int[captureCount * 2];
+                Arrays.fill(lCaptures, -1);
+                addThread(lCurrent, 0, lCaptures, aInString, lPosition,
+                        lStack, lStackCaptures);
+            }
+            if (lCurrent.size == 0) {
+                if (lMatch != null || lPosition >= lLength) {
+                    break;
+                }
+                continue;
+            }
+
+            char lChar = lPosition < lLength ? aInString.charAt(lPosition) : 0;
+            lNext.clear();
+            for (int i = 0; i < lCurrent.size; i++) {
+                int lPc = lCurrent.pcs[i];
+                int[] lCaptures = lCurrent.captures[i];
+                boolean lConsumes;
+                switch (opCodes[lPc]) {
+                    case CHAR:
+                        lConsumes = lPosition < lLength
+                                && (lChar == arguments1[lPc] || (ignoreCase
+                                        && canonicalize(lChar) == canonicalize(
+                                                (char) arguments1[lPc])));
+                        break;
+                    case ANY:
+                        lConsumes = lPosition < lLength
+                                && !isLineTerminator(lChar);
+                        break;
+                    case CLASS:
+                        lConsumes = lPosition < lLength && classes[
+                                arguments1[lPc]].matches(lChar, ignoreCase);
+                        break;
+                    case MATCH:
+                        lMatch = lCaptures;
+                        // lower priority threads are discarded
+                        i = lCurrent.size;
+                        lConsumes = false;
+                        break;
+                    default:
+                        lConsumes = false;
+                }
+                if (lConsumes) {
+                    addThread(lNext, lPc + 1, lCaptures, aInString,
+                            lPosition + 1, lStack, lStackCaptures);
+                }
+            }
+
+            ThreadList lSwap = lCurrent;
+            lCurrent = lNext;
+            lNext = lSwap;
+
+            if (lPosition >= lLength) {
+                break;
+            }
+        }
+
+        return lMatch;
+    }
+
+    /**
+     * Adds a thread to a list, following all non consuming instructions
+     * (jumps, splits, saves, resets and assertions) in priority order.
+     */
+    private void addThread(ThreadList aInList, int aInPc, int[] aInCaptures,
+            String aInString, int aInPosition,
+            int[] aInStack, int[][] aInStackCaptures) {
+        int lTop = 0;
+        aInStack[lTop] = aInPc;
+        aInStackCaptures[lTop++] = aInCaptures;
+
+        while (lTop > 0) {
+            int lPc = aInStack[--lTop];
+            int[] lCaptures = aInStackCaptures[lTop];
+            aInStackCaptures[lTop] = null;
+
+            while (true) {
+                if (aInList.contains(lPc)) {
+                    break;
+                }
+                aInList.mark(lPc);
+
+                int lOpCode = opCodes[lPc];
+                if (lOpCode == JUMP) {
+                    lPc = arguments1[lPc];
+                } else if (lOpCode == SPLIT) {
+                    // second alternative is resumed after the first one is
+                    // exhausted, which keeps threads in priority order
+                    aInStack[lTop] = arguments2[lPc];
+                    aInStackCaptures[lTop++] = lCaptures;
+                    lPc = arguments1[lPc];
+                } else if (lOpCode == SAVE) {
+                    lCaptures = lCaptures.clone();
+                    lCaptures[arguments1[lPc]] = aInPosition;
+                    lPc++;
+                } else if (lOpCode == RESET) {
+                    lCaptures = lCaptures.clone();
+                    Arrays.fill(lCaptures, arguments1[lPc], arguments2[lPc],
+                            -1);
+                    lPc++;
+                } else if (lOpCode == ASSERT) {
+                    if (!holds(arguments1[lPc], aInString, aInPosition)) {
+                        break;
+                    }
+                    lPc++;
+                } else {
+                    aInList.add(lPc, lCaptures);
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean holds(int aInAssertion, String aInString, int aInPosition) {
+        switch (aInAssertion) {
+            case BEGIN_LINE:
+                return aInPosition == 0 || (multiline && isLineTerminator(
+                        aInString.charAt(aInPosition - 1)));
+            case END_LINE:
+                return aInPosition == aInString.length() || (multiline
+                        && isLineTerminator(aInString.charAt(aInPosition)));
+            default:
+                boolean lBefore = aInPosition > 0
+                        && isWordChar(aInString.charAt(aInPosition - 1));
+                boolean lAfter = aInPosition < aInString.length()
+                        && isWordChar(aInString.charAt(aInPosition));
+                return (lBefore != lAfter) == (aInAssertion == WORD_BOUNDARY);
+        }
+    }
+
+    private int findFirstChar() {
+        if (ignoreCase) {
+            return -1;
+        }
+        int lPc = 0;
+        while (opCodes[lPc] == SAVE || opCodes[lPc] == RESET
+                || opCodes[lPc] == JUMP) {
+            lPc = opCodes[lPc] == JUMP ? arguments1[lPc] : lPc + 1;
+        }
+        return opCodes[lPc] == CHAR ? arguments1[lPc] : -1;
+    }
+
+    /**
+     * The Canonicalize operation (ECMA-262 5.1, section 15.10.2.8) that case
+     * insensitive matching compares characters with: their upper case, unless
+     * it is more than one character or it would turn a non ASCII character
+     * into an ASCII one.
+     */
+    private static char canonicalize(char aInChar) {
+        return CanonicalTable.TABLE[aInChar];
+    }
+
+    private static boolean isLineTerminator(char aInChar) {
+        return aInChar == '\n' || aInChar == '\r'
+                || aInChar == '\u2028' || aInChar == '\u2029';
+    }
+
+    private static boolean isWordChar(char aInChar) {
+        return (aInChar >= 'a' && aInChar <= 'z')
+                || (aInChar >= 'A' && aInChar <= 'Z')
+                || (aInChar >= '0' && aInChar <= '9')
+                || aInChar == '_';
+    }
+
+    private static boolean isWhiteSpace(char aInChar) {
+        switch (aInChar) {
+            case '\t': case '\n': case '\u000B': case '\f': case '\r':
+            case ' ': case '\u00A0': case '\u1680': case '\u180E':
+            case '\u2028': case '\u2029': case '\u202F': case '\u205F':
+            case '\u3000': case '\uFEFF':
+                return true;
+            default:
+                return aInChar >= '\u2000' && aInChar <= '\u200A';
+        }
+    }
+
+    /**
+     * Canonicalized characters, only computed the first time a case
+     * insensitive expression is compiled.
+     */
+    private static class CanonicalTable {
+        private static final char[] TABLE = new char[Character.MAX_VALUE + 1];
+
+        static {
+            for (int i = 0; i < TABLE.length; i++) {
+                char lChar = (char) i;
+                String lUpperCase =
+                        String.valueOf(lChar).toUpperCase(Locale.ROOT);
+                char lCanonical = lUpperCase.length() == 1
+                        ? lUpperCase.charAt(0)
+                        : lChar;
+                TABLE[i] = lChar >= 128 && lCanonical < 128
+                        ? lChar
+                        : lCanonical;
+            }
+        }
+    }
+
+    /**
+     * Working memory for searches: thread lists and the stack used to follow
+     * non consuming instructions, all sized after the program.
+     */
+    public static class Memory {
+        private LinearRegExp regExp;
+        private ThreadList current;
+        private ThreadList next;
+        private int[] stack;
+        private int[][] stackCaptures;
+
+        private Memory(LinearRegExp aInRegExp) {
+            int lProgramSize = aInRegExp.opCodes.length;
+            regExp = aInRegExp;
+            current = new ThreadList(lProgramSize);
+            next = new ThreadList(lProgramSize);
+            stack = new int[lProgramSize * 2 + 2];
+            stackCaptures = new int[lProgramSize * 2 + 2][];
+        }
+    }
+
+    /**
+     * Ordered set of threads (program counter and captures) for one input
+     * position.
+     */
+    private static class ThreadList {
+        private int[] pcs;
+        private int[][] captures;
+        private int size;
+        private int[] marks;
+        private int generation = 1;
+
+        private ThreadList(int aInProgramSize) {
+            pcs = new int[aInProgramSize];
+            captures = new int[aInProgramSize][];
+            marks = new int[aInProgramSize];
+        }
+
+        private boolean contains(int aInPc) {
+            return marks[aInPc] == generation;
+        }
+
+        private void mark(int aInPc) {
+            marks[aInPc] = generation;
+        }
+
+        private void add(int aInPc, int[] aInCaptures) {
+            pcs[size] = aInPc;
+            captures[size++] = aInCaptures;
+        }
+
+        private void clear() {
+            Arrays.fill(captures, 0, size, null);
+            size = 0;
+            generation++;
+        }
+    }
+
+    /**
+     * A character class, as a list of ranges plus the built-in classes (\d,
+     * \w, \s and their complements).
+     */
+    private static class CharClass {
+        private static final int DIGIT = 1;
+        private static final int NOT_DIGIT = 2;
+        private static final int WORD = 4;
+        private static final int NOT_WORD = 8;
+        private static final int SPACE = 16;
+        private static final int NOT_SPACE = 32;
+
+        private StringBuilder ranges = new StringBuilder();
+        private int builtIns;
+        private boolean negated;
+
+        /**
+         * The canonicalized characters in the ranges, for case insensitive
+         * expressions (see {@link #canonicalize(char)}).
+         */
+        private BitSet canonicalRanges;
+
+        private void addRange(char aInFrom, char aInTo) {
+            ranges.append(aInFrom).append(aInTo);
+        }
+
+        /**
+         * Canonicalizes the characters in the ranges, so that case
+         * insensitive matching finds the ones that have the same canonical
+         * character as the input.
+         */
+        private void canonicalize() {
+            canonicalRanges = new BitSet();
+            for (int i = 0; i < ranges.length(); i += 2) {
+                for (int c = ranges.charAt(i); c <= ranges.charAt(i + 1);
+                        c++) {
+                    canonicalRanges.set(LinearRegExp.canonicalize((char) c));
+                }
+            }
+        }
+
+        private boolean matches(char aInChar, boolean aInIgnoreCase) {
+            // the built-in classes are closed under Canonicalize, so only the
+            // ranges need to be canonicalized
+            boolean lMatches = (aInIgnoreCase
+                    ? canonicalRanges.get(LinearRegExp.canonicalize(aInChar))
+                    : matchesRanges(aInChar))
+                    || matchesBuiltIns(aInChar);
+            return lMatches != negated;
+        }
+
+        private boolean matchesRanges(char aInChar) {
+            for (int i = 0; i < ranges.length(); i += 2) {
+                if (aInChar >= ranges.charAt(i)
+                        && aInChar <= ranges.charAt(i + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesBuiltIns(char aInChar) {
+            if (builtIns == 0) {
+                return false;
+            }
+
+            boolean lDigit = aInChar >= '0' && aInChar <= '9';
+            boolean lWord = isWordChar(aInChar);
+            boolean lSpace = isWhiteSpace(aInChar);
+            return ((builtIns & DIGIT) != 0 && lDigit)
+                    || ((builtIns & NOT_DIGIT) != 0 && !lDigit)
+                    || ((builtIns & WORD) != 0 && lWord)
+                    || ((builtIns & NOT_WORD) != 0 && !lWord)
+                    || ((builtIns & SPACE) != 0 && lSpace)
+                    || ((builtIns & NOT_SPACE) != 0 && !lSpace);
+        }
+    }
+
+    /**
+     * Recursive descent parser for the ECMAScript pattern grammar that emits
+     * program instructions directly. Since counted repetitions need the code of
+     * the repeated atom to be emitted several times, atoms are parsed again
+     * for each copy (the parser simply rewinds to the start of the atom).
+     */
+    private static class Compiler {
+        private String regex;
+        private int position;
+        private boolean ignoreCase;
+        private boolean multiline;
+
+        private int[] opCodes = new int[16];
+        private int[] arguments1 = new int[16];
+        private int[] arguments2 = new int[16];
+        private int size;
+        private List<CharClass> classes = new ArrayList<>();
+
+        /**
+         * Number of capturing groups, including group 0.
+         */
+        private int captureCount = 1;
+
+        /**
+         * Group numbers are assigned the first time a group is parsed, which
+         * matters when an atom is parsed more than once.
+         */
+        private List<Integer> groupPositions = new ArrayList<>();
+
+        private Compiler(String aInRegex, boolean aInIgnoreCase,
+                boolean aInMultiline) {
+            regex = aInRegex;
+            ignoreCase = aInIgnoreCase;
+            multiline = aInMultiline;
+        }
+
+        /**
+         * Compiles the expression.
+         * @return false if the expression is not supported
+         * @throws IllegalArgumentException if the program would be larger
+         * than {@link #MAX_PROGRAM_SIZE}
+         */
+        private boolean compile() {
+            try {
+                emit(SAVE, 0, 0);
+                disjunction();
+                if (position < regex.length()) {
+                    return false;
+                }
+                emit(SAVE, 1, 0);
+                emit(MATCH, 0, 0);
+                return true;
+            }
+            catch (UnsupportedExpressionException e) {
+                return false;
+            }
+        }
+
+        private void disjunction()
+                throws UnsupportedExpressionException {
+            // each alternative starts with a placeholder that becomes a SPLIT
+            // to the next alternative, if there is one:
+            //   SPLIT first, next; first: <alternative>; JUMP end; next: ...
+            int lSplit = emit(JUMP, size + 1, 0);
+            alternative();
+            if (!peek('|')) {
+                return;
+            }
+
+            List<Integer> lJumps = new ArrayList<>();
+            while (peek('|')) {
+                position++;
+                lJumps.add(emit(JUMP, 0, 0));
+                opCodes[lSplit] = SPLIT;
+                arguments2[lSplit] = size;
+                lSplit = emit(JUMP, size + 1, 0);
+                alternative();
+            }
+            for (int lJump : lJumps) {
+                arguments1[lJump] = size;
+            }
+        }
+
+        private void alternative()
+                throws UnsupportedExpressionException {
+            while (position < regex.length()
+                    && !peek('|') && !peek(')')) {
+                term();
+            }
+        }
+
+        private void term()
+                throws UnsupportedExpressionException {
+            char c = regex.charAt(position);
+            if (c == '^' || c == '$') {
+                position++;
+                emit(ASSERT, c == '^' ? BEGIN_LINE : END_LINE, 0);
+                return;
+            }
+            if (c == '\\' && position + 1 < regex.length()
+                    && (regex.charAt(position + 1) == 'b'
+                            || regex.charAt(position + 1) == 'B')) {
+                emit(ASSERT, regex.charAt(position + 1) == 'b'
+                        ? WORD_BOUNDARY
+                        : NOT_WORD_BOUNDARY, 0);
+                position += 2;
+                return;
+            }
+
+            int lAtomPosition = position;
+            int lAtomStart = size;
+            atom();
+            int lAtomEnd = position;
+
+            int lMin;
+            int lMax;
+            if (peek('*')) {
+                lMin = 0;
+                lMax = -1;
+                position++;
+            } else if (peek('+')) {
+                lMin = 1;
+                lMax = -1;
+                position++;
+            } else if (peek('?')) {
+                lMin = 0;
+                lMax = 1;
+                position++;
+            } else if (peek('{')) {
+                int[] lBounds = bounds();
+                lMin = lBounds[0];
+                lMax = lBounds[1];
+            } else {
+                return;
+            }
+            boolean lGreedy = true;
+            if (peek('?')) {
+                lGreedy = false;
+                position++;
+            }
+            int lQuantifierEnd = position;
+            int[] lSlots = groupSlots(lAtomPosition, lAtomEnd);
+
+            // the atom has been emitted once already, which covers the first
+            // mandatory occurrence (if any). Its groups are still unset then,
+            // unless an enclosing quantifier resets them
+            if (lMin == 0) {
+                size = lAtomStart;
+            }
+            for (int i = 1; i < lMin; i++) {
+                repeat(lAtomPosition, lAtomEnd, lSlots);
+            }
+            if (lMax < 0) {
+                // L: SPLIT body, end; body: <atom>; JUMP L; end:
+                int lSplit = emit(SPLIT, 0, 0);
+                repeat(lAtomPosition, lAtomEnd, lSlots);
+                emit(JUMP, lSplit, 0);
+                setSplit(lSplit, lSplit + 1, size, lGreedy);
+            } else {
+                List<Integer> lSplits = new ArrayList<>();
+                for (int i = Math.max(lMin, 0); i < lMax; i++) {
+                    lSplits.add(emit(SPLIT, 0, 0));
+                    repeat(lAtomPosition, lAtomEnd, lSlots);
+                }
+                for (int lSplit : lSplits) {
+                    setSplit(lSplit, lSplit + 1, size, lGreedy);
+                }
+            }
+            position = lQuantifierEnd;
+        }
+
+        /**
+         * Returns the range of capture slots of the groups in an atom, which
+         * are numbered consecutively as they are parsed in order.
+         */
+        private int[] groupSlots(int aInStart, int aInEnd) {
+            int lFrom = 0;
+            int lTo = 0;
+            for (int lPosition : groupPositions) {
+                if (lPosition <= aInStart) {
+                    lFrom++;
+                }
+                if (lPosition < aInEnd) {
+                    lTo++;
+                }
+            }
+            return new int[] { lFrom * 2 + 2, lTo * 2 + 2 };
+        }
+
+        /**
+         * Emits another occurrence of a quantified atom. As each occurrence
+         * starts, the captures of the groups in the atom are reset (ECMA-262
+         * 5.1, section 15.10.2.5, RepeatMatcher step 4), so that groups that
+         * do not participate in the last one are undefined.
+         */
+        private void repeat(int aInStart, int aInEnd, int[] aInSlots)
+                throws UnsupportedExpressionException {
+            if (aInSlots[0] < aInSlots[1]) {
+                emit(RESET, aInSlots[0], aInSlots[1]);
+            }
+            reparse(aInStart, aInEnd);
+        }
+
+        private void reparse(int aInStart, int aInEnd)
+                throws UnsupportedExpressionException {
+            position = aInStart;
+            atom();
+            if (position != aInEnd) {
+                throw new UnsupportedExpressionException();
+            }
+        }
+
+        private void setSplit(int aInSplit, int aInBody, int aInEnd,
+                boolean aInGreedy) {
+            arguments1[aInSplit] = aInGreedy ? aInBody : aInEnd;
+            arguments2[aInSplit] = aInGreedy ? aInEnd : aInBody;
+        }
+
+        private int[] bounds()
+                throws UnsupportedExpressionException {
+            int lStart = position;
+            position++;
+            int lMin = number();
+            int lMax = lMin;
+            if (peek(',')) {
+                position++;
+                lMax = peek('}') ? -1 : number();
+            }
+            if (lMin < 0 || !peek('}') || (lMax >= 0 && lMax < lMin)) {
+                // not a quantifier, or an invalid one. Either way this is left
+                // for the backtracking engine to deal with
+                position = lStart;
+                throw new UnsupportedExpressionException();
+            }
+            position++;
+            return new int[] { lMin, lMax };
+        }
+
+        private int number() {
+            int lStart = position;
+            long lNumber = 0;
+            while (position < regex.length()
+                    && Character.isDigit(regex.charAt(position))) {
+                lNumber = lNumber * 10 + (regex.charAt(position++) - '0');
+                if (lNumber > MAX_PROGRAM_SIZE) {
+                    throw tooLarge();
+                }
+            }
+            return position == lStart ? -1 : (int) lNumber;
+        }
+
+        private void atom()
+                throws UnsupportedExpressionException {
+            char c = regex.charAt(position++);
+            switch (c) {
+                case '.':
+                    emit(ANY, 0, 0);
+                    return;
+                case '(':
+                    group();
+                    return;
+                case '[':
+                    emit(CLASS, addClass(characterClass()), 0);
+                    return;
+                case '\\':
+                    atomEscape();
+                    return;
+                case '*': case '+': case '?': case '{': case ')':
+                    // nothing to repeat or unbalanced parenthesis
+                    throw new UnsupportedExpressionException();
+                default:
+                    emit(CHAR, c, 0);
+            }
+        }
+
+        private void group()
+                throws UnsupportedExpressionException {
+            int lGroup = -1;
+            if (peek('?')) {
+                if (position + 1 < regex.length()
+                        && regex.charAt(position + 1) == ':') {
+                    position += 2;
+                } else {
+                    // look ahead or other non ECMAScript groups
+                    throw new UnsupportedExpressionException();
+                }
+            } else {
+                int lIndex = groupPositions.indexOf(position);
+                if (lIndex < 0) {
+                    groupPositions.add(position);
+                    lIndex = groupPositions.size() - 1;
+                    captureCount++;
+                }
+                lGroup = lIndex + 1;
+            }
+
+            if (lGroup > 0) {
+                emit(SAVE, lGroup * 2, 0);
+            }
+            disjunction();
+            if (!peek(')')) {
+                throw new UnsupportedExpressionException();
+            }
+            position++;
+            if (lGroup > 0) {
+                emit(SAVE, lGroup * 2 + 1, 0);
+            }
+        }
+
+        private void atomEscape()
+                throws UnsupportedExpressionException {
+            if (position >= regex.length()) {
+                throw new UnsupportedExpressionException();
+            }
+            char c = regex.charAt(position);
+            if (c >= '1' && c <= '9') {
+                // back reference
+                throw new UnsupportedExpressionException();
+            }
+
+            CharClass lClass = new CharClass();
+            if (builtInClass(lClass)) {
+                emit(CLASS, addClass(lClass), 0);
+            } else {
+                emit(CHAR, characterEscape(), 0);
+            }
+        }
+
+        private boolean builtInClass(CharClass aInClass) {
+            int lBuiltIn;
+            switch (regex.charAt(position)) {
+                case 'd': lBuiltIn = CharClass.DIGIT; break;
+                case 'D': lBuiltIn = CharClass.NOT_DIGIT; break;
+                case 'w': lBuiltIn = CharClass.WORD; break;
+                case 'W': lBuiltIn = CharClass.NOT_WORD; break;
+                case 's': lBuiltIn = CharClass.SPACE; break;
+                case 'S': lBuiltIn = CharClass.NOT_SPACE; break;
+                default: return false;
+            }
+            position++;
+            aInClass.builtIns |= lBuiltIn;
+            return true;
+        }
+
+        private char characterEscape()
+                throws UnsupportedExpressionException {
+            char c = regex.charAt(position++);
+            switch (c) {
+                case 'f': return '\f';
+                case 'n': return '\n';
+                case 'r': return '\r';
+                case 't': return '\t';
+                case 'v': return '\u000B';
+                case '0':
+                    if (position < regex.length()
+                            && Character.isDigit(regex.charAt(position))) {
+                        throw new UnsupportedExpressionException();
+                    }
+                    return '\0';
+                case 'c':
+                    if (position < regex.length()
+                            && Character.isLetter(regex.charAt(position))) {
+                        return (char) (regex.charAt(position++) % 32);
+                    }
+                    throw new UnsupportedExpressionException();
+                case 'x':
+                    return (char) hex(2);
+                case 'u':
+                    return (char) hex(4);
+                default:
+                    if (Character.isLetterOrDigit(c)) {
+                        // not an ECMAScript escape (e.g. "\p" or "\Q" in java)
+                        throw new UnsupportedExpressionException();
+                    }
+                    return c;
+            }
+        }
+
+        private int hex(int aInDigits)
+                throws UnsupportedExpressionException {
+            if (position + aInDigits > regex.length()) {
+                throw new UnsupportedExpressionException();
+            }
+            int lValue = 0;
+            for (int i = 0; i < aInDigits; i++) {
+                int lDigit = Character.digit(regex.charAt(position++), 16);
+                if (lDigit < 0) {
+                    throw new UnsupportedExpressionException();
+                }
+                lValue = lValue * 16 + lDigit;
+            }
+            return lValue;
+        }
+
+        private CharClass characterClass()
+                throws UnsupportedExpressionException {
+            CharClass lClass = new CharClass();
+            if (peek('^')) {
+                lClass.negated = true;
+                position++;
+            }
+
+            while (!peek(']')) {
+                if (position >= regex.length()) {
+                    throw new UnsupportedExpressionException();
+                }
+                int lFrom = classAtom(lClass);
+                if (peek('-') && position + 1 < regex.length()
+                        && regex.charAt(position + 1) != ']') {
+                    position++;
+                    int lTo = classAtom(lClass);
+                    if (lFrom < 0 || lTo < 0 || lTo < lFrom) {
+                        throw new UnsupportedExpressionException();
+                    }
+                    lClass.addRange((char) lFrom, (char) lTo);
+                } else if (lFrom >= 0) {
+                    lClass.addRange((char) lFrom, (char) lFrom);
+                }
+            }
+            position++;
+            return lClass;
+        }
+
+        /**
+         * Parses a character in a class.
+         * @return the character or -1 if this was a built-in class (e.g. \d)
+         */
+        private int classAtom(CharClass aInClass)
+                throws UnsupportedExpressionException {
+            char c = regex.charAt(position++);
+            if (c == '[') {
+                // java would read this as a nested class
+                throw new UnsupportedExpressionException();
+            }
+            if (c != '\\') {
+                return c;
+            }
+            if (position >= regex.length()) {
+                throw new UnsupportedExpressionException();
+            }
+            if (builtInClass(aInClass)) {
+                return -1;
+            }
+            if (regex.charAt(position) == 'b') {
+                position++;
+                return '\b';
+            }
+            if (Character.isDigit(regex.charAt(position))
+                    && regex.charAt(position) != '0') {
+                throw new UnsupportedExpressionException();
+            }
+            return characterEscape();
+        }
+
+        private boolean peek(char aInChar) {
+            return position < regex.length()
+                    && regex.charAt(position) == aInChar;
+        }
+
+        private IllegalArgumentException tooLarge() {
+            return new IllegalArgumentException(
+                    "Regular expression too large");
+        }
+
+        private int addClass(CharClass aInClass) {
+            if (ignoreCase) {
+                aInClass.canonicalize();
+            }
+            classes.add(aInClass);
+            return classes.size() - 1;
+        }
+
+        private int emit(int aInOpCode, int aInArgument1, int aInArgument2) {
+            if (size >= MAX_PROGRAM_SIZE) {
+                throw tooLarge();
+            }
+            if (size == opCodes.length) {
+                opCodes = Arrays.copyOf(opCodes, size * 2);
+                arguments1 = Arrays.copyOf(arguments1, size * 2);
+                arguments2 = Arrays.copyOf(arguments2, size * 2);
+            }
+            opCodes[size] = aInOpCode;
+            arguments1[size] = aInArgument1;
+            arguments2[size] = aInArgument2;
+            return size++;
+        }
+    }
+
+    /**
+     * Thrown by the {@link Compiler} for expressions that need backtracking or
+     * are not valid, which are left for {@link Pattern}.
+     */
+    private static class UnsupportedExpressionException extends Exception {
+        private static final long serialVersionUID = 1L;
+    }
+}
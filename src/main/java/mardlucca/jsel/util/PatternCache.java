@@ -0,0 +1,153 @@
+/*
+ * File: PatternCache.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Process wide cache of compiled {@link Pattern} and {@link LinearRegExp}
+ * objects, keyed by regular expression source and flags. Both are immutable
+ * and thread safe, so they can be shared by all regular expression objects
+ * that have the same source and flags. The cache is bounded and evicts the
+ * least recently used patterns first.
+ */
+public class PatternCache {
+    /**
+     * Maximum number of patterns kept in the cache.
+     */
+    public static final int MAX_SIZE = 256;
+
+    /**
+     * Cached in place of a {@link LinearRegExp} for expressions it does not
+     * support, so that these are not parsed again every time.
+     */
+    private static final Object UNSUPPORTED = new Object();
+
+    private static final Map<Key, Object> cache =
+            new LinkedHashMap<Key, Object>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<Key, Object> aInEldest) {
+                    return size() > MAX_SIZE;
+                }
+            };
+
+    private PatternCache() {
+    }
+
+    /**
+     * Returns a compiled pattern for the given regular expression and flags,
+     * compiling it only if it is not in the cache yet.
+     * @param aInRegex the regular expression
+     * @param aInFlags the {@link Pattern} flags
+     * @return the compiled pattern
+     * @throws java.util.regex.PatternSyntaxException if the expression's
+     * syntax is invalid
+     */
+    public static Pattern compile(String aInRegex, int aInFlags) {
+        Key lKey = new Key(aInRegex, aInFlags, false);
+        Object lPattern = get(lKey);
+        if (lPattern == null) {
+            lPattern = Pattern.compile(aInRegex, aInFlags);
+            put(lKey, lPattern);
+        }
+        return (Pattern) lPattern;
+    }
+
+    /**
+     * Returns a compiled {@link LinearRegExp} for the given regular expression
+     * and flags, compiling it only if it is not in the cache yet.
+     * @param aInRegex the regular expression
+     * @param aInFlags the {@link Pattern} flags
+     * @return the compiled expression or null if it is not supported by
+     * {@link LinearRegExp}
+     * @throws IllegalArgumentException if the expression is too large for
+     * {@link LinearRegExp}
+     */
+    public static LinearRegExp compileLinear(String aInRegex, int aInFlags) {
+        Key lKey = new Key(aInRegex, aInFlags, true);
+        Object lRegExp = get(lKey);
+        if (lRegExp == null) {
+            lRegExp = LinearRegExp.compile(aInRegex, aInFlags);
+            put(lKey, lRegExp == null ? UNSUPPORTED : lRegExp);
+        }
+        return lRegExp == UNSUPPORTED ? null : (LinearRegExp) lRegExp;
+    }
+
+    private static Object get(Key aInKey) {
+        synchronized (cache) {
+            return cache.get(aInKey);
+        }
+    }
+
+    private static void put(Key aInKey, Object aInValue) {
+        // compiling happens outside of the lock. Two threads may end up
+        // compiling the same pattern, which is harmless.
+        synchronized (cache) {
+            cache.put(aInKey, aInValue);
+        }
+    }
+
+    /**
+     * Removes all patterns from the cache.
+     */
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Returns the number of patterns currently in the cache.
+     * @return the number of cached patterns
+     */
+    public static int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private static class Key {
+        private String regex;
+        private int flags;
+        private boolean linear;
+
+        private Key(String aInRegex, int aInFlags, boolean aInLinear) {
+            regex = aInRegex;
+            flags = aInFlags;
+            linear = aInLinear;
+        }
+
+        @Override
+        public boolean equals(Object aInObject) {
+            if (!(aInObject instanceof Key)) {
+                return false;
+            }
+            Key lKey = (Key) aInObject;
+            return flags == lKey.flags && linear == lKey.linear
+                    && regex.equals(lKey.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return (regex.hashCode() * 31 + flags) * 2 + (linear ? 1 : 0);
+        }
+    }
+}
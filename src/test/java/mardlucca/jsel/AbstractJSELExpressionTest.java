@@ -267,6 +267,10 @@ public class AbstractJSELExpressionTest {
         return aInValue -> verifyBoolean(aInValue, aInBoolean);
     }
 
+    protected Verifier undefinedVerifier() {
+        return this::verifyUndefined;
+    }
+
     protected Verifier arrayVerifier(Verifier... aInVerifiers) {
         return aInValue -> verifyArray(aInValue, aInVerifiers);
     }
@@ -20,11 +20,17 @@ package mardlucca.jsel.builtin.array;
 
 import mardlucca.jsel.AbstractJSELExpressionTest;
 import mardlucca.jsel.JSELCompilationException;
+import mardlucca.jsel.expr.LiteralExpression;
+import mardlucca.jsel.type.JSELArray;
+import mardlucca.jsel.type.JSELNumber;
+import mardlucca.jsel.type.JSELValue;
 import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
 import mardlucca.jsel.AbstractJSELExpressionTest;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ArrayTestSuite extends AbstractJSELExpressionTest {
     @Test
@@ -80,4 +86,157 @@ public class ArrayTestSuite extends AbstractJSELExpressionTest {
                 propertyVerifier("enumerable", booleanVerifier(false)),
                 propertyVerifier("writable", booleanVerifier(false)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIndexedAccess()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testNumber("[10, 11, 12][1]", 11);
+        testNumber("[10, 11, 12]['2']", 12);
+        testNumber("[10, 11, 12][1 + 1]", 12);
+        testUndefined("[10, 11, 12][3]");
+        testUndefined("[10, 11, 12][-1]");
+        testUndefined("[10, 11, 12][1.5]");
+        testString("'abc'[1]", "b");
+        testString("'abc'[0 + 2]", "c");
+        testUndefined("'abc'[3]");
+    }
+
+    @Test
+    public void testTransformations()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testArray("[1, 2, 3, 4].reverse()",
+                numberVerifier(4), numberVerifier(3),
+                numberVerifier(2), numberVerifier(1));
+        testArray("[1, 2, 3].reverse()",
+                numberVerifier(3), numberVerifier(2), numberVerifier(1));
+        testArray("[1, 2, 3, 4].filter(x => x % 2 == 0)",
+                numberVerifier(2), numberVerifier(4));
+        testArray("[1, 2].concat([3], 4)",
+                numberVerifier(1), numberVerifier(2),
+                numberVerifier(3), numberVerifier(4));
+        testString("[1, 2, 3, 4, 5].slice(1, 3).join('-')", "2-3");
+        testNumber("[1, 2, 3].map(x => x * 2).reduce((a, b) => a + b)", 12);
+    }
+
+    @Test
+    public void testSort()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testArray("[10, 9, 1, undefined, 2].sort()",
+                numberVerifier(1), numberVerifier(10), numberVerifier(2),
+                numberVerifier(9), undefinedVerifier());
+        testArray("['b', 'c', 'a'].sort()",
+                stringVerifier("a"), stringVerifier("b"), stringVerifier("c"));
+        testArray("[10, 9, 1, 2].sort((a, b) => a - b)",
+                numberVerifier(1), numberVerifier(2), numberVerifier(9),
+                numberVerifier(10));
+        testArray("[10, 9, 1, 2].sort((a, b) => b - a)",
+                numberVerifier(10), numberVerifier(9), numberVerifier(2),
+                numberVerifier(1));
+        testArray("['b', 'a', 'c'].sort((x, y) => x < y ? 1 : -1)",
+                stringVerifier("c"), stringVerifier("b"), stringVerifier("a"));
+        testIfThrows("[2, 1].sort(1)", "The comparison function must be "
+                + "either a function or undefined");
+
+        // missing elements go last
+        runner.define("sparse", "Object.defineProperties(Array(4), {"
+                + "'0': { value: 3, writable: true, configurable: true },"
+                + "'2': { value: 1, writable: true, configurable: true },"
+                + "'3': { value: undefined, writable: true, configurable: true }"
+                + "})");
+        testArray("sparse.sort()", numberVerifier(1), numberVerifier(3),
+                undefinedVerifier(), undefinedVerifier());
+        testBoolean("sparse.hasOwnProperty(2)", true);
+        testBoolean("sparse.hasOwnProperty(3)", false);
+    }
+
+    @Test
+    public void testSortIsStable()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testString("[{ k: 2, v: 'a' }, { k: 1, v: 'b' }, { k: 2, v: 'c' }, "
+                + "{ k: 1, v: 'd' }].sort((x, y) => x.k - y.k)"
+                + ".map(e => e.v).join('')", "bdac");
+        testString("[{ k: 2, v: 'a' }, { k: 1, v: 'b' }, { k: 2, v: 'c' }, "
+                + "{ k: 1, v: 'd' }].sort((x, y) => y.k > x.k ? 1 : 0)"
+                + ".map(e => e.v).join('')", "acbd");
+    }
+
+    @Test
+    public void testSortLargeArray()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        int lSize = SortFunction.PARALLEL_THRESHOLD + 3;
+        List<JSELValue> lValues = new ArrayList<>();
+        for (int i = 0; i < lSize; i++) {
+            lValues.add(new JSELNumber((i * 7919) % lSize));
+        }
+        runner.define("large", new LiteralExpression(new JSELArray(lValues)));
+
+        testBoolean("large.sort((a, b) => a - b)"
+                + ".every((x, i) => x == i)", true);
+        testBoolean("large.sort((a, b) => b - a)"
+                + ".every((x, i) => x == large.length - i - 1)", true);
+        testString("large.sort().slice(0, 3).join()", "0,1,10");
+    }
+
+    @Test
+    public void testParallelFunctions()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        int lSize = ParallelLoop.PARALLEL_THRESHOLD + 3;
+        List<JSELValue> lValues = new ArrayList<>();
+        for (int i = 0; i < lSize; i++) {
+            lValues.add(new JSELNumber(i));
+        }
+        runner.define("large", new LiteralExpression(new JSELArray(lValues)));
+        runner.define("factor", "3");
+
+        testBoolean("large.parallelMap((x, i, a) => a[i] * factor)"
+                + ".every((x, i) => x === i * 3)", true);
+        testNumber("large.parallelMap(x => x).length", lSize);
+        testBoolean("large.parallelFilter(x => x % 3 == 0).join() "
+                + "== large.filter(x => x % 3 == 0).join()", true);
+        testNumber("large.parallelReduce((a, b) => a + b)",
+                (double) lSize * (lSize - 1) / 2);
+        testNumber("large.parallelReduce((a, b) => a + b, 10)",
+                (double) lSize * (lSize - 1) / 2 + 10);
+        testString("large.slice(0, 5).parallelReduce((a, b) => a + b, '')",
+                "01234");
+        testBoolean("large.parallelReduce((a, b) => a + b, '') "
+                + "== large.reduce((a, b) => a + b, '')", true);
+        testBoolean("large.parallelMap(x => '' + x)"
+                + ".parallelReduce((a, b) => a + b, 'x') "
+                + "== 'x' + large.join('')", true);
+        testNumber("large.parallelReduce((a, b) => a > b ? a : b)",
+                lSize - 1);
+
+        // reads that create properties of shared objects on first use
+        testNumber("(g => large.parallelFilter(x => g.length != 1))"
+                + "(a => a).length", 0);
+        testNumber("(o => large.parallelFilter(x => 'a' in o && "
+                + "o.hasOwnProperty !== undefined))({ a: 1 }).length", lSize);
+        testNumber("(m => large.parallelFilter(x => m[1] == 'b'))"
+                + "(/a(b)/.exec('ab')).length", lSize);
+
+        // the first error is the one thrown
+        testIfThrows("large.parallelMap(x => x > 5000 ? x.a.b : x.c)",
+                "undefined cannot be converted to object");
+
+        // callbacks that make calls are called sequentially
+        testString("large.parallelMap(x => String(x)).slice(0, 3).join()",
+                "0,1,2");
+        testNumber("large.parallelReduce((a, b, i) => a + i, 0)",
+                (double) lSize * (lSize - 1) / 2);
+
+        // small arrays and other objects
+        testString("[1, 2, 3].parallelMap(x => x * 2).join()", "2,4,6");
+        testString("[1, 2, 3].parallelFilter(x => x > 1).join()", "2,3");
+        testString("Array.prototype.parallelMap.call('ab', x => x + x).join()",
+                "aa,bb");
+        testIfThrows("[].parallelReduce((a, b) => a + b)",
+                "Reduce of empty array with no initial value");
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * File: DateTestSuite.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.builtin.date;
+
+import mardlucca.jsel.AbstractJSELExpressionTest;
+import mardlucca.jsel.JSELCompilationException;
+import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.TimeZone;
+
+public class DateTestSuite extends AbstractJSELExpressionTest {
+    private static TimeZone defaultTimezone;
+
+    @BeforeClass
+    public static void beforeClass() {
+        defaultTimezone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        TimeZone.setDefault(defaultTimezone);
+    }
+
+    @Test
+    public void testInstantiate()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testNumber("new Date(1582934400000).getTime()", 1582934400000.0);
+        testNumber("new Date(1.9).valueOf()", 1);
+        testNumber("new Date(8.64e15 + 1).getTime()", Double.NaN);
+        testNumber("new Date(NaN).getTime()", Double.NaN);
+        testNumber("new Date(2020, 1, 29).getTime()", 1582952400000.0);
+        testNumber("new Date(2020, 1, 29, 13, 14, 15, 16).getTime()",
+                1583000055016.0);
+        testNumber("new Date(99, 0).getFullYear()", 1999);
+        testNumber("new Date(2020, NaN).getTime()", Double.NaN);
+    }
+
+    @Test
+    public void testUTC()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testNumber("Date.UTC(2020, 1, 29)", 1582934400000.0);
+        testNumber("Date.UTC(2020, 1, 29, 13, 14, 15, 16)", 1582982055016.0);
+        testNumber("Date.UTC(2020, 13)", 1612137600000.0);
+        testNumber("Date.UTC(99, 0)", 915148800000.0);
+        testNumber("Date.UTC(-1, 0)", -62198755200000.0);
+        testNumber("Date.UTC(275761, 0)", Double.NaN);
+    }
+
+    @Test
+    public void testGetters()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        String lDate = "new Date(Date.UTC(2020, 1, 29, 13, 14, 15, 16))";
+        testNumber(lDate + ".getUTCFullYear()", 2020);
+        testNumber(lDate + ".getUTCMonth()", 1);
+        testNumber(lDate + ".getUTCDate()", 29);
+        testNumber(lDate + ".getUTCDay()", 6);
+        testNumber(lDate + ".getUTCHours()", 13);
+        testNumber(lDate + ".getUTCMinutes()", 14);
+        testNumber(lDate + ".getUTCSeconds()", 15);
+        testNumber(lDate + ".getUTCMilliseconds()", 16);
+        testNumber(lDate + ".getFullYear()", 2020);
+        testNumber(lDate + ".getHours()", 8);
+        testNumber(lDate + ".getTimezoneOffset()", 300);
+
+        // around midnight, local time is on the day before
+        lDate = "new Date(Date.UTC(2021, 0, 1, 2))";
+        testNumber(lDate + ".getFullYear()", 2020);
+        testNumber(lDate + ".getMonth()", 11);
+        testNumber(lDate + ".getDate()", 31);
+        testNumber(lDate + ".getDay()", 4);
+        testNumber(lDate + ".getHours()", 21);
+
+        // daylight saving time starts at 7:00 UTC
+        testNumber("new Date(Date.UTC(2020, 2, 8, 6, 30)).getHours()", 1);
+        testNumber("new Date(Date.UTC(2020, 2, 8, 7, 30)).getHours()", 3);
+        testNumber("new Date(2020, 2, 8, 12).getTimezoneOffset()", 240);
+
+        testNumber("new Date(NaN).getFullYear()", Double.NaN);
+        testNumber("new Date(NaN).getUTCHours()", Double.NaN);
+        testNumber("new Date(NaN).getTimezoneOffset()", Double.NaN);
+        testIfThrows("Date.prototype.getHours.call({})",
+                "Date.prototype. getHoursrequires that this' be a Date");
+    }
+
+    @Test
+    public void testSetters()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        String lDate = "((d, v) => [v, d.getTime()])"
+                + "(new Date(Date.UTC(2020, 0, 31, 10, 20, 30, 40))";
+        testArray(lDate + ", undefined)",
+                undefinedVerifier(), numberVerifier(1580466030040.0));
+
+        // setters return the new time value
+        testNumber("new Date(Date.UTC(2020, 0, 31))"
+                + ".setUTCHours(1, 2, 3, 4)", 1580432523004.0);
+        testNumber("new Date(Date.UTC(2020, 0, 31, 1, 2, 3, 4))"
+                + ".setUTCMilliseconds(5)", 1580432523005.0);
+        testNumber("new Date(Date.UTC(2020, 0, 31, 1, 2, 3, 4))"
+                + ".setUTCSeconds(59)", 1580432579004.0);
+        testNumber("new Date(Date.UTC(2020, 0, 31, 1, 2, 3, 4))"
+                + ".setUTCMinutes(0, 0)", 1580432400004.0);
+        testNumber("new Date(Date.UTC(2020, 0, 31))"
+                + ".setUTCDate(1)", 1577836800000.0);
+        testNumber("new Date(Date.UTC(2020, 0, 31))"
+                + ".setUTCFullYear(2021, 1)", 1614729600000.0);
+
+        // and update the date itself
+        testArray("((d) => [d.setUTCMonth(1), d.getUTCMonth(), "
+                        + "d.getUTCDate()])(new Date(Date.UTC(2020, 0, 31)))",
+                numberVerifier(1583107200000.0), numberVerifier(2),
+                numberVerifier(2));
+        testArray("((d) => [d.setHours(23, 59), d.getHours(), "
+                        + "d.getUTCHours(), d.getDate()])"
+                        + "(new Date(2020, 2, 8))",
+                numberVerifier(1583726340000.0), numberVerifier(23),
+                numberVerifier(3), numberVerifier(8));
+        testArray("((d) => [d.setDate(0), d.getMonth(), d.getDate(), "
+                        + "d.getHours()])(new Date(2020, 2, 1, 12))",
+                numberVerifier(1582995600000.0), numberVerifier(1),
+                numberVerifier(29), numberVerifier(12));
+        testArray("((d) => [d.setMonth(6), d.getTimezoneOffset()])"
+                        + "(new Date(2020, 0, 15))",
+                numberVerifier(1594785600000.0), numberVerifier(240));
+        testArray("((d) => [d.setSeconds(NaN), d.getTime()])"
+                        + "(new Date(2020, 0, 15))",
+                numberVerifier(Double.NaN), numberVerifier(Double.NaN));
+
+        // invalid dates stay invalid, except for the full year
+        testNumber("new Date(NaN).setHours(1)", Double.NaN);
+        testNumber("new Date(NaN).setUTCDate(1)", Double.NaN);
+        testNumber("new Date(NaN).setFullYear(2020)", 1577854800000.0);
+        testNumber("new Date(NaN).setUTCFullYear(2020)", 1577836800000.0);
+
+        testNumber("new Date(0).setTime(1582934400000.5)", 1582934400000.0);
+        testNumber("new Date(0).setTime(8.64e15 + 1)", Double.NaN);
+        testNumber("new Date(0).setUTCFullYear(275761)", Double.NaN);
+    }
+
+    @Test
+    public void testToString()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        String lDate = "new Date(Date.UTC(2020, 1, 29, 13, 14, 15, 16))";
+        testString(lDate + ".toString()",
+                "Sat Feb 29 2020 08:14:15 GMT-0500 (Eastern Standard Time)");
+        testString(lDate + ".toDateString()", "Sat Feb 29 2020");
+        testString(lDate + ".toTimeString()",
+                "08:14:15 GMT-0500 (Eastern Standard Time)");
+        testString(lDate + ".toUTCString()", "Sat, 29 Feb 2020 13:14:15 GMT");
+        testString(lDate + ".toISOString()", "2020-02-29T13:14:15.016Z");
+        testString(lDate + ".toJSON()", "2020-02-29T13:14:15.016Z");
+        testString("new Date(2020, 6, 1).toString()",
+                "Wed Jul 01 2020 00:00:00 GMT-0400 (Eastern Daylight Time)");
+
+        testString("new Date(NaN).toString()", "Invalid Date");
+        testString("new Date(NaN).toUTCString()", "Invalid Date");
+        testIfThrows("new Date(NaN).toISOString()",
+                "RangeError: Invalid time value");
+        testNull("new Date(NaN).toJSON()");
+    }
+
+    @Test
+    public void testParse()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testNumber("Date.parse('2020-02-29')", 1582934400000.0);
+        testNumber("Date.parse('2020-02-29T13:14:15.016Z')", 1582982055016.0);
+        testNumber("Date.parse('2020-02-29T08:14:15.016')", 1582982055016.0);
+        testNumber("Date.parse('2020-02-29T16:14:15.016+03:00')",
+                1582982055016.0);
+        testNumber("Date.parse('Sat, 29 Feb 2020 13:14:15 GMT')",
+                1582982055000.0);
+        testNumber("Date.parse('29 February 2020')", Double.NaN);
+        testNumber("Date.parse('2020-02-30')", Double.NaN);
+        testNumber("new Date('2020-02-29').getTime()", 1582934400000.0);
+        testNumber("new Date('foo').getTime()", Double.NaN);
+
+        // the formats of toString and toUTCString round trip
+        String lDate = "new Date(Date.UTC(2020, 1, 29, 13, 14, 15))";
+        testNumber("Date.parse(" + lDate + ".toString())", 1582982055000.0);
+        testNumber("Date.parse(" + lDate + ".toUTCString())",
+                1582982055000.0);
+        testNumber("Date.parse(" + lDate + ".toISOString())",
+                1582982055000.0);
+        testNumber("Date.parse(new Date(2020, 6, 1).toString())",
+                1593576000000.0);
+    }
+}
@@ -80,4 +80,22 @@ public class FunctionTestSuite extends AbstractJSELExpressionTest {
                 propertyVerifier("enumerable", booleanVerifier(false)),
                 propertyVerifier("writable", booleanVerifier(false)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testArguments()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testNumber("((a) => arguments.length)(1, 2, 3)", 3);
+        testNumber("((a, b) => arguments.length)(1)", 1);
+        testNumber("((a) => arguments[2])(1, 2, 3)", 3);
+        testNumber("(() => arguments[0] + arguments[1])(1, 2)", 3);
+        testUndefined("((a, b) => arguments[1])(1)");
+        testNumber("((arguments) => arguments)(1)", 1);
+        testBoolean("((f) => f() == f)(() => arguments.callee)", true);
+        testString("Object.prototype.toString.call((() => arguments)())",
+                "[object Arguments]");
+        testNumber("((a) => (() => arguments.length)())(1, 2)", 0);
+        testString("[1, 2].map((x) => arguments.length).join()", "3,3");
+        testString("typeof arguments", "undefined");
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * File: LinearRegExpTestSuite.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mardlucca.jsel.builtin.regexp;
+
+import mardlucca.jsel.JSELCompilationException;
+import mardlucca.jsel.type.JSELRegExp;
+import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Runs all RegExp tests again using the linear time engine.
+ */
+public class LinearRegExpTestSuite extends RegExpTestSuite {
+    @Before
+    public void setUpEngine() {
+        runner.setRegExpEngine(JSELRegExp.Engine.LINEAR);
+    }
+
+    @Test
+    public void testNoCatastrophicBacktracking()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        StringBuilder lString = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            lString.append('a');
+        }
+        testBoolean("/(a+)+$/.test('" + lString + "b')", false);
+        testBoolean("/(a|aa)*c/.test('" + lString + "')", false);
+    }
+
+    @Test
+    public void testTooLarge()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        // rather than falling back to backtracking
+        testIfThrows("/((a+)+$){1}(x{1,999}){99}/.test('aaab')",
+                "SyntaxError: Invalid regular expression: "
+                        + "/((a+)+$){1}(x{1,999}){99}/: "
+                        + "Regular expression too large");
+    }
+
+    @Test
+    public void testBackReferencesFallBack()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testBoolean("/(a+)b\\1/.test('aabaa')", true);
+        testBoolean("/(a+)b\\1/.test('aabc')", false);
+        testBoolean("/a(?=b)/.test('ab')", true);
+    }
+
+    @Test
+    public void testCapturesInRepeatedGroups()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        // groups not participating in the last iteration are undefined
+        runner.define("m1", "/((a)|b)+/.exec('ab')");
+        testString("m1.join()", "ab,b,");
+        testBoolean("m1[2] === undefined", true);
+
+        runner.define("m2", "/(z)((a+)?(b+)?(c))*/.exec('zaacbbbcac')");
+        testString("m2.join()", "zaacbbbcac,z,ac,a,,c");
+        testBoolean("m2[4] === undefined", true);
+
+        testString("/(?:(a)|b){2}/.exec('ab').join()", "ab,");
+        testString("/(?:(a)|(b))*?c/.exec('abc').join()", "abc,,b");
+    }
+
+    @Test
+    public void testReplace()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testString("'x-1-22'.replace(/(\\d+)/g, '[$1|$&]')",
+                "x-[1|1]-[22|22]");
+        testString("'abcabc'.replace(/b/, \"$`$'$$\")", "aacabc$cabc");
+        testString("'aaa'.replace(/x*/g, '-')", "-a-a-a-");
+    }
+}
@@ -341,6 +341,65 @@ public class RegExpTestSuite extends AbstractJSELExpressionTest {
                 propertyVerifier("configurable", booleanVerifier(true)));
     }
 
+    @Test
+    public void testExecLastIndexOutOfBounds()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        runner.define("outOfBounds",
+                "Object.defineProperty(/a/g, 'lastIndex', "
+                        + "{ value: 4, writable: true })");
+        testNull("outOfBounds.exec('aaa')");
+        testNumber("outOfBounds.lastIndex", 0);
+        testArray("outOfBounds.exec('aaa')", stringVerifier("a"));
+        testNumber("outOfBounds.lastIndex", 1);
+    }
+
+    @Test
+    public void testExecUnmatchedCaptures()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testArray("/(a)|(b)/.exec('xa')",
+                stringVerifier("a"),
+                stringVerifier("a"),
+                undefinedVerifier());
+    }
+
+    @Test
+    public void testStringFunctions()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testArray("'babaa'.match(globalAs)",
+                stringVerifier("a"), stringVerifier("aa"));
+        testNumber("globalAs.lastIndex", 0);
+        testNull("'bbb'.match(globalAs)");
+        testArray("'ab12'.match(wordsFollowedNumbers)",
+                stringVerifier("ab12"),
+                stringVerifier("ab"),
+                stringVerifier("12"));
+        testNumber("'ab12'.search(/\\d/)", 2);
+        testNumber("'ab12'.search(/x/)", -1);
+    }
+
+    @Test
+    public void testReplaceWithFunction()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testString("'a1b22'.replace(/\\d+/g, (m, i) => '[' + m + i + ']')",
+                "a[11]b[223]");
+        testString("'xa'.replace(/(a)|(b)/, (m, a, b, i, s) => "
+                + "typeof b + i + s)", "xundefined1xa");
+        testString("'a-b-c'.replace('-', (m, i, s) => i + s)", "a1a-b-cb-c");
+    }
+
+    @Test
+    public void testReplaceString()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testString("'a-b-c'.replace('-', '+')", "a+b-c");
+        testString("'a-b-c'.replace('-', '[$&$$]')", "a[-$]b-c");
+        testString("'a-b-c'.replace('x', '+')", "a-b-c");
+    }
+
     @Test
     public void testCallToStringOnWrongType()
             throws UnrecognizedCharacterSequenceException,
@@ -227,4 +227,57 @@ public class StringTestSuite extends AbstractJSELExpressionTest {
         testIfThrows("charAt(1)",
                 "String.prototype.charAt called on null or undefined");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSplit()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testArray("'a,b,,c'.split(',')", stringVerifier("a"),
+                stringVerifier("b"), stringVerifier(""), stringVerifier("c"));
+        testArray("'a::b::'.split('::')", stringVerifier("a"),
+                stringVerifier("b"), stringVerifier(""));
+        testArray("'abc'.split('')", stringVerifier("a"),
+                stringVerifier("b"), stringVerifier("c"));
+        testArray("'abc'.split()", stringVerifier("abc"));
+        testArray("'abc'.split('x')", stringVerifier("abc"));
+        testArray("''.split(',')", stringVerifier(""));
+        testArray("''.split('')");
+        testArray("'1.5'.split(1)", stringVerifier(""), stringVerifier(".5"));
+    }
+
+    @Test
+    public void testSplitWithLimit()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testArray("'a,b,c'.split(',', 2)", stringVerifier("a"),
+                stringVerifier("b"));
+        testArray("'a,b,c'.split(',', 0)");
+        testArray("'abc'.split('', 2)", stringVerifier("a"),
+                stringVerifier("b"));
+        testArray("'a1b2c'.split(/(\\d)/, 2)", stringVerifier("a"),
+                stringVerifier("1"));
+        testArray("'a,b'.split(',', -1)", stringVerifier("a"),
+                stringVerifier("b"));
+    }
+
+    @Test
+    public void testSplitWithRegExp()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testArray("'a1b22c'.split(/\\d+/)", stringVerifier("a"),
+                stringVerifier("b"), stringVerifier("c"));
+        testArray("'abc'.split(/(?:)/)", stringVerifier("a"),
+                stringVerifier("b"), stringVerifier("c"));
+        testArray("'ab'.split(/a*?/)", stringVerifier("a"),
+                stringVerifier("b"));
+        testArray("'ab'.split(/a*/)", stringVerifier(""),
+                stringVerifier("b"));
+        testArray("''.split(/x*/)");
+        testArray("''.split(/x/)", stringVerifier(""));
+        testArray("'A<B>bold</B>'.split(/<(\\/)?([^<>]+)>/)",
+                stringVerifier("A"), undefinedVerifier(),
+                stringVerifier("B"), stringVerifier("bold"),
+                stringVerifier("/"), stringVerifier("B"),
+                stringVerifier(""));
+    }
+}
@@ -121,6 +121,26 @@ public class ExecutionContextTest {
         assertSame(globalObject, executionContext.getThisBinding());
     }
 
+    @Test
+    public void testDeepStack() {
+        JSELObject[] lThisBindings = new JSELObject[100];
+        for (int i = 0; i < lThisBindings.length; i++) {
+            lThisBindings[i] = new JSELObject();
+            executionContext.push(new DeclarativeEnvironmentRecord(
+                    executionContext.getEnvironmentRecord()),
+                    lThisBindings[i]);
+            executionContext.bind("depth", new JSELNumber(i));
+        }
+        for (int i = lThisBindings.length - 1; i >= 0; i--) {
+            assertSame(lThisBindings[i], executionContext.getThisBinding());
+            assertEquals(new JSELNumber(i), executionContext.resolve("depth"));
+            executionContext.pop();
+        }
+        assertSame(globalObject, executionContext.getThisBinding());
+        assertSame(JSELUndefined.getInstance(),
+                executionContext.resolve("depth"));
+    }
+
     @Test
     public void testEmptyContext() {
         ExecutionContext lExecutionContext = new ExecutionContext();
@@ -0,0 +1,143 @@
+/*
+ * File: ArrayPipelineExpressionTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.AbstractJSELExpressionTest;
+import mardlucca.jsel.JSELCompilationException;
+import mardlucca.jsel.JSELCompiler;
+import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class ArrayPipelineExpressionTest extends AbstractJSELExpressionTest {
+    @Before
+    public void setUp() throws UnrecognizedCharacterSequenceException,
+                               JSELCompilationException, IOException {
+        runner.define("items", "[{ active: true, price: 3 }, "
+                + "{ active: false, price: 4 }, { active: true, price: 5 }]");
+        runner.define("numbers", "[1, 2, 3, 4, 5]");
+    }
+
+    @Test
+    public void testFusion()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        assertTrue(compile("items.filter(x => x.active).map(x => x.price)")
+                instanceof ArrayPipelineExpression);
+        assertTrue(compile("items.map(x => x.price).reduce((a, b) => a + b, 0)")
+                instanceof ArrayPipelineExpression);
+
+        // single calls with lambda callbacks are inlined, even if these make
+        // calls or use the array
+        assertTrue(compile("items.map(x => x.price)")
+                instanceof ArrayPipelineExpression);
+        assertTrue(compile("items.map((x, i, a) => String(a[i]))")
+                instanceof ArrayPipelineExpression);
+        assertTrue(compile("items.map(String)")
+                instanceof FunctionCallExpression);
+        assertTrue(compile("items.indexOf(1)")
+                instanceof FunctionCallExpression);
+
+        // callbacks that make calls, that use the array or that are not
+        // literals are not fused with other calls
+        assertTrue(compile("items.map(x => x.price).map(x => String(x))")
+                instanceof FunctionCallExpression);
+        assertTrue(compile("items.map(x => x).map((x, i, a) => a)")
+                instanceof FunctionCallExpression);
+        assertTrue(compile("items.map(x => x).map(String)")
+                instanceof FunctionCallExpression);
+        assertTrue(compile("items.map(x => x).reduce((a, b) => a, [1])")
+                instanceof FunctionCallExpression);
+    }
+
+    @Test
+    public void testChains()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testNumber("items.filter(x => x.active).map(x => x.price)"
+                + ".reduce((a, b) => a + b, 0)", 8);
+        testArray("numbers.filter(x => x % 2).map(x => x * 10)",
+                numberVerifier(10), numberVerifier(30), numberVerifier(50));
+        testArray("numbers.filter(x => x % 2).map((x, i) => i)",
+                numberVerifier(0), numberVerifier(1), numberVerifier(2));
+        testArray("numbers.map((x, i) => x + i).filter((x, i) => i > 2)",
+                numberVerifier(7), numberVerifier(9));
+        testArray("numbers.map(x => x * 2).map(x => x + 1)",
+                numberVerifier(3), numberVerifier(5), numberVerifier(7),
+                numberVerifier(9), numberVerifier(11));
+        testNumber("numbers.filter(x => x > 2).reduce((a, b, i) => a + i)", 6);
+        testNumber("numbers.map(x => x * 2).indexOf(8)", 3);
+        testNumber("numbers.filter(x => x > 2).indexOf(4)", 1);
+        testNumber("numbers.filter(x => x > 2).indexOf(-1)", -1);
+        testBoolean("numbers.map(x => x * 2).some(x => x > 9)", true);
+        testBoolean("numbers.map(x => x * 2).every(x => x > 9)", false);
+        testUndefined("numbers.map(x => x * 2).forEach(x => x)");
+        testNumber("numbers.filter(x => x > 2).filter(x => x < 5).length", 2);
+    }
+
+    @Test
+    public void testInlinedCallbacks()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testArray("numbers.map((x, i, a) => a.length - i)",
+                numberVerifier(5), numberVerifier(4), numberVerifier(3),
+                numberVerifier(2), numberVerifier(1));
+        testNumber("numbers.reduce((a, b, i, array) => a + array[i], 0)", 15);
+        // closures capture the value of each element, not a shared frame
+        testArray("numbers.map(x => () => x).map(f => f())",
+                numberVerifier(1), numberVerifier(2), numberVerifier(3),
+                numberVerifier(4), numberVerifier(5));
+        testNumber("numbers.map(x => numbers.map(y => x * y)[1])"
+                + ".reduce((a, b) => a + b)", 30);
+        testIfThrows("numbers.map(x => x.a.b)",
+                "undefined cannot be converted to object");
+    }
+
+    @Test
+    public void testErrors()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testIfThrows("numbers.filter(x => x > 5).reduce((a, b) => a + b)",
+                "Reduce of empty array with no initial value");
+        // the filter's error is thrown first, as in sequential execution
+        testIfThrows("[1, 2].filter(x => x.a.b).map(x => x.c.d)",
+                "undefined cannot be converted to object");
+        testIfThrows("'abc'.filter(x => x).map(x => x)",
+                "undefined is not a function");
+    }
+
+    @Test
+    public void testOverriddenBuiltIns()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        runner.define("replaced", "Object.defineProperty(Array.prototype, "
+                + "'map', { value: x => 'replaced' })");
+        testString("numbers.filter(x => x > 2).map(x => x)", "replaced");
+    }
+
+    private JSELExpression compile(String aInExpression)
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        return JSELCompiler.getInstance().compile(aInExpression);
+    }
+}
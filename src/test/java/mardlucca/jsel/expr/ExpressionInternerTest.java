@@ -0,0 +1,126 @@
+/*
+ * File: ExpressionInternerTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.JSELCompilationException;
+import mardlucca.jsel.JSELCompiler;
+import mardlucca.jsel.JSELRunner;
+import mardlucca.jsel.type.JSELNumber;
+import mardlucca.jsel.type.JSELObject;
+import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ExpressionInternerTest {
+    private ExpressionInterner interner = new ExpressionInterner();
+
+    @Test
+    public void testStructuralEquality() throws Exception {
+        assertEquals(compile("a.b + 1"), compile("(a . b)+(1)"));
+        assertEquals(compile("a.b + 1").hashCode(),
+                compile("(a . b)+(1)").hashCode());
+        assertEquals(compile("{x: [1, 'a'], 'y': (p, q) => p}"),
+                compile("{'x': [1, \"a\"], y: (p,q) => (p)}"));
+        assertEquals(compile("a.filter(x => x > 1).map(x => -x)"),
+                compile("a.filter(x=>x>1).map(x=>-x)"));
+        assertEquals(compile("a.b == 1 || a.b == 2"),
+                compile("a.b==1||a.b==2"));
+        assertEquals(compile("/a+/g.test(s)"), compile("/a+/g.test(s)"));
+
+        assertNotEquals(compile("a + b"), compile("a - b"));
+        assertNotEquals(compile("a < b"), compile("b > a"));
+        assertNotEquals(compile("0"), compile("-0"));
+        assertNotEquals(compile("1"), compile("'1'"));
+        assertNotEquals(compile("a.b"), compile("a.c"));
+        assertNotEquals(compile("(a, b) => a"), compile("(b, a) => a"));
+        assertNotEquals(compile("{x: 1, y: 2}"), compile("{y: 2, x: 1}"));
+        assertNotEquals(compile("/a/g"), compile("/a/i"));
+        assertNotEquals(compile("a.filter(x => x)"), compile("a.map(x => x)"));
+
+        // literal objects have an identity
+        JSELObject lObject = new JSELObject();
+        assertEquals(new LiteralExpression(lObject),
+                new LiteralExpression(lObject));
+        assertNotEquals(new LiteralExpression(lObject),
+                new LiteralExpression(new JSELObject()));
+
+        // expressions can be keys
+        Map<JSELExpression, String> lCache = new HashMap<>();
+        lCache.put(compile("f(a.b, [c])"), "compiled");
+        assertEquals("compiled", lCache.get(compile("f( a.b,[c] )")));
+    }
+
+    @Test
+    public void testIntern() throws Exception {
+        JSELExpression lFirst = intern("(a.b + 1) * c");
+        JSELExpression lSecond = intern("a.b + 1 > d");
+        assertSame(lFirst.getSubExpressions().get(0),
+                lSecond.getSubExpressions().get(0));
+        assertSame(lFirst, intern("(((a.b)) + 1) * c"));
+        assertNotSame(lFirst, intern("(a.b + 1) * d"));
+
+        // leaves are shared too
+        JSELExpression lCall = intern("f(x, x)");
+        assertSame(lCall.getSubExpressions().get(1),
+                lCall.getSubExpressions().get(2));
+
+        // constant keys are the same as identifiers
+        assertSame(intern("a.b.c"), intern("a['b'][\"c\"]"));
+        assertEquals("0", ((AccessExpression) intern("a['0']")).getKey());
+        assertNull(((AccessExpression) intern("a[0]")).getKey());
+
+        // lambdas are told apart by their parameters
+        JSELExpression lLambda = intern("(x, y) => x + y");
+        assertSame(lLambda, intern("(x,y) => (x + y)"));
+        assertNotSame(lLambda, intern("(y, x) => x + y"));
+
+        int lSize = interner.size();
+        intern("(a.b + 1) * c");
+        assertEquals(lSize, interner.size());
+    }
+
+    @Test
+    public void testEvaluation() throws Exception {
+        JSELRunner lRunner = new JSELRunner();
+        lRunner.define("a", "{b: 2, c: [1, 2, 3]}");
+        assertEquals(new JSELNumber(11), lRunner.execute(intern(
+                "a['b'] + a.c.map(x => x * a.b).filter(x => x > 2)"
+                        + ".reduce((s, x) => s + x, 0) - 1")));
+        assertEquals(new JSELNumber(3), lRunner.execute(intern(
+                "a.c[a['b']]")));
+        assertTrue(lRunner.execute(intern(
+                "a.b == 1 || a.b == 2")).toBoolean());
+    }
+
+    private JSELExpression compile(String aInExpression)
+            throws IOException, UnrecognizedCharacterSequenceException,
+            JSELCompilationException {
+        return JSELCompiler.getInstance().compile(aInExpression);
+    }
+
+    private JSELExpression intern(String aInExpression)
+            throws IOException, UnrecognizedCharacterSequenceException,
+            JSELCompilationException {
+        return JSELCompiler.getInstance().compile(aInExpression, interner);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * File: IdentifierExpressionTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.JSELRunner;
+import mardlucca.jsel.builtin.global.GlobalObject;
+import mardlucca.jsel.env.DeclarativeEnvironmentRecord;
+import mardlucca.jsel.env.ExecutionContext;
+import mardlucca.jsel.type.JSELNumber;
+import mardlucca.jsel.type.JSELUndefined;
+import org.junit.Test;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+
+public class IdentifierExpressionTest {
+    private ExecutionContext executionContext = new ExecutionContext();
+    private GlobalObject globalObject = executionContext.getGlobalObject();
+
+    @Test
+    public void testGlobal() {
+        IdentifierExpression lExpression = new IdentifierExpression("x");
+        assertSame(JSELUndefined.getInstance(),
+                lExpression.execute(executionContext));
+
+        executionContext.bind("x", new JSELNumber(1));
+        assertEquals(new JSELNumber(1), lExpression.execute(executionContext));
+        GlobalObject.PropertyCell lCell = globalObject.getPropertyCell("x");
+        assertSame(lCell, globalObject.getPropertyCell("x"));
+
+        // writes and redefinitions keep the cell
+        executionContext.bind("x", new JSELNumber(2));
+        assertEquals(new JSELNumber(2), lExpression.execute(executionContext));
+        globalObject.defineOwnProperty(
+                "x", new JSELNumber(3), false, true, true);
+        assertEquals(new JSELNumber(3), lExpression.execute(executionContext));
+        assertSame(lCell, globalObject.getPropertyCell("x"));
+        assertTrue(lCell.isValidFor(globalObject));
+
+        // deleting invalidates it
+        globalObject.delete("x");
+        assertFalse(lCell.isValidFor(globalObject));
+        assertNull(globalObject.getPropertyCell("x"));
+        assertSame(JSELUndefined.getInstance(),
+                lExpression.execute(executionContext));
+        executionContext.bind("x", new JSELNumber(4));
+        assertEquals(new JSELNumber(4), lExpression.execute(executionContext));
+        assertNotSame(lCell, globalObject.getPropertyCell("x"));
+    }
+
+    @Test
+    public void testInherited() {
+        IdentifierExpression lExpression =
+                new IdentifierExpression("toString");
+        assertSame(globalObject.getObjectPrototype().get("toString"),
+                lExpression.execute(executionContext));
+        assertNull(globalObject.getPropertyCell("toString"));
+    }
+
+    @Test
+    public void testShadowed() {
+        IdentifierExpression lExpression = new IdentifierExpression("Math");
+        assertSame(globalObject.get("Math"),
+                lExpression.execute(executionContext));
+
+        executionContext.push(new DeclarativeEnvironmentRecord(
+                executionContext.getEnvironmentRecord()));
+        try {
+            executionContext.bind("Math", new JSELNumber(1));
+            assertEquals(new JSELNumber(1),
+                    lExpression.execute(executionContext));
+        }
+        finally {
+            executionContext.pop();
+        }
+        assertSame(globalObject.get("Math"),
+                lExpression.execute(executionContext));
+
+        // a record that does not reach the global object
+        executionContext.push(new DeclarativeEnvironmentRecord());
+        try {
+            assertSame(JSELUndefined.getInstance(),
+                    lExpression.execute(executionContext));
+        }
+        finally {
+            executionContext.pop();
+        }
+    }
+
+    @Test
+    public void testSharedBetweenRunners() {
+        JSELExpression lExpression = new LambdaExpression(
+                singletonList("a"), new IdentifierExpression("x"));
+        JSELRunner lRunner1 = new JSELRunner();
+        JSELRunner lRunner2 = new JSELRunner();
+        lRunner1.define("x", new LiteralExpression(new JSELNumber(1)));
+        lRunner2.define("x", new LiteralExpression(new JSELNumber(2)));
+
+        JSELExpression lCall = new FunctionCallExpression(lExpression,
+                singletonList(new LiteralExpression(new JSELNumber(0))));
+        assertEquals(new JSELNumber(1), lRunner1.execute(lCall));
+        assertEquals(new JSELNumber(2), lRunner2.execute(lCall));
+        assertEquals(new JSELNumber(1), lRunner1.execute(lCall));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * File: IncrementalExpressionTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.JSELCompilationException;
+import mardlucca.jsel.JSELCompiler;
+import mardlucca.jsel.JSELRunner;
+import mardlucca.jsel.type.JSELNumber;
+import mardlucca.jsel.type.JSELObject;
+import mardlucca.jsel.type.JSELString;
+import mardlucca.jsel.type.JSELValue;
+import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class IncrementalExpressionTest {
+    private JSELRunner runner = new JSELRunner();
+
+    @Test
+    public void testReuse() throws Exception {
+        runner.define("doc", "{a: {x: 1, y: 2}, b: {x: 10, y: 20}}");
+        IncrementalExpression lExpression = compile(
+                "(doc.a.x + doc.a.y) * (doc.b.x - doc.b.y)");
+        assertEquals(new JSELNumber(-30), runner.execute(lExpression));
+        long lExecutions = lExpression.getExecutionCount();
+
+        // nothing changed
+        assertEquals(new JSELNumber(-30), runner.execute(lExpression));
+        assertEquals(lExecutions, lExpression.getExecutionCount());
+
+        // only "doc.a.x", the left operand and the root are executed again,
+        // reusing "doc.a", "doc.a.y" and the right operand
+        JSELObject lA = runner.execute(compile("doc.a")).toObject();
+        lA.put("x", new JSELNumber(3));
+        lExecutions = lExpression.getExecutionCount();
+        long lReuses = lExpression.getReuseCount();
+        assertEquals(new JSELNumber(-50), runner.execute(lExpression));
+        assertEquals(lExecutions + 3, lExpression.getExecutionCount());
+        assertEquals(lReuses + 3, lExpression.getReuseCount());
+
+        // properties that are not read do not matter
+        lExecutions = lExpression.getExecutionCount();
+        lA.put("z", new JSELNumber(3));
+        assertEquals(new JSELNumber(-50), runner.execute(lExpression));
+        assertEquals(lExecutions, lExpression.getExecutionCount());
+
+        // rebinding an identifier
+        runner.define("doc", "{a: {x: 0, y: 0}, b: {x: 0, y: 0}}");
+        assertEquals(new JSELNumber(0), runner.execute(lExpression));
+        lA.put("x", new JSELNumber(100));
+        lExecutions = lExpression.getExecutionCount();
+        assertEquals(new JSELNumber(0), runner.execute(lExpression));
+        assertEquals(lExecutions, lExpression.getExecutionCount());
+
+        lExpression.close();
+        assertEquals(new JSELNumber(0), runner.execute(lExpression));
+        assertTrue(lExpression.getExecutionCount() > lExecutions);
+    }
+
+    @Test
+    public void testObservedObjects() throws Exception {
+        runner.define("doc", "{a: {x: 1, y: 2}, b: {x: 10, y: 20}}");
+        IncrementalExpression lExpression = compile(
+                "(doc.a.x + doc.a.y) * (doc.b.x - doc.b.y)");
+        assertEquals(new JSELNumber(-30), runner.execute(lExpression));
+        // the global object, doc, doc.a and doc.b
+        assertEquals(4, lExpression.getObservedObjectCount());
+
+        // the objects bound before are no longer observed
+        JSELObject lA = runner.execute(compile("doc.a")).toObject();
+        for (int i = 0; i < 5; i++) {
+            runner.define("doc", "{a: {x: 0, y: 0}, b: {x: 0, y: 0}}");
+            assertEquals(new JSELNumber(0), runner.execute(lExpression));
+            assertEquals(4, lExpression.getObservedObjectCount());
+        }
+        long lExecutions = lExpression.getExecutionCount();
+        lA.put("x", new JSELNumber(100));
+        assertEquals(new JSELNumber(0), runner.execute(lExpression));
+        assertEquals(lExecutions, lExpression.getExecutionCount());
+
+        lExpression.close();
+        assertEquals(0, lExpression.getObservedObjectCount());
+    }
+
+    @Test
+    public void testComputedKeys() throws Exception {
+        runner.define("tiers", "{gold: 0.5, basic: 1}");
+        runner.define("customer", "{level: 'gold', items: [1, 2, 3]}");
+        IncrementalExpression lExpression = compile(
+                "tiers[customer.level] * customer.items[1]"
+                        + " + customer.items.length");
+        assertEquals(new JSELNumber(4), runner.execute(lExpression));
+
+        JSELObject lCustomer = runner.execute(compile("customer")).toObject();
+        lCustomer.put("level", new JSELString("basic"));
+        assertEquals(new JSELNumber(5), runner.execute(lExpression));
+        JSELObject lTiers = runner.execute(compile("tiers")).toObject();
+        lTiers.put("gold", new JSELNumber(0));
+        long lExecutions = lExpression.getExecutionCount();
+        assertEquals(new JSELNumber(5), runner.execute(lExpression));
+        assertEquals(lExecutions, lExpression.getExecutionCount());
+        lTiers.put("basic", new JSELNumber(2));
+        assertEquals(new JSELNumber(7), runner.execute(lExpression));
+
+        JSELObject lItems = lCustomer.get("items").toObject();
+        lItems.put(1, new JSELNumber(4));
+        assertEquals(new JSELNumber(11), runner.execute(lExpression));
+        lItems.put(3, new JSELNumber(4));
+        assertEquals(new JSELNumber(12), runner.execute(lExpression));
+    }
+
+    @Test
+    public void testCalls() throws Exception {
+        runner.define("doc", "{items: [1, 2, 3], factor: 2, name: 'a'}");
+        IncrementalExpression lExpression = compile(
+                "doc.items.map(x => x * doc.factor).join() + doc.name");
+        assertEquals(new JSELString("2,4,6a"), runner.execute(lExpression));
+
+        // calls are executed every time
+        JSELObject lDoc = runner.execute(compile("doc")).toObject();
+        lDoc.get("items").toObject().put(0, new JSELNumber(5));
+        assertEquals(new JSELString("10,4,6a"), runner.execute(lExpression));
+        lDoc.put("factor", new JSELNumber(1));
+        assertEquals(new JSELString("5,2,3a"), runner.execute(lExpression));
+        lDoc.put("name", new JSELString("b"));
+        assertEquals(new JSELString("5,2,3b"), runner.execute(lExpression));
+    }
+
+    @Test
+    public void testConversions() throws Exception {
+        // converting arrays reads their elements
+        runner.define("doc", "{items: [1, 2], n: 1}");
+        IncrementalExpression lExpression =
+                compile("(doc.items + '!') + (doc.n + 1)");
+        assertEquals(new JSELString("1,2!2"), runner.execute(lExpression));
+        JSELObject lItems = runner.execute(compile("doc.items")).toObject();
+        lItems.put(0, new JSELNumber(3));
+        assertEquals(new JSELString("3,2!2"), runner.execute(lExpression));
+    }
+
+    private IncrementalExpression compile(String aInExpression)
+            throws IOException, UnrecognizedCharacterSequenceException,
+            JSELCompilationException {
+        return new IncrementalExpression(
+                JSELCompiler.getInstance().compile(aInExpression));
+    }
+}
@@ -27,6 +27,8 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 import static org.junit.Assert.*;
 
@@ -156,6 +158,29 @@ public class JSELExpressionTest extends AbstractJSELExpressionTest {
         testObject("{ }");
     }
 
+    @Test
+    public void testLiteralInstances()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        // properties keep their source order
+        assertEquals(Arrays.asList("b", "a", "c"), new ArrayList<>(
+                runner.execute(JSELCompiler.getInstance().compile(
+                        "{b: 1, a: [1, 'a'], c: x => x, b: 3}"))
+                        .toObject().getOwnPropertyNames()));
+        testNumber("{b: 1, a: [1, 'a'], b: 3}.b", 3);
+
+        // each evaluation creates a new object, even for constants
+        testBoolean("((f) => f() === f())(() => [1, 2])", false);
+        testBoolean("((f) => f() === f())(() => ({a: 1}))", false);
+        testString("((f) => [f().sort((a, b) => b - a), f()].join(';'))"
+                + "(() => [1, 2, 3])", "3,2,1;1,2,3");
+        testString("((f) => [Object.defineProperty(f(), 'a', {value: 2}).a, "
+                + "f().a, f().hasOwnProperty('a')].join())(() => ({a: 1}))",
+                "2,1,true");
+        testBoolean("((o) => Object.isFrozen(Object.freeze(o)) "
+                + "&& o.a === 1)({a: 1})", true);
+    }
+
     @Test
     public void testObjectAccess() throws UnrecognizedCharacterSequenceException,
                                          JSELCompilationException, IOException {
@@ -768,6 +793,22 @@ public class JSELExpressionTest extends AbstractJSELExpressionTest {
                 "[object Object]2");
         testNumber("object.func(2)", 3);
 
+        // the receiver of method calls
+        testString("'abc'.charAt(1) + object['toString']()",
+                "b[object Object]");
+        testNumber("[3, 1, 2].sort()[0] + (object.array.concat)([2])[1]", 3);
+        testString("object.toString.call([1, 2])", "[object Array]");
+        testNumber("'abc'.length + 'abc'['length']", 6);
+        assertFalse(runner.execute(JSELCompiler.getInstance().compile(
+                "object.toString")).isReference());
+        try {
+            testUndefined("object.blah()");
+            fail();
+        }
+        catch (JSELRuntimeException e) {
+            assertEquals("undefined is not a function", e.getMessage());
+        }
+
         try {
             testUndefined("blah()");
             fail();
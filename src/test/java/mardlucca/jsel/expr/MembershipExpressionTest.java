@@ -0,0 +1,140 @@
+/*
+ * File: MembershipExpressionTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.AbstractJSELExpressionTest;
+import mardlucca.jsel.JSELCompilationException;
+import mardlucca.jsel.JSELCompiler;
+import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class MembershipExpressionTest extends AbstractJSELExpressionTest {
+    private static final String[] VALUES = {
+            "0", "-0", "1", "'1'", "'1.0'", "''", "' '", "'a'", "true",
+            "false", "null", "undefined", "NaN", "{}", "[1]",
+            "{ valueOf: () => 'a' }"
+    };
+
+    @Before
+    public void setUp() throws UnrecognizedCharacterSequenceException,
+                               JSELCompilationException, IOException {
+        runner.define("x", "{ code: 'B7', n: 2, o: { p: [3] } }");
+    }
+
+    @Test
+    public void testRewrite()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        assertTrue(compile("x.code == 'A1' || x.code === 'B7' "
+                + "|| 'C3' == x['code'] || x.code == -1")
+                instanceof MembershipExpression);
+        assertTrue(compile("x.o.p[0] == 1 || (x.o.p[0] == 2 || x.o.p[0] == 3)")
+                instanceof MembershipExpression);
+        assertTrue(compile("['a', 'b', -1].indexOf(x.code)")
+                instanceof MembershipExpression);
+
+        // different paths, non-constants and calls are left alone
+        assertTrue(compile("x.code == 'A1' || x.n == 2")
+                instanceof OrOperatorExpression);
+        assertTrue(compile("x.code == 'A1' || x.code == x.n")
+                instanceof OrOperatorExpression);
+        assertTrue(compile("x.code == 'A1' || x.code != 'B7'")
+                instanceof OrOperatorExpression);
+        assertTrue(compile("String(x) == 'A1' || String(x) == 'B7'")
+                instanceof OrOperatorExpression);
+        assertTrue(compile("['a', x.code].indexOf(x.code)")
+                instanceof FunctionCallExpression);
+        assertTrue(compile("['a', 'b'].indexOf(x.code, 1)")
+                instanceof FunctionCallExpression);
+
+        testBoolean("x.code == 'A1' || x.code === 'B7' || x.code == 'C3'",
+                true);
+        testBoolean("x.o.p[0] == 1 || x.o.p[0] == '3'", true);
+        testBoolean("x.o.p[0] === 1 || x.o.p[0] === '3'", false);
+        testNumber("['a', 'B7', 'B7'].indexOf(x.code)", 1);
+        testNumber("[1, 2, 3].indexOf(x.o.p[0])", 2);
+        testNumber("[1, 2, 3].indexOf(x.code)", -1);
+        testIfThrows("x.y.z == 1 || x.y.z == 2",
+                "undefined cannot be converted to object");
+    }
+
+    @Test
+    public void testEquality()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        // a chain of comparisons against all constants must match evaluating
+        // each comparison on its own
+        for (String lOperator : new String[] { "==", "===" }) {
+            for (String lValue : VALUES) {
+                runner.define("v", lValue);
+                StringBuilder lChain = new StringBuilder();
+                StringBuilder lArray = new StringBuilder();
+                for (String lConstant : VALUES) {
+                    if (lConstant.startsWith("{") || lConstant.startsWith("[")
+                            || lConstant.equals("NaN")
+                            || lConstant.equals("undefined")) {
+                        // not literals
+                        continue;
+                    }
+                    testBoolean("v " + lOperator + " " + lConstant
+                            + " || v " + lOperator + " " + lConstant,
+                            runner.execute(compile("(v " + lOperator + " "
+                                    + lConstant + ") + 0 > 0")).toBoolean());
+                    lChain.append(lChain.length() == 0 ? "" : " || ")
+                            .append("v ").append(lOperator).append(" ")
+                            .append(lConstant);
+                    lArray.append(lArray.length() == 0 ? "" : ", ")
+                            .append(lConstant);
+                }
+                assertTrue(compile(lChain.toString())
+                        instanceof MembershipExpression);
+                assertEquals(lValue,
+                        runner.execute(compile(lChain.toString().replace(
+                                " || ", " | "))).toNumber() != 0,
+                        runner.execute(compile(lChain.toString()))
+                                .toBoolean());
+                if (lOperator.equals("===")) {
+                    testNumber("[" + lArray + "].indexOf(v)",
+                            runner.execute(compile("[" + lArray
+                                    + "].filter(x => true).indexOf(v)"))
+                                    .toNumber());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReplacedIndexOf()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        runner.execute(compile("Object.defineProperty(Array.prototype, "
+                + "'indexOf', { value: x => 42 })"));
+        testNumber("['a', 'b'].indexOf('b')", 42);
+    }
+
+    private JSELExpression compile(String aInExpression)
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        return JSELCompiler.getInstance().compile(aInExpression);
+    }
+}
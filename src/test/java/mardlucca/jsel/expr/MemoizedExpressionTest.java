@@ -0,0 +1,171 @@
+/*
+ * File: MemoizedExpressionTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.JSELCompilationException;
+import mardlucca.jsel.JSELCompiler;
+import mardlucca.jsel.JSELRunner;
+import mardlucca.jsel.type.JSELNumber;
+import mardlucca.jsel.type.JSELString;
+import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class MemoizedExpressionTest {
+    private JSELRunner runner = new JSELRunner();
+
+    @Test
+    public void testMemoize() throws Exception {
+        runner.define("tiers", "{gold: {discount: 0.5}, basic: {discount: 1}}");
+        runner.freeze();
+        runner.define("customer", "{level: 'gold'}");
+        runner.define("price", "10");
+
+        MemoizedExpression lExpression = (MemoizedExpression) memoize(
+                "tiers[customer.level].discount * price", 10);
+        assertEquals(new HashSet<>(asList(compile("tiers"),
+                        compile("customer.level"), compile("price"))),
+                new HashSet<>(lExpression.getPathExpressions()));
+
+        assertEquals(new JSELNumber(5), runner.execute(lExpression));
+        assertEquals(new JSELNumber(5), runner.execute(lExpression));
+        runner.define("price", "20");
+        assertEquals(new JSELNumber(10), runner.execute(lExpression));
+        runner.define("customer", "{level: 'basic'}");
+        assertEquals(new JSELNumber(20), runner.execute(lExpression));
+        runner.define("price", "10");
+        runner.define("customer", "{level: 'gold'}");
+        assertEquals(new JSELNumber(5), runner.execute(lExpression));
+
+        MemoizationStats lStats = lExpression.getStats();
+        assertEquals(2, lStats.getHitCount());
+        assertEquals(3, lStats.getMissCount());
+        assertEquals(0, lStats.getBypassCount());
+        assertEquals(0.4, lStats.getHitRate(), 0);
+        assertEquals(3, lExpression.size());
+    }
+
+    @Test
+    public void testBounded() throws Exception {
+        MemoizedExpression lExpression =
+                (MemoizedExpression) memoize("x * 2", 2);
+        for (int i = 0; i < 5; i++) {
+            runner.define("x", String.valueOf(i));
+            assertEquals(new JSELNumber(i * 2), runner.execute(lExpression));
+        }
+        assertEquals(2, lExpression.size());
+
+        // the least recently used results are evicted
+        runner.define("x", "4");
+        runner.execute(lExpression);
+        runner.define("x", "0");
+        runner.execute(lExpression);
+        assertEquals(1, lExpression.getStats().getHitCount());
+        assertEquals(6, lExpression.getStats().getMissCount());
+    }
+
+    @Test
+    public void testBypass() throws Exception {
+        // objects that can be modified are not keys
+        runner.define("a", "{b: 1}");
+        MemoizedExpression lExpression =
+                (MemoizedExpression) memoize("a.b + 1", 10);
+        assertEquals(new JSELNumber(2), runner.execute(lExpression));
+        assertEquals(0, lExpression.getStats().getBypassCount());
+        lExpression = (MemoizedExpression) memoize("a['b' + ''] + 1", 10);
+        assertEquals(new JSELNumber(2), runner.execute(lExpression));
+        assertEquals(1, lExpression.getStats().getBypassCount());
+
+        // neither are functions defined in JSEL
+        runner.define("f", "x => x + y");
+        runner.define("y", "1");
+        lExpression = (MemoizedExpression) memoize("f(1)", 10);
+        assertEquals(new JSELNumber(2), runner.execute(lExpression));
+        runner.define("y", "2");
+        assertEquals(new JSELNumber(3), runner.execute(lExpression));
+        assertEquals(2, lExpression.getStats().getBypassCount());
+
+        // paths that cannot be read
+        runner.define("u", "undefined");
+        lExpression = (MemoizedExpression) memoize("u && u.b", 10);
+        assertEquals(runner.execute(compile("u && u.b")),
+                runner.execute(lExpression));
+        assertEquals(1, lExpression.getStats().getBypassCount());
+
+        // nor are objects that are not deeply frozen
+        runner.define("k", "'a'");
+        runner.define("t", "Object.freeze({a: {b: 1}})");
+        runner.define("p", "Object.preventExtension({a: 1})");
+        lExpression = (MemoizedExpression) memoize("t[k].b + p[k]", 10);
+        assertEquals(new JSELNumber(2), runner.execute(lExpression));
+        runner.execute(compile("Object.defineProperty(t.a, 'b', {value: 2})"));
+        runner.execute(compile("Object.defineProperty(p, 'a', {value: 2})"));
+        assertEquals(new JSELNumber(4), runner.execute(lExpression));
+        assertEquals(2, lExpression.getStats().getBypassCount());
+        assertEquals(0, lExpression.size());
+
+        // results that can be modified are not cached
+        lExpression = (MemoizedExpression) memoize("[x, 1]", 10);
+        assertNotSame(runner.execute(lExpression),
+                runner.execute(lExpression));
+        assertEquals(0, lExpression.size());
+    }
+
+    @Test
+    public void testPaths() throws Exception {
+        runner.define("s", "' a '");
+        runner.define("min", "1");
+        MemoizedExpression lExpression = (MemoizedExpression) memoize(
+                "s.trim().toUpperCase() + [1, 2, 3].filter(x => x > min)"
+                        + ".map(x => x.toString()).length", 10);
+        assertEquals(new HashSet<>(asList(compile("s.trim"), compile("s"),
+                        compile("min"))),
+                new HashSet<>(lExpression.getPathExpressions()));
+        assertEquals(new JSELString("A2"), runner.execute(lExpression));
+        runner.define("min", "0");
+        assertEquals(new JSELString("A3"), runner.execute(lExpression));
+        runner.define("min", "1");
+        assertEquals(new JSELString("A2"), runner.execute(lExpression));
+        assertEquals(1, lExpression.getStats().getHitCount());
+    }
+
+    @Test
+    public void testNotDeterministic() throws Exception {
+        JSELExpression lExpression = compile("Math.random() < x");
+        assertSame(lExpression, MemoizedExpression.memoize(lExpression, 10));
+        lExpression = compile("x");
+        assertSame(lExpression, MemoizedExpression.memoize(lExpression, 0));
+    }
+
+    private JSELExpression memoize(String aInExpression, int aInMaxSize)
+            throws IOException, UnrecognizedCharacterSequenceException,
+            JSELCompilationException {
+        return MemoizedExpression.memoize(compile(aInExpression), aInMaxSize);
+    }
+
+    private JSELExpression compile(String aInExpression)
+            throws IOException, UnrecognizedCharacterSequenceException,
+            JSELCompilationException {
+        return JSELCompiler.getInstance().compile(aInExpression);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * File: PartialEvaluatorTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.AbstractJSELExpressionTest;
+import mardlucca.jsel.JSELCompilationException;
+import mardlucca.jsel.JSELCompiler;
+import mardlucca.jsel.JSELRuntimeException;
+import mardlucca.jsel.type.JSELValue;
+import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class PartialEvaluatorTest extends AbstractJSELExpressionTest {
+    @Before
+    public void setUp() throws UnrecognizedCharacterSequenceException,
+                               JSELCompilationException, IOException {
+        runner.define("config", "{ rates: { BR: 2, US: 3 }, limit: 100, "
+                + "regions: ['BR', 'US'], scale: x => x * 10 }");
+        runner.define("factor", "4");
+        runner.freeze();
+        runner.define("request", "{ region: 'US', amount: 30 }");
+    }
+
+    @Test
+    public void testFolding()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        assertLiteral("config.limit * factor + 1", 401);
+        assertLiteral("config.rates['B' + 'R'] * config.regions.length", 4);
+        assertLiteral("config.regions[1] == 'US' ? factor : request", 4);
+        assertLiteral("factor > 10 && request.amount", false);
+        assertLiteral("-NaN", Double.NaN);
+
+        // only per-request inputs remain
+        JSELExpression lResidual = specialize(
+                "request.amount * config.rates[request.region] > config.limit");
+        verifyBoolean(runner.execute(lResidual), false);
+        assertFalse(lResidual instanceof LiteralExpression);
+    }
+
+    @Test
+    public void testResidual()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        String[] lExpressions = {
+                "request.amount * config.rates[request.region]",
+                "config.regions.map(factor => factor + request.region)",
+                "config.regions.map(x => x + factor)",
+                "config.scale(factor) + request.amount",
+                "config.regions.indexOf(request.region)",
+                "factor in request",
+                "typeof config.scale + typeof config.missing"
+        };
+        for (String lExpression : lExpressions) {
+            JSELExpression lCompiled =
+                    JSELCompiler.getInstance().compile(lExpression);
+            assertEquals(lExpression, runner.execute(lCompiled).toString(),
+                    runner.execute(runner.specialize(lCompiled)).toString());
+        }
+        verifyArray(runner.execute(specialize(
+                        "config.regions.map(factor => factor + request.region)")),
+                stringVerifier("BRUS"), stringVerifier("USUS"));
+    }
+
+    @Test
+    public void testFrozen()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        testBoolean("Object.isFrozen(config) && Object.isFrozen(config.rates)"
+                + " && Object.isFrozen(config.regions)", true);
+        try {
+            runner.define("factor", "5");
+            fail();
+        } catch (JSELRuntimeException e) {
+            // expected
+        }
+
+        // inputs can still change
+        runner.define("request", "{ region: 'BR', amount: 30 }");
+        JSELExpression lResidual =
+                specialize("request.amount * config.rates[request.region]");
+        verifyNumber(runner.execute(lResidual), 60);
+        runner.define("request", "{ region: 'US', amount: 30 }");
+        verifyNumber(runner.execute(lResidual), 90);
+    }
+
+    private void assertLiteral(String aInExpression, Object aInExpected)
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        JSELExpression lExpression = specialize(aInExpression);
+        assertTrue(aInExpression, lExpression instanceof LiteralExpression);
+        JSELValue lValue = ((LiteralExpression) lExpression).getValue();
+        if (aInExpected instanceof Boolean) {
+            verifyBoolean(lValue, (Boolean) aInExpected);
+        } else {
+            verifyNumber(lValue, ((Number) aInExpected).doubleValue());
+        }
+    }
+
+    private JSELExpression specialize(String aInExpression)
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        return runner.specialize(
+                JSELCompiler.getInstance().compile(aInExpression));
+    }
+}
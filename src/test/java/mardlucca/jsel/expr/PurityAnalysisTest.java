@@ -0,0 +1,100 @@
+/*
+ * File: PurityAnalysisTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.AbstractJSELExpressionTest;
+import mardlucca.jsel.JSELCompilationException;
+import mardlucca.jsel.JSELCompiler;
+import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class PurityAnalysisTest extends AbstractJSELExpressionTest {
+    @Test
+    public void testIsPure()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        assertTrue(isPure("1 + 2"));
+        assertTrue(isPure("a.b[c] ? { x: [d, -e] } : f"));
+        assertTrue(isPure("x => x.price * 2"));
+        assertFalse(isPure("a.b()"));
+        assertFalse(isPure("new Date()"));
+        assertFalse(isPure("x => Object.defineProperty(x, 'a', {})"));
+        assertFalse(isPure("a.map(x => x)"));
+    }
+
+    @Test
+    public void testIsDeterministic()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        assertTrue(isDeterministic("tiers[customer.level].discount * price"));
+        assertTrue(isDeterministic("Math.max(a, b) + s.trim().length"));
+        assertTrue(isDeterministic("a.filter(x => x > min).map(x => -x)"));
+        assertTrue(isDeterministic("new Array(3)"));
+        assertFalse(isDeterministic("Math.random() * a"));
+        assertFalse(isDeterministic("new Date()"));
+        assertFalse(isDeterministic("Date()"));
+        assertFalse(isDeterministic("a.push(1)"));
+        assertFalse(isDeterministic("a['sort']()"));
+        assertFalse(isDeterministic("a.map(x => x.splice(0, 1))"));
+        assertFalse(isDeterministic("Object.defineProperty(a, 'b', {})"));
+        assertFalse(isDeterministic("d.setTime(0)"));
+        assertFalse(isDeterministic("/a/g.test(s)"));
+        assertFalse(isDeterministic("a.map(Math.random)"));
+        assertFalse(isDeterministic("a[b]()"));
+
+        assertTrue(PurityAnalysis.isImpureFunction("setFullYear"));
+        assertFalse(PurityAnalysis.isImpureFunction("settle"));
+        assertFalse(PurityAnalysis.isImpureFunction("slice"));
+    }
+
+    @Test
+    public void testIsPureFunction()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        assertTrue(PurityAnalysis.isPureFunction(
+                runner.execute(compile("x => x * 2"))));
+        assertFalse(PurityAnalysis.isPureFunction(
+                runner.execute(compile("x => String(x)"))));
+        assertFalse(PurityAnalysis.isPureFunction(
+                runner.execute(compile("Math.abs"))));
+        assertFalse(PurityAnalysis.isPureFunction(
+                runner.execute(compile("1"))));
+    }
+
+    private boolean isPure(String aInExpression)
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        return PurityAnalysis.isPure(compile(aInExpression));
+    }
+
+    private boolean isDeterministic(String aInExpression)
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        return PurityAnalysis.isDeterministic(compile(aInExpression));
+    }
+
+    private JSELExpression compile(String aInExpression)
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        return JSELCompiler.getInstance().compile(aInExpression);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * File: StackEvaluatorTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.expr;
+
+import mardlucca.jsel.AbstractJSELExpressionTest;
+import mardlucca.jsel.JSELCompilationException;
+import mardlucca.jsel.JSELCompiler;
+import mardlucca.jsel.JSELRunner;
+import mardlucca.jsel.JSELRuntimeException;
+import mardlucca.jsel.type.JSELNull;
+import mardlucca.jsel.type.JSELValue;
+import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+
+public class StackEvaluatorTest extends AbstractJSELExpressionTest {
+    private static final String RECURSION = "(f => f(f, DEPTH))("
+            + "(self, n) => n == 0 ? 0 : 1 + self(self, n - 1))";
+    private static final String MESSAGE =
+            "RangeError: Maximum call stack size exceeded";
+
+    @Test
+    public void testEvaluate()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        runner.setMaxStackDepth(1000);
+        runner.define("object", "{ a: [1, 2, 3], f: x => x * 2 }");
+        testNumber("object.a.length + object.a[1] * -object['a'][2]", -3);
+        testBoolean("object.b || (object.a && !object.c)", true);
+        testString("object.b ? 'b' : typeof object.f + object.f(2)",
+                "function4");
+        testArray("[object.f(1), { x: 1 }.x, 'abc'.charAt(1)]",
+                numberVerifier(2), numberVerifier(1), stringVerifier("b"));
+        testNumber("object.a.map(x => object.f(x)).reduce((a, b) => a + b)",
+                12);
+        testNumber("object.f.call(undefined, 5)", 10);
+        testIfThrows("object.g(1)", "undefined is not a function");
+        testIfThrows("object.b.c", "undefined cannot be converted to object");
+        // the environments of the calls that threw are left
+        testNumber("object.f(4)", 8);
+    }
+
+    @Test
+    public void testMaxStackDepth()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        runner.setMaxStackDepth(1000);
+        testNumber(RECURSION.replace("DEPTH", "100"), 100);
+        testIfThrows(RECURSION.replace("DEPTH", "1000"), MESSAGE);
+        testNumber(RECURSION.replace("DEPTH", "100"), 100);
+    }
+
+    @Test
+    public void testDeepRecursion() throws InterruptedException {
+        // much deeper than what a small thread stack allows when evaluating
+        // recursively
+        assertEquals("20000", runOnSmallStack(1 << 20,
+                RECURSION.replace("DEPTH", "20000")));
+        assertEquals(MESSAGE, runOnSmallStack(0,
+                RECURSION.replace("DEPTH", "20000")));
+    }
+
+    @Test
+    public void testDeepNesting() {
+        // e.g. what a deeply nested JSON document compiles to
+        JSELExpression lExpression =
+                new LiteralExpression(JSELNull.getInstance());
+        for (int i = 0; i < 100000; i++) {
+            lExpression = new ArrayExpression(singletonList(lExpression));
+        }
+        runner.setMaxStackDepth(1 << 20);
+        JSELValue lValue = runner.execute(lExpression);
+        for (int i = 0; i < 100000; i++) {
+            lValue = lValue.toObject().get(0);
+        }
+        verifyNull(lValue);
+    }
+
+    private static String runOnSmallStack(int aInMaxStackDepth,
+            String aInExpression) throws InterruptedException {
+        AtomicReference<String> lResult = new AtomicReference<>();
+        Thread lThread = new Thread(null, () -> {
+            JSELRunner lRunner = new JSELRunner();
+            lRunner.setMaxStackDepth(aInMaxStackDepth);
+            try {
+                lResult.set(lRunner.execute(JSELCompiler.getInstance()
+                        .compile(aInExpression)).toString());
+            } catch (JSELRuntimeException e) {
+                lResult.set(e.getMessage());
+            } catch (Exception e) {
+                lResult.set(e.toString());
+            }
+        }, "small-stack", 1 << 18);
+        lThread.start();
+        lThread.join();
+        return lResult.get();
+    }
+}
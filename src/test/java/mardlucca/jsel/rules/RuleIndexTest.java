@@ -0,0 +1,124 @@
+/*
+ * File: RuleIndexTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.rules;
+
+import mardlucca.jsel.AbstractJSELExpressionTest;
+import mardlucca.jsel.JSELCompilationException;
+import mardlucca.jsel.JSELCompiler;
+import mardlucca.jsel.expr.JSELExpression;
+import mardlucca.jsel.type.JSELValue;
+import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RuleIndexTest extends AbstractJSELExpressionTest {
+    private static final String[] RULES = {
+            "x.type == 'order' && x.amount > 10",
+            "x.type === 'order' && x.region === 'EU'",
+            "x.type == 1",
+            "x.type === 1",
+            "'refund' == x.type",
+            "x.region == 'EU' || x.region == 'US'",
+            "x.region === 'EU' || x.region == null",
+            "x.amount >= 10 && x.amount < 100",
+            "x.amount > 10 && x.amount > 20 && x.amount <= 50",
+            "-5 < x.amount",
+            "x.amount <= -5 && x.type",
+            "x.flag == true",
+            "x.type == null",
+            "x.type === undefined",
+            "x['region'] == 'EU'",
+            "x.amount == 0",
+            "x.ok && x.a.b == 1",
+            "x.amount * 2",
+            "x.region != 'EU'"
+    };
+
+    private static final String[] EVENTS = {
+            "{ type: 'order', amount: 50, region: 'EU' }",
+            "{ type: 'order', amount: 5, region: 'US' }",
+            "{ type: 'refund', amount: -10 }",
+            "{ type: 1, amount: '20', flag: 1 }",
+            "{ type: '1', amount: '1e2', flag: 'true' }",
+            "{ type: true, amount: true, region: null }",
+            "{ type: null, amount: null, flag: true }",
+            "{ amount: -0, region: 'EU' }",
+            "{ type: { toString: () => 'order' }, amount: [50] }",
+            "{ type: 'order', amount: 100, ok: true, a: { b: '1' } }",
+            "{ type: 'order', amount: 10.5, region: 'eu' }"
+    };
+
+    @Test
+    public void testSameResults()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        List<JSELExpression> lRules = compile(RULES);
+        RuleSet lRuleSet = new RuleSet(lRules);
+        RuleSet lIndexedRuleSet = new RuleSet(lRules, true);
+
+        for (String lEvent : EVENTS) {
+            runner.define("x", lEvent);
+            List<JSELValue> lExpected = runner.execute(lRuleSet);
+            List<JSELValue> lResults = runner.execute(lIndexedRuleSet);
+            for (int i = 0; i < lExpected.size(); i++) {
+                assertEquals(RULES[i] + " for " + lEvent,
+                        lExpected.get(i).toString(),
+                        lResults.get(i).toString());
+            }
+        }
+    }
+
+    @Test
+    public void testStats()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        RuleSet lRuleSet = new RuleSet(compile(RULES), true);
+        RuleIndexStats lStats = lRuleSet.getIndexStats();
+        assertEquals(RULES.length, lStats.getRuleCount());
+        assertEquals(12, lStats.getHashIndexedRuleCount());
+        assertEquals(4, lStats.getRangeIndexedRuleCount());
+        assertEquals(3, lStats.getUnindexedRuleCount());
+        // x.type, x.region, x.amount, x.flag and x.a.b
+        assertEquals(5, lStats.getPathCount());
+        assertEquals(1, lStats.getSelectivity(), 0);
+
+        runner.define("x", "{ type: 'other', amount: 1000, region: 'BR' }");
+        runner.execute(lRuleSet);
+        assertEquals(1, lStats.getEvaluationCount());
+        // unindexed rules, "x.amount > 10 ..." and "-5 < x.amount"
+        assertEquals(5, lStats.getCandidateCount());
+        assertEquals(5.0 / RULES.length, lStats.getSelectivity(), 1e-9);
+
+        assertNull(new RuleSet(compile(RULES)).getIndexStats());
+    }
+
+    private List<JSELExpression> compile(String... aInRules)
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        List<JSELExpression> lRules = new ArrayList<>();
+        for (String lRule : aInRules) {
+            lRules.add(JSELCompiler.getInstance().compile(lRule));
+        }
+        return lRules;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * File: RuleSetTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.rules;
+
+import mardlucca.jsel.AbstractJSELExpressionTest;
+import mardlucca.jsel.JSELCompilationException;
+import mardlucca.jsel.JSELCompiler;
+import mardlucca.jsel.expr.JSELExpression;
+import mardlucca.jsel.type.JSELValue;
+import mardlucca.parselib.tokenizer.UnrecognizedCharacterSequenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RuleSetTest extends AbstractJSELExpressionTest {
+    @Before
+    public void setUp() throws UnrecognizedCharacterSequenceException,
+                               JSELCompilationException, IOException {
+        runner.define("event", "{ user: { country: 'BR' }, amount: 40, "
+                + "items: [{ price: 1 }, { price: 2 }] }");
+        runner.define("rate", "3");
+    }
+
+    @Test
+    public void testEvaluate()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        RuleSet lRuleSet = compile(
+                "event.user.country == 'BR'",
+                "event.user.country == 'US' || event.amount * rate > 100",
+                "event.amount * rate < 5",
+                "event.amount * rate + event.amount * rate",
+                "event.items.map(x => x.price * rate)");
+        assertEquals(5, lRuleSet.size());
+        // "event.user.country" and "event.amount * rate"
+        assertEquals(2, lRuleSet.getSharedExpressionCount());
+
+        List<JSELValue> lResults = runner.execute(lRuleSet);
+        assertEquals(5, lResults.size());
+        verifyBoolean(lResults.get(0), true);
+        verifyBoolean(lResults.get(1), true);
+        verifyBoolean(lResults.get(2), false);
+        verifyNumber(lResults.get(3), 240);
+        verifyArray(lResults.get(4), numberVerifier(3), numberVerifier(6));
+
+        // values are not kept across evaluations
+        runner.define("rate", "1");
+        lResults = runner.execute(lRuleSet);
+        verifyBoolean(lResults.get(1), false);
+        verifyNumber(lResults.get(3), 80);
+    }
+
+    @Test
+    public void testNotShared()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        // calls, object literals, lambda bodies and different literals. Only
+        // "event.items" is shared
+        RuleSet lRuleSet = compile(
+                "String(rate) + String(rate)",
+                "[rate] == [rate]",
+                "event.items.some(x => x.price * 2 > 3)",
+                "event.items.every(x => x.price * 2 > 3)",
+                "1 / (rate * -0) < 1 / (rate * 0)");
+        assertEquals(1, lRuleSet.getSharedExpressionCount());
+
+        List<JSELValue> lResults = runner.execute(lRuleSet);
+        verifyString(lResults.get(0), "33");
+        verifyBoolean(lResults.get(1), false);
+        verifyBoolean(lResults.get(2), true);
+        verifyBoolean(lResults.get(3), false);
+        verifyBoolean(lResults.get(4), true);
+    }
+
+    @Test
+    public void testShortCircuit()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        // the shared "event.order.id" must not be evaluated
+        RuleSet lRuleSet = compile(
+                "event.order && event.order.id > 1",
+                "event.order ? event.order.id : 0");
+        assertEquals(2, lRuleSet.getSharedExpressionCount());
+
+        List<JSELValue> lResults = runner.execute(lRuleSet);
+        verifyBoolean(lResults.get(0), false);
+        verifyNumber(lResults.get(1), 0);
+    }
+
+    @Test
+    public void testMethodCalls()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        // "event.items.slice" is not shared, as calls need "event.items" as
+        // their receiver, which is shared
+        RuleSet lRuleSet = compile(
+                "event.items.slice(1).length",
+                "event.items.slice(0).length + event.items.length");
+        assertEquals(1, lRuleSet.getSharedExpressionCount());
+
+        List<JSELValue> lResults = runner.execute(lRuleSet);
+        verifyNumber(lResults.get(0), 1);
+        verifyNumber(lResults.get(1), 4);
+    }
+
+    @Test
+    public void testSideEffects()
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        // shared values are dropped after calls, which may modify what they
+        // read, whether these are explicit or implicit (e.g. "valueOf")
+        runner.define("o", "{ valueOf: () => arr.push(4) }");
+        RuleSet lRuleSet = compile(
+                "[arr.length, arr.push(3), arr.length].join()",
+                "[arr.length, o + 0, arr.length].join()",
+                "arr.length");
+        assertEquals(1, lRuleSet.getSharedExpressionCount());
+
+        runner.define("arr", "[1, 2]");
+        List<JSELValue> lResults = runner.execute(lRuleSet);
+        verifyString(lResults.get(0), "2,1,3");
+        verifyString(lResults.get(1), "3,1,4");
+        verifyNumber(lResults.get(2), 4);
+    }
+
+    private RuleSet compile(String... aInRules)
+            throws UnrecognizedCharacterSequenceException,
+                   JSELCompilationException, IOException {
+        List<JSELExpression> lRules = new ArrayList<>();
+        for (String lRule : aInRules) {
+            lRules.add(JSELCompiler.getInstance().compile(lRule));
+        }
+        return new RuleSet(lRules);
+    }
+}
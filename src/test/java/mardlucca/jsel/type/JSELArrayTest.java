@@ -26,6 +26,38 @@ import static java.util.Arrays.asList;
 import static org.junit.Assert.*;
 
 public class JSELArrayTest {
+    @Test
+    public void testCopyOnWrite() {
+        JSELObject.PropertyDescriptor[] lElements = {
+                new JSELObject.PropertyDescriptor(
+                        new JSELNumber(1), true, true, true),
+                new JSELObject.PropertyDescriptor(
+                        new JSELNumber(2), true, true, true)
+        };
+        JSELArray lArray1 = JSELArray.copyOnWrite(lElements);
+        JSELArray lArray2 = JSELArray.copyOnWrite(lElements);
+        assertEquals(new JSELNumber(2), lArray1.get(LENGTH));
+        assertEquals(new JSELNumber(2), lArray1.get(1));
+
+        lArray1.put(0, new JSELNumber(3));
+        lArray1.defineOwnProperty(1, null, false, null, null);
+        lArray2.put(2, new JSELNumber(4));
+        assertEquals(new JSELNumber(3), lArray1.get(0));
+        assertFalse(lArray1.getOwnProperty(1).isEnumerable());
+        assertEquals(new JSELNumber(1), lArray2.get(0));
+        assertTrue(lArray2.getOwnProperty(1).isEnumerable());
+        assertEquals(new JSELNumber(3), lArray2.get(LENGTH));
+
+        JSELArray lArray3 = JSELArray.copyOnWrite(lElements);
+        lArray3.delete(0);
+        assertEquals(JSELUndefined.getInstance(), lArray3.get(0));
+        assertEquals(new JSELNumber(2), lArray3.get(LENGTH));
+
+        // the shared elements never changed
+        assertEquals(new JSELNumber(1), lElements[0].getValue());
+        assertTrue(lElements[1].isEnumerable());
+    }
+
     @Test
     public void testPutAllTypes() {
         JSELArray lArray = new JSELArray();
@@ -248,4 +280,66 @@ public class JSELArrayTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testIntegerKeys() {
+        JSELArray lArray = new JSELArray(
+                asList(new JSELNumber(10), new JSELNumber(11)));
+        assertTrue(lArray.hasOwnProperty(1));
+        assertTrue(lArray.hasOwnProperty("1"));
+        assertFalse(lArray.hasProperty(2));
+        assertEquals(new JSELNumber(11), lArray.get(1));
+
+        lArray.put(5, new JSELNumber(15));
+        assertEquals(new JSELNumber(6), lArray.get(LENGTH));
+        assertEquals(new JSELNumber(15), lArray.get("5"));
+        assertEquals(JSELUndefined.getInstance(), lArray.get(4));
+
+        assertTrue(lArray.delete(0));
+        assertFalse(lArray.hasOwnProperty("0"));
+        assertEquals(new JSELNumber(6), lArray.get(LENGTH));
+
+        // non canonical names are not indexes
+        lArray.put("01", new JSELNumber(1));
+        assertEquals(new JSELNumber(6), lArray.get(LENGTH));
+        assertEquals(new JSELNumber(11), lArray.get(1));
+        assertEquals(new JSELNumber(1), lArray.get("01"));
+    }
+
+    @Test
+    public void testSparseIndexes() {
+        JSELArray lArray = new JSELArray();
+        lArray.put(1000000, JSELBoolean.TRUE);
+        lArray.put(2, JSELBoolean.FALSE);
+        assertEquals(new JSELNumber(1000001), lArray.get(LENGTH));
+        assertEquals(JSELBoolean.TRUE, lArray.get("1000000"));
+        assertEquals(JSELBoolean.FALSE, lArray.get(2));
+        assertEquals(3, lArray.getOwnPropertyNames().size());
+        assertTrue(lArray.getOwnPropertyNames().contains("1000000"));
+
+        lArray.put(LENGTH, new JSELNumber(3));
+        assertFalse(lArray.hasOwnProperty(1000000));
+        assertEquals(JSELBoolean.FALSE, lArray.get(2));
+    }
+
+    @Test
+    public void testOwnPropertyNames() {
+        JSELArray lArray = new JSELArray(
+                asList(new JSELNumber(10), new JSELNumber(11)));
+        lArray.put("a", JSELBoolean.TRUE);
+        assertEquals(4, lArray.getOwnPropertyNames().size());
+        assertEquals("0", lArray.getOwnPropertyNames().iterator().next());
+    }
+
+    @Test
+    public void testToArrayIndex() {
+        assertEquals(0, JSELArray.toArrayIndex("0"));
+        assertEquals(123, JSELArray.toArrayIndex("123"));
+        assertEquals(Integer.MAX_VALUE, JSELArray.toArrayIndex("2147483647"));
+        assertEquals(-1, JSELArray.toArrayIndex("2147483648"));
+        assertEquals(-1, JSELArray.toArrayIndex(""));
+        assertEquals(-1, JSELArray.toArrayIndex("01"));
+        assertEquals(-1, JSELArray.toArrayIndex("-1"));
+        assertEquals(-1, JSELArray.toArrayIndex("1.0"));
+        assertEquals(-1, JSELArray.toArrayIndex(LENGTH));
+    }
+}
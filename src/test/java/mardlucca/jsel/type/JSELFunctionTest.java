@@ -18,8 +18,11 @@
 
 package mardlucca.jsel.type;
 
+import mardlucca.jsel.env.ExecutionContext;
 import org.junit.Test;
 
+import java.util.List;
+
 import static mardlucca.jsel.type.JSELFunction.getArgument;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
@@ -67,6 +70,47 @@ public class JSELFunctionTest {
                 getArgument(asList(JSELBoolean.TRUE, JSELBoolean.FALSE), 1));
     }
 
+    @Test
+    public void testFixedArityCalls() {
+        // functions that only implement the list form get lists of the
+        // arguments given to the fixed arity entry points
+        JSELFunction lFunction = new JSELFunction() {
+            @Override
+            public JSELValue call(JSELValue aInThis,
+                                  List<JSELValue> aInArguments,
+                                  ExecutionContext aInExecutionContext) {
+                return new JSELArray(aInArguments);
+            }
+        };
+        JSELValue lA = new JSELNumber(1);
+        JSELValue lB = new JSELNumber(2);
+        JSELValue lC = new JSELNumber(3);
+        JSELValue lD = new JSELNumber(4);
+        JSELValue lThis = JSELUndefined.getInstance();
+
+        assertEquals(0, getLength(lFunction.call0(lThis, null)));
+        assertArguments(lFunction.call1(lThis, lA, null), lA);
+        assertArguments(lFunction.call2(lThis, lA, lB, null), lA, lB);
+        assertArguments(lFunction.call3(lThis, lA, lB, lC, null),
+                lA, lB, lC);
+        assertArguments(lFunction.callN(lThis, new JSELValue[] { lA, lB },
+                null), lA, lB);
+        assertArguments(lFunction.callN(lThis,
+                new JSELValue[] { lA, lB, lC, lD }, null), lA, lB, lC, lD);
+    }
+
+    private static void assertArguments(JSELValue aInArray,
+                                        JSELValue... aInExpected) {
+        assertEquals(aInExpected.length, getLength(aInArray));
+        for (int i = 0; i < aInExpected.length; i++) {
+            assertSame(aInExpected[i], aInArray.toObject().get(i));
+        }
+    }
+
+    private static int getLength(JSELValue aInArray) {
+        return aInArray.toObject().get(JSELArray.LENGTH).toInteger();
+    }
+
     @Test
     public void name() {
         System.out.println(Long.parseLong("-123456789012345"));
@@ -28,6 +28,9 @@ import mardlucca.jsel.type.wrapper.JSELStringObject;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static mardlucca.jsel.type.JSELObject.sameValue;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.*;
@@ -496,4 +499,35 @@ public class JSELObjectTest {
         assertFalse(sameValue(new JSELNumber(-0.0d), new JSELNumber(0.0d)));
         assertFalse(sameValue(new JSELNumber(0.0), new JSELNumber(-0.0)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testChangeListener() {
+        List<String> lChanges = new ArrayList<>();
+        JSELObject.ChangeListener lListener = (aInObject, aInProperty) ->
+                lChanges.add(aInProperty);
+        JSELObject lObject = new JSELObject();
+        lObject.addChangeListener(lListener);
+
+        lObject.put("a", new JSELNumber(1));
+        lObject.put("a", new JSELNumber(2));
+        lObject.defineOwnProperty("b", new JSELNumber(3), true, false, true);
+        lObject.put(1, new JSELNumber(4));
+        lObject.delete("b");
+        lObject.delete(1);
+        lObject.delete("c");
+        assertEquals(asList("a", "a", "b", "1", "b", "1"), lChanges);
+
+        // arrays also report the length they update
+        lChanges.clear();
+        JSELArray lArray = new JSELArray();
+        lArray.addChangeListener(lListener);
+        lArray.put(0, new JSELNumber(1));
+        lArray.put(JSELArray.LENGTH, new JSELNumber(0));
+        assertEquals(asList("0", "length", "length", "0"), lChanges);
+
+        lChanges.clear();
+        lObject.removeChangeListener(lListener);
+        lObject.put("a", new JSELNumber(5));
+        assertTrue(lChanges.isEmpty());
+    }
+}
@@ -25,6 +25,7 @@ import org.junit.Test;
 
 import java.util.EnumSet;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static java.util.Collections.singleton;
 import static org.junit.Assert.*;
@@ -183,4 +184,74 @@ public class JSELRegExpTest {
         JSELRegExp empty = new JSELRegExp(null);
         assertEquals("/(?:)/", empty.toString());
     }
+
+    @Test
+    public void testLastIndex() {
+        assertEquals(0, regexAs.getLastIndex());
+        regexAs.setLastIndex(3);
+        assertEquals(3, regexAs.getLastIndex());
+        assertEquals(3, regexAs.get(JSELRegExp.LAST_INDEX).toInteger());
+
+        regexAs.defineOwnProperty(JSELRegExp.LAST_INDEX, new JSELString("2"),
+                null, null, null);
+        assertEquals(2, regexAs.getLastIndex());
+
+        regexAs.defineOwnProperty(JSELRegExp.LAST_INDEX, null,
+                null, false, null);
+        try {
+            regexAs.setLastIndex(0);
+            fail();
+        } catch (JSELRuntimeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMatcher() {
+        RegExpMatcher lMatcher = wordsFollowedNumbers.matcher("ab12 c3");
+        assertTrue(lMatcher.find(0));
+        assertEquals(0, lMatcher.start());
+        assertEquals(4, lMatcher.end());
+        assertEquals(2, lMatcher.groupCount());
+        assertEquals("12", lMatcher.group(2));
+
+        assertTrue(lMatcher.find(lMatcher.end()));
+        assertEquals("c", lMatcher.group(1));
+        assertEquals(5, lMatcher.start(1));
+
+        JSELArray lCaptures = lMatcher.toCapturesArray();
+        assertEquals(3, lCaptures.get(JSELArray.LENGTH).toInteger());
+        assertEquals("c3", lCaptures.get(0).toString());
+        assertEquals("3", lCaptures.get(2).toString());
+
+        assertFalse(lMatcher.find(lMatcher.end()));
+        assertNull(regexAs.matcher("bbb").findAll());
+        assertEquals(2, regexAs.matcher("abaa").findAll()
+                .get(JSELArray.LENGTH).toInteger());
+    }
+
+    @Test
+    public void testLiteral() {
+        Supplier<JSELRegExp> lLiteral = JSELRegExp.literal("a+", "gi");
+        JSELRegExp lRegExp1 = lLiteral.get();
+        JSELRegExp lRegExp2 = lLiteral.get();
+        assertNotSame(lRegExp1, lRegExp2);
+        assertSame(lRegExp1.getPattern(), lRegExp2.getPattern());
+        assertEquals("/a+/gi", lRegExp1.toString());
+        assertTrue(lRegExp1.getFlags().contains(Flag.IGNORE_CASE));
+
+        // instances created elsewhere share compiled patterns too
+        assertSame(new JSELRegExp("(a+)", EnumSet.of(Flag.IGNORE_CASE))
+                        .getPattern(),
+                capturingAsIgnoreCase.getPattern());
+
+        try {
+            JSELRegExp.literal("a(", "");
+            fail();
+        }
+        catch (JSELRuntimeException e) {
+            assertEquals("SyntaxError: Invalid regular expression: /a(/: "
+                    + "Unclosed group", e.getMessage());
+        }
+    }
 }
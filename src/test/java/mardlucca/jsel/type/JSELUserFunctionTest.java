@@ -19,14 +19,23 @@
 package mardlucca.jsel.type;
 
 import mardlucca.jsel.builtin.object.ObjectConstructor;
+import mardlucca.jsel.builtin.object.ObjectPrototype;
 import mardlucca.jsel.env.DeclarativeEnvironmentRecord;
 import mardlucca.jsel.env.ExecutionContext;
 import mardlucca.jsel.expr.JSELExpression;
+import mardlucca.jsel.type.JSELObject.PropertyDescriptor;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
@@ -96,6 +105,54 @@ public class JSELUserFunctionTest {
                 lF1.call(lThisBind, singletonList(lP1), executionContext));
     }
 
+    @Test
+    public void callTestFixedArity() {
+        JSELValue lP1 = new JSELNumber(1);
+        JSELValue lP2 = new JSELNumber(2);
+        JSELValue lP3 = new JSELNumber(3);
+        JSELValue lUndefined = JSELUndefined.getInstance();
+        JSELObject lThisBind = new JSELObject();
+
+        assertEquals(JSELBoolean.TRUE, newFunction(lThisBind, lUndefined,
+                lUndefined).call0(lThisBind, executionContext));
+        assertEquals(JSELBoolean.TRUE, newFunction(lThisBind, lP1,
+                lUndefined).call1(lThisBind, lP1, executionContext));
+        assertEquals(JSELBoolean.TRUE, newFunction(lThisBind, lP1, lP2)
+                .call2(lThisBind, lP1, lP2, executionContext));
+        assertEquals(JSELBoolean.TRUE, newFunction(lThisBind, lP1, lP2)
+                .call3(lThisBind, lP1, lP2, lP3, executionContext));
+        assertEquals(JSELBoolean.TRUE, newFunction(lThisBind, lP1, lP2)
+                .callN(lThisBind, new JSELValue[] { lP1, lP2, lP3, lP3 },
+                        executionContext));
+
+        // arguments from a range of an array
+        JSELUserFunction lF1 = newFunction(lThisBind, lP2, lUndefined);
+        lF1.enter(lThisBind, new JSELValue[] { lP1, lP2 }, 1,
+                executionContext);
+        try {
+            assertEquals(JSELBoolean.TRUE,
+                    lF1.getExpression().execute(executionContext));
+        }
+        finally {
+            executionContext.pop();
+        }
+
+        assertEquals(JSELUndefined.getInstance(),
+                executionContext.resolve("p1"));
+    }
+
+    private JSELUserFunction newFunction(JSELObject aInThisBind,
+            JSELValue aInP1, JSELValue aInP2) {
+        return new JSELUserFunction(
+                asList("p1", "p2"),
+                new AssertExpression()
+                        .expect("p1", aInP1)
+                        .expect("p2", aInP2)
+                        .thisBind(aInThisBind)
+                        .returnValue(JSELBoolean.TRUE),
+                executionContext.getEnvironmentRecord());
+    }
+
     @Test
     public void toStringTest() {
         assertEquals("f noParamFn() { [source code] }", noParamFn.toString());
@@ -135,6 +192,81 @@ public class JSELUserFunctionTest {
         }
     }
 
+    @Test
+    public void testTemplate() {
+        JSELUserFunction.Template lTemplate = new JSELUserFunction.Template(
+                asList("a", "b"),
+                aInContext -> aInContext.resolve("b"));
+        JSELObject lFunctionPrototype =
+                executionContext.getGlobalObject().getFunctionPrototype();
+        JSELUserFunction lF1 = new JSELUserFunction(lFunctionPrototype,
+                lTemplate, executionContext.getEnvironmentRecord());
+        JSELUserFunction lF2 = new JSELUserFunction(lFunctionPrototype,
+                lTemplate, executionContext.getEnvironmentRecord());
+
+        assertEquals(new JSELNumber(2), lF1.call2(thisBinding,
+                new JSELNumber(1), new JSELNumber(2), executionContext));
+        assertSame(lFunctionPrototype, lF1.getPrototype());
+        assertEquals(asList("a", "b"), lF1.getParameters());
+
+        // own properties are the same as if created eagerly
+        assertEquals(
+                new HashSet<>(asList(JSELFunction.LENGTH,
+                        JSELFunction.PROTOTYPE)),
+                lF1.getOwnPropertyNames());
+        PropertyDescriptor lLength = lF1.getOwnProperty(JSELFunction.LENGTH);
+        assertEquals(new JSELNumber(2), lLength.getValue());
+        assertFalse(lLength.isWritable());
+        assertFalse(lLength.isConfigurable());
+        PropertyDescriptor lPrototype =
+                lF2.getOwnProperty(JSELFunction.PROTOTYPE);
+        assertTrue(lPrototype.isWritable());
+        assertFalse(lPrototype.isEnumerable());
+        assertFalse(lPrototype.isConfigurable());
+        JSELObject lPrototypeObject = lPrototype.getValue().toObject();
+        assertSame(lF2, lPrototypeObject.get(
+                ObjectPrototype.CONSTRUCTOR_PROPERTY));
+        assertSame(executionContext.getGlobalObject().getObjectPrototype(),
+                lPrototypeObject.getPrototype());
+
+        // each function gets its own prototype object
+        assertNotSame(lPrototypeObject, lF1.get(JSELFunction.PROTOTYPE));
+    }
+
+    @Test
+    public void testTemplateConcurrentReads() throws Exception {
+        JSELUserFunction.Template lTemplate = new JSELUserFunction.Template(
+                asList("a", "b"),
+                aInContext -> aInContext.resolve("b"));
+        JSELObject lFunctionPrototype =
+                executionContext.getGlobalObject().getFunctionPrototype();
+        int lThreads = 4;
+        ExecutorService lExecutor = Executors.newFixedThreadPool(lThreads);
+        try {
+            for (int i = 0; i < 200; i++) {
+                JSELUserFunction lFunction = new JSELUserFunction(
+                        lFunctionPrototype, lTemplate,
+                        executionContext.getEnvironmentRecord());
+                CyclicBarrier lBarrier = new CyclicBarrier(lThreads);
+                List<Future<JSELValue>> lLengths = new ArrayList<>();
+                for (int j = 0; j < lThreads; j++) {
+                    lLengths.add(lExecutor.submit(() -> {
+                        lBarrier.await();
+                        return lFunction.getOwnProperty(JSELFunction.LENGTH)
+                                .getValue();
+                    }));
+                }
+                for (Future<JSELValue> lLength : lLengths) {
+                    assertEquals(new JSELNumber(2), lLength.get());
+                }
+                assertEquals(2, lFunction.getOwnPropertyNames().size());
+            }
+        }
+        finally {
+            lExecutor.shutdown();
+        }
+    }
+
     public class AssertExpression implements JSELExpression {
         private Map<String, JSELValue> expectedArguments = new HashMap<>();
         private JSELValue returnValue;
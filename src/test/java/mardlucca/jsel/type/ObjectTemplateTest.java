@@ -0,0 +1,122 @@
+/*
+ * File: ObjectTemplateTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.type;
+
+import mardlucca.jsel.env.ExecutionContext;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class ObjectTemplateTest {
+    private JSELObject objectPrototype =
+            new ExecutionContext().getGlobalObject().getObjectPrototype();
+    private ObjectTemplate template =
+            new ObjectTemplate(asList("b", "a"));
+
+    @Test
+    public void testGet() {
+        JSELValue[] lValues = { new JSELNumber(1), new JSELString("2") };
+        JSELObject lObject = template.instantiate(objectPrototype, lValues);
+        assertSame(objectPrototype, lObject.getPrototype());
+        assertEquals(new JSELNumber(1), lObject.get("b"));
+        assertEquals(new JSELString("2"), lObject.get("a"));
+        assertEquals(JSELUndefined.getInstance(), lObject.get("c"));
+        assertNotNull(lObject.get("toString"));
+        assertNull(lObject.getOwnProperty("toString"));
+    }
+
+    @Test
+    public void testProperties() {
+        JSELValue[] lValues = { new JSELNumber(1), new JSELString("2") };
+        JSELObject lObject1 = template.instantiate(objectPrototype, lValues);
+        JSELObject lObject2 = template.instantiate(objectPrototype, lValues);
+
+        assertEquals(asList("b", "a"),
+                Arrays.asList(lObject1.getOwnPropertyNames().toArray()));
+        JSELObject.PropertyDescriptor lDescriptor =
+                lObject1.getOwnProperty("a");
+        assertTrue(lDescriptor.isEnumerable());
+        assertTrue(lDescriptor.isWritable());
+        assertTrue(lDescriptor.isConfigurable());
+
+        // changes are not seen by other objects sharing the values
+        lObject1.put("b", new JSELNumber(3));
+        lObject1.put("c", new JSELNumber(4));
+        assertTrue(lObject1.delete("a"));
+        assertEquals(asList("b", "c"),
+                Arrays.asList(lObject1.getOwnPropertyNames().toArray()));
+        assertEquals(new JSELNumber(3), lObject1.get("b"));
+        assertEquals(new JSELNumber(1), lObject2.get("b"));
+        assertEquals(new JSELString("2"), lObject2.get("a"));
+        assertEquals(new JSELNumber(1), lValues[0]);
+
+        // a new property is added after the template's ones
+        lObject2.put("c", new JSELNumber(4));
+        assertEquals(asList("b", "a", "c"),
+                Arrays.asList(lObject2.getOwnPropertyNames().toArray()));
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        JSELValue[] lValues = { new JSELNumber(1), new JSELString("2") };
+        int lThreads = 4;
+        ExecutorService lExecutor = Executors.newFixedThreadPool(lThreads);
+        try {
+            for (int i = 0; i < 200; i++) {
+                JSELObject lObject =
+                        template.instantiate(objectPrototype, lValues);
+                CyclicBarrier lBarrier = new CyclicBarrier(lThreads);
+                List<Future<Boolean>> lResults = new ArrayList<>();
+                for (int j = 0; j < lThreads; j++) {
+                    lResults.add(lExecutor.submit(() -> {
+                        lBarrier.await();
+                        return lObject.hasOwnProperty("a")
+                                && lObject.hasProperty("b")
+                                && lObject.get("a").equals(lValues[1]);
+                    }));
+                }
+                for (Future<Boolean> lResult : lResults) {
+                    assertTrue(lResult.get());
+                }
+            }
+        }
+        finally {
+            lExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testIndexed() {
+        JSELObject lObject = new ObjectTemplate(asList("x", "1"))
+                .instantiate(objectPrototype,
+                        new JSELValue[] { JSELNull.getInstance(),
+                                JSELBoolean.TRUE });
+        assertEquals(JSELBoolean.TRUE, lObject.get(1));
+        assertEquals(JSELBoolean.TRUE, lObject.get("1"));
+        assertEquals(JSELNull.getInstance(), lObject.get("x"));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * File: DateArithmeticTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.util;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static mardlucca.jsel.util.DateArithmetic.dateFromTime;
+import static mardlucca.jsel.util.DateArithmetic.day;
+import static mardlucca.jsel.util.DateArithmetic.getOffset;
+import static mardlucca.jsel.util.DateArithmetic.hourFromTime;
+import static mardlucca.jsel.util.DateArithmetic.localTime;
+import static mardlucca.jsel.util.DateArithmetic.makeDate;
+import static mardlucca.jsel.util.DateArithmetic.makeDay;
+import static mardlucca.jsel.util.DateArithmetic.makeTime;
+import static mardlucca.jsel.util.DateArithmetic.minFromTime;
+import static mardlucca.jsel.util.DateArithmetic.monthFromTime;
+import static mardlucca.jsel.util.DateArithmetic.msFromTime;
+import static mardlucca.jsel.util.DateArithmetic.secFromTime;
+import static mardlucca.jsel.util.DateArithmetic.timeClip;
+import static mardlucca.jsel.util.DateArithmetic.timeWithinDay;
+import static mardlucca.jsel.util.DateArithmetic.utc;
+import static mardlucca.jsel.util.DateArithmetic.weekDay;
+import static mardlucca.jsel.util.DateArithmetic.yearFromTime;
+import static org.junit.Assert.assertEquals;
+
+public class DateArithmeticTest {
+    private static TimeZone defaultTimezone;
+
+    @BeforeClass
+    public static void beforeClass() {
+        defaultTimezone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        TimeZone.setDefault(defaultTimezone);
+    }
+
+    @Test
+    public void testFields() {
+        Random lRandom = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            // about 20000 years around the epoch
+            long lTime = (long) ((lRandom.nextDouble() - 0.5) * 6.4e14);
+            ZonedDateTime lExpected = Instant.ofEpochMilli(lTime)
+                    .atZone(ZoneOffset.UTC);
+
+            assertEquals(lExpected.getYear(), yearFromTime(lTime), 0);
+            assertEquals(lExpected.getMonthValue() - 1,
+                    monthFromTime(lTime), 0);
+            assertEquals(lExpected.getDayOfMonth(), dateFromTime(lTime), 0);
+            assertEquals(lExpected.getDayOfWeek().getValue() % 7,
+                    weekDay(lTime), 0);
+            assertEquals(lExpected.getHour(), hourFromTime(lTime), 0);
+            assertEquals(lExpected.getMinute(), minFromTime(lTime), 0);
+            assertEquals(lExpected.getSecond(), secFromTime(lTime), 0);
+            assertEquals(lExpected.getNano() / 1000000, msFromTime(lTime), 0);
+
+            assertEquals(lTime, makeDate(
+                    makeDay(yearFromTime(lTime), monthFromTime(lTime),
+                            dateFromTime(lTime)),
+                    makeTime(hourFromTime(lTime), minFromTime(lTime),
+                            secFromTime(lTime), msFromTime(lTime))), 0);
+            assertEquals(lTime, makeDate(day(lTime), timeWithinDay(lTime)),
+                    0);
+        }
+    }
+
+    @Test
+    public void testMake() {
+        // months and dates overflow into the following years and months
+        assertEquals(makeDay(2021, 1, 1), makeDay(2020, 13, 1), 0);
+        assertEquals(makeDay(2019, 11, 31), makeDay(2020, 0, 0), 0);
+        assertEquals(makeDay(2020, 2, 1), makeDay(2020, 1, 30), 0);
+        assertEquals(1582934400000.0, makeDate(makeDay(2020, 1, 29), 0), 0);
+        assertEquals(1582934400000.0 + 3723004,
+                makeDate(makeDay(2020, 1, 29), makeTime(1, 2, 3, 4.9)), 0);
+
+        assertEquals(Double.NaN, makeDay(Double.NaN, 0, 1), 0);
+        assertEquals(Double.NaN, makeTime(0, Double.POSITIVE_INFINITY, 0, 0),
+                0);
+        assertEquals(Double.NaN, makeDate(makeDay(1e10, 0, 1), 0), 0);
+
+        assertEquals(8.64e15, timeClip(8.64e15), 0);
+        assertEquals(Double.NaN, timeClip(8.64e15 + 1), 0);
+        assertEquals(1, timeClip(1.5), 0);
+        assertEquals(Double.POSITIVE_INFINITY, 1 / timeClip(-0.0), 0);
+    }
+
+    @Test
+    public void testLocalTime() {
+        TimeZone lZone = TimeZone.getDefault();
+        Random lRandom = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            // from 1907 to 2160, as java.util.TimeZone has no local mean
+            // time before zones were standardized
+            long lTime = (long) ((lRandom.nextDouble() - 0.33) * 6e12);
+            assertEquals(lZone.getOffset(lTime), getOffset(lTime), 0);
+        }
+
+        // 2020-03-08, when daylight saving time starts at 7:00 UTC
+        double lDay = makeDate(makeDay(2020, 2, 8), 0);
+        assertEquals(-5 * 3600000, getOffset(lDay + 6 * 3600000 + 59999), 0);
+        assertEquals(-4 * 3600000, getOffset(lDay + 7 * 3600000), 0);
+        assertEquals(1, hourFromTime(localTime(lDay + 6.5 * 3600000)), 0);
+        assertEquals(3, hourFromTime(localTime(lDay + 7.5 * 3600000)), 0);
+        assertEquals(lDay + 7.5 * 3600000, utc(lDay + 3.5 * 3600000), 0);
+        assertEquals(lDay + 5.5 * 3600000, utc(lDay + 0.5 * 3600000), 0);
+
+        // 2020-11-01, when it ends at 6:00 UTC, repeating 1:00 to 2:00
+        lDay = makeDate(makeDay(2020, 10, 1), 0);
+        assertEquals(lDay + 5.5 * 3600000, utc(lDay + 1.5 * 3600000), 0);
+        assertEquals(lDay + 7.5 * 3600000, utc(lDay + 2.5 * 3600000), 0);
+
+        // changing the default time zone is picked up
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        try {
+            assertEquals(0, getOffset(lDay), 0);
+        }
+        finally {
+            TimeZone.setDefault(lZone);
+        }
+        assertEquals(-4 * 3600000, getOffset(lDay), 0);
+    }
+}
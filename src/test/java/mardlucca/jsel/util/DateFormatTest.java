@@ -23,8 +23,12 @@ import org.junit.*;
 import java.time.ZoneOffset;
 import java.util.TimeZone;
 
+import static mardlucca.jsel.util.DateFormat.format;
 import static mardlucca.jsel.util.DateFormat.formatISO;
+import static mardlucca.jsel.util.DateFormat.formatUTC;
 import static mardlucca.jsel.util.DateFormat.parse;
+import static mardlucca.jsel.util.DateFormat.toDateString;
+import static mardlucca.jsel.util.DateFormat.toTimeString;
 import static org.junit.Assert.assertEquals;
 
 public class DateFormatTest {
@@ -126,4 +130,95 @@ public class DateFormatTest {
         assertEquals("2019-12-31T20:00:00.000Z",
                 formatISO(parse("2020+04:00")));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testParseNotISO() {
+        assertEquals(Double.NaN, parse(""), 0);
+        assertEquals(Double.NaN, parse("20"), 0);
+        assertEquals(Double.NaN, parse("2020-1-10"), 0);
+        assertEquals(Double.NaN, parse("2020-13"), 0);
+        assertEquals(Double.NaN, parse("2019-02-29"), 0);
+        assertEquals(Double.NaN, parse("2020-02-10T25:00"), 0);
+        assertEquals(Double.NaN, parse("2020-02-10T24:00:01"), 0);
+        assertEquals(Double.NaN, parse("2020-02-10T12"), 0);
+        assertEquals(Double.NaN, parse("2020-02-10T12:00+5"), 0);
+        assertEquals(Double.NaN, parse("2020-02-10 "), 0);
+        assertEquals(Double.NaN, parse("+275760-09-13T00:00:00.001Z"), 0);
+    }
+
+    @Test
+    public void testParseExpanded() {
+        assertEquals("2020-02-11T00:00:00.000Z",
+                formatISO(parse("2020-02-10T24:00Z")));
+        assertEquals("2020-02-10T12:00:00.123Z",
+                formatISO(parse("2020-02-10T12:00:00.1234Z")));
+        assertEquals("2020-02-10T12:00:00.100Z",
+                formatISO(parse("2020-02-10T12:00:00.1Z")));
+        assertEquals("+275760-09-13T00:00:00.000Z",
+                formatISO(parse("+275760-09-13T00:00:00Z")));
+        assertEquals("-000001-01-01T00:00:00.000Z",
+                formatISO(parse("-000001-01-01")));
+        assertEquals("0000-01-01T00:00:00.000Z",
+                formatISO(parse("+000000-01-01")));
+    }
+
+    @Test
+    public void testParseText() {
+        assertEquals("2020-02-29T13:14:15.000Z",
+                formatISO(parse("Sat, 29 Feb 2020 13:14:15 GMT")));
+        assertEquals("2020-02-29T13:14:15.000Z",
+                formatISO(parse("Sat Feb 29 2020 13:14:15 GMT")));
+        assertEquals("2020-02-29T13:14:15.000Z",
+                formatISO(parse(
+                        "Sat Feb 29 2020 08:14:15 GMT-0500 (GMT-05:00)")));
+        assertEquals("2020-02-29T18:14:00.000Z",
+                formatISO(parse("Feb 29 2020 13:14")));
+        assertEquals("2020-02-29T05:00:00.000Z",
+                formatISO(parse("Sat Feb 29 2020")));
+        assertEquals("2020-02-29T05:00:00.000Z",
+                formatISO(parse("29 feb 2020")));
+
+        assertEquals(Double.NaN, parse("Feb 30 2020"), 0);
+        assertEquals(Double.NaN, parse("Foo 10 2020"), 0);
+        assertEquals(Double.NaN, parse("Sat Feb 29 2020 13:14:15 GMT+5"), 0);
+        assertEquals(Double.NaN, parse("Sat Feb 29 2020 bar"), 0);
+    }
+
+    @Test
+    public void testParseCached() {
+        // local times follow changes to the default time zone
+        assertEquals("2020-02-10T17:23:00.000Z",
+                formatISO(parse("2020-02-10T12:23")));
+        TimeZone lZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        try {
+            assertEquals("2020-02-10T12:23:00.000Z",
+                    formatISO(parse("2020-02-10T12:23")));
+        }
+        finally {
+            TimeZone.setDefault(lZone);
+        }
+        assertEquals("2020-02-10T17:23:00.000Z",
+                formatISO(parse("2020-02-10T12:23")));
+    }
+
+    @Test
+    public void testFormat() {
+        double lTime = parse("2020-02-29T13:14:15.016Z");
+        assertEquals("Sat Feb 29 2020 08:14:15 GMT-0500 (GMT-05:00)",
+                format(lTime));
+        assertEquals("Sat, 29 Feb 2020 13:14:15 GMT", formatUTC(lTime));
+        assertEquals("2020-02-29T13:14:15.016Z", formatISO(lTime));
+        assertEquals("Sat Feb 29 2020", toDateString(lTime));
+        assertEquals("08:14:15 GMT-0500 (GMT-05:00)", toTimeString(lTime));
+
+        lTime = parse("-000001-01-01T00:00:00Z");
+        assertEquals("Fri, 01 Jan -0001 00:00:00 GMT", formatUTC(lTime));
+        assertEquals("-000001-01-01T00:00:00.000Z", formatISO(lTime));
+
+        assertEquals("Invalid Date", format(Double.NaN));
+        assertEquals("Invalid Date", formatUTC(Double.NaN));
+        assertEquals("Invalid Date", toDateString(Double.NaN));
+        assertEquals("Invalid Date", toTimeString(Double.NaN));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * File: LinearRegExpTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mardlucca.jsel.util;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class LinearRegExpTest {
+    @Test
+    public void find() {
+        assertArrayEquals(new int[] { 1, 3 },
+                LinearRegExp.compile("b+", 0).find("abbc", 0));
+        assertArrayEquals(new int[] { 0, 4, 0, 1, 1, 4, 4, 4 },
+                LinearRegExp.compile("(a|ab)(c|bcd)(d*)", 0).find("abcd", 0));
+        assertArrayEquals(new int[] { 0, 2, 0, 1, -1, -1 },
+                LinearRegExp.compile("(a)?(b)?c?", 0).find("ac", 0));
+        assertArrayEquals(new int[] { 2, 5 },
+                LinearRegExp.compile("\\d+", 0).find("ab123", 1));
+        assertNull(LinearRegExp.compile("\\d+", 0).find("ab123", 5));
+        assertArrayEquals(new int[] { 0, 1 },
+                LinearRegExp.compile("a+?", 0).find("aaa", 0));
+        assertArrayEquals(new int[] { 5, 8 },
+                LinearRegExp.compile("\\bfoo\\b", 0).find("xfoo foo", 0));
+    }
+
+    @Test
+    public void flags() {
+        assertNull(LinearRegExp.compile("^b", 0).find("a\nb", 0));
+        assertArrayEquals(new int[] { 2, 3 },
+                LinearRegExp.compile("^b", Pattern.MULTILINE).find("a\nb", 0));
+        assertNull(LinearRegExp.compile("[a-c]+", 0).find("ABC", 0));
+        assertArrayEquals(new int[] { 0, 3 }, LinearRegExp.compile(
+                "[a-c]+", Pattern.CASE_INSENSITIVE).find("ABC", 0));
+    }
+
+    @Test
+    public void unsupported() {
+        assertNull(LinearRegExp.compile("(a)\\1", 0));
+        assertNull(LinearRegExp.compile("a(?=b)", 0));
+        assertNull(LinearRegExp.compile("a(?!b)", 0));
+        assertNull(LinearRegExp.compile("(a", 0));
+        assertNotNull(LinearRegExp.compile("a{1,100}", 0));
+    }
+
+    @Test
+    public void tooLarge() {
+        for (String lRegex : new String[] {
+                "a{100000}", "(x{1,999}){99}", "((a+)+$){1}(x{1,999}){99}" }) {
+            try {
+                LinearRegExp.compile(lRegex, 0);
+                fail(lRegex);
+            }
+            catch (IllegalArgumentException e) {
+                assertEquals("Regular expression too large", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void canonicalize() {
+        int lFlags = Pattern.CASE_INSENSITIVE;
+        assertArrayEquals(new int[] { 1, 2 },
+                LinearRegExp.compile("[a-z]+", lFlags).find("\u0130i", 0));
+        assertArrayEquals(new int[] { 1, 2 },
+                LinearRegExp.compile("i", lFlags).find("\u0130i", 0));
+        assertArrayEquals(new int[] { 0, 2 }, LinearRegExp.compile(
+                "[\u00e0-\u00ff]+", lFlags).find("\u00c0\u00e9", 0));
+        // non ASCII characters that upper case to ASCII ones
+        assertNull(LinearRegExp.compile("s", lFlags).find("\u017f", 0));
+        assertNull(LinearRegExp.compile("[k]", lFlags).find("\u212a", 0));
+        // characters whose upper case is more than one character
+        assertNull(LinearRegExp.compile("[S]", lFlags).find("\u00df", 0));
+        assertArrayEquals(new int[] { 0, 1 },
+                LinearRegExp.compile("[^S]", lFlags).find("\u00df", 0));
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * File: PatternCacheTest.java
+ *
+ * Copyright 2020 Marcio D. Lucca
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mardlucca.jsel.util;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class PatternCacheTest {
+    @Test
+    public void compile() {
+        Pattern lPattern = PatternCache.compile("a+b", 0);
+        assertEquals("a+b", lPattern.pattern());
+        assertSame(lPattern, PatternCache.compile("a+b", 0));
+        assertNotSame(lPattern,
+                PatternCache.compile("a+b", Pattern.CASE_INSENSITIVE));
+        assertEquals(Pattern.CASE_INSENSITIVE, PatternCache.compile(
+                "a+b", Pattern.CASE_INSENSITIVE).flags());
+    }
+
+    @Test
+    public void bounded() {
+        PatternCache.clear();
+        for (int i = 0; i < PatternCache.MAX_SIZE * 2; i++) {
+            PatternCache.compile("a{" + i + "}", 0);
+        }
+        assertEquals(PatternCache.MAX_SIZE, PatternCache.size());
+    }
+}